@@ -0,0 +1,37 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates the same input for every run so results can be compared
+ * between builds.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 2525;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @return "lon,lat lon,lat ..." running left to right across the given
+     * extent with a random north/south offset at each point.
+     */
+    static String controlPoints(int count, double left, double bottom, double width, double height) {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            double x = left + width * i / Math.max(1, count - 1);
+            double y = bottom + height * random.nextDouble();
+            sb.append(round(x)).append(',').append(round(y));
+        }
+        return sb.toString();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000000) / 1000000.0;
+    }
+}
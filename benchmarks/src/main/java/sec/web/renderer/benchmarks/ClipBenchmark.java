@@ -0,0 +1,75 @@
+package sec.web.renderer.benchmarks;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import JavaLineArray.POINT2;
+import JavaLineArray.TacticalLines;
+import JavaTacticalRenderer.TGLight;
+import RenderMultipoints.clsClipPolygon2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * clsClipPolygon2.ClipPolygon for a closed area and an open line that both
+ * wander in and out of the clip bounds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ClipBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int pointCount;
+
+    private final Rectangle2D clipBounds = new Rectangle2D.Double(0, 0, 1000, 1000);
+    private ArrayList<POINT2> area;
+    private ArrayList<POINT2> line;
+    private final TGLight tg = new TGLight();
+
+    @Setup
+    public void setup() {
+        //points on a circle around the clip bounds' center with a radius
+        //that takes them past the edges about half the time
+        Random random = new Random(2525);
+        area = new ArrayList<POINT2>(pointCount + 1);
+        line = new ArrayList<POINT2>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            double angle = 2 * Math.PI * i / pointCount;
+            double radius = 400 + 300 * random.nextDouble();
+            area.add(new POINT2(500 + radius * Math.cos(angle), 500 + radius * Math.sin(angle)));
+            line.add(new POINT2(-200 + 1400.0 * i / pointCount, 500 + 700 * (random.nextDouble() - 0.5)));
+        }
+        area.add(area.get(0));
+    }
+
+    @Benchmark
+    public ArrayList<Point2D> clipArea() {
+        //ClipPolygon replaces tg.Pixels with the clipped points
+        tg.set_LineType(TacticalLines.GENERAL);
+        tg.Pixels = new ArrayList<POINT2>(area);
+        return clsClipPolygon2.ClipPolygon(tg, clipBounds);
+    }
+
+    @Benchmark
+    public ArrayList<Point2D> clipLine() {
+        tg.set_LineType(TacticalLines.BOUNDARY);
+        tg.Pixels = new ArrayList<POINT2>(line);
+        return clsClipPolygon2.ClipPolygon(tg, clipBounds);
+    }
+}
@@ -0,0 +1,136 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.SECRenderer;
+
+/**
+ * Renders a mix of 2D, Google Earth and 3D multipoint graphics from several
+ * threads at once.  Every result is checked against the output rendered on
+ * one thread during setup and the run fails if any of them differ, so this
+ * doubles as a stress test for state shared between renders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class ConcurrentRenderBenchmark {
+
+    private static final String BBOX = "65.5,29.5,67.0,31.0";
+
+    /**
+     * boundary, general area, axis of advance main attack and rotary wing,
+     * cold front, seize, penetrate, follow and assume, direction of main
+     * attack and a sector range fan.  The 3D graphic is a ROZ.
+     */
+    private static final String[] SYMBOL_CODES = {
+        "GFGPGLB----K---", "GFGPGAG-------X", "GFGPOLAGM-----X", "GFGPOLAR------X",
+        "WA-DPFC----L---", "GFTPZ---------X", "GFTPP---------X", "GFTPA---------X",
+        "GFGPOLKGM-----X", "GFFPAXS-------X"
+    };
+
+    private static final int MODES = 4;
+
+    @State(Scope.Benchmark)
+    public static class Renders {
+
+        SECRenderer renderer;
+        String controlPoints;
+        String[] expected;
+        final AtomicInteger mismatches = new AtomicInteger();
+
+        @Setup
+        public void setup() {
+            renderer = SECRenderer.getInstance();
+            controlPoints = BenchmarkData.controlPoints(4, 66.26, 30.5, 0.3, 0.2);
+            expected = new String[SYMBOL_CODES.length * MODES];
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] = render(this, i);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void check() {
+            int count = mismatches.getAndSet(0);
+            if (count > 0) {
+                throw new IllegalStateException(count + " concurrent renders differed from the single threaded output");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Job {
+
+        private int next;
+
+        @Setup
+        public void setup() {
+            next = (int) (Thread.currentThread().getId() * 7);
+        }
+
+        int next(int count) {
+            next = (next + 1) % count;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public String renderMixed(Renders renders, Job job) {
+        int index = job.next(renders.expected.length);
+        String output = render(renders, index);
+        if (output.equals(renders.expected[index]) == false) {
+            renders.mismatches.incrementAndGet();
+        }
+        return output;
+    }
+
+    private static String render(Renders renders, int index) {
+        String symbolCode = SYMBOL_CODES[index % SYMBOL_CODES.length];
+        int symStd = index % 2;
+        switch (index / SYMBOL_CODES.length) {
+            case 0:
+                return renders.renderer.RenderMultiPointSymbol2D("id", "name", "description", symbolCode,
+                        renders.controlPoints, 1280, 1024, BBOX,
+                        "{\"modifiers\":{\"T\":\"T1\",\"USEDASHARRAY\":true}}", 1, symStd);
+            case 1:
+                return renders.renderer.RenderMultiPointSymbol("id", "name", "description", symbolCode,
+                        renders.controlPoints, "absolute", 50000.0, BBOX,
+                        "{\"modifiers\":{\"T\":\"T1\",\"USEDASHARRAY\":false}}", 0, symStd);
+            case 2:
+                return renders.renderer.RenderMultiPointSymbol("id", "name", "description", symbolCode,
+                        renders.controlPoints, "", 50000.0, BBOX,
+                        "{\"modifiers\":{\"T\":\"T1\",\"HIDEOPTIONALLABELS\":true}}", 2, symStd);
+            default:
+                return sortPolygons(renders.renderer.RenderMultiPointSymbol("id", "name", "description",
+                        "GFGPAAR-------X", renders.controlPoints, "relativeToGround", 50000.0, BBOX,
+                        "{\"modifiers\":{\"T\":\"T1\",\"X\":\"100,200\",\"altitudeDepth\":[100,200]}}", 0, 1));
+        }
+    }
+
+    /**
+     * The 3D renderer doesn't write its polygons in the same order every
+     * time, even on one thread.
+     */
+    private static String sortPolygons(String kml) {
+        String[] parts = kml.split("(?=<Polygon)|(?<=</Polygon>)");
+        Arrays.sort(parts);
+        return Arrays.toString(parts);
+    }
+}
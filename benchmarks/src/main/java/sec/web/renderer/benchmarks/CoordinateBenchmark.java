@@ -0,0 +1,82 @@
+package sec.web.renderer.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.utilities.CoordinateParser;
+import sec.web.renderer.utilities.CoordinateWriter;
+
+/**
+ * Parsing controlPoints strings and writing coordinate output, each compared
+ * with the String.split / StringBuilder.append(double) code it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CoordinateBenchmark {
+
+    @Param({"10", "1000"})
+    public int pointCount;
+
+    private String controlPoints;
+    private double[] coordinates;
+    private final StringBuilder output = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        controlPoints = BenchmarkData.controlPoints(pointCount, 66.1, 30.3, 0.8, 0.4);
+        coordinates = CoordinateParser.parseCoordinates(controlPoints);
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = CoordinateWriter.round(coordinates[i] + 0.123456789);
+        }
+    }
+
+    @Benchmark
+    public double parseSplit() {
+        double sum = 0;
+        String[] pairs = controlPoints.split(" ");
+        for (int i = 0; i < pairs.length; i++) {
+            String[] pair = pairs[i].split(",");
+            sum += Double.valueOf(pair[0].trim()) + Double.valueOf(pair[1].trim());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double[] parseCoordinateParser() {
+        return CoordinateParser.parseCoordinates(controlPoints);
+    }
+
+    @Benchmark
+    public int writeStringBuilder() {
+        output.setLength(0);
+        for (int i = 0; i < coordinates.length; i += 2) {
+            output.append(coordinates[i]).append(',').append(coordinates[i + 1]).append(' ');
+        }
+        return output.length();
+    }
+
+    @Benchmark
+    public int writeCoordinateWriter() throws IOException {
+        output.setLength(0);
+        for (int i = 0; i < coordinates.length; i += 2) {
+            CoordinateWriter.appendPair(output, coordinates[i], coordinates[i + 1]);
+            output.append(' ');
+        }
+        return output.length();
+    }
+}
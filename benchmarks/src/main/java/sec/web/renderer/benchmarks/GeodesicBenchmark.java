@@ -0,0 +1,113 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import JavaLineArray.POINT2;
+import JavaLineArray.TacticalLines;
+import JavaTacticalRenderer.mdlGeodesic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * mdlGeodesic distance, azimuth, forward coordinate and segmenting over a
+ * fixed set of geographic points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GeodesicBenchmark {
+
+    @Param({"100", "1000"})
+    public int pointCount;
+
+    private POINT2[] points;
+    private ArrayList<POINT2> geoPoints;
+    private double[] lons;
+    private double[] lats;
+    private double[] azimuths;
+    private double[] outLons;
+    private double[] outLats;
+    private double[] distances;
+    private double[] segmentAzimuths;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(2525);
+        points = new POINT2[pointCount];
+        geoPoints = new ArrayList<POINT2>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            points[i] = new POINT2(60 + 10 * random.nextDouble(), 25 + 10 * random.nextDouble());
+        }
+        lons = new double[pointCount];
+        lats = new double[pointCount];
+        azimuths = new double[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            lons[i] = points[i].x;
+            lats[i] = points[i].y;
+            azimuths[i] = 360.0 * i / pointCount;
+        }
+        outLons = new double[pointCount];
+        outLats = new double[pointCount];
+        distances = new double[pointCount];
+        segmentAzimuths = new double[pointCount];
+        //a route crossing the same extent for segmenting
+        for (int i = 0; i < pointCount; i++) {
+            geoPoints.add(new POINT2(60 + 10.0 * i / pointCount, 30 + random.nextDouble()));
+        }
+    }
+
+    @Benchmark
+    public void distance(Blackhole bh) {
+        for (int i = 1; i < points.length; i++) {
+            bh.consume(mdlGeodesic.geodesic_distance(points[i - 1], points[i], null, null));
+        }
+    }
+
+    @Benchmark
+    public double[] distanceBatch() {
+        //distance and azimuth together, compare with distance + azimuth
+        mdlGeodesic.geodesic_distances(lons, lats, pointCount, distances, segmentAzimuths);
+        return distances;
+    }
+
+    @Benchmark
+    public void azimuth(Blackhole bh) {
+        for (int i = 1; i < points.length; i++) {
+            bh.consume(mdlGeodesic.GetAzimuth(points[i - 1], points[i]));
+        }
+    }
+
+    @Benchmark
+    public void coordinate(Blackhole bh) {
+        for (int i = 0; i < points.length; i++) {
+            bh.consume(mdlGeodesic.geodesic_coordinate(points[i], 50000, 45));
+        }
+    }
+
+    @Benchmark
+    public double[] arcCoordinateBatch() {
+        mdlGeodesic.geodesic_arc_coordinates(points[0], 50000, azimuths, pointCount, outLons, outLats);
+        return outLats;
+    }
+
+    @Benchmark
+    public ArrayList<POINT2> segmentGeoPoints() {
+        //1km segments, about one new point between each pair at 1000 points
+        return mdlGeodesic.SegmentGeoPoints(geoPoints, 1000, TacticalLines.LINE);
+    }
+}
@@ -0,0 +1,88 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import sec.web.json.utilities.JSONArray;
+import sec.web.json.utilities.JSONException;
+import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
+
+/**
+ * Reading a multipoint modifiers string the way populateModifiers does,
+ * through a JSONObject tree and with JSONReader.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JSONReaderBenchmark {
+
+    private final String modifiers = "{\"modifiers\":{\"quantity\":\"12\",\"uniqueDesignation1\":\"ALPHA\","
+            + "\"uniqueDesignation2\":\"BRAVO\",\"dateTimeGroup1\":\"20260101T0000Z\",\"additionalInfo1\":\"extra info\","
+            + "\"altitudeDepth\":[100,2000],\"distance\":[500,1000,1500],\"azimuth\":[0,45,90,135,180,225],"
+            + "\"fillColor\":\"8000FF00\",\"lineColor\":\"FFFF0000\",\"lineThickness\":3,\"useDashArray\":false,"
+            + "\"ALTMODE\":\"absolute\",\"SIMPLIFY\":0.5}}";
+
+    private static final String[] LABELS = {"quantity", "uniqueDesignation1", "uniqueDesignation2",
+        "dateTimeGroup1", "additionalInfo1", "fillColor", "lineColor", "ALTMODE"};
+
+    @Benchmark
+    public void jsonObject(Blackhole bh) throws JSONException {
+        JSONObject json = new JSONObject(modifiers).getJSONObject("modifiers");
+        for (String label : LABELS) {
+            bh.consume(json.getString(label));
+        }
+        bh.consume(toList(json.getJSONArray("altitudeDepth")));
+        bh.consume(toList(json.getJSONArray("distance")));
+        bh.consume(toList(json.getJSONArray("azimuth")));
+        bh.consume(json.getInt("lineThickness"));
+        bh.consume(json.getBoolean("useDashArray"));
+        bh.consume(json.getDouble("SIMPLIFY"));
+    }
+
+    @Benchmark
+    public void jsonReader(Blackhole bh) throws JSONException {
+        JSONReader reader = new JSONReader(modifiers);
+        reader.beginObject();
+        reader.nextName();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            int token = reader.peek();
+            if (token == JSONReader.BEGIN_ARRAY) {
+                bh.consume(reader.nextDoubles());
+            } else if (name.equals("lineThickness")) {
+                bh.consume(reader.nextInt());
+            } else if (token == JSONReader.BOOLEAN) {
+                bh.consume(reader.nextBoolean());
+            } else if (token == JSONReader.NUMBER) {
+                bh.consume(reader.nextDouble());
+            } else {
+                bh.consume(reader.nextString());
+            }
+        }
+        reader.endObject();
+        reader.endObject();
+    }
+
+    private static ArrayList<Double> toList(JSONArray array) throws JSONException {
+        ArrayList<Double> values = new ArrayList<Double>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            values.add(array.getDouble(i));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,66 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.MultiPointHandler;
+
+/**
+ * MultiPointHandler.RenderSymbol (3D) and RenderSymbol2D for a line, an
+ * area, a METOC front and a channel graphic in each output format.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiPointBenchmark {
+
+    private static final String BBOX = "66.0,30.0,67.0,31.0";
+    private static final String MODIFIERS = "{\"modifiers\":{\"T\":\"T1\",\"W\":\"W1\"}}";
+
+    /**
+     * boundary, general area, cold front and main attack
+     */
+    @Param({"GFGPGLB----K---", "GFGPGAG-------X", "WA-DPFC----L---", "GFGPOLAGM-----X"})
+    public String symbolCode;
+
+    /**
+     * 0 KML, 1 JSON, 2 GeoJSON
+     */
+    @Param({"0", "1", "2"})
+    public int format;
+
+    @Param({"4", "50"})
+    public int pointCount;
+
+    private String controlPoints;
+
+    @Setup
+    public void setup() {
+        controlPoints = BenchmarkData.controlPoints(pointCount, 66.1, 30.3, 0.8, 0.4);
+    }
+
+    @Benchmark
+    public String renderSymbol() {
+        return MultiPointHandler.RenderSymbol("id", "name", "description", symbolCode,
+                controlPoints, 50000.0, BBOX, MODIFIERS, format, 0);
+    }
+
+    @Benchmark
+    public String renderSymbol2D() {
+        return MultiPointHandler.RenderSymbol2D("id", "name", "description", symbolCode,
+                controlPoints, 1280, 1024, BBOX, MODIFIERS, format, 0);
+    }
+}
@@ -0,0 +1,75 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.MultiPointEditSession;
+import sec.web.renderer.MultiPointHandler;
+
+/**
+ * Dragging an interior control point with MultiPointEditSession against
+ * calling RenderSymbol2D again for every move.  The phase line takes the
+ * patch path, the main attack is fully re-rendered either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiPointEditBenchmark {
+
+    private static final String BBOX = "66.0,30.0,67.0,31.0";
+    private static final String MODIFIERS = "{\"modifiers\":{\"T\":\"T1\",\"W\":\"W1\"}}";
+
+    /**
+     * phase line and main attack
+     */
+    @Param({"GFGPGLP-------X", "GFGPOLAGM-----X"})
+    public String symbolCode;
+
+    /**
+     * 0 KML, 1 JSON, 2 GeoJSON
+     */
+    @Param({"0", "1", "2"})
+    public int format;
+
+    @Param({"8", "50"})
+    public int pointCount;
+
+    private String controlPoints;
+    private MultiPointEditSession session;
+    private int index;
+    private int move;
+
+    @Setup
+    public void setup() {
+        controlPoints = BenchmarkData.controlPoints(pointCount, 66.1, 30.3, 0.8, 0.4);
+        session = new MultiPointEditSession("id", "name", "description", symbolCode,
+                controlPoints, 1280, 1024, BBOX, MODIFIERS, format, 0);
+        session.render();
+        index = pointCount / 2;
+    }
+
+    @Benchmark
+    public String moveControlPoint() {
+        move = (move + 1) % 100;
+        return session.moveControlPoint(index, 66.2 + move * 0.005, 30.5);
+    }
+
+    @Benchmark
+    public String renderSymbol2D() {
+        return MultiPointHandler.RenderSymbol2D("id", "name", "description", symbolCode,
+                controlPoints, 1280, 1024, BBOX, MODIFIERS, format, 0);
+    }
+}
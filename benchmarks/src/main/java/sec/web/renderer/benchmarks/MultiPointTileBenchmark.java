@@ -0,0 +1,70 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.MultiPointTileRenderer;
+
+/**
+ * Rendering a zoom 10 tile from a set of loaded phase lines, with the tile
+ * cache emptied first and with it warm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MultiPointTileBenchmark {
+
+    private static final int ZOOM = 10;
+
+    /**
+     * graphics loaded across a 2 degree square
+     */
+    @Param({"10", "1000"})
+    public int graphicCount;
+
+    private MultiPointTileRenderer renderer;
+    private int tileX;
+    private int tileY;
+
+    @Setup
+    public void setup() {
+        renderer = MultiPointTileRenderer.getInstance();
+        renderer.ClearGraphics();
+        renderer.invalidate();
+        for (int i = 0; i < graphicCount; i++) {
+            double left = 65.0 + (i % 20) * 0.1;
+            double bottom = 29.0 + (i / 20 % 20) * 0.1;
+            renderer.LoadGraphic(String.valueOf(i), "GFGPGLP-------X",
+                    BenchmarkData.controlPoints(6, left, bottom, 0.3, 0.2),
+                    "{\"modifiers\":{\"T\":\"T" + i + "\"}}", 0);
+        }
+
+        double sin = Math.sin(Math.toRadians(29.1));
+        tileX = (int) Math.floor((65.2 + 180.0) / 360.0 * (1 << ZOOM));
+        tileY = (int) Math.floor((0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)) * (1 << ZOOM));
+    }
+
+    @Benchmark
+    public byte[] renderTile() {
+        renderer.invalidate();
+        return renderer.RenderTile(ZOOM, tileX, tileY).getPNG();
+    }
+
+    @Benchmark
+    public byte[] cachedTile() {
+        return renderer.RenderTile(ZOOM, tileX, tileY).getPNG();
+    }
+}
@@ -0,0 +1,73 @@
+package sec.web.renderer.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.ModifiersUnits;
+import ArmyC2.C2SD.Utilities.PNGEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.SECRenderer;
+
+/**
+ * PNGEncoder against ImageIO on a rendered unit symbol.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PNGEncoderBenchmark {
+
+    /**
+     * symbol size in pixels
+     */
+    @Param({"50", "200"})
+    public String size;
+
+    /**
+     * deflate level, fast, default and small
+     */
+    @Param({"1", "4", "9"})
+    public int level;
+
+    private BufferedImage image;
+
+    @Setup
+    public void setup() {
+        Map<String, String> modifiers = new HashMap<String, String>();
+        modifiers.put(MilStdAttributes.PixelSize, size);
+        modifiers.put(ModifiersUnits.T_UNIQUE_DESIGNATION_1, "T1");
+        modifiers.put(ModifiersUnits.H_ADDITIONAL_INFO_1, "H1");
+        image = SECRenderer.getInstance().getMilStdSymbolImage("SFGPUCI----D---", modifiers).getImage();
+    }
+
+    @Benchmark
+    public byte[] pngEncoder() {
+        return PNGEncoder.encode(image, null, level);
+    }
+
+    @Benchmark
+    public byte[] imageIO() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", baos);
+        return baos.toByteArray();
+    }
+}
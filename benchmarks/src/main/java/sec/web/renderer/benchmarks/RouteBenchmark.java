@@ -0,0 +1,53 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.geo.kml.KmlOptions;
+import sec.web.renderer.Shape3DHandler;
+import sec.web.renderer.SymbolModifiers;
+
+/**
+ * 3D air corridor KML through Shape3DHandler.buildRoute, which is dominated
+ * by unioning the corridor blocks in Route.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RouteBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pointCount;
+
+    private String controlPoints;
+    private SymbolModifiers modifiers;
+
+    @Setup
+    public void setup() {
+        //a 1000km corridor, so segments get shorter as the point count grows
+        controlPoints = BenchmarkData.controlPoints(pointCount, 60.0, 30.0, 10.0, 0.05);
+        modifiers = new SymbolModifiers();
+        modifiers.AM_DISTANCE.add(5000.0);
+        modifiers.X_ALTITUDE_DEPTH.add(1000.0);
+        modifiers.X_ALTITUDE_DEPTH.add(3000.0);
+    }
+
+    @Benchmark
+    public String buildRoute() {
+        return Shape3DHandler.buildRoute(controlPoints, "id", "name", "description",
+                "ff0000ff", "7f00ff00", KmlOptions.AltitudeMode.ABSOLUTE, modifiers);
+    }
+}
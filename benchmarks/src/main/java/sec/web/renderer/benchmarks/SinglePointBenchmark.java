@@ -0,0 +1,96 @@
+package sec.web.renderer.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.ModifiersTG;
+import ArmyC2.C2SD.Utilities.ModifiersUnits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.SECRenderer;
+import sec.web.renderer.utilities.PNGInfo;
+
+/**
+ * Single point rendering: a unit, a single point tactical graphic and PNG
+ * encoding of a rendered symbol.  Units and tactical graphics are also run
+ * on 8 and 32 threads to show contention on the glyph caches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SinglePointBenchmark {
+
+    private static final String UNIT = "SFGPUCI----D---";
+    private static final String TACTICAL_GRAPHIC = "GFGPGPP-------X";
+
+    private Map<String, String> unitModifiers;
+    private Map<String, String> tgModifiers;
+    private PNGInfo image;
+
+    @Setup
+    public void setup() {
+        unitModifiers = new HashMap<String, String>();
+        unitModifiers.put(MilStdAttributes.PixelSize, "50");
+        unitModifiers.put(ModifiersUnits.T_UNIQUE_DESIGNATION_1, "T1");
+        unitModifiers.put(ModifiersUnits.H_ADDITIONAL_INFO_1, "H1");
+
+        tgModifiers = new HashMap<String, String>();
+        tgModifiers.put(MilStdAttributes.PixelSize, "50");
+        tgModifiers.put(ModifiersTG.T_UNIQUE_DESIGNATION_1, "T1");
+
+        image = SECRenderer.getInstance().getMilStdSymbolImage(UNIT, unitModifiers);
+    }
+
+    @Benchmark
+    public PNGInfo unit() {
+        return SECRenderer.getInstance().getMilStdSymbolImage(UNIT, unitModifiers);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public PNGInfo unitThreads8() {
+        return unit();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public PNGInfo unitThreads32() {
+        return unit();
+    }
+
+    @Benchmark
+    public PNGInfo tacticalGraphic() {
+        return SECRenderer.getInstance().getMilStdSymbolImage(TACTICAL_GRAPHIC, tgModifiers);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public PNGInfo tacticalGraphicThreads8() {
+        return tacticalGraphic();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public PNGInfo tacticalGraphicThreads32() {
+        return tacticalGraphic();
+    }
+
+    @Benchmark
+    public byte[] pngEncode() {
+        return image.getImageAsByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package sec.web.renderer.benchmarks;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ArmyC2.C2SD.RendererPluginInterface.ISinglePointInfo;
+import ArmyC2.C2SD.Utilities.RendererSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sec.web.renderer.AreaSymbolFill;
+import sec.web.renderer.SymbolFill;
+import sec.web.renderer.utilities.FillStampCache;
+
+/**
+ * AreaSymbolFill area and line fills of an obstacle belt shaped polygon,
+ * with the fill stamp cache on and off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SymbolFillBenchmark {
+
+    /**
+     * points in the outline
+     */
+    @Param({"8", "64"})
+    public int points;
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private SymbolFill areaFill;
+    private SymbolFill lineFill;
+
+    @Setup
+    public void setup() {
+        List<Point2D> outline = new ArrayList<Point2D>();
+        for (int i = 0; i < points; i++) {
+            double angle = 2 * Math.PI * i / points;
+            double radius = (i % 2 == 0) ? 400 : 300;
+            outline.add(new Point2D.Double((int) (450 + Math.cos(angle) * radius),
+                    (int) (450 + Math.sin(angle) * radius)));
+        }
+        outline.add(outline.get(0));
+        String[] ids = {"SFGPUCI----K---", "SHGPUCA----K---"};
+        areaFill = new SymbolFill(outline, ids, null, AreaSymbolFill.DEFAULT_SYMBOL_SIZE,
+                RendererSettings.Symbology_2525C, null, 900, 900);
+        lineFill = new SymbolFill(outline, null, ids, AreaSymbolFill.DEFAULT_SYMBOL_SIZE,
+                RendererSettings.Symbology_2525C, null, 900, 900);
+        FillStampCache.getInstance().setEnabled(cached);
+    }
+
+    @Benchmark
+    public ISinglePointInfo areaFill() {
+        return AreaSymbolFill.renderSymbolFill(areaFill);
+    }
+
+    @Benchmark
+    public ISinglePointInfo lineFill() {
+        return AreaSymbolFill.renderSymbolFill(lineFill);
+    }
+}
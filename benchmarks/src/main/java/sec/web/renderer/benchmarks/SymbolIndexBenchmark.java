@@ -0,0 +1,97 @@
+package sec.web.renderer.benchmarks;
+
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ArmyC2.C2SD.Rendering.SymbolIndex;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.ShapeInfo;
+
+/**
+ * Finding the symbols in a 1280x1024 view of a 40000x40000 pixel map with
+ * SymbolIndex, against checking every symbol's bounds.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SymbolIndexBenchmark {
+
+    private static final int MAP_SIZE = 40000;
+
+    @Param({"1000", "50000"})
+    public int symbolCount;
+
+    private ArrayList<MilStdSymbol> symbols;
+    private SymbolIndex<MilStdSymbol> index;
+    private Rectangle[] views;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        symbols = new ArrayList<MilStdSymbol>(symbolCount);
+        for (int i = 0; i < symbolCount; i++) {
+            MilStdSymbol symbol = new MilStdSymbol("SFGPU----------", "id" + i, new ArrayList<Point2D.Double>(), null);
+            ArrayList<ShapeInfo> shapes = new ArrayList<ShapeInfo>();
+            shapes.add(new ShapeInfo(new Rectangle(random.nextInt(MAP_SIZE), random.nextInt(MAP_SIZE), 40, 40)));
+            symbol.setSymbolShapes(shapes);
+            symbols.add(symbol);
+        }
+        index = SymbolIndex.fromRendered(symbols);
+
+        views = new Rectangle[64];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = new Rectangle(random.nextInt(MAP_SIZE - 1280), random.nextInt(MAP_SIZE - 1024), 1280, 1024);
+        }
+    }
+
+    private Rectangle nextView() {
+        next = (next + 1) % views.length;
+        return views[next];
+    }
+
+    @Benchmark
+    public ArrayList<MilStdSymbol> linearScan() {
+        Rectangle view = nextView();
+        ArrayList<MilStdSymbol> found = new ArrayList<MilStdSymbol>();
+        for (MilStdSymbol symbol : symbols) {
+            if (symbol.getSymbolExtentFull().intersects(view)) {
+                found.add(symbol);
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public ArrayList<MilStdSymbol> indexIntersect() {
+        return index.intersect(nextView());
+    }
+
+    @Benchmark
+    public MilStdSymbol indexNearest() {
+        Rectangle view = nextView();
+        return index.nearest(new Point2D.Double(view.getCenterX(), view.getCenterY()));
+    }
+
+    @Benchmark
+    public SymbolIndex<MilStdSymbol> indexBuild() {
+        return SymbolIndex.fromRendered(symbols);
+    }
+}
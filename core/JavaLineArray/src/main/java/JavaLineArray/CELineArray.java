@@ -6,6 +6,7 @@
 package JavaLineArray;
 import java.util.ArrayList;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 /**
@@ -27,6 +28,9 @@ public final class CELineArray {
      * @param vblChannelWidth the channel width in pixels
      * @param usePtr currently being used as the distance from the this to the back of the arrowhead
      * @param shapes ShapeInfo object to return which will contain the GeneralPath for the line
+     * @param rev the Mil-Standard-2525 revision
+     * @param context the client the points are for, null for the client set
+     * by CELineArray.setClient
      * @return the point count for the return array
      */
     public static int CGetChannel2Double(double[] lpsaUpperVBPoints,
@@ -38,11 +42,14 @@ public final class CELineArray {
             int vblChannelWidth,
             int usePtr,
             ArrayList<Shape2>shapes,
-            int rev) throws Exception
+            int rev,
+            RenderContext context) throws Exception
     {
         int lResult = -1;
 
         try {
+            if(context==null)
+                context=Channels.getDefaultContext();
             lResult = Channels.GetChannel1Double(lpsaUpperVBPoints,
                     lpsaLowerVBPoints,
                     resultVBPoints,
@@ -52,7 +59,8 @@ public final class CELineArray {
                     vblChannelWidth,
                     usePtr,
                     shapes,
-                    rev);
+                    rev,
+                    context);
 
             //GC.Collect();
         } catch (Exception exc) {
@@ -61,6 +69,24 @@ public final class CELineArray {
         }
         return lResult;
     }
+    /**
+     * CGetChannel2Double for the client set by setClient.
+     */
+    public static int CGetChannel2Double(double[] lpsaUpperVBPoints,
+            double[] lpsaLowerVBPoints,
+            double[] resultVBPoints,
+            int vblUpperCounter,
+            int vblLowerCounter,
+            int vbiDrawThis,
+            int vblChannelWidth,
+            int usePtr,
+            ArrayList<Shape2>shapes,
+            int rev) throws Exception
+    {
+        return CGetChannel2Double(lpsaUpperVBPoints, lpsaLowerVBPoints, resultVBPoints,
+                vblUpperCounter, vblLowerCounter, vbiDrawThis, vblChannelWidth,
+                usePtr, shapes, rev, null);
+    }
     /**
     * public function to return the line count required for all of the symbols
     *
@@ -83,9 +109,8 @@ public final class CELineArray {
             int lPtrcntr = 0;
             int lLowerFlotCount = 0, lUpperFlotCount = 0;
             POINT2[] pLinePoints = new POINT2[lElements];
-            POINT2[] pLowerLinePoints = new POINT2[lElements],
-                    pUpperLinePoints = new POINT2[lElements],
-                    pUpperLowerLinePoints = new POINT2[2 * lElements + 2];
+            PointBuffer pLowerLinePoints = null,
+                    pUpperLinePoints = null;
             short i = 0;
             //end declarations
 
@@ -94,18 +119,12 @@ public final class CELineArray {
             }
 
             lineutility.InitializePOINT2Array(pLinePoints);
-            lineutility.InitializePOINT2Array(pUpperLinePoints);
-            lineutility.InitializePOINT2Array(pLowerLinePoints);
             for (i = 0; i < lElements; i++) {
                 pLinePoints[i].x = plArrayOfLongs[lPtrcntr];
                 lPtrcntr++;
                 pLinePoints[i].y = plArrayOfLongs[lPtrcntr];
                 lPtrcntr++;
             }
-            for (i = 0; i < lElements; i++) {
-                pLowerLinePoints[i] = new POINT2(pLinePoints[i]);
-                pUpperLinePoints[i] = new POINT2(pLinePoints[i]);
-            }
 
             switch (lineType) {
                 case TacticalLines.CHANNEL:
@@ -135,10 +154,13 @@ public final class CELineArray {
                     lResult = 2 * lElements + 19;
                     break;
                 case TacticalLines.LC:
-                    pUpperLinePoints = Channels.GetChannelArray2Double(1, pUpperLinePoints, 1, lElements, lineType, ChannelWidth);
-                    pLowerLinePoints = Channels.GetChannelArray2Double(1, pLowerLinePoints, 0, lElements, lineType, ChannelWidth);
-                    lUpperFlotCount = flot.GetFlotCountDouble(pUpperLinePoints, lElements);
-                    lLowerFlotCount = flot.GetFlotCountDouble(pLowerLinePoints, lElements);
+                    pUpperLinePoints = PointBuffer.obtain(lElements);
+                    pLowerLinePoints = PointBuffer.obtain(lElements);
+                    Channels.GetChannelArray2Double(1, pLinePoints, lElements, lineType, ChannelWidth, pUpperLinePoints, pLowerLinePoints);
+                    lUpperFlotCount = flot.GetFlotCountDouble(pUpperLinePoints);
+                    lLowerFlotCount = flot.GetFlotCountDouble(pLowerLinePoints);
+                    pUpperLinePoints.recycle();
+                    pLowerLinePoints.recycle();
                     lResult = lUpperFlotCount + lLowerFlotCount;
                     break;
                 default:
@@ -153,7 +175,6 @@ public final class CELineArray {
             pLinePoints = null;
             pLowerLinePoints = null;
             pUpperLinePoints = null;
-            pUpperLowerLinePoints = null;
             //GC.Collect();
         } catch (Exception exc) {
             ErrorLogger.LogException(_className ,"CGetLineCountDouble",
@@ -2547,15 +2568,23 @@ public final class CELineArray {
         }
         return lResult;
     }
-    private static String _client="";
+    /**
+     * @deprecated the client is passed to each render in its RenderContext,
+     * see RenderContext.setClient.  This only sets the client used when a
+     * caller passes no RenderContext.
+     */
+    @Deprecated
     public static void setClient(String value)
     {
-        _client=value;
         Channels.setClient(value);
     }
+    /**
+     * @deprecated see setClient
+     */
+    @Deprecated
     public static String getClient()
     {
-        return _client;
+        return Channels.getDefaultClient();
     }
 //    public static void setMinLength(double value)
 //    {
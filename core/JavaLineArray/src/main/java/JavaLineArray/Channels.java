@@ -7,6 +7,7 @@ package JavaLineArray;
 import java.awt.Color;
 import java.util.ArrayList;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 
@@ -18,11 +19,30 @@ public final class Channels {
     private static final double maxLength=100;//max arrow size
     private static final double minLength=5;	//max arrow size
     private static final String _className="Channels";
-    private static String _client="";
+    private static volatile String _client="";
+    /**
+     * @deprecated the client is passed to each render in its RenderContext.
+     * This only sets the client used when a caller passes no RenderContext.
+     */
+    @Deprecated
     public static void setClient(String value)
     {
+        if(value==null)
+            value="";
         _client=value;
     }
+    /**
+     * @return a context for the client set by setClient, for callers that
+     * passed no RenderContext
+     */
+    static RenderContext getDefaultContext()
+    {
+        return new RenderContext(_client);
+    }
+    static String getDefaultClient()
+    {
+        return _client;
+    }
 //    private static String _affiliation="";
 //    public static void setAffiliation(String value)
 //    {
@@ -37,10 +57,17 @@ public final class Channels {
     {
         return _shiftLines;
     }
-    private static CChannelPoints2[] ConnectArrayTrueDouble(int  nWidth,
+    /**
+     * Calculates both channel lines for the first nCounter+1 points.
+     *
+     * @param pLine1 OUT - gets the lower channel line, must hold nCounter+1 points
+     * @param pLine2 OUT - gets the upper channel line, must hold nCounter+1 points
+     */
+    private static void ConnectArrayTrueDouble(int  nWidth,
                                                     int  nCounter,
-                                                    POINT2[] pLinePoints,
-                                                    CChannelPoints2[] pResultChannelPoints)
+                                                    PointBuffer pLinePoints,
+                                                    PointBuffer pLine1,
+                                                    PointBuffer pLine2)
 
     {
         try
@@ -53,19 +80,19 @@ public final class Channels {
                     nDiff2Y = 0;
             int	nLast = 0;
             int lOrient=0;
-            POINT2  LinePoint1 = new POINT2(pLinePoints[0]),
-                    LinePoint2 = new POINT2(pLinePoints[0]),
-                    LinePoint3 = new POINT2(pLinePoints[0]);
-
-            //POINT2 EndPoint1=new POINT2(pLinePoints[0]);
-            //POINT2 EndPoint2=new POINT2(pLinePoints[0]);
-            CChannelPoints2  ResultChannelPoint=new CChannelPoints2();
+            //reused for every vertex
+            POINT2  LinePoint1 = new POINT2(),
+                    LinePoint2 = new POINT2(),
+                    LinePoint3 = new POINT2();
             //end declarations
 
+            if(nCounter < 1 || pLinePoints.size() <= nCounter)
+                return;
+
             //must establish nLast before we get the first channel end point
-            //put first GetEndPoint into the pResultChannelPoints array
-            LinePoint1 = new POINT2(pLinePoints[0]);
-            LinePoint2 = new POINT2(pLinePoints[1]);
+            //put first GetEndPoint into the channel lines
+            pLinePoints.copyTo(0, LinePoint1);
+            pLinePoints.copyTo(1, LinePoint2);
             nDiff1X = LinePoint2.x - LinePoint1.x;
             nDiff1Y = LinePoint2.y - LinePoint1.y;
             if(nDiff1X==0)
@@ -91,17 +118,16 @@ public final class Channels {
             if(nDiff1X>0 && nDiff1Y<0)
                 nLast=0;
 
-            ResultChannelPoint = GetTrueEndPointDouble(nWidth,pLinePoints[0],pLinePoints[1],nLast);
-            pResultChannelPoints[0] = new CChannelPoints2(ResultChannelPoint);
+            GetTrueEndPointDouble(nWidth,LinePoint1,LinePoint2,nLast,pLine1,pLine2,0);
             //initialize nLast depending on the first 1 or 2 segments
 
             //stuff the array
             //nLast needs to indicate if the last segment2 had line1 above or below it
             for(nPointCounter=1;nPointCounter < nCounter;nPointCounter++)
             {
-                LinePoint1 = new POINT2(pLinePoints[nPointCounter-1]);
-                LinePoint2 = new POINT2(pLinePoints[nPointCounter]);
-                LinePoint3 = new POINT2(pLinePoints[nPointCounter+1]);
+                pLinePoints.copyTo(nPointCounter-1, LinePoint1);
+                pLinePoints.copyTo(nPointCounter, LinePoint2);
+                pLinePoints.copyTo(nPointCounter+1, LinePoint3);
                 nDiff1X = LinePoint2.x - LinePoint1.x;
                 nDiff2X = LinePoint3.x - LinePoint2.x;
                 nDiff1Y = LinePoint2.y - LinePoint1.y;
@@ -376,8 +402,8 @@ public final class Channels {
                 }
 
                 //get the channel points based on the desired orientation
-                pResultChannelPoints[nPointCounter] = ConnectTrueDouble2(nWidth,LinePoint1,
-                        LinePoint2,LinePoint3,lOrient);
+                ConnectTrueDouble2(nWidth,LinePoint1,
+                        LinePoint2,LinePoint3,lOrient,pLine1,pLine2,nPointCounter);
 
                 //2nd segment vertical
                 if(nDiff2X==0)
@@ -460,10 +486,10 @@ public final class Channels {
                 }
             }	//end for
 
-            ResultChannelPoint = GetTrueEndPointDouble(nWidth, pLinePoints[nCounter],
-                pLinePoints[nCounter - 1],nLast);
-
-            pResultChannelPoints[nCounter] = new CChannelPoints2(ResultChannelPoint);
+            pLinePoints.copyTo(nCounter, LinePoint1);
+            pLinePoints.copyTo(nCounter - 1, LinePoint2);
+            GetTrueEndPointDouble(nWidth, LinePoint1,
+                LinePoint2,nLast,pLine1,pLine2,nCounter);
         }
         catch(Exception exc)
         {
@@ -471,55 +497,6 @@ public final class Channels {
             ErrorLogger.LogException(_className ,"ConnectArrayTrueDouble",
                     new RendererException("Failed inside ConnectArrayTrueDouble", exc));
         }
-        return pResultChannelPoints;
-    }
-    private static CChannelPoints2[] GetChannel2Double(long nChannelWidth,
-            long vblCounter,
-            POINT2[] pLinePoints,
-            CChannelPoints2[] pResultChannelPoints) {
-        try {
-            pResultChannelPoints = ConnectArrayTrueDouble((int) nChannelWidth / 2, (int) vblCounter - 1,
-                    pLinePoints, pResultChannelPoints);
-
-        }
-        catch (Exception exc) {
-            ErrorLogger.LogException(_className ,"GetChannel2Double",
-                    new RendererException("Failed inside GetChannel2Double", exc));
-        }
-        return pResultChannelPoints;
-    }
-    
-    private static POINT2[] GetLowerChannelLineDouble(CChannelPoints2[] pChannelPoints,
-            int vblCounter,
-            POINT2[] pResultLinePoints) throws Exception
-    {
-        try {
-            int j = 0;
-
-            for (j = 0; j < vblCounter; j++) {
-                pResultLinePoints[j] = new POINT2(pChannelPoints[j].m_Line1);
-            }
-
-        } catch (Exception exc) {
-            ErrorLogger.LogException(_className ,"GetLowerChannelLineDouble",
-                    new RendererException("GetLowerChannelLineDouble", exc));
-        }
-        return pResultLinePoints;
-    }
-    private static POINT2[] GetUpperChannelLineDouble(CChannelPoints2[] pChannelPoints,
-            int vblCounter,
-            POINT2[] pResultLinePoints) {
-        try {
-            int j;
-            for (j = 0; j < vblCounter; j++) {
-                pResultLinePoints[j] = new POINT2(pChannelPoints[j].m_Line2);
-            }
-
-        } catch (Exception exc) {
-            ErrorLogger.LogException(_className ,"GetUpperChannelLineDouble",
-                    new RendererException("Failed inside GetUpperChannelLineDouble", exc));
-        }
-        return pResultLinePoints;
     }
     private static int FenceType(int linetype) {
         int bolResult = 0;
@@ -613,47 +590,64 @@ public final class Channels {
         return lTotal;
     }
 
-    protected static POINT2[] CoordIL2Double(int nPrinter,
+    /**
+     * Calculates the upper and lower channel lines in one pass.
+     *
+     * @param nPrinter always 1
+     * @param pLinePoints the client points
+     * @param vblCounter the client point count
+     * @param linetype the line type
+     * @param vblChannelWidth the channel width
+     * @param pUpperLinePoints OUT - the upper channel line
+     * @param pLowerLinePoints OUT - the lower channel line
+     */
+    protected static void CoordIL2Double(int nPrinter,
             POINT2[] pLinePoints,
-            int nUpperLower,
             int vblCounter,
             int linetype,
-            int vblChannelWidth) {
-            POINT2[]pLinePoints2=new POINT2[vblCounter];
+            int vblChannelWidth,
+            PointBuffer pUpperLinePoints,
+            PointBuffer pLowerLinePoints) {
+        PointBuffer pPoints = PointBuffer.obtain(vblCounter);
         try {
-            //declarations
-            int j, channelWidth = 20;
-            POINT2[] pNewLinePoints = new POINT2[vblCounter];
-            CChannelPoints2[] pChannelPoints = new CChannelPoints2[vblCounter];
-            //end declarations
-
-            lineutility.InitializePOINT2Array(pLinePoints2);
-            for (j = 0; j < vblCounter; j++) {
-                pNewLinePoints[j] = new POINT2(pLinePoints[j]);
-            }
-
-            switch (linetype) {
-                case TacticalLines.TRIPLE2:
-                case TacticalLines.DOUBLEC2:
-                case TacticalLines.SINGLEC2:
-                case TacticalLines.TRIPLE:
-                case TacticalLines.DOUBLEC:
-                case TacticalLines.SINGLEC:
-                case TacticalLines.HWFENCE:
-                case TacticalLines.LWFENCE:
-                case TacticalLines.DOUBLEA:
-                case TacticalLines.UNSP:
-                case TacticalLines.DFENCE:
-                case TacticalLines.SFENCE:
-                case TacticalLines.BELT:
-                case TacticalLines.BELT1:
-                case TacticalLines.BBS_LINE:
-                    channelWidth = vblChannelWidth;
-                    break;
-                default:
-                    channelWidth = vblChannelWidth;
-                    break;
-            }
+            pPoints.addAll(pLinePoints, vblCounter);
+            CoordIL2(nPrinter, pPoints, linetype, vblChannelWidth, pUpperLinePoints, pLowerLinePoints);
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className ,"CoordIL2Double",
+                    new RendererException("Failed inside CoordIL2Double", exc));
+        }
+        finally {
+            pPoints.recycle();
+        }
+    }
+    /**
+     * PointBuffer version of CoordIL2Double. Calculates the upper and lower
+     * channel lines in one pass without allocating a point for each vertex.
+     *
+     * @param nPrinter always 1
+     * @param pLinePoints the client points
+     * @param linetype the line type
+     * @param vblChannelWidth the channel width
+     * @param pUpperLinePoints OUT - the upper channel line, can be null
+     * @param pLowerLinePoints OUT - the lower channel line, can be null
+     */
+    protected static void CoordIL2(int nPrinter,
+            PointBuffer pLinePoints,
+            int linetype,
+            int vblChannelWidth,
+            PointBuffer pUpperLinePoints,
+            PointBuffer pLowerLinePoints) {
+        int vblCounter = pLinePoints.size();
+        PointBuffer pUpper = pUpperLinePoints;
+        PointBuffer pLower = pLowerLinePoints;
+        if (pUpper == null) {
+            pUpper = PointBuffer.obtain(vblCounter);
+        }
+        if (pLower == null) {
+            pLower = PointBuffer.obtain(vblCounter);
+        }
+        try {
+            int channelWidth = vblChannelWidth;
             if (linetype != (long) TacticalLines.LC &&
                     linetype != (long) TacticalLines.LC2 &&
                     linetype != TacticalLines.LC_HOSTILE
@@ -662,39 +656,23 @@ public final class Channels {
                 channelWidth /= 2;
             }
 
-            pChannelPoints = GetChannel2Double(channelWidth * nPrinter,
-                    vblCounter,
-                    pNewLinePoints,
-                    pChannelPoints);
-
-            if (nUpperLower == 1) {
-                pNewLinePoints = GetUpperChannelLineDouble(pChannelPoints,
-                        vblCounter,
-                        pNewLinePoints);
-
-                for (j = 0; j < vblCounter; j++) {
-                    pLinePoints2[j] = new POINT2(pNewLinePoints[j]);
-                }
+            //points that can not be calculated keep the client point
+            pUpper.copyFrom(pLinePoints);
+            pLower.copyFrom(pLinePoints);
+            ConnectArrayTrueDouble(channelWidth * nPrinter / 2, vblCounter - 1,
+                    pLinePoints, pLower, pUpper);
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className ,"CoordIL2",
+                    new RendererException("Failed inside CoordIL2", exc));
+        }
+        finally {
+            if (pUpperLinePoints == null) {
+                pUpper.recycle();
             }
-
-            if (nUpperLower == 0) {
-                pNewLinePoints = GetLowerChannelLineDouble(pChannelPoints,
-                        vblCounter,
-                        pNewLinePoints);
-
-                for (j = 0; j < vblCounter; j++) {
-                    pLinePoints2[j] = new POINT2(pNewLinePoints[j]);
-                }
+            if (pLowerLinePoints == null) {
+                pLower.recycle();
             }
-
-            //clean up
-            pNewLinePoints = null;
-            pChannelPoints = null;
-        } catch (Exception exc) {
-            ErrorLogger.LogException(_className ,"CoordIL2Double",
-                    new RendererException("Failed inside CoordIL2Double", exc));
         }
-        return pLinePoints2;
     }
     private static void GetAAFNTDouble(double dPrinter,
             POINT2[] pLowerLinePoints,
@@ -957,25 +935,26 @@ public final class Channels {
         return;
     }
     /**
-     * Calculates a channel line and is called once each time for lower and upper channel lines.
+     * Calculates the lower and upper channel lines in one pass. Line types
+     * that are not channels get the client points for both lines.
      *
      * @param nPrinter always 1
      * @param pLinePoints client points
-     * @param nUpperLower 0 for lower channel line, 1 for upper channel line
      * @param vblCounter the client point count
      * @param vbiDrawThis the line type
      * @param vblChannelWidth the channel width
-     *
-     * @return the channel line array as POINT2
+     * @param pUpperLinePoints OUT - the upper channel line
+     * @param pLowerLinePoints OUT - the lower channel line
      */
-    protected static POINT2[] GetChannelArray2Double(int nPrinter,
+    protected static void GetChannelArray2Double(int nPrinter,
             POINT2[] pLinePoints,
-            int nUpperLower,
             int vblCounter,
             int vbiDrawThis,
-            int vblChannelWidth) {
+            int vblChannelWidth,
+            PointBuffer pUpperLinePoints,
+            PointBuffer pLowerLinePoints) {
         try {
-            //get the upper or lower channel array for the specified channel type
+            //get the upper and lower channel arrays for the specified channel type
             switch (vbiDrawThis) {
                 case TacticalLines.TRIPLE2:
                 case TacticalLines.DOUBLEC2:
@@ -1008,10 +987,13 @@ public final class Channels {
                 case TacticalLines.CHANNEL:
                 case TacticalLines.CHANNEL_FLARED:
                 case TacticalLines.CHANNEL_DASHED:
-                    pLinePoints = CoordIL2Double(nPrinter, pLinePoints, nUpperLower, vblCounter, vbiDrawThis, vblChannelWidth);
+                    CoordIL2Double(nPrinter, pLinePoints, vblCounter, vbiDrawThis, vblChannelWidth, pUpperLinePoints, pLowerLinePoints);
                     break;
                 default:
-                    //do nothing if it's not a channel type
+                    //not a channel type
+                    pUpperLinePoints.clear();
+                    pUpperLinePoints.addAll(pLinePoints, vblCounter);
+                    pLowerLinePoints.copyFrom(pUpperLinePoints);
                     break;
             }	//end switch
 
@@ -1019,15 +1001,98 @@ public final class Channels {
             ErrorLogger.LogException(_className ,"GetChannelArray2Double",
                     new RendererException("Failed inside GetChannelArray2Double " + Integer.toString(vbiDrawThis), exc));
         }
+    }
+
+    /**
+     * Calculates the upper and lower channel lines for GetChannel1Double.
+     * When the upper and lower client points are the same, which is how the
+     * renderer calls it, both lines come from one pass.
+     *
+     * @param nPrinter always 1
+     * @param pUpperLinePoints the client points for the upper line
+     * @param vblUpperCounter the upper client point count
+     * @param pLowerLinePoints the client points for the lower line
+     * @param vblLowerCounter the lower client point count
+     * @param vbiDrawThis the line type
+     * @param vblChannelWidth the channel width
+     *
+     * @return the upper channel line in [0] and the lower channel line in [1]
+     */
+    private static POINT2[][] GetChannelArrays2Double(int nPrinter,
+            POINT2[] pUpperLinePoints,
+            int vblUpperCounter,
+            POINT2[] pLowerLinePoints,
+            int vblLowerCounter,
+            int vbiDrawThis,
+            int vblChannelWidth) {
+        POINT2[][] pResult = new POINT2[2][];
+        PointBuffer pUpper = PointBuffer.obtain(vblUpperCounter);
+        PointBuffer pLower = PointBuffer.obtain(vblLowerCounter);
+        PointBuffer pUnused = null;
+        try {
+            if (IsSameLine(pUpperLinePoints, vblUpperCounter, pLowerLinePoints, vblLowerCounter)) {
+                GetChannelArray2Double(nPrinter, pUpperLinePoints, vblUpperCounter, vbiDrawThis, vblChannelWidth, pUpper, pLower);
+            } else {
+                pUnused = PointBuffer.obtain(Math.max(vblUpperCounter, vblLowerCounter));
+                GetChannelArray2Double(nPrinter, pUpperLinePoints, vblUpperCounter, vbiDrawThis, vblChannelWidth, pUpper, pUnused);
+                GetChannelArray2Double(nPrinter, pLowerLinePoints, vblLowerCounter, vbiDrawThis, vblChannelWidth, pUnused, pLower);
+            }
+            pResult[0] = ToArrayDouble(pUpper, vblUpperCounter);
+            pResult[1] = ToArrayDouble(pLower, vblLowerCounter);
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className ,"GetChannelArrays2Double",
+                    new RendererException("Failed inside GetChannelArrays2Double " + Integer.toString(vbiDrawThis), exc));
+        }
+        finally {
+            pUpper.recycle();
+            pLower.recycle();
+            if (pUnused != null) {
+                pUnused.recycle();
+            }
+        }
+        return pResult;
+    }
+    private static boolean IsSameLine(POINT2[] pLine1,
+            int lCounter1,
+            POINT2[] pLine2,
+            int lCounter2) {
+        if (lCounter1 != lCounter2) {
+            return false;
+        }
+        for (int j = 0; j < lCounter1; j++) {
+            POINT2 pt1 = pLine1[j], pt2 = pLine2[j];
+            if (pt1.x != pt2.x || pt1.y != pt2.y || pt1.style != pt2.style || pt1.segment != pt2.segment) {
+                return false;
+            }
+        }
+        return true;
+    }
+    /**
+     * @return vblCounter points copied from the buffer, any the buffer is
+     * short of are 0,0
+     */
+    private static POINT2[] ToArrayDouble(PointBuffer pPoints, int vblCounter) {
+        POINT2[] pLinePoints = new POINT2[vblCounter];
+        int n = Math.min(vblCounter, pPoints.size());
+        for (int j = 0; j < n; j++) {
+            pLinePoints[j] = pPoints.get(j);
+        }
+        for (int j = n; j < vblCounter; j++) {
+            pLinePoints[j] = new POINT2();
+        }
         return pLinePoints;
     }
 
-    private static CChannelPoints2 GetTrueEndPointDouble(int nWidth,
+    private static void GetTrueEndPointDouble(int nWidth,
                                         POINT2 EndLinePoint,
                                         POINT2 NextLinePoint,
-                                        int lLast)
+                                        int lLast,
+                                        PointBuffer pLine1,
+                                        PointBuffer pLine2,
+                                        int index)
     {
-        CChannelPoints2 cAnswers=new CChannelPoints2();
+        pLine1.set(index,0,0,0);
+        pLine2.set(index,0,0,0);
         try
         {
             //declarations
@@ -1054,17 +1119,13 @@ public final class Channels {
                 {
                     case 4:
                     case 6:
-                        cAnswers.m_Line1.x=EndLinePoint.x-dWidth;
-                        cAnswers.m_Line1.y=EndLinePoint.y;
-                        cAnswers.m_Line2.x=EndLinePoint.x+dWidth;
-                        cAnswers.m_Line2.y=EndLinePoint.y;
+                        pLine1.set(index,EndLinePoint.x-dWidth,EndLinePoint.y,0);
+                        pLine2.set(index,EndLinePoint.x+dWidth,EndLinePoint.y,0);
                         break;
                     case 5:
                     case 7:
-                        cAnswers.m_Line1.x=EndLinePoint.x+dWidth;
-                        cAnswers.m_Line1.y=EndLinePoint.y;
-                        cAnswers.m_Line2.x=EndLinePoint.x-dWidth;
-                        cAnswers.m_Line2.y=EndLinePoint.y;
+                        pLine1.set(index,EndLinePoint.x+dWidth,EndLinePoint.y,0);
+                        pLine2.set(index,EndLinePoint.x-dWidth,EndLinePoint.y,0);
                         break;
                     default:	//cases 0-3 should not occur if line is vertical
                         break;
@@ -1077,17 +1138,13 @@ public final class Channels {
                 {
                     case 0:	//line1 is above segment2
                     case 2:
-                        cAnswers.m_Line1.x=EndLinePoint.x;
-                        cAnswers.m_Line1.y=EndLinePoint.y-dWidth;
-                        cAnswers.m_Line2.x=EndLinePoint.x;
-                        cAnswers.m_Line2.y=EndLinePoint.y+dWidth;
+                        pLine1.set(index,EndLinePoint.x,EndLinePoint.y-dWidth,0);
+                        pLine2.set(index,EndLinePoint.x,EndLinePoint.y+dWidth,0);
                         break;
                     case 1:	//line1 is above segment2
                     case 3:
-                        cAnswers.m_Line1.x=EndLinePoint.x;
-                        cAnswers.m_Line1.y=EndLinePoint.y+dWidth;
-                        cAnswers.m_Line2.x=EndLinePoint.x;
-                        cAnswers.m_Line2.y=EndLinePoint.y-dWidth;
+                        pLine1.set(index,EndLinePoint.x,EndLinePoint.y+dWidth,0);
+                        pLine2.set(index,EndLinePoint.x,EndLinePoint.y-dWidth,0);
                         break;
                     default:	//cases 4-7 should not be passed since line not vertical
                         break;
@@ -1107,26 +1164,26 @@ public final class Channels {
                     case 2:
                         if(LinePoint1.y<LinePoint2.y)
                         {
-                            cAnswers.m_Line1=LinePoint1;
-                            cAnswers.m_Line2=LinePoint2;
+                            pLine1.set(index,LinePoint1);
+                            pLine2.set(index,LinePoint2);
                         }
                         else
                         {
-                            cAnswers.m_Line1=LinePoint2;
-                            cAnswers.m_Line2=LinePoint1;
+                            pLine1.set(index,LinePoint2);
+                            pLine2.set(index,LinePoint1);
                         }
                         break;
                     case 1:	//line1 is below segment2
                     case 3:
                         if(LinePoint1.y>LinePoint2.y)
                         {
-                            cAnswers.m_Line1=LinePoint1;
-                            cAnswers.m_Line2=LinePoint2;
+                            pLine1.set(index,LinePoint1);
+                            pLine2.set(index,LinePoint2);
                         }
                         else
                         {
-                            cAnswers.m_Line1=LinePoint2;
-                            cAnswers.m_Line2=LinePoint1;
+                            pLine1.set(index,LinePoint2);
+                            pLine2.set(index,LinePoint1);
                         }
                         break;
                     default:	//cases1-4 should not occur since line is not vertical
@@ -1140,15 +1197,18 @@ public final class Channels {
             ErrorLogger.LogException(_className ,"GetTrueEndPointDouble",
                     new RendererException("Failed inside GetTrueEndPointDouble", exc));
         }
-        return cAnswers;
     }
-    private static CChannelPoints2 ConnectTrueDouble2(int nWidth,
+    private static void ConnectTrueDouble2(int nWidth,
             POINT2  LinePoint1,
             POINT2  LinePoint2,
             POINT2  LinePoint3,
-            int  lOrient)
+            int  lOrient,
+            PointBuffer pLine1,
+            PointBuffer pLine2,
+            int index)
     {
-        CChannelPoints2 pAnswerLinePoints=new CChannelPoints2();
+        pLine1.set(index,0,0,0);
+        pLine2.set(index,0,0,0);
         try
         {
             //declarations
@@ -1197,49 +1257,41 @@ public final class Channels {
                     //line1 is above segment1 and above segment2
                     //use 0 for the orientation for Line 1
                     lineutility.CalcTrueIntersectDouble(m1,Upperb1,m2,Upperb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,0,x,y);
-                    pAnswerLinePoints.m_Line1.x=x.value[0];
-                    pAnswerLinePoints.m_Line1.y=y.value[0];
+                    pLine1.set(index,x.value[0],y.value[0],0);
                     //line 2 point:	line2 is below segment1 and below segment2
                     //use 3 for the orientation for Line 2
                     lineutility.CalcTrueIntersectDouble(m1,Lowerb1,m2,Lowerb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,3,x,y);
-                    pAnswerLinePoints.m_Line2.x=x.value[0];
-                    pAnswerLinePoints.m_Line2.y=y.value[0];
+                    pLine2.set(index,x.value[0],y.value[0],0);
                     break;
                 case 1:
                     //line1 is above segment1 and below segment2
                     //use 1 for the orientation for Line 1
                     lineutility.CalcTrueIntersectDouble(m1,Upperb1,m2,Lowerb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,1,x,y);
-                    pAnswerLinePoints.m_Line1.x=x.value[0];
-                    pAnswerLinePoints.m_Line1.y=y.value[0];
+                    pLine1.set(index,x.value[0],y.value[0],0);
                     //line2 is below segment1 and above segment2
                     //use 2 for the orientation for Line 2
                     lineutility.CalcTrueIntersectDouble(m1,Lowerb1,m2,Upperb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,2,x,y);
-                    pAnswerLinePoints.m_Line2.x=x.value[0];
-                    pAnswerLinePoints.m_Line2.y=y.value[0];
+                    pLine2.set(index,x.value[0],y.value[0],0);
                     break;
                 case 2:
                     //line1 is below segment1 and above segment2
                     //use 2 for the orientation for Line 1
                     lineutility.CalcTrueIntersectDouble(m1,Lowerb1,m2,Upperb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,2,x,y);
-                    pAnswerLinePoints.m_Line1.x=x.value[0];
-                    pAnswerLinePoints.m_Line1.y=y.value[0];
+                    pLine1.set(index,x.value[0],y.value[0],0);
                     //line2 is above segment1 and below segment2
                     //use 1 for the orientation for Line 1
                     lineutility.CalcTrueIntersectDouble(m1,Upperb1,m2,Lowerb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,1,x,y);
-                    pAnswerLinePoints.m_Line2.x=x.value[0];
-                    pAnswerLinePoints.m_Line2.y=y.value[0];
+                    pLine2.set(index,x.value[0],y.value[0],0);
                     break;
                 case 3:
                     //line1 is below segment1 and below segment2
                     //use 3 for the orientation for Line 1
                     lineutility.CalcTrueIntersectDouble(m1,Lowerb1,m2,Lowerb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,3,x,y);
-                    pAnswerLinePoints.m_Line1.x=x.value[0];
-                    pAnswerLinePoints.m_Line1.y=y.value[0];
+                    pLine1.set(index,x.value[0],y.value[0],0);
                     //line2 is above segment1 and above segment2
                     //use 0 for the orientation for Line 2
                     lineutility.CalcTrueIntersectDouble(m1,Upperb1,m2,Upperb2,LinePoint2,bolVerticalSlope1,bolVerticalSlope2,dWidth,0,x,y);
-                    pAnswerLinePoints.m_Line2.x=x.value[0];
-                    pAnswerLinePoints.m_Line2.y=y.value[0];
+                    pLine2.set(index,x.value[0],y.value[0],0);
                     break;
                 default:
                     break;
@@ -1251,7 +1303,6 @@ public final class Channels {
             ErrorLogger.LogException(_className ,"ConnectTrueDouble2",
                     new RendererException("Failed inside ConnectTrueDouble2", exc));
         }
-        return pAnswerLinePoints;
     }
     /**
      * @deprecated 
@@ -1354,6 +1405,7 @@ public final class Channels {
      * @param useptr the distance in pixels from the arrow tip to the back of the arrowhead
      * @param shapes the ShapeInfo array, each object contains the GeneralPath
      * @param rev the Mil-Standard 2525 revision
+     * @param context the client the points are for
      * @return
      */
     protected static int GetChannel1Double(double[] lpsaUpperVBPoints,
@@ -1365,9 +1417,11 @@ public final class Channels {
             int vblChannelWidth,
             int useptr,
             ArrayList<Shape2>shapes,
-            int rev) {
+            int rev,
+            RenderContext context) {
         int lResult = -1;
         try {
+            String client = context.getClient();
             //declarations
             //lineutility.WriteFile(Integer.toString(vblChannelWidth));
             //boolean shiftLines=false;
@@ -1396,6 +1450,7 @@ public final class Channels {
                     pArrowLinePoints = new POINT2[1],
                     pLinePoints = null,
                     pUpperFlotPoints = null, pLowerFlotPoints = null, pOriginalLinePoints = null, pOriginalLinePoints2 = null;
+            POINT2[][] pChannelLinePoints = null;
             lineutility.InitializePOINT2Array(pLowerLinePoints);
             lineutility.InitializePOINT2Array(pUpperLinePoints);
             lineutility.InitializePOINT2Array(pArrowLinePoints);
@@ -1584,8 +1639,9 @@ public final class Channels {
                         vblChannelWidth *=2;
                     //end section
                     
-                    pUpperLinePoints = GetChannelArray2Double(nPrinter, pUpperLinePoints, 1, vblUpperCounter, vbiDrawThis, vblChannelWidth);
-                    pLowerLinePoints = GetChannelArray2Double(nPrinter, pLowerLinePoints, 0, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pChannelLinePoints = GetChannelArrays2Double(nPrinter, pUpperLinePoints, vblUpperCounter, pLowerLinePoints, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pUpperLinePoints = pChannelLinePoints[0];
+                    pLowerLinePoints = pChannelLinePoints[1];
                     
                     //diagnostic 1-7-13
                     if(shiftLines)
@@ -1652,8 +1708,9 @@ public final class Channels {
                         vblChannelWidth *= 2;
                     //end section
                     
-                    pUpperLinePoints = GetChannelArray2Double(nPrinter, pUpperLinePoints, 1, vblUpperCounter, vbiDrawThis, vblChannelWidth);
-                    pLowerLinePoints = GetChannelArray2Double(nPrinter, pLowerLinePoints, 0, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pChannelLinePoints = GetChannelArrays2Double(nPrinter, pUpperLinePoints, vblUpperCounter, pLowerLinePoints, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pUpperLinePoints = pChannelLinePoints[0];
+                    pLowerLinePoints = pChannelLinePoints[1];
                     
                     //diagnostic 1-7-13
                     if(shiftLines)   
@@ -1693,8 +1750,9 @@ public final class Channels {
                     for (k = 0; k < vblUpperCounter; k++) {
                         pOriginalLinePoints[k] = new POINT2(pUpperLinePoints[k]);
                     }
-                    pUpperLinePoints = GetChannelArray2Double(nPrinter, pUpperLinePoints, 1, vblUpperCounter, vbiDrawThis, vblChannelWidth);
-                    pLowerLinePoints = GetChannelArray2Double(nPrinter, pLowerLinePoints, 0, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pChannelLinePoints = GetChannelArrays2Double(nPrinter, pUpperLinePoints, vblUpperCounter, pLowerLinePoints, vblLowerCounter, vbiDrawThis, vblChannelWidth);
+                    pUpperLinePoints = pChannelLinePoints[0];
+                    pLowerLinePoints = pChannelLinePoints[1];
 
 
             //end section
@@ -2417,7 +2475,7 @@ public final class Channels {
                         if (midPt1.x == midPt2.x && midPt1.y == midPt2.y) //last segment too short
                         {
                             //diagnostic 2-27-13
-                            if(_client.startsWith("cpof"))
+                            if(client.startsWith("cpof"))
                                 dFeature=30;
                             else                            
                                 dFeature=15;
@@ -2432,7 +2490,7 @@ public final class Channels {
                             pLinePoints[vblCounter - 9] = new POINT2(pt1);
                             pLinePoints[vblCounter - 6] = new POINT2(pt2);
                             
-                            if(_client.startsWith("cpof"))
+                            if(client.startsWith("cpof"))
                                 midPt2 = lineutility.ExtendLine2Double(nextToLastPoint, pArrowLinePoints[0], 20, 17);
                             else
                             {
@@ -2453,7 +2511,7 @@ public final class Channels {
                             pLinePoints[vblCounter - 7] = new POINT2(pt2);
                             pLinePoints[vblCounter - 5] = new POINT2(midPt2);
                         }
-                        if(_client.startsWith("cpof"))
+                        if(client.startsWith("cpof"))
                             dFeature=30;
                         else
                         {
@@ -5,6 +5,7 @@
 
 package JavaLineArray;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import java.awt.geom.Rectangle2D;
 /**
@@ -2065,10 +2066,12 @@ public final class DISMSupport
      *
      * @param points OUT - the client points, also used for the returned points.
      * @param linetype the line type.
+     * @param context the client the points are for
      */
     protected static int GetDISMSeizeDouble(POINT2[] points,
             int linetype,
-            double radius) 
+            double radius,
+            RenderContext context) 
     {
         int counter = 0;
         try {
@@ -2103,7 +2106,7 @@ public final class DISMSupport
             }
             
             //if radius is 0 then it is rev B
-            String client=CELineArray.getClient();
+            String client=context.getClient();
             if(!client.startsWith("cpof") && radius==0)
             {
                 dArcRadius=lineutility.CalcDistanceDouble(savepoints[0], savepoints[1]);
@@ -2702,8 +2705,9 @@ public final class DISMSupport
      *
      * @param points OUT - the client points, also used for the returned points.
      * @param linetype the line type.
+     * @param context the client the points are for
      */
-    protected static void GetDISMPenetrateDouble(POINT2[] points, int linetype) {
+    protected static void GetDISMPenetrateDouble(POINT2[] points, int linetype, RenderContext context) {
         try {
             POINT2[] arrowpts = new POINT2[3];
             POINT2 midpt = new POINT2();
@@ -2747,7 +2751,7 @@ public final class DISMSupport
             }
 //            if(d<400)
 //                d=400;
-            String client=CELineArray.getClient();
+            String client=context.getClient();
             if(client.matches("cpof3d") || client.matches("cpof2d"))
             {
                 if(d<400)
@@ -0,0 +1,242 @@
+package JavaLineArray;
+
+import java.util.ArrayList;
+
+/**
+ * Growable array of points stored as parallel x, y, style and segment arrays
+ * so the line array generators can work on pixels without a POINT2 object for
+ * every vertex. Use obtain and recycle to reuse buffers on the calling thread.
+ */
+public final class PointBuffer
+{
+    private static final int DEFAULT_CAPACITY = 32;
+    //buffers kept per thread, larger buffers are left for the GC
+    private static final int MAX_POOLED = 8;
+    private static final int MAX_POOLED_CAPACITY = 65536;
+    private static final ThreadLocal<ArrayList<PointBuffer>> _pool = new ThreadLocal<ArrayList<PointBuffer>>()
+    {
+        @Override
+        protected ArrayList<PointBuffer> initialValue()
+        {
+            return new ArrayList<PointBuffer>(MAX_POOLED);
+        }
+    };
+
+    double[] x;
+    double[] y;
+    int[] style;
+    int[] segment;
+    int count;
+    private boolean _pooled = false;
+
+    public PointBuffer()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+    public PointBuffer(int capacity)
+    {
+        if(capacity < 1)
+            capacity = 1;
+        x = new double[capacity];
+        y = new double[capacity];
+        style = new int[capacity];
+        segment = new int[capacity];
+    }
+    /**
+     * Gets an empty buffer from the calling thread's pool, or a new one if
+     * the pool is empty. Give it back with recycle when done.
+     * @param capacity the number of points expected
+     * @return an empty buffer
+     */
+    public static PointBuffer obtain(int capacity)
+    {
+        ArrayList<PointBuffer> pool = _pool.get();
+        PointBuffer buffer = null;
+        if(pool.isEmpty())
+            buffer = new PointBuffer(Math.max(capacity, DEFAULT_CAPACITY));
+        else
+        {
+            buffer = pool.remove(pool.size() - 1);
+            buffer.ensureCapacity(capacity);
+        }
+        buffer._pooled = false;
+        buffer.count = 0;
+        return buffer;
+    }
+    /**
+     * Returns the buffer to the calling thread's pool. The buffer must not be
+     * used after this.
+     */
+    public void recycle()
+    {
+        if(_pooled || x.length > MAX_POOLED_CAPACITY)
+            return;
+        ArrayList<PointBuffer> pool = _pool.get();
+        if(pool.size() < MAX_POOLED)
+        {
+            _pooled = true;
+            count = 0;
+            pool.add(this);
+        }
+    }
+    public int size()
+    {
+        return count;
+    }
+    public void clear()
+    {
+        count = 0;
+    }
+    public void ensureCapacity(int capacity)
+    {
+        if(capacity <= x.length)
+            return;
+        int newCapacity = Math.max(capacity, x.length + (x.length >> 1));
+        double[] newX = new double[newCapacity];
+        double[] newY = new double[newCapacity];
+        int[] newStyle = new int[newCapacity];
+        int[] newSegment = new int[newCapacity];
+        System.arraycopy(x, 0, newX, 0, count);
+        System.arraycopy(y, 0, newY, 0, count);
+        System.arraycopy(style, 0, newStyle, 0, count);
+        System.arraycopy(segment, 0, newSegment, 0, count);
+        x = newX;
+        y = newY;
+        style = newStyle;
+        segment = newSegment;
+    }
+    /**
+     * Sets the point count, points added by growing the buffer are 0,0 with
+     * style and segment 0 like new POINT2().
+     * @param size
+     */
+    public void setSize(int size)
+    {
+        ensureCapacity(size);
+        for(int j=count;j<size;j++)
+        {
+            x[j] = 0;
+            y[j] = 0;
+            style[j] = 0;
+            segment[j] = 0;
+        }
+        count = size;
+    }
+    public int add(double x, double y, int style)
+    {
+        if(count == this.x.length)
+            ensureCapacity(count + 1);
+        this.x[count] = x;
+        this.y[count] = y;
+        this.style[count] = style;
+        this.segment[count] = 0;
+        return count++;
+    }
+    public int add(POINT2 pt)
+    {
+        int index = add(pt.x, pt.y, pt.style);
+        segment[index] = pt.segment;
+        return index;
+    }
+    public void addAll(POINT2[] pts, int n)
+    {
+        ensureCapacity(count + n);
+        for(int j=0;j<n;j++)
+            add(pts[j]);
+    }
+    public void addAll(ArrayList<POINT2> pts)
+    {
+        int n = pts.size();
+        ensureCapacity(count + n);
+        for(int j=0;j<n;j++)
+            add(pts.get(j));
+    }
+    /**
+     * Replaces the points with a copy of another buffer's points.
+     */
+    public void copyFrom(PointBuffer pts)
+    {
+        int n = pts.count;
+        count = 0;
+        ensureCapacity(n);
+        System.arraycopy(pts.x, 0, x, 0, n);
+        System.arraycopy(pts.y, 0, y, 0, n);
+        System.arraycopy(pts.style, 0, style, 0, n);
+        System.arraycopy(pts.segment, 0, segment, 0, n);
+        count = n;
+    }
+    /**
+     * Sets a point the way new POINT2(x,y,style) would, the segment is 0.
+     */
+    public void set(int index, double x, double y, int style)
+    {
+        this.x[index] = x;
+        this.y[index] = y;
+        this.style[index] = style;
+        this.segment[index] = 0;
+    }
+    public void set(int index, POINT2 pt)
+    {
+        x[index] = pt.x;
+        y[index] = pt.y;
+        style[index] = pt.style;
+        segment[index] = pt.segment;
+    }
+    public double getX(int index)
+    {
+        return x[index];
+    }
+    public double getY(int index)
+    {
+        return y[index];
+    }
+    public int getStyle(int index)
+    {
+        return style[index];
+    }
+    public void setStyle(int index, int value)
+    {
+        style[index] = value;
+    }
+    public int getSegment(int index)
+    {
+        return segment[index];
+    }
+    public void setSegment(int index, int value)
+    {
+        segment[index] = value;
+    }
+    /**
+     * @param index
+     * @return a new POINT2 for the point at index
+     */
+    public POINT2 get(int index)
+    {
+        return new POINT2(x[index], y[index], segment[index], style[index]);
+    }
+    /**
+     * Copies the point at index into an existing POINT2 so a caller can reuse
+     * one object while iterating.
+     */
+    public void copyTo(int index, POINT2 pt)
+    {
+        pt.x = x[index];
+        pt.y = y[index];
+        pt.style = style[index];
+        pt.segment = segment[index];
+    }
+    public POINT2[] toArray()
+    {
+        POINT2[] pts = new POINT2[count];
+        for(int j=0;j<count;j++)
+            pts[j] = get(j);
+        return pts;
+    }
+    public ArrayList<POINT2> toList()
+    {
+        ArrayList<POINT2> pts = new ArrayList<POINT2>(count);
+        for(int j=0;j<count;j++)
+            pts.add(get(j));
+        return pts;
+    }
+}
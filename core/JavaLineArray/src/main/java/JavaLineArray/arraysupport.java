@@ -17,6 +17,7 @@ import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.Polygon;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import java.awt.geom.Rectangle2D;
@@ -54,34 +55,37 @@ public final class arraysupport {
      * @param shapes the symbol ShapeInfo objects
      * @param clipBounds the rectangular clipping bounds
      * @param rev the Mil-Standard-2525 revision
+     * @param context the client the points are for, null for the client set
+     * by CELineArray.setClient
      */
     public static ArrayList<POINT2> GetLineArray2(int lineType,
             ArrayList<POINT2> pts,
             ArrayList<Shape2> shapes,
             Rectangle2D clipBounds,
             int rev,
-            IPointConversion converter) {
+            IPointConversion converter,
+            RenderContext context) {
 
         ArrayList<POINT2> points = null;
         try {
-            POINT2 pt = null;
-            POINT2[] pLinePoints2 = null;
+            if (context == null) {
+                context = Channels.getDefaultContext();
+            }
             POINT2[] pLinePoints = null;
             int vblSaveCounter = pts.size();
             //get the count from countsupport
             int j = 0;
-            if (pLinePoints2 == null || pLinePoints2.length == 0)//did not get set above
-            {
-                pLinePoints = new POINT2[vblSaveCounter];
-                for (j = 0; j < vblSaveCounter; j++) {
-                    pt = (POINT2) pts.get(j);
-                    pLinePoints[j] = new POINT2(pt.x, pt.y, pt.style);
-                }
+            POINT2 pt = null;
+            pLinePoints = new POINT2[vblSaveCounter];
+            for (j = 0; j < vblSaveCounter; j++) {
+                pt = pts.get(j);
+                pLinePoints[j] = new POINT2(pt.x, pt.y, pt.style);
             }
             //get the number of points the array will require
             int vblCounter = countsupport.GetCountersDouble(lineType, vblSaveCounter, pLinePoints, clipBounds, rev);
 
             //resize pLinePoints and fill the first vblSaveCounter elements with the original points
+            POINT2[] pClientPoints = pLinePoints;
             if (vblCounter > 0) {
                 pLinePoints = new POINT2[vblCounter];
             } else {
@@ -89,8 +93,6 @@ public final class arraysupport {
                 return null;
             }
 
-            lineutility.InitializePOINT2Array(pLinePoints);
-
             //safeguards added 2-17-11 after CPOF client was allowed to add points to autoshapes
             if (vblSaveCounter > pts.size()) {
                 vblSaveCounter = pts.size();
@@ -99,12 +101,14 @@ public final class arraysupport {
                 vblSaveCounter = pLinePoints.length;
             }
 
-            for (j = 0; j < vblSaveCounter; j++) {
-                pt = (POINT2) pts.get(j);
-                pLinePoints[j] = new POINT2(pt.x, pt.y, pt.style);
+            //the counters only read the client points, so they are reused
+            System.arraycopy(pClientPoints, 0, pLinePoints, 0, vblSaveCounter);
+            //only the points past the client points need initializing
+            for (j = vblSaveCounter; j < vblCounter; j++) {
+                pLinePoints[j] = new POINT2();
             }
             //we have to adjust the autoshapes because they are instantiating with fewer points
-            points = GetLineArray2Double(lineType, pLinePoints, vblCounter, vblSaveCounter, shapes, clipBounds, rev, converter);
+            points = GetLineArray2Double(lineType, pLinePoints, vblCounter, vblSaveCounter, shapes, clipBounds, rev, converter, context);
 
         } catch (Exception exc) {
             ErrorLogger.LogException(_className, "GetLineArray2",
@@ -112,7 +116,6 @@ public final class arraysupport {
 
         }
         return points;
-        //the caller can get points
     }
 
     /**
@@ -2343,6 +2346,7 @@ public final class arraysupport {
      * @param pLinePoints - OUT - an array of POINT2
      * @param vblCounter the number of points allocated
      * @param vblSaveCounter the number of client points
+     * @param context the client the points are for
      *
      * @return the symbol point count
      */
@@ -2353,10 +2357,11 @@ public final class arraysupport {
             ArrayList<Shape2> shapes,
             Rectangle2D clipBounds,
             int rev,
-            IPointConversion converter) {
+            IPointConversion converter,
+            RenderContext context) {
         ArrayList<POINT2> points = new ArrayList();
         try {
-            String client = CELineArray.getClient();
+            String client = context.getClient();
             if (pLinePoints == null || pLinePoints.length < 2) {
                 return null;
             }
@@ -2394,9 +2399,10 @@ public final class arraysupport {
             POINT2 midpt = new POINT2(pLinePoints[0]), midpt1 = new POINT2(pLinePoints[0]);
 
             POINT2[] pOriginalLinePoints = null;
-            POINT2[] pUpperLinePoints = null;
-            POINT2[] pLowerLinePoints = null;
+            PointBuffer pUpperLinePoints = null;
+            PointBuffer pLowerLinePoints = null;
             POINT2[] pUpperLowerLinePoints = null;
+            POINT2 ptChannel = null;
 
             POINT2 calcPoint0 = new POINT2(),
                     calcPoint1 = new POINT2(),
@@ -3078,25 +3084,16 @@ public final class arraysupport {
                     //acCounter=pointCounter;
                     break;
                 case TacticalLines.BELT1:
-                    pUpperLinePoints = new POINT2[vblSaveCounter];
-                    pLowerLinePoints = new POINT2[vblSaveCounter];
+                    pUpperLinePoints = PointBuffer.obtain(vblSaveCounter);
+                    pLowerLinePoints = PointBuffer.obtain(vblSaveCounter);
                     pUpperLowerLinePoints = new POINT2[2 * vblCounter];
+                    Channels.CoordIL2Double(1, pLinePoints, vblSaveCounter, lineType, 30, pUpperLinePoints, pLowerLinePoints);
                     for (j = 0; j < vblSaveCounter; j++) {
-                        pLowerLinePoints[j] = new POINT2(pLinePoints[j]);
-                    }
-
-                    for (j = 0; j < vblSaveCounter; j++) {
-                        pUpperLinePoints[j] = new POINT2(pLinePoints[j]);
+                        pUpperLowerLinePoints[j] = pUpperLinePoints.get(j);
                     }
 
-                    pUpperLinePoints = Channels.CoordIL2Double(1, pUpperLinePoints, 1, vblSaveCounter, lineType, 30);
-                    pLowerLinePoints = Channels.CoordIL2Double(1, pLowerLinePoints, 0, vblSaveCounter, lineType, 30);
                     for (j = 0; j < vblSaveCounter; j++) {
-                        pUpperLowerLinePoints[j] = new POINT2(pUpperLinePoints[j]);
-                    }
-
-                    for (j = 0; j < vblSaveCounter; j++) {
-                        pUpperLowerLinePoints[j + vblSaveCounter] = new POINT2(pLowerLinePoints[vblSaveCounter - j - 1]);
+                        pUpperLowerLinePoints[j + vblSaveCounter] = pLowerLinePoints.get(vblSaveCounter - j - 1);
                     }
 
                     pUpperLowerLinePoints[2 * vblSaveCounter] = new POINT2(pUpperLowerLinePoints[0]);
@@ -3144,7 +3141,7 @@ public final class arraysupport {
                         acCounter = 6;
                     }
                     if (rev == RendererSettings.Symbology_2525C) {
-                        return GetLineArray2Double(TacticalLines.SAAFR, pLinePoints, vblCounter, vblSaveCounter, shapes, clipBounds, rev, converter);
+                        return GetLineArray2Double(TacticalLines.SAAFR, pLinePoints, vblCounter, vblSaveCounter, shapes, clipBounds, rev, converter, context);
                     }
                     break;
                 case TacticalLines.MRR_USAS:
@@ -3317,7 +3314,7 @@ public final class arraysupport {
                 case TacticalLines.CONVOY:
                     d = lineutility.CalcDistanceDouble(pt0, pt1);
                     if (d <= 30) {
-                        GetLineArray2Double(TacticalLines.DIRATKSPT, pLinePoints, 5, 2, shapes, clipBounds, rev, converter);
+                        GetLineArray2Double(TacticalLines.DIRATKSPT, pLinePoints, 5, 2, shapes, clipBounds, rev, converter, context);
                         break;
                     }
                     //reverse the points
@@ -4343,7 +4340,7 @@ public final class arraysupport {
 
                     if (d < d2) {
                         lineType = TacticalLines.DIRATKSPT;
-                        GetLineArray2Double(TacticalLines.DIRATKSPT, pLinePoints, 5, 2, shapes, clipBounds, rev, converter);
+                        GetLineArray2Double(TacticalLines.DIRATKSPT, pLinePoints, 5, 2, shapes, clipBounds, rev, converter, context);
                         break;
                     }
 
@@ -4423,7 +4420,7 @@ public final class arraysupport {
                     if (folspDist < d2) //was 10
                     {
                         lineType = TacticalLines.DIRATKSPT;
-                        GetLineArray2Double(lineType, pLinePoints, 5, 2, shapes, clipBounds, rev, converter);
+                        GetLineArray2Double(lineType, pLinePoints, 5, 2, shapes, clipBounds, rev, converter, context);
                         break;
                     }
 //                    else if(folspDist<d2)//was 25
@@ -4607,7 +4604,7 @@ public final class arraysupport {
                     acCounter = DISMSupport.GetDISMContainDouble(pLinePoints, lineType);
                     break;
                 case TacticalLines.PENETRATE:
-                    DISMSupport.GetDISMPenetrateDouble(pLinePoints, lineType);
+                    DISMSupport.GetDISMPenetrateDouble(pLinePoints, lineType, context);
                     acCounter = 7;
                     break;
                 case TacticalLines.MNFLDBLK:
@@ -4654,7 +4651,7 @@ public final class arraysupport {
                     acCounter = DISMSupport.GetDISMByDifDouble(pLinePoints, lineType, clipBounds);
                     break;
                 case TacticalLines.SEIZE:
-                    acCounter = DISMSupport.GetDISMSeizeDouble(pLinePoints, lineType, 0);
+                    acCounter = DISMSupport.GetDISMSeizeDouble(pLinePoints, lineType, 0, context);
                     break;
                 case TacticalLines.SEIZE_REVC:  //works for 3 or 4 points
                     double radius = 0;
@@ -4663,7 +4660,7 @@ public final class arraysupport {
                         pLinePoints[1] = new POINT2(pLinePoints[3]);
                         pLinePoints[2] = new POINT2(pLinePoints[2]);
                     }
-                    acCounter = DISMSupport.GetDISMSeizeDouble(pLinePoints, lineType, radius);
+                    acCounter = DISMSupport.GetDISMSeizeDouble(pLinePoints, lineType, radius, context);
                     break;
                 case TacticalLines.FIX:
                 case TacticalLines.MNFLDFIX:
@@ -5786,17 +5783,23 @@ public final class arraysupport {
                     break;
                 case TacticalLines.BELT1://requires non-decorated fill shape
                     shape = new Shape2(Shape2.SHAPE_TYPE_FILL);
-                    shape.moveTo(pUpperLinePoints[0]);
-                    for (j = 1; j < pUpperLinePoints.length; j++) {
-                        shape.lineTo(pUpperLinePoints[j]);
+                    ptChannel = new POINT2();
+                    pUpperLinePoints.copyTo(0, ptChannel);
+                    shape.moveTo(ptChannel);
+                    for (j = 1; j < pUpperLinePoints.size(); j++) {
+                        pUpperLinePoints.copyTo(j, ptChannel);
+                        shape.lineTo(ptChannel);
                         //lineutility.SegmentLineShape(pUpperLinePoints[j], pUpperLinePoints[j+1], shape);
                     }
-                    shape.lineTo(pLowerLinePoints[pLowerLinePoints.length - 1]);
-                    for (j = pLowerLinePoints.length - 1; j >= 0; j--) {
-                        shape.lineTo(pLowerLinePoints[j]);
+                    pLowerLinePoints.copyTo(pLowerLinePoints.size() - 1, ptChannel);
+                    shape.lineTo(ptChannel);
+                    for (j = pLowerLinePoints.size() - 1; j >= 0; j--) {
+                        pLowerLinePoints.copyTo(j, ptChannel);
+                        shape.lineTo(ptChannel);
                         //lineutility.SegmentLineShape(pLowerLinePoints[j], pLowerLinePoints[j-1], shape);
                     }
-                    shape.lineTo(pUpperLinePoints[0]);
+                    pUpperLinePoints.copyTo(0, ptChannel);
+                    shape.lineTo(ptChannel);
                     shapes.add(0, shape);
                     break;
                 case TacticalLines.DIRATKAIR:
@@ -5906,8 +5909,14 @@ public final class arraysupport {
             pts2 = null;
             pts = null;
             segments = null;
-            pUpperLinePoints = null;
-            pLowerLinePoints = null;
+            if (pUpperLinePoints != null) {
+                pUpperLinePoints.recycle();
+                pUpperLinePoints = null;
+            }
+            if (pLowerLinePoints != null) {
+                pLowerLinePoints.recycle();
+                pLowerLinePoints = null;
+            }
             pUpperLowerLinePoints = null;
         } catch (Exception exc) {
             ErrorLogger.LogException(_className, "GetLineArray2Double",
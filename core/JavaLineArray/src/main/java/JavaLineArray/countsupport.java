@@ -42,7 +42,7 @@ public final class countsupport
             int j = 0;
             int vblSaveCounter = vblCounter;
             POINT2[] pSquarePoints = new POINT2[4];
-            POINT2[] pUpperLinePoints = null,
+            PointBuffer pUpperLinePoints = null,
                 pLowerLinePoints = null;
             int[] segments = null;
             POINT2[] pNewLinePoints = null;
@@ -50,14 +50,6 @@ public final class countsupport
             POINT2[] pointsCorner = new POINT2[2];
             //double saveMaxPixels = 2000;//CELineArrayGlobals.MaxPixels2;
 
-            pUpperLinePoints=new POINT2[vblCounter];
-            pLowerLinePoints=new POINT2[vblCounter];
-
-            for(j=0;j<vblCounter;j++)
-            {
-                pUpperLinePoints[j]=new POINT2(pLinePoints[j]);
-                pLowerLinePoints[j]=new POINT2(pLinePoints[j]);
-            }
             lineutility.InitializePOINT2Array(pointsCorner);
             lineutility.InitializePOINT2Array(pSquarePoints);
             //end delcarations
@@ -435,21 +427,19 @@ public final class countsupport
                     count = GetFORTLCountDouble(pLinePoints, vbiDrawThis, vblSaveCounter);
                     break;
                 case TacticalLines.BELT1:
-                    pUpperLinePoints = new POINT2[vblCounter];
-                    pLowerLinePoints = new POINT2[vblCounter];
-                    POINT2[]pUpperLowerLinePoints = new POINT2[2 * vblCounter];
-                    for (j = 0; j < vblCounter; j++)
-                        pLowerLinePoints[j] = pLinePoints[j];
-                    for (j = 0; j < vblCounter; j++)
-                        pUpperLinePoints[j] = pLinePoints[j];
-                    pUpperLinePoints = Channels.CoordIL2Double(1, pUpperLinePoints, 1, vblCounter, vbiDrawThis,30);
-                    pLowerLinePoints = Channels.CoordIL2Double(1, pLowerLinePoints, 0, vblCounter, vbiDrawThis,30);
-                    for (j = 0; j < vblCounter; j++)
-                        pUpperLowerLinePoints[j] = pUpperLinePoints[j];
-                    for (j = 0; j < vblCounter; j++)
-                        pUpperLowerLinePoints[j + vblCounter] = pLowerLinePoints[vblCounter - j - 1];
-                    vblSaveCounter = 2 * vblCounter;
-                    count = GetFORTLCountDouble(pUpperLowerLinePoints, vbiDrawThis, 2 * vblCounter);
+                    pUpperLinePoints = PointBuffer.obtain(2 * vblCounter);
+                    pLowerLinePoints = PointBuffer.obtain(vblCounter);
+                    try {
+                        Channels.CoordIL2Double(1, pLinePoints, vblCounter, vbiDrawThis, 30, pUpperLinePoints, pLowerLinePoints);
+                        //the upper line followed by the lower line reversed
+                        for (j = vblCounter - 1; j >= 0; j--)
+                            pUpperLinePoints.add(pLowerLinePoints.getX(j), pLowerLinePoints.getY(j), pLowerLinePoints.getStyle(j));
+                        vblSaveCounter = 2 * vblCounter;
+                        count = GetFORTLCountDouble(pUpperLinePoints, vbiDrawThis, 2 * vblCounter);
+                    } finally {
+                        pUpperLinePoints.recycle();
+                        pLowerLinePoints.recycle();
+                    }
                     break;
                 case TacticalLines.TRIPLE:
                 case TacticalLines.DOUBLEC:
@@ -466,11 +456,17 @@ public final class countsupport
                     count=2*vblCounter;
                     break;
                 case TacticalLines.LC:
-                    pUpperLinePoints = Channels.GetChannelArray2Double(1,pUpperLinePoints,1,vblCounter,vbiDrawThis,20);
-                    pLowerLinePoints = Channels.GetChannelArray2Double(1,pLowerLinePoints,0,vblCounter,vbiDrawThis,20);
-                    int lUpperFlotCount= flot.GetFlotCountDouble(pUpperLinePoints,vblCounter);
-                    int lLowerFlotCount= flot.GetFlotCountDouble(pLowerLinePoints,vblCounter);
-                    count=lUpperFlotCount+lLowerFlotCount;
+                    pUpperLinePoints = PointBuffer.obtain(vblCounter);
+                    pLowerLinePoints = PointBuffer.obtain(vblCounter);
+                    try {
+                        Channels.GetChannelArray2Double(1,pLinePoints,vblCounter,vbiDrawThis,20,pUpperLinePoints,pLowerLinePoints);
+                        int lUpperFlotCount= flot.GetFlotCountDouble(pUpperLinePoints);
+                        int lLowerFlotCount= flot.GetFlotCountDouble(pLowerLinePoints);
+                        count=lUpperFlotCount+lLowerFlotCount;
+                    } finally {
+                        pUpperLinePoints.recycle();
+                        pLowerLinePoints.recycle();
+                    }
                     break;
                 case TacticalLines.OCCLUDED:
                 case TacticalLines.UOF:
@@ -815,6 +811,30 @@ public final class countsupport
             int linetype,
             int vblCounter) {
         int lCounter = 0;
+        PointBuffer pts = PointBuffer.obtain(vblCounter);
+        try {
+            pts.addAll(pLinePoints, vblCounter);
+            lCounter = GetFORTLCountDouble(pts, linetype, vblCounter);
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className ,"GetFORTLCountDouble",
+                    new RendererException("Failed inside GetFORTLCountDouble", exc));
+        }
+        finally {
+            pts.recycle();
+        }
+        return lCounter;
+    }
+    /**
+     * PointBuffer version of GetFORTLCountDouble
+     * @param pLinePoints the client points
+     * @param linetype the line type
+     * @param vblCounter the number of client points
+     * @return
+     */
+    protected static int GetFORTLCountDouble(PointBuffer pLinePoints,
+            int linetype,
+            int vblCounter) {
+        int lCounter = 0;
         try {
             //declarations
             int j = 0;
@@ -837,7 +857,7 @@ public final class countsupport
             }
 
             for (j = 0; j < vblCounter - 1; j++) {
-                dCounter = lineutility.CalcDistanceDouble(pLinePoints[j], pLinePoints[j + 1]);
+                dCounter = lineutility.CalcDistanceDouble(pLinePoints, j, j + 1);
 
                 switch (linetype) {
                         case TacticalLines.CFG:
@@ -1293,22 +1293,38 @@ public final class flot {
      * @return the number of points required
      */
     protected static int GetFlotCountDouble(POINT2[] vbPoints, int numPts) {
+        int lTotalpts = 0;
+        PointBuffer pts = PointBuffer.obtain(numPts);
+        try {
+            pts.addAll(vbPoints, numPts);
+            lTotalpts = GetFlotCountDouble(pts);
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className ,"GetFlotCountDouble",
+                    new RendererException("Failed inside GetFlotCountDouble", exc));
+        }
+        finally {
+            pts.recycle();
+        }
+        return (lTotalpts);
+    }
+    /**
+     * PointBuffer version of GetFlotCountDouble
+     * @param vbPoints the client points
+     * @return the number of points required
+     */
+    protected static int GetFlotCountDouble(PointBuffer vbPoints) {
         int lTotalpts = 0;
         try {
             //declarations
             int j = 0, lNumSegs = 0;
+            int numPts = vbPoints.size();
             double dDistance = 0;
-            POINT2[] vbPoints2 = null;
             //end declarations
 
             //numPts2=lineutility.BoundPointsCount(vbPoints,numPts);
-            vbPoints2 = new POINT2[numPts];
-            for (j = 0; j < numPts; j++) {
-                vbPoints2[j] = vbPoints[j];
-            }
             //lineutility.BoundPoints(ref vbPoints2,numPts,ref segments);
             for (j = 0; j < numPts - 1; j++) {
-                dDistance = lineutility.CalcDistanceDouble(vbPoints2[j], vbPoints2[j + 1]);
+                dDistance = lineutility.CalcDistanceDouble(vbPoints, j, j + 1);
                 lNumSegs = (int) (dDistance / 20);   //flot diameter is 20
                 if (lNumSegs > 0) {
                     lTotalpts += lNumSegs * 10; //10 points per flot
@@ -1317,9 +1333,6 @@ public final class flot {
                 }
             }
             lTotalpts += 1;
-
-            //clean up
-            vbPoints2 = null;
         } catch (Exception exc) {
             ErrorLogger.LogException(_className ,"GetFlotCountDouble",
                     new RendererException("Failed inside GetFlotCountDouble", exc));
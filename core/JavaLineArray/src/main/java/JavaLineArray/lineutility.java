@@ -290,17 +290,39 @@ public final class lineutility {
      */
     public static double CalcDistanceDouble(POINT2 p1,
             POINT2 p2) {
+        return CalcDistanceDouble(p1.x, p1.y, p2.x, p2.y);
+    }
+
+    /**
+     * Calculates the distance in pixels between two points of a PointBuffer
+     *
+     * @param pts the points
+     * @param j1 the index of the first point
+     * @param j2 the index of the last point
+     *
+     * @return the distance between the points in pixels
+     */
+    protected static double CalcDistanceDouble(PointBuffer pts,
+            int j1,
+            int j2) {
+        return CalcDistanceDouble(pts.x[j1], pts.y[j1], pts.x[j2], pts.y[j2]);
+    }
+
+    private static double CalcDistanceDouble(double x1,
+            double y1,
+            double x2,
+            double y2) {
         double returnValue = 0;
         try {
-            returnValue = Math.sqrt((p1.x - p2.x)
-                    * (p1.x - p2.x)
-                    + (p1.y - p2.y)
-                    * (p1.y - p2.y));
+            returnValue = Math.sqrt((x1 - x2)
+                    * (x1 - x2)
+                    + (y1 - y2)
+                    * (y1 - y2));
 
             //sanity check
             //return x or y distance if returnValue is 0 or infinity
-            double xdist = Math.abs(p1.x - p2.x);
-            double ydist = Math.abs(p1.y - p2.y);
+            double xdist = Math.abs(x1 - x2);
+            double ydist = Math.abs(y1 - y2);
             double max = xdist;
             if (ydist > xdist) {
                 max = ydist;
@@ -2620,15 +2642,17 @@ public final class lineutility {
             double dist=mdlGeodesic.geodesic_distance(Center, pt1, null, null);
             
             //double dSegmentAngle = 2 * Math.PI / numpts;
-            double az=0;
             double startangle=0,endAngle=Math.PI*2;
-            POINT2 ptGeo=null,ptPixels=null;
+            POINT2 ptPixels=null;
             Point2D ptGeo2d=null;           
+            double[] az=new double[numpts - 1];
+            for (j = 0; j < numpts - 1; j++) {
+                az[j]=startangle*180/Math.PI+j*increment*180/Math.PI;
+            }
+            double[] lons=new double[numpts - 1],lats=new double[numpts - 1];
+            mdlGeodesic.geodesic_arc_coordinates(Center,dist,az,numpts - 1,lons,lats);
             for (j = 0; j < numpts - 1; j++) {
-                az=startangle*180/Math.PI+j*increment*180/Math.PI;
-                //ptGeo=mdlGeodesic.geodesic_coordinate(C2d,length,az);
-                ptGeo=mdlGeodesic.geodesic_coordinate(Center,dist,az);
-                ptGeo2d=new Point2D.Double(ptGeo.x,ptGeo.y);
+                ptGeo2d=new Point2D.Double(lons[j],lats[j]);
                 ptGeo2d=converter.GeoToPixels(ptGeo2d);
                 ptPixels=new POINT2(ptGeo2d.getX(),ptGeo2d.getY());
                 CirclePoints[j].x = ptPixels.x;
@@ -2533,7 +2533,7 @@ public class Modifier2 {
      */
     private static void scaleModifiers(TGLight tg) {
         try {
-            if (RendererSettings.getInstance().getAutoCollapseModifiers() == false) {
+            if (tg.get_RenderContext().getRendererProfile().getAutoCollapseModifiers() == false) {
                 return;
             }
             if (!tg.get_Client().equalsIgnoreCase("ge")) {
@@ -10,6 +10,7 @@ import java.awt.Color;
 import java.awt.Font;
 import java.awt.TexturePaint;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import JavaLineArray.TacticalLines;
 
@@ -548,4 +549,18 @@ public class TGLight {
     public void set_HideOptionalLabels(boolean value) {
         _HideOptionalLabels = value;
     }
+
+    //passed to the line array, its client decides the cpof specific sizes
+    private RenderContext _renderContext = new RenderContext();
+
+    public RenderContext get_RenderContext() {
+        return _renderContext;
+    }
+
+    public void set_RenderContext(RenderContext value) {
+        if (value == null) {
+            value = new RenderContext();
+        }
+        _renderContext = value;
+    }
 }
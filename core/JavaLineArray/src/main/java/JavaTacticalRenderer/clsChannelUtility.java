@@ -11,6 +11,7 @@ import JavaLineArray.TacticalLines;
 import JavaLineArray.CELineArray;
 import JavaLineArray.Shape2;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import JavaLineArray.Channels;
 import JavaLineArray.lineutility;
@@ -95,7 +96,8 @@ public final class clsChannelUtility {
             ArrayList<Shape2> shapes,
             ArrayList<POINT2> channelPoints,
             double distanceToChannelPoint,
-            int rev) {
+            int rev,
+            RenderContext context) {
         int returnValue = 0;	// Had to initialize to something
         try {
             int lineType2;
@@ -205,7 +207,7 @@ public final class clsChannelUtility {
             lineCount = CELineArray.CGetLineCountDouble(goodUpperPixels, numPoints, lineType2, channelWidth,rev);
             channelPixels = new double[3 * lineCount];
             POINT2 pt = null;
-            lineCount = CELineArray.CGetChannel2Double(goodUpperPixels, goodLowerPixels, channelPixels, numPoints, numPoints, lineType2, channelWidth / 2, (int) distanceToChannelPoint, shapes,rev);
+            lineCount = CELineArray.CGetChannel2Double(goodUpperPixels, goodLowerPixels, channelPixels, numPoints, numPoints, lineType2, channelWidth / 2, (int) distanceToChannelPoint, shapes,rev,context);
             
             //if shapes is null then it is not a CPOF client
             if (shapes == null && channelPixels != null) {
@@ -258,16 +260,17 @@ public final class clsChannelUtility {
             ArrayList<Shape2> shapes,
             ArrayList<POINT2> channelPoints,
             double distanceToChannelPoint,
-            int rev) {
+            int rev,
+            RenderContext context) {
         try {
             int j = 0;
             int n = 0;
             for (j = 0; j < partitions.size() - 1; j++) {
-                n = DrawGoodChannel2(partitions.get(j).start, partitions.get(j).end_Renamed, pixels, linetype, channelWidth, false, shapes, channelPoints, distanceToChannelPoint,rev);
+                n = DrawGoodChannel2(partitions.get(j).start, partitions.get(j).end_Renamed, pixels, linetype, channelWidth, false, shapes, channelPoints, distanceToChannelPoint,rev,context);
 
             }
             //draw the last partition using linetype
-            n = DrawGoodChannel2(partitions.get(j).start, partitions.get(j).end_Renamed, pixels, linetype, channelWidth, true, shapes, channelPoints, distanceToChannelPoint,rev);
+            n = DrawGoodChannel2(partitions.get(j).start, partitions.get(j).end_Renamed, pixels, linetype, channelWidth, true, shapes, channelPoints, distanceToChannelPoint,rev,context);
         } catch (Exception exc) {
             //clsUtility.WriteFile("error in clsChanneUtility.DrawSegments");
                ErrorLogger.LogException(_className ,"DrawSegments",
@@ -555,7 +558,7 @@ public final class clsChannelUtility {
             partitions = new ArrayList();
             GetPartitions(segments, partitions);
                         
-            DrawSegments(pixels2, partitions, linetype, channelWidth, shapes, channelPoints, distanceToChannelPoint.value[0],rev);
+            DrawSegments(pixels2, partitions, linetype, channelWidth, shapes, channelPoints, distanceToChannelPoint.value[0],rev,tg.get_RenderContext());
 
             //clean up
             pixels2 = null;
@@ -1867,7 +1867,7 @@ public final class clsMETOC {
                 case TacticalLines.BOTTOM_TYPE_C2:
                 case TacticalLines.BOTTOM_TYPE_C3:
                     //int rev=tg.getSymbologyStandard();
-                    arraysupport.GetLineArray2(tg.get_LineType(), tg.Pixels, shapes,null,rev,null);
+                    arraysupport.GetLineArray2(tg.get_LineType(), tg.Pixels, shapes,null,rev,null,tg.get_RenderContext());
                     break;
                 case TacticalLines.ISOBAR:
                 case TacticalLines.ISOBAR_GE:
@@ -3400,7 +3400,7 @@ public final class clsMETOC {
             //Channels.GetChannel1Double(pLinePoints, numPoints, numPoints, TacticalLines.CHANNEL, channelWidth, distanceToChannelPoint );
 
             try {
-                CELineArray.CGetChannel2Double(pLinePoints, pLinePoints, channelPoints, numPoints, numPoints, (int) TacticalLines.CHANNEL, channelWidth, usePtr, shapes,rev);
+                CELineArray.CGetChannel2Double(pLinePoints, pLinePoints, channelPoints, numPoints, numPoints, (int) TacticalLines.CHANNEL, channelWidth, usePtr, shapes,rev,tg.get_RenderContext());
             } catch (Exception e) {
                 //clsUtility.WriteFile("error in clsMETOC.ParallelLines call to CGetChanne2lDouble");
                 ErrorLogger.LogException(_className, "ParallelLines",
@@ -3445,7 +3445,7 @@ public final class clsMETOC {
             //Channels.GetChannel1Double(pLinePoints, numPoints, numPoints, TacticalLines.CHANNEL, channelWidth, distanceToChannelPoint );
 
             try {
-                CELineArray.CGetChannel2Double(pLinePoints, pLinePoints, channelPoints, numPoints, numPoints, (int) TacticalLines.CHANNEL, channelWidth, usePtr, shapes,rev);
+                CELineArray.CGetChannel2Double(pLinePoints, pLinePoints, channelPoints, numPoints, numPoints, (int) TacticalLines.CHANNEL, channelWidth, usePtr, shapes,rev,null);
             } catch (Exception e) {
                 //clsUtility.WriteFile("error in clsMETOC.ParallelLines call to CGetChanne2lDouble");
                 ErrorLogger.LogException(_className, "ParallelLines2",
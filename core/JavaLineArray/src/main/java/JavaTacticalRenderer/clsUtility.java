@@ -32,8 +32,9 @@ import java.awt.geom.Line2D;
  * @author Michael Deutch
  */
 public final class clsUtility {
-    private static Map<String,Object> linetypes=null;
-    private static Map<String,Object> metocs=null;
+    //only assigned once they are filled, GetLinetypeFromString reads them without locking
+    private static volatile Map<String,Object> linetypes=null;
+    private static volatile Map<String,Object> metocs=null;
     private static final String _className = "clsUtility";
     protected static Point2D POINT2ToPoint2D(POINT2 pt2) {
         if (pt2 == null) {
@@ -2307,7 +2308,7 @@ public final class clsUtility {
             if(linetypes != null || metocs != null)
                 return;
             
-            linetypes=new HashMap<String,Object>();
+            Map<String,Object> linetypes=new HashMap<String,Object>();
             
             //basic shapes
             linetypes.put("BS_LINE--------", TacticalLines.BS_LINE);
@@ -2606,7 +2607,7 @@ public final class clsUtility {
             }
                         
             //METOCs
-            metocs=new HashMap<String,Object>();
+            Map<String,Object> metocs=new HashMap<String,Object>();
             metocs.put("WA-DPFC----L---",TacticalLines.CF);
             metocs.put("WA-DPFCU---L---",TacticalLines.UCF);
             metocs.put("WA-DPFC-FG-L---",TacticalLines.CFG);
@@ -2768,6 +2769,9 @@ public final class clsUtility {
             metocs.put("WO-DMCD----L---",TacticalLines.CANAL);
             metocs.put("WO-DMOA-----A--",TacticalLines.OIL_RIG_FIELD);
             metocs.put("WO-DMPA----L---",TacticalLines.PIPE);
+
+            clsUtility.metocs=metocs;
+            clsUtility.linetypes=linetypes;
         }   
         catch (Exception exc)
         {
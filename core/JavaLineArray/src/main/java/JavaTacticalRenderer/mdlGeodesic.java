@@ -182,6 +182,152 @@ public final class mdlGeodesic {
         return pt;
     }
 
+    /**
+     * Batch form of geodesic_distance and GetAzimuth for the segments of a
+     * line. The sine and cosine of each latitude are calculated once and
+     * shared by the two segments that meet there. The results are the same as
+     * calling geodesic_distance and GetAzimuth for each segment.
+     *
+     * @param lons the longitudes in degrees
+     * @param lats the latitudes in degrees
+     * @param count the number of points
+     * @param distances OUT - distances[j] is the distance in meters from point
+     * j to point j+1, must hold count-1 values
+     * @param azimuths OUT - if not null azimuths[j] is the azimuth in degrees
+     * from point j to point j+1, must hold count-1 values
+     */
+    public static void geodesic_distances(double[] lons,
+            double[] lats,
+            int count,
+            double[] distances,
+            double[] azimuths) {
+        try {
+            if (count < 2) {
+                return;
+            }
+            double lat1 = DegToRad(lats[0]);
+            double lon1 = DegToRad(lons[0]);
+            double cosLat1 = Math.cos(lat1);
+            double sinLat1 = Math.sin(lat1);
+            double lat2 = 0, lon2 = 0, cosLat2 = 0, sinLat2 = 0;
+            double b = 0, e = 0, a = 0, h = 0, k = 0;
+            for (int j = 1; j < count; j++) {
+                lat2 = DegToRad(lats[j]);
+                lon2 = DegToRad(lons[j]);
+                cosLat2 = Math.cos(lat2);
+                sinLat2 = Math.sin(lat2);
+                if (azimuths != null) {
+                    //same steps as GetAzimuth
+                    double y = Math.sin(lon2 - lon1);
+                    y *= cosLat2;
+                    double x = cosLat1;
+                    x *= sinLat2;
+                    double z = sinLat1;
+                    z *= cosLat2;
+                    z *= Math.cos(lon2 - lon1);
+                    x = x - z;
+                    azimuths[j - 1] = RadToDeg(Math.atan2(y, x));
+                }
+                //same steps as geodesic_distance
+                b = Math.sin(DegToRad(lats[j] - lats[j - 1]) / 2);
+                e = Math.sin(DegToRad(lons[j] - lons[j - 1]) / 2);
+                a = b * b + cosLat1 * cosLat2 * e * e;
+                h = Math.sqrt(a);
+                k = Math.sqrt(1 - a);
+                distances[j - 1] = sm_a * (2 * Math.atan2(h, k));
+
+                lon1 = lon2;
+                cosLat1 = cosLat2;
+                sinLat1 = sinLat2;
+            }
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className, "geodesic_distances",
+                    new RendererException("Failed inside geodesic_distances", exc));
+        }
+    }
+
+    /**
+     * Batch form of geodesic_coordinate for points along one azimuth from the
+     * same start. The terms for the start point and azimuth are calculated
+     * once. The results are the same as calling geodesic_coordinate for each
+     * distance.
+     *
+     * @param start the starting point
+     * @param azimuth the azimuth or bearing in degrees clockwise from true north
+     * @param distances the distances in meters
+     * @param count the number of distances
+     * @param lons OUT - the longitudes of the calculated points
+     * @param lats OUT - the latitudes of the calculated points
+     */
+    public static void geodesic_coordinates(POINT2 start,
+            double azimuth,
+            double[] distances,
+            int count,
+            double[] lons,
+            double[] lats) {
+        try {
+            double a = DegToRad(start.y);
+            double b = Math.cos(a);
+            double c = DegToRad(azimuth);
+            double d = Math.sin(a);
+            double g = Math.cos(c);
+            double h = Math.sin(c);
+            for (int j = 0; j < count; j++) {
+                double e = Math.cos(distances[j] / sm_a);
+                double f = Math.sin(distances[j] / sm_a);
+                double lat = RadToDeg(Math.asin(d * e + b * f * g));
+                double n = Math.sin(DegToRad(lat));
+                double p = Math.atan2(h * f * b, e - d * n);
+                lons[j] = start.x + RadToDeg(p);
+                lats[j] = lat;
+            }
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className, "geodesic_coordinates",
+                    new RendererException("Failed inside geodesic_coordinates", exc));
+        }
+    }
+
+    /**
+     * Batch form of geodesic_coordinate for points the same distance from the
+     * start, such as the points of an arc. The terms for the start point and
+     * distance are calculated once. The results are the same as calling
+     * geodesic_coordinate for each azimuth.
+     *
+     * @param start the center
+     * @param distance the distance in meters
+     * @param azimuths the azimuths in degrees clockwise from true north
+     * @param count the number of azimuths
+     * @param lons OUT - the longitudes of the calculated points
+     * @param lats OUT - the latitudes of the calculated points
+     */
+    public static void geodesic_arc_coordinates(POINT2 start,
+            double distance,
+            double[] azimuths,
+            int count,
+            double[] lons,
+            double[] lats) {
+        try {
+            double a = DegToRad(start.y);
+            double b = Math.cos(a);
+            double d = Math.sin(a);
+            double e = Math.cos(distance / sm_a);
+            double f = Math.sin(distance / sm_a);
+            for (int j = 0; j < count; j++) {
+                double c = DegToRad(azimuths[j]);
+                double g = Math.cos(c);
+                double lat = RadToDeg(Math.asin(d * e + b * f * g));
+                double h = Math.sin(c);
+                double n = Math.sin(DegToRad(lat));
+                double p = Math.atan2(h * f * b, e - d * n);
+                lons[j] = start.x + RadToDeg(p);
+                lats[j] = lat;
+            }
+        } catch (Exception exc) {
+            ErrorLogger.LogException(_className, "geodesic_arc_coordinates",
+                    new RendererException("Failed inside geodesic_arc_coordinates", exc));
+        }
+    }
+
     /**
      * Calculates an arc from geodesic point and uses them for the change 1
      * circular symbols
@@ -205,7 +351,6 @@ public final class mdlGeodesic {
             POINT2 ptCenter = new POINT2(pPoints[0]);
             POINT2 pt1 = new POINT2(pPoints[1]);
             POINT2 pt2 = new POINT2(pPoints[2]);
-            POINT2 ptTemp = null;
             ref<double[]> a12b = new ref();
             double dist2 = 0.0;
             double dist1 = 0.0;
@@ -225,7 +370,6 @@ public final class mdlGeodesic {
                 a12b.value[0] = a12.value[0] + 360;
             }
 
-            ref<double[]> a12c = new ref();
             int j = 0;
             if (a12b.value[0] < 0) {
                 a12b.value[0] = 360 + a12b.value[0];
@@ -236,12 +380,14 @@ public final class mdlGeodesic {
             if (a12b.value[0] < a12.value[0]) {
                 a12b.value[0] = a12b.value[0] + 360;
             }
-            a12c.value = new double[1];
+            double[] azimuths = new double[101];
             for (j = 0; j <= 100; j++) {
-
-                a12c.value[0] = a12.value[0] + ((double) j / 100.0) * (a12b.value[0] - a12.value[0]);
-                ptTemp = geodesic_coordinate(ptCenter, dist1, a12c.value[0]);
-                pPoints2.add(ptTemp);
+                azimuths[j] = a12.value[0] + ((double) j / 100.0) * (a12b.value[0] - a12.value[0]);
+            }
+            double[] lons = new double[101], lats = new double[101];
+            geodesic_arc_coordinates(ptCenter, dist1, azimuths, 101, lons, lats);
+            for (j = 0; j <= 100; j++) {
+                pPoints2.add(new POINT2(lons[j], lats[j]));
             }
 
             //if the points are nearly the same we want 360 degree range fan
@@ -301,10 +447,7 @@ public final class mdlGeodesic {
             }
 
             //assume caller has set pPoints2 as new Array
-            ref<double[]> a12c = new ref();
-            a12c.value = new double[1];
             int j = 0;
-            POINT2 pPoint = new POINT2();
             if (a12b.value[0] < 0) {
                 a12b.value[0] = 360 + a12b.value[0];
             }
@@ -314,11 +457,14 @@ public final class mdlGeodesic {
             if (a12b.value[0] < a12.value[0]) {
                 a12b.value[0] = a12b.value[0] + 360;
             }
+            double[] azimuths = new double[101];
             for (j = 0; j <= 100; j++) {
-
-                a12c.value[0] = a12.value[0] + ((double) j / 100) * (a12b.value[0] - a12.value[0]);
-                pPoint = geodesic_coordinate(ptCenter, dist1, a12c.value[0]);
-                pPoints2.add(pPoint);
+                azimuths[j] = a12.value[0] + ((double) j / 100) * (a12b.value[0] - a12.value[0]);
+            }
+            double[] lons = new double[101], lats = new double[101];
+            geodesic_arc_coordinates(ptCenter, dist1, azimuths, 101, lons, lats);
+            for (j = 0; j <= 100; j++) {
+                pPoints2.add(new POINT2(lons[j], lats[j]));
             }
         } catch (Exception exc) {
             //System.out.println(e.getMessage());
@@ -588,15 +734,23 @@ public final class mdlGeodesic {
                     return geoPoints;
             }
             int j = 0, k = 0, n = 0;
-            POINT2 pt0 = null, pt1 = null, pt = null;
+            int count = geoPoints.size();
+            POINT2 pt0 = null, pt1 = null;
             double dist = 0;
-            double az = 0;
             double remainder = 0;
-            for (j = 0; j < geoPoints.size() - 1; j++) {
+            double[] lons = new double[count], lats = new double[count];
+            for (j = 0; j < count; j++) {
+                lons[j] = geoPoints.get(j).x;
+                lats[j] = geoPoints.get(j).y;
+            }
+            double[] dists = new double[Math.max(count - 1, 0)];
+            double[] azimuths = new double[dists.length];
+            geodesic_distances(lons, lats, count, dists, azimuths);
+            double[] distances = new double[16], ptLons = new double[16], ptLats = new double[16];
+            for (j = 0; j < count - 1; j++) {
                 pt0 = geoPoints.get(j);
                 pt1 = geoPoints.get(j + 1);
-                az = GetAzimuth(pt0, pt1);
-                dist = geodesic_distance(geoPoints.get(j), geoPoints.get(j + 1), null, null);
+                dist = dists[j];
                 n = (int) (dist / interval);
                 //don't use too-short segments
                 remainder = dist - n * interval;
@@ -605,9 +759,19 @@ public final class mdlGeodesic {
                 }
 
                 resultPts.add(pt0);
-                for (k = 1; k <= n; k++) {
-                    pt = geodesic_coordinate(pt0, interval * k, az);
-                    resultPts.add(pt);
+                if (n > 0) {
+                    if (distances.length < n) {
+                        distances = new double[n];
+                        ptLons = new double[n];
+                        ptLats = new double[n];
+                    }
+                    for (k = 1; k <= n; k++) {
+                        distances[k - 1] = interval * k;
+                    }
+                    geodesic_coordinates(pt0, azimuths[j], distances, n, ptLons, ptLats);
+                    for (k = 0; k < n; k++) {
+                        resultPts.add(new POINT2(ptLons[k], ptLats[k]));
+                    }
                 }
             }
             resultPts.add(pt1);
@@ -652,26 +816,23 @@ public final class mdlGeodesic {
         try
         {
             pEllipsePoints=new POINT2[37];
-            //int l=0;
-            POINT2 pt=null;            
-            double dFactor, azimuth=0,a=0,b=0,dist=0,bearing=0;
-            POINT2 ptLongitude=null,ptLatitude=null;
+            double dFactor;
+            //distances along the major (east) and minor (north) axes
+            double[] a=new double[36],b=new double[36];
             for (int l = 1; l < 37; l++)
             {
                 dFactor = (10.0 * l) * Math.PI / 180.0;                
-                a=majorRadius * Math.cos(dFactor);
-                b=minorRadius * Math.sin(dFactor);
-                //dist=Math.sqrt(a*a+b*b);
-                //azimuth = (10.0 * l);// * Math.PI / 180.0;  
-                //azimuth=90-azimuth;
-                //pt = geodesic_coordinate(ptCenter,dist,azimuth);                
-                //pt = geodesic_coordinate(ptCenter,dist,azimuth);                
-                ptLongitude=geodesic_coordinate(ptCenter,a,90);
-                ptLatitude=geodesic_coordinate(ptCenter,b,0);
-                //pt=new POINT2(ptLatitude.x,ptLongitude.y);
-                pt=new POINT2(ptLongitude.x,ptLatitude.y);
-                //pEllipsePoints[l-1]=pt;
-                pEllipsePoints[l-1]=geoRotatePoint(ptCenter,pt,-rotation);
+                a[l-1]=majorRadius * Math.cos(dFactor);
+                b[l-1]=minorRadius * Math.sin(dFactor);
+            }
+            double[] lons=new double[36],lats=new double[36],unused=new double[36];
+            geodesic_coordinates(ptCenter,90,a,36,lons,unused);
+            geodesic_coordinates(ptCenter,0,b,36,unused,lats);
+            POINT2 pt=null;            
+            for (int l = 0; l < 36; l++)
+            {
+                pt=new POINT2(lons[l],lats[l]);
+                pEllipsePoints[l]=geoRotatePoint(ptCenter,pt,-rotation);
             }            
             pEllipsePoints[36]=new POINT2(pEllipsePoints[0]);
         }
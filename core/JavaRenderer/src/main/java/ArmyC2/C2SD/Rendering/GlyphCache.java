@@ -0,0 +1,180 @@
+package ArmyC2.C2SD.Rendering;
+
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.GeneralPath;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe cache of single character glyphs from one of the symbol fonts.
+ * Holds the glyph code plus the outline and pixel bounds at each scale asked
+ * for, per (char index, font size, symbology standard), so renderers don't
+ * have to lock the font and build GlyphVectors to measure or outline a symbol.
+ */
+public class GlyphCache {
+
+    //scaled outlines and pixel bounds kept per glyph, symbols are usually
+    //drawn at a handful of sizes so this stays small.
+    private static final int MAX_SCALED = 32;
+
+    private final ConcurrentHashMap<Long, GlyphInfo> _glyphs = new ConcurrentHashMap<Long, GlyphInfo>();
+
+    public GlyphCache()
+    {
+    }
+
+    /**
+     *
+     * @param font the font the character comes from
+     * @param frc
+     * @param charIndex
+     * @param symStd RendererSettings.Symbology_2525B or Symbology_2525C
+     * @return the glyph, or null if charIndex is not a valid character
+     */
+    public GlyphInfo getGlyph(Font font, FontRenderContext frc, int charIndex, int symStd)
+    {
+        if(charIndex <= 0 || font == null)
+            return null;
+
+        Long key = createKey(charIndex, font.getSize(), symStd);
+        GlyphInfo glyph = _glyphs.get(key);
+        if(glyph == null)
+        {
+            glyph = new GlyphInfo(font, frc, charIndex);
+            GlyphInfo existing = _glyphs.putIfAbsent(key, glyph);
+            if(existing != null)
+                glyph = existing;
+        }
+        return glyph;
+    }
+
+    private static Long createKey(int charIndex, int fontSize, int symStd)
+    {
+        return Long.valueOf(((long)symStd << 48) | ((long)(fontSize & 0xFFFFFF) << 24) | (charIndex & 0xFFFFFF));
+    }
+
+    /**
+     * Call when the font changes.
+     */
+    public void clear()
+    {
+        _glyphs.clear();
+    }
+
+    public int size()
+    {
+        return _glyphs.size();
+    }
+
+    /**
+     * A single cached character.  Immutable except for the scaled bounds,
+     * which are filled in as they're asked for.
+     */
+    public static class GlyphInfo
+    {
+        private final Font _font;
+        private final FontRenderContext _frc;
+        private final int _glyphCode;
+        private final GeneralPath _outline;
+        private final Rectangle _pixelBounds;
+        private final ConcurrentHashMap<Double, GeneralPath> _scaledOutlines = new ConcurrentHashMap<Double, GeneralPath>();
+        private final ConcurrentHashMap<Double, Rectangle> _scaledBounds = new ConcurrentHashMap<Double, Rectangle>();
+
+        private GlyphInfo(Font font, FontRenderContext frc, int charIndex)
+        {
+            char[] chars = {(char)charIndex};
+            GlyphVector gv = font.createGlyphVector(frc, chars);
+            _font = font;
+            _frc = frc;
+            _glyphCode = gv.getGlyphCode(0);
+            _outline = new GeneralPath(gv.getGlyphOutline(0));
+            _pixelBounds = gv.getPixelBounds(frc, 0, 0);
+        }
+
+        /**
+         * New GlyphVector for this character.  Callers own it and are free
+         * to set a glyph transform on it.
+         * This is the one place a cached glyph still goes to the font.
+         * GlyphVector is mutable and there's no public way to copy one, so
+         * handing out a shared instance would let one symbol's transform
+         * change another's.  Creating it from the glyph code doesn't lock
+         * or read the font file, it's an allocation of about 100ns.
+         * @return
+         */
+        public GlyphVector createGlyphVector()
+        {
+            int[] glyphCodes = {_glyphCode};
+            return _font.createGlyphVector(_frc, glyphCodes);
+        }
+
+        /**
+         * Same as GlyphVector.getGlyphOutline(0, x, y) on a GlyphVector with
+         * a glyph transform of scale.
+         * @param scale 0 or less for unscaled.
+         * @param x
+         * @param y
+         * @return a new Shape
+         */
+        public Shape getOutline(double scale, int x, int y)
+        {
+            GeneralPath outline = null;
+            if(scale > 0)
+            {
+                //outlines from a scaled strike aren't exactly the unscaled
+                //outline scaled, so get them from the font.
+                Double key = Double.valueOf(scale);
+                outline = _scaledOutlines.get(key);
+                if(outline == null)
+                {
+                    GlyphVector gv = createGlyphVector();
+                    gv.setGlyphTransform(0, AffineTransform.getScaleInstance(scale, scale));
+                    outline = new GeneralPath(gv.getGlyphOutline(0));
+                    if(_scaledOutlines.size() < MAX_SCALED)
+                        _scaledOutlines.putIfAbsent(key, outline);
+                }
+            }
+            else
+            {
+                outline = _outline;
+            }
+            GeneralPath returnVal = new GeneralPath(outline);
+            returnVal.transform(AffineTransform.getTranslateInstance(x, y));
+            return returnVal;
+        }
+
+        /**
+         * Same as GlyphVector.getPixelBounds(frc, x, y) on a GlyphVector
+         * with a glyph transform of scale.
+         * @param scale 0 or less for unscaled.
+         * @param x
+         * @param y
+         * @return a new Rectangle
+         */
+        public Rectangle getPixelBounds(double scale, int x, int y)
+        {
+            Rectangle bounds = null;
+            if(scale > 0)
+            {
+                Double key = Double.valueOf(scale);
+                bounds = _scaledBounds.get(key);
+                if(bounds == null)
+                {
+                    GlyphVector gv = createGlyphVector();
+                    gv.setGlyphTransform(0, AffineTransform.getScaleInstance(scale, scale));
+                    bounds = gv.getPixelBounds(_frc, 0, 0);
+                    if(_scaledBounds.size() < MAX_SCALED)
+                        _scaledBounds.putIfAbsent(key, bounds);
+                }
+            }
+            else
+            {
+                bounds = _pixelBounds;
+            }
+            return new Rectangle(bounds.x + x, bounds.y + y, bounds.width, bounds.height);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  *
@@ -52,6 +53,12 @@ public interface IJavaRenderer {
      * Returns size currently being used to draw single point Tactical Graphics
      */
     public int getSinglePointTGSymbolSize();
+
+    /**
+     * Pre-loads all single point tactical graphic glyphs
+     * @param pixelSizes symbol sizes to also pre-scale for, can be null
+     */
+    public void warmSinglePointGlyphCache(int[] pixelSizes);
     
     /**
      * Set the label font to be used in the renderer
@@ -136,6 +143,29 @@ public interface IJavaRenderer {
      */
     public ArrayList<MilStdSymbol> Render(ArrayList<MilStdSymbol> symbols, IPointConversion converter, Rectangle2D clipBounds) throws RendererException;
 
+    /**
+     * Like Render(ArrayList) but spreads the single point symbols across
+     * threads.  One failed symbol doesn't stop the rest.
+     * @param symbols
+     * @param converter does point conversion between pixels & lat/lon coordinates.
+     * Called from multiple threads so must not change state while rendering.
+     * @param clipBounds Dimensions of the drawing surface.  Will not do
+     * clipping if NULL is passed.
+     * @return one RenderResult per symbol, in the same order as symbols
+     */
+    public ArrayList<RenderResult> RenderParallel(ArrayList<MilStdSymbol> symbols, IPointConversion converter, Rectangle2D clipBounds);
+
+    /**
+     * Same as RenderParallel(symbols, converter, clipBounds) but runs on
+     * the caller's Executor instead of the renderer's thread pool.
+     * @param symbols
+     * @param converter
+     * @param clipBounds
+     * @param executor
+     * @return one RenderResult per symbol, in the same order as symbols
+     */
+    public ArrayList<RenderResult> RenderParallel(ArrayList<MilStdSymbol> symbols, IPointConversion converter, Rectangle2D clipBounds, Executor executor);
+
     /**
      * Takes info needed to draw a symbol and returns a full populated MilStdSymbol.
      * @param symbolCode
@@ -11,6 +11,14 @@ import java.awt.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 
 /**
@@ -32,6 +40,14 @@ public class JavaRenderer implements IJavaRenderer {
 
 
     PointConversion _PointConverter = null;
+
+    //thread pool for RenderParallel, created on first use.
+    private ExecutorService _BulkRenderExecutor = null;
+    private volatile int _BulkRenderParallelism = Runtime.getRuntime().availableProcessors();
+    private final Object _BulkRenderExecutorMutex = new Object();
+
+    //culling and level of detail for Draw and DrawDB, null draws everything.
+    private volatile DrawOptions _DrawOptions = null;
     
 
     //Unit 2525C sizes
@@ -66,6 +82,9 @@ public class JavaRenderer implements IJavaRenderer {
             ErrorLogger.LogException(this.getClass().getName() ,"JR()",new RendererException("YAR!", null));
             */
 
+            //parse the symbol tables in parallel while the renderers load
+            SymbolTableLoader.loadAsync();
+
             _SPR = SinglePointRenderer.getInstance();
 
             _MPR = MultiPointRenderer.getInstance();
@@ -267,6 +286,246 @@ public class JavaRenderer implements IJavaRenderer {
         return symbols;
     }
 
+    /**
+     * Populates the Symbol & Modifier Shape collection of each milstdsymbol,
+     * rendering them on the renderer's thread pool (see
+     * setBulkRenderParallelism).
+     * @param symbols
+     * @param converter does point conversion between pixels & lat/lon coordinates.
+     * Shared by all threads so it must not change while rendering.
+     * @param clipBounds dimensions of drawing surface.  needed to do clipping.
+     * @return one RenderResult per symbol, in the same order as symbols.
+     * A symbol that fails doesn't stop the others.
+     */
+    public ArrayList<RenderResult> RenderParallel(ArrayList<MilStdSymbol> symbols, IPointConversion converter, Rectangle2D clipBounds)
+    {
+        return RenderParallel(symbols, converter, clipBounds, getBulkRenderExecutor());
+    }
+
+    /**
+     * Same as RenderParallel(symbols, converter, clipBounds) but the symbols
+     * are rendered on the passed Executor.
+     * @param symbols
+     * @param converter
+     * @param clipBounds
+     * @param executor if it rejects work, that work is done on the
+     * calling thread.
+     * @return one RenderResult per symbol, in the same order as symbols,
+     * even though single points and multipoints are rendered in separate
+     * chunks. If the calling thread is interrupted, work that hasn't finished is
+     * cancelled and those symbols get a "did not complete" result.
+     */
+    public ArrayList<RenderResult> RenderParallel(final ArrayList<MilStdSymbol> symbols, final IPointConversion converter, final Rectangle2D clipBounds, Executor executor)
+    {
+        int count = symbols.size();
+
+        if(_SymbolDefTable == null)
+            _SymbolDefTable = SymbolDefTable.getInstance();
+
+        //multipoints take far longer than single points, so they get their
+        //own smaller chunks instead of making some chunks much slower than
+        //others, and are queued first so the slow work starts right away.
+        boolean[] multiPoint = new boolean[count];
+        int multiPointCount = 0;
+        for(int lcv = 0; lcv < count; lcv++)
+        {
+            multiPoint[lcv] = isMultiPoint(symbols.get(lcv));
+            if(multiPoint[lcv])
+                multiPointCount++;
+        }
+        final int[] order = new int[count];
+        int nextMultiPoint = 0;
+        int nextSinglePoint = multiPointCount;
+        for(int lcv = 0; lcv < count; lcv++)
+        {
+            if(multiPoint[lcv])
+                order[nextMultiPoint++] = lcv;
+            else
+                order[nextSinglePoint++] = lcv;
+        }
+
+        //a few chunks per thread so one slow chunk doesn't hold everything up.
+        //each chunk returns its own results so they're only read through
+        //Future.get.
+        int parallelism = Math.max(1, _BulkRenderParallelism);
+        ArrayList<FutureTask<RenderResult[]>> tasks = new ArrayList<FutureTask<RenderResult[]>>();
+        ArrayList<Integer> taskStarts = new ArrayList<Integer>();
+        for(int type = 0; type < 2; type++)
+        {
+            int typeStart = type == 0 ? 0 : multiPointCount;
+            int typeEnd = type == 0 ? multiPointCount : count;
+            int typeCount = typeEnd - typeStart;
+            int chunkSize = Math.max(1, (typeCount + (parallelism * 4) - 1) / (parallelism * 4));
+            for(int start = typeStart; start < typeEnd; start += chunkSize)
+            {
+                final int chunkStart = start;
+                final int chunkEnd = Math.min(typeEnd, start + chunkSize);
+                FutureTask<RenderResult[]> task = new FutureTask<RenderResult[]>(new Callable<RenderResult[]>()
+                {
+                    public RenderResult[] call()
+                    {
+                        RenderResult[] chunk = new RenderResult[chunkEnd - chunkStart];
+                        for(int i = chunkStart; i < chunkEnd; i++)
+                        {
+                            chunk[i - chunkStart] = RenderResultFor(symbols.get(order[i]), converter, clipBounds);
+                        }
+                        return chunk;
+                    }
+                });
+                try
+                {
+                    executor.execute(task);
+                }
+                catch(RejectedExecutionException ree)
+                {
+                    task.run();
+                }
+                tasks.add(task);
+                taskStarts.add(chunkStart);
+            }
+        }
+
+        RenderResult[] results = new RenderResult[count];
+        boolean interrupted = false;
+        for(int lcv = 0; lcv < tasks.size(); lcv++)
+        {
+            FutureTask<RenderResult[]> task = tasks.get(lcv);
+            if(interrupted)
+            {
+                task.cancel(true);
+                continue;
+            }
+            try
+            {
+                RenderResult[] chunk = task.get();
+                int chunkStart = taskStarts.get(lcv);
+                for(int i = 0; i < chunk.length; i++)
+                {
+                    results[order[chunkStart + i]] = chunk[i];
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                interrupted = true;
+                task.cancel(true);
+            }
+            catch(ExecutionException ee)
+            {
+                ErrorLogger.LogException(_className, "RenderParallel", ee);
+            }
+        }
+        if(interrupted)
+            Thread.currentThread().interrupt();
+
+        ArrayList<RenderResult> returnVal = new ArrayList<RenderResult>(count);
+        for(int lcv = 0; lcv < count; lcv++)
+        {
+            if(results[lcv] == null)
+            {
+                results[lcv] = new RenderResult(symbols.get(lcv),
+                        new RendererException("Rendering did not complete for " + symbols.get(lcv).getSymbolID()));
+            }
+            returnVal.add(results[lcv]);
+        }
+        return returnVal;
+    }
+
+    private RenderResult RenderResultFor(MilStdSymbol symbol, IPointConversion converter, Rectangle2D clipBounds)
+    {
+        try
+        {
+            ProcessSymbolGeometry(symbol, converter, clipBounds);
+            return new RenderResult(symbol, null);
+        }
+        catch(Exception exc)
+        {
+            return new RenderResult(symbol, exc);
+        }
+    }
+
+    /**
+     * Same decision ProcessSymbolGeometryBulk makes about whether a symbol
+     * goes to the MultiPointRenderer.
+     * @param symbol
+     * @return
+     */
+    private boolean isMultiPoint(MilStdSymbol symbol)
+    {
+        int pointCount = 0;
+        if(symbol.getCoordinates() != null)
+            pointCount = symbol.getCoordinates().size();
+
+        String symbolID = symbol.getSymbolID();
+        if(SymbolUtilities.isTacticalGraphic(symbolID) == false && pointCount <= 1)
+            return false;
+
+        String basicSymbolID = SymbolUtilities.getBasicSymbolID(symbolID);
+        SymbolDef symbolDef = _SymbolDefTable.getSymbolDef(basicSymbolID, symbol.getSymbologyStandard());
+        if(symbolDef == null)//bad codes become an action point or a boundary
+            return pointCount > 1;
+        else
+            return symbolDef.getDrawCategory() != SymbolDef.DRAW_CATEGORY_POINT;
+    }
+
+    private ExecutorService getBulkRenderExecutor()
+    {
+        synchronized(_BulkRenderExecutorMutex)
+        {
+            if(_BulkRenderExecutor == null)
+            {
+                _BulkRenderExecutor = Executors.newFixedThreadPool(Math.max(1, _BulkRenderParallelism), new ThreadFactory()
+                {
+                    private int _count = 0;
+                    public synchronized Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "JavaRenderer-bulk-" + (++_count));
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return _BulkRenderExecutor;
+        }
+    }
+
+    /**
+     * Number of threads RenderParallel uses when an Executor isn't passed.
+     * Defaults to the number of processors.
+     * @param value
+     */
+    public void setBulkRenderParallelism(int value)
+    {
+        synchronized(_BulkRenderExecutorMutex)
+        {
+            _BulkRenderParallelism = Math.max(1, value);
+            if(_BulkRenderExecutor != null)
+            {
+                _BulkRenderExecutor.shutdown();
+                _BulkRenderExecutor = null;
+            }
+        }
+    }
+
+    public int getBulkRenderParallelism()
+    {
+        return _BulkRenderParallelism;
+    }
+
+    /**
+     * Culling and level of detail used by Draw and DrawDB when options
+     * aren't passed to them.
+     * @param value null to draw every symbol in full
+     */
+    public void setDrawOptions(DrawOptions value)
+    {
+        _DrawOptions = value;
+    }
+
+    public DrawOptions getDrawOptions()
+    {
+        return _DrawOptions;
+    }
+
 
 
     /**
@@ -541,6 +800,20 @@ public class JavaRenderer implements IJavaRenderer {
      * @throws RendererException
      */
     public void DrawDB(ArrayList<MilStdSymbol> symbols, Graphics2D destination, Rectangle clip) throws RendererException
+    {
+        DrawDB(symbols, destination, clip, _DrawOptions);
+    }
+
+    /**
+     * Same as DrawDB(ArrayList, Graphics2D, Rectangle) with the culling and
+     * level of detail to use.  Symbols are culled against the clip.
+     * @param symbols
+     * @param destination surface to draw to
+     * @param clip Cannot be null.
+     * @param options null to draw every symbol in full
+     * @throws RendererException
+     */
+    public void DrawDB(ArrayList<MilStdSymbol> symbols, Graphics2D destination, Rectangle clip, DrawOptions options) throws RendererException
     {
         try
         {
@@ -551,7 +824,7 @@ public class JavaRenderer implements IJavaRenderer {
                 BufferedImage buffer = new BufferedImage(clip.width, clip.height, BufferedImage.TYPE_INT_ARGB);
                 Graphics2D graphics = (Graphics2D)buffer.createGraphics();
                 //graphics.setClip(0, 0, clip.width, clip.height);
-                Draw(symbols, graphics,-clip.x,-clip.y);
+                Draw(symbols, graphics,-clip.x,-clip.y, clip, options);
 
                 //draw offscreen image to the screen
                 //synchronized(destination)
@@ -601,6 +874,23 @@ public class JavaRenderer implements IJavaRenderer {
         }
     }
 
+    /**
+     * Same as DrawDB(ArrayList, Graphics2D, Rectangle) but only draws the
+     * symbols in the index whose bounds touch the clip, so off-screen
+     * symbols aren't walked.
+     * @param index symbols that have been rendered and added to the index
+     * @param destination surface to draw to
+     * @param clip Cannot be null.  Also the area the index is queried with.
+     * @throws RendererException
+     */
+    public void DrawDB(SymbolIndex<MilStdSymbol> index, Graphics2D destination, Rectangle clip) throws RendererException
+    {
+        ArrayList<MilStdSymbol> symbols = null;
+        if(index != null && clip != null)
+            symbols = index.intersect(clip);
+        DrawDB(symbols, destination, clip);
+    }
+
 
     /**
      * Does the actual drawing of the Symbol.  MilstdSymbol need to be properly populated
@@ -613,7 +903,7 @@ public class JavaRenderer implements IJavaRenderer {
     {
         ArrayList<MilStdSymbol> symbols = new ArrayList<MilStdSymbol>();
         symbols.add(symbol);
-        Draw(symbols, destination, 0, 0);
+        Draw(symbols, destination, _DrawOptions);
     }
 
     /**
@@ -625,7 +915,24 @@ public class JavaRenderer implements IJavaRenderer {
      */
     public void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination) throws RendererException
     {
-        Draw(symbols, destination, 0, 0);
+        Draw(symbols, destination, _DrawOptions);
+    }
+
+    /**
+     * Same as Draw(ArrayList, Graphics2D) with the culling and level of
+     * detail to use.  Symbols are culled against the destination's clip, if
+     * it has one.
+     * @param symbols
+     * @param destination surface to draw to
+     * @param options null to draw every symbol in full
+     * @throws RendererException
+     */
+    public void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination, DrawOptions options) throws RendererException
+    {
+        Rectangle clip = null;
+        if(destination != null && options != null && options.getCullToClip())
+            clip = destination.getClipBounds();
+        Draw(symbols, destination, 0, 0, clip, options);
     }
 
     /**
@@ -635,8 +942,10 @@ public class JavaRenderer implements IJavaRenderer {
      * @param destination surface to draw to
      * @param offsetX usually a negative value.  if your clip.X is 40, offsetX should be -40
      * @param offsetY usually a negative value.  if your clip.Y is 40, offsetY should be -40
+     * @param clip area to cull against, in the symbols' pixel coordinates
+     * @param options null to draw every symbol in full
      */
-    private void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination, int offsetX, int offsetY) throws RendererException
+    private void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination, int offsetX, int offsetY, Rectangle clip, DrawOptions options) throws RendererException
     {
         try
         {
@@ -644,7 +953,7 @@ public class JavaRenderer implements IJavaRenderer {
             if(symbols != null && destination != null)
             {
 
-                SymbolDraw.Draw(symbols, destination, offsetX, offsetY);
+                SymbolDraw.Draw(symbols, destination, offsetX, offsetY, clip, options);
 
             }
             else
@@ -756,6 +1065,17 @@ public class JavaRenderer implements IJavaRenderer {
         _SPR.setUnitSymbolSize(size);
     }
 
+    /**
+     * Loads all single point tactical graphic glyphs up front so the first
+     * renders don't have to go to the font.
+     * @param pixelSizes symbol sizes to also pre-scale for, like {35, 50},
+     * can be null.
+     */
+    public void warmSinglePointGlyphCache(int[] pixelSizes)
+    {
+        _SPR.warmSinglePointGlyphCache(pixelSizes);
+    }
+
     /**
      * Set the label font to be used in the renderer
      * Default tracking to TextAttribute.TRACKING_LOOSE
@@ -767,7 +1087,6 @@ public class JavaRenderer implements IJavaRenderer {
     public void setModifierFont(String name, int type, int size) 
     {
         RendererSettings.getInstance().setLabelFont(name, type, size);
-        _SPR.RefreshModifierFont();
     }
     
     /**
@@ -781,7 +1100,6 @@ public class JavaRenderer implements IJavaRenderer {
     public void setModifierFont(String name, int type, int size, float tracking, Boolean kerning) 
     {
         RendererSettings.getInstance().setLabelFont(name, type, size, kerning, tracking);
-        _SPR.RefreshModifierFont();
     }
 
 
@@ -936,10 +1254,10 @@ public class JavaRenderer implements IJavaRenderer {
             ArrayList<ShapeInfo> modifiers = new ArrayList<ShapeInfo>();
             RenderMultipoints.clsRenderer.render(symbol, converter, shapes, modifiers, clipBounds);
 
-            if(RendererSettings.getInstance().getTextBackgroundMethod()
+            if(symbol.getRendererProfile().getTextBackgroundMethod()
                     != RendererSettings.TextBackgroundMethod_NONE)
             {
-                modifiers = SymbolDraw.ProcessModifierBackgrounds(modifiers);
+                modifiers = SymbolDraw.ProcessModifierBackgrounds(modifiers, symbol.getRendererProfile());
                 symbol.setModifierShapes(modifiers);
             }
 
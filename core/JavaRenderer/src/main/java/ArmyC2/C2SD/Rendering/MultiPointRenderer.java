@@ -68,10 +68,10 @@ public class MultiPointRenderer implements IMultiPointRenderer {
             RenderMultipoints.clsRenderer.render(symbol, converter, clipBounds);
             modifiers = symbol.getModifierShapes();
 
-            if(RendererSettings.getInstance().getTextBackgroundMethod()
+            if(symbol.getRendererProfile().getTextBackgroundMethod()
                     != RendererSettings.TextBackgroundMethod_NONE)
             {
-                modifiers = SymbolDraw.ProcessModifierBackgrounds(modifiers);
+                modifiers = SymbolDraw.ProcessModifierBackgrounds(modifiers, symbol.getRendererProfile());
                 symbol.setModifierShapes(modifiers);
             }
 
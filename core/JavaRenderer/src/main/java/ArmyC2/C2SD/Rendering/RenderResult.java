@@ -0,0 +1,46 @@
+package ArmyC2.C2SD.Rendering;
+
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+
+/**
+ * Outcome of rendering one symbol from JavaRenderer.RenderParallel.
+ */
+public class RenderResult {
+
+    private MilStdSymbol _symbol = null;
+    private Exception _exception = null;
+
+    public RenderResult(MilStdSymbol symbol, Exception exception)
+    {
+        _symbol = symbol;
+        _exception = exception;
+    }
+
+    /**
+     * The symbol that was passed in, populated with shape data if
+     * rendering succeeded.
+     * @return
+     */
+    public MilStdSymbol getSymbol()
+    {
+        return _symbol;
+    }
+
+    /**
+     *
+     * @return true if the symbol rendered without throwing.
+     */
+    public boolean isSuccess()
+    {
+        return _exception == null;
+    }
+
+    /**
+     *
+     * @return why the symbol failed to render, null on success.
+     */
+    public Exception getException()
+    {
+        return _exception;
+    }
+}
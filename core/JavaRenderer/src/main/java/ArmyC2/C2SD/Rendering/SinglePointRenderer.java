@@ -12,10 +12,12 @@ import ArmyC2.C2SD.Utilities.ModifiersTG;
 import ArmyC2.C2SD.Utilities.ModifiersUnits;
 import ArmyC2.C2SD.Utilities.PointConversion;
 import ArmyC2.C2SD.Utilities.RendererException;
+import ArmyC2.C2SD.Utilities.RendererProfile;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.ShapeInfo;
 import ArmyC2.C2SD.Utilities.SinglePointFont;
 import ArmyC2.C2SD.Utilities.SinglePointLookup;
+import ArmyC2.C2SD.Utilities.SinglePointLookupInfo;
 import ArmyC2.C2SD.Utilities.SymbolDef;
 import ArmyC2.C2SD.Utilities.SymbolDefTable;
 import ArmyC2.C2SD.Utilities.SymbolDraw;
@@ -58,9 +60,6 @@ public class SinglePointRenderer {
     
     private static String _className = "SinglePointRenderer";
 
-    private RendererSettings _RendererSettings = null;
-
-
     //private SymbolDefTable _SymbolDefTable = null;
     private BufferedImage _buffer = null;
     private FontRenderContext _fontRenderContext = null;
@@ -70,13 +69,14 @@ public class SinglePointRenderer {
     //private static ArrayList<String> _ModifierNamesUnit = null;
     private static ArrayList<String> _ModifierNamesTG = null;
 
-    private static Font _SinglePointFont = null;//SinglePointFont.getInstance().getSPFont(100);
-    private static Font _UnitFont = null;//SinglePointFont.getInstance().getUnitFont(100);
-    private static Font _ModifierFont = null;
+    private static volatile Font _SinglePointFont = null;//SinglePointFont.getInstance().getSPFont(100);
+    private static volatile Font _UnitFont = null;//SinglePointFont.getInstance().getUnitFont(100);
 
     private final Object _SinglePointFontMutex = new Object();
     private final Object _UnitFontMutex = new Object();
-    private final Object _ModifierFontMutex = new Object();
+
+    private final GlyphCache _UnitGlyphCache = new GlyphCache();
+    private final GlyphCache _SPGlyphCache = new GlyphCache();
 
 
     //Unit 2525C sizes
@@ -96,11 +96,9 @@ public class SinglePointRenderer {
     {
         try
         {
-            _RendererSettings = RendererSettings.getInstance();
             _SinglePointFont = SinglePointFont.getInstance().getSPFont(SymbolSizeSmall);
             _UnitFont = SinglePointFont.getInstance().getUnitFont(UnitSizeMedium);
-            _ModifierFont = RendererSettings.getInstance().getLabelFont();
-            
+
 
             _ModifierNamesTG = ModifiersTG.GetModifierList();
             //_ModifierNamesUnit = ModifiersUnits.GetModifierList();
@@ -158,10 +156,11 @@ public class SinglePointRenderer {
         try
         {
             FontRenderContext fontRenderContext = _fontRenderContext;
+            RendererProfile profile = symbol.getRendererProfile();
       
             String symbolID = symbol.getSymbolID();
 
-            int renderMethod = RendererSettings.getInstance().getUnitRenderMethod();
+            int renderMethod = profile.getUnitRenderMethod();
 
             double pixelSize = symbol.getUnitSize();
             //get basic symbol id
@@ -236,19 +235,25 @@ public class SinglePointRenderer {
 
 
             //create unit shape
-            char[] frameSymbol = {(char)charFrameIndex};
-            char[] frameAssumedSymbol = {(char)charFrameAssumedIndex};
-            char[] fillSymbol = {(char)charFillIndex};
-            char[] symbol1 = new char[1];
-            char[] symbol2 = new char[1];
-            if(charSymbol1Index > 0)
-            {
-                symbol1[0] = (char)charSymbol1Index;
-            }
-            if(charSymbol2Index > 0)
-            {
-                symbol2[0] = (char)charSymbol2Index;
-            }
+            //glyph outlines and bounds come from the cache so we don't need
+            //to lock the font.  Only the GlyphVectors we draw are created here.
+            Font unitFont = _UnitFont;
+            GlyphCache.GlyphInfo giFrameAssumed = _UnitGlyphCache.getGlyph(unitFont, frc, charFrameAssumedIndex, symStd);
+            GlyphCache.GlyphInfo giFrame = _UnitGlyphCache.getGlyph(unitFont, frc, charFrameIndex, symStd);
+            GlyphCache.GlyphInfo giFill = _UnitGlyphCache.getGlyph(unitFont, frc, charFillIndex, symStd);
+            GlyphCache.GlyphInfo giSymbol1 = _UnitGlyphCache.getGlyph(unitFont, frc, charSymbol1Index, symStd);
+            GlyphCache.GlyphInfo giSymbol2 = _UnitGlyphCache.getGlyph(unitFont, frc, charSymbol2Index, symStd);
+
+            //glyph used to measure the symbol
+            GlyphCache.GlyphInfo giBounds = null;
+            if(giFrame != null)
+                giBounds = giFrame;
+            else if(giFill != null)
+                giBounds = giFill;
+            else if(giSymbol1 != null)
+                giBounds = giSymbol1;
+            else if(giSymbol2 != null)
+                giBounds = giSymbol2;
 
             //create glyhps
             GlyphVector gvFrame = null;
@@ -259,83 +264,67 @@ public class SinglePointRenderer {
 
             Rectangle symbolBounds = null;
 
-            //gvFrame = CreateUnitGlyphVector(frc, frameSymbol);//_UnitFont.createGlyphVector(frc, frameSymbol);
-            //gvFill = CreateUnitGlyphVector(frc, fillSymbol);//_UnitFont.createGlyphVector(frc, fillSymbol);
-
             double ratio = 0;
-            synchronized(_UnitFontMutex)
-            {
 
-                if(symbol.getKeepUnitRatio() && pixelSize > 0)
-                {//symbols can range frmo 1.0 to 1.5
-                    //neutral unit is 1.1 x 1.1
-                    //unknown unit is 1.44x1.44
-                    //friendly unit is 1.5x1.0
-                    double heightRatio = 1.5;
-                    double widthRatio = 1.5;
+            if(symbol.getKeepUnitRatio() && pixelSize > 0)
+            {//symbols can range frmo 1.0 to 1.5
+                //neutral unit is 1.1 x 1.1
+                //unknown unit is 1.44x1.44
+                //friendly unit is 1.5x1.0
+                double heightRatio = 1.5;
+                double widthRatio = 1.5;
 
-                    heightRatio = UnitFontLookup.getUnitRatioHeight(charFillIndex);
-                    widthRatio = UnitFontLookup.getUnitRatioWidth(charFillIndex);
-                    
-                    if(heightRatio > widthRatio)
-                    {
-                        pixelSize = (pixelSize / 1.5) * heightRatio;
-                    }
-                    else
-                    {
-                        pixelSize = (pixelSize / 1.5) * widthRatio;
-                    }
+                heightRatio = UnitFontLookup.getUnitRatioHeight(charFillIndex);
+                widthRatio = UnitFontLookup.getUnitRatioWidth(charFillIndex);
+
+                if(heightRatio > widthRatio)
+                {
+                    pixelSize = (pixelSize / 1.5) * heightRatio;
                 }
+                else
+                {
+                    pixelSize = (pixelSize / 1.5) * widthRatio;
+                }
+            }
 
-                if(charFrameAssumedIndex > 0)
-                    gvFrameAssumed = _UnitFont.createGlyphVector(frc, frameAssumedSymbol);
-                
-                if(charFrameIndex > 0)
-                    gvFrame = _UnitFont.createGlyphVector(frc, frameSymbol);
+            //check size ratio
+            if(pixelSize > 0 && (charFrameIndex > 0 || charFillIndex > 0))
+            {
+                Rectangle foo = giBounds.getPixelBounds(0, 0, 0);
 
-                if(charFillIndex > 0)
-                    gvFill = _UnitFont.createGlyphVector(frc, fillSymbol);
+                //adjust size
+                ratio = Math.min((pixelSize / foo.getHeight()), (pixelSize / foo.getWidth()));
+            }
 
-                if(charSymbol1Index > 0)
-                    gvSymbol1 = _UnitFont.createGlyphVector(frc, symbol1);
-                if(charSymbol2Index > 0)
-                    gvSymbol2 = _UnitFont.createGlyphVector(frc, symbol2);
+            if(renderMethod == RendererSettings.RenderMethod_NATIVE)
+            {
+                if(giFrameAssumed != null)
+                    gvFrameAssumed = giFrameAssumed.createGlyphVector();
+                if(giFrame != null)
+                    gvFrame = giFrame.createGlyphVector();
+                if(giFill != null)
+                    gvFill = giFill.createGlyphVector();
+                if(giSymbol1 != null)
+                    gvSymbol1 = giSymbol1.createGlyphVector();
+                if(giSymbol2 != null)
+                    gvSymbol2 = giSymbol2.createGlyphVector();
 
-                //check size ratio
-                if(pixelSize > 0 && (charFrameIndex > 0 || charFillIndex > 0))
+                //resize to pixels
+                if(ratio > 0)
                 {
-                    Rectangle foo = null;
+                    if(gvFill != null)
+                        gvFill.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                    if(gvFrameAssumed != null)
+                        gvFrameAssumed.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
                     if(gvFrame != null)
-                        foo = gvFrame.getPixelBounds(frc, 0, 0);
-                    else if(gvFill != null)
-                        foo = gvFill.getPixelBounds(frc, 0, 0);
-                    else if(gvSymbol1 != null)
-                        foo = gvSymbol1.getPixelBounds(frc, 0, 0);
-                    else if(gvSymbol2 != null)
-                        foo = gvSymbol2.getPixelBounds(frc, 0, 0);
-
-                    //adjust size
-                    //foo = gvTemp.getPixelBounds(frc, 0, 0);
-                    ratio = Math.min((pixelSize / foo.getHeight()), (pixelSize / foo.getWidth()));
-
+                        gvFrame.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                    if(gvSymbol1 != null)
+                        gvSymbol1.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                    if(gvSymbol2 != null)
+                        gvSymbol2.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
                 }
             }
 
-            //resize to pixels
-            if(ratio > 0)
-            {
-                if(gvFill != null)
-                    gvFill.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-                if(gvFrameAssumed != null)
-                    gvFrameAssumed.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-                if(gvFrame != null)
-                    gvFrame.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-                if(gvSymbol1 != null)
-                    gvSymbol1.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-                if(gvSymbol2 != null)
-                    gvSymbol2.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-            }
-
 
             //convert coords to pixel
             ArrayList<Point2D.Double> coords = symbol.getCoordinates();
@@ -348,14 +337,8 @@ public class SinglePointRenderer {
 
             Rectangle2D symbolBounds2D = null;
 
-            if(gvFrame != null)
-                symbolBounds2D = gvFrame.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvFill != null)
-                symbolBounds2D = gvFill.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvSymbol1 != null)
-                symbolBounds2D = gvSymbol1.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvSymbol2 != null)
-                symbolBounds2D = gvSymbol2.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
+            if(giBounds != null)
+                symbolBounds2D = giBounds.getPixelBounds(ratio, (int)pixel.getX(), (int)pixel.getY());
             else
             {
                 if(pixelSize > 0)
@@ -373,7 +356,7 @@ public class SinglePointRenderer {
 
             //if symbol is HQ, we must move symbol and draw the staff
             if(SymbolUtilities.isHQ(symbol.getSymbolID()) && 
-                    RendererSettings.getInstance().getCenterOnHQStaff()==true)
+                    profile.getCenterOnHQStaff()==true)
             {
                 String affiliation = symbol.getSymbolID().substring(1, 2);
                 if(affiliation.equals("F") ||
@@ -407,16 +390,16 @@ public class SinglePointRenderer {
             Shape shapeSymbol2 = null;
             if(renderMethod == RendererSettings.RenderMethod_SHAPES)
             {
-                if(gvFrameAssumed != null)
-                    shapeFrameAssumed = gvFrameAssumed.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
-                if(gvFrame != null)
-                    shapeFrame = gvFrame.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
-                if(gvFill != null)
-                shapeFill = gvFill.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
-                if(gvSymbol1 != null)
-                    shapeSymbol1 = gvSymbol1.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
-                if(gvSymbol2 != null)
-                    shapeSymbol2 = gvSymbol2.getGlyphOutline(0, (int)pixel.getX()  , (int)pixel.getY());
+                if(giFrameAssumed != null)
+                    shapeFrameAssumed = giFrameAssumed.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
+                if(giFrame != null)
+                    shapeFrame = giFrame.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
+                if(giFill != null)
+                    shapeFill = giFill.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
+                if(giSymbol1 != null)
+                    shapeSymbol1 = giSymbol1.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
+                if(giSymbol2 != null)
+                    shapeSymbol2 = giSymbol2.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
             }
 
 
@@ -574,14 +557,8 @@ public class SinglePointRenderer {
             symbol.setSymbolShapes(shapes);
 
             //get current symbol bounds
-            if(gvFrame != null)
-                symbolBounds = gvFrame.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvFill != null)
-                symbolBounds = gvFill.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvSymbol1 != null)
-                symbolBounds = gvSymbol1.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
-            else if(gvSymbol2 != null)
-                symbolBounds = gvSymbol2.getPixelBounds(frc, (int)pixel.getX(), (int)pixel.getY());
+            if(giBounds != null)
+                symbolBounds = giBounds.getPixelBounds(ratio, (int)pixel.getX(), (int)pixel.getY());
 
             //check if we're drawing below items////////////////////////////////
             String drawModifiers = symbol.getModifier("showdisplaymodifiers");
@@ -593,12 +570,12 @@ public class SinglePointRenderer {
                 symbolBounds.grow(symbol.getOutlineWidth(), symbol.getOutlineWidth());
 
             //Process display modifiers///////////////////////
-            ProcessUnitDisplayModifiers(symbol.getSymbolID(), shapes, symbolBounds, pixelSize,symStd, symbol.getTextColor(), symbol.getTextBackgroundColor());
+            ProcessUnitDisplayModifiers(symbol.getSymbolID(), shapes, symbolBounds, pixelSize,symStd, symbol.getTextColor(), symbol.getTextBackgroundColor(), profile);
 
             //Process unit affiliation modifier
             if(symbol.getDrawAffiliationModifierAsLabel()==false)
             {
-                ProcessUnitAffiliationModifiers(symbol.getSymbolID(), shapes, symbolBounds,symStd, symbol.getTextColor(), symbol.getTextBackgroundColor());
+                ProcessUnitAffiliationModifiers(symbol.getSymbolID(), shapes, symbolBounds,symStd, symbol.getTextColor(), symbol.getTextBackgroundColor(), profile);
             }
             else
             {
@@ -648,7 +625,7 @@ public class SinglePointRenderer {
                     if(shapes.get(i).getShapeType() == ShapeInfo.SHAPE_TYPE_UNIT_ECHELON)
                     {
                         echelonBounds = shapes.get(i).getBounds();
-                        int textOutlineWidth = RendererSettings.getInstance().getTextOutlineWidth();
+                        int textOutlineWidth = profile.getTextOutlineWidth();
                         echelonBounds.grow(textOutlineWidth, i);
                         i = shapeSize;
                     }
@@ -681,14 +658,14 @@ public class SinglePointRenderer {
                 }
                     
 
-                if(RendererSettings.getInstance().getLabelForegroundColor() != null)
+                if(profile.getLabelForegroundColor() != null)
                 {
-                    textColor = RendererSettings.getInstance().getLabelForegroundColor();
+                    textColor = profile.getLabelForegroundColor();
                     //textColor = symbol.getLineColor();
                 }
                 
-                ArrayList<ShapeInfo> msTemp = GetUnitModifierShape(symbol.getSymbolID(), symbol.getModifierMap(), frc, _ModifierFont, bounds, echelonBounds, affiliationBounds, textColor, textBackgroundColor);
-                msTemp = SymbolDraw.ProcessModifierBackgrounds(msTemp);
+                ArrayList<ShapeInfo> msTemp = GetUnitModifierShape(symbol.getSymbolID(), symbol.getModifierMap(), profile, bounds, echelonBounds, affiliationBounds, textColor, textBackgroundColor);
+                msTemp = SymbolDraw.ProcessModifierBackgrounds(msTemp, profile);
                 symbol.setModifierShapes(msTemp);
 
             }
@@ -780,7 +757,7 @@ public class SinglePointRenderer {
      * @param shapes
      * @param bounds
      */
-    private void ProcessUnitAffiliationModifiers(String SymbolID, ArrayList<ShapeInfo> shapes, Rectangle bounds,int symStd, Color textColor, Color textBackgroundColor)
+    private void ProcessUnitAffiliationModifiers(String SymbolID, ArrayList<ShapeInfo> shapes, Rectangle bounds,int symStd, Color textColor, Color textBackgroundColor, RendererProfile profile)
     {
         int x = 0;
         int y = 0;
@@ -861,7 +838,7 @@ public class SinglePointRenderer {
             if(textChar==null)
                 return;
 
-            TextLayout text = new TextLayout(textChar, new Font("Arial", Font.BOLD, fontSize), _fontRenderContext);
+            TextLayout text = new TextLayout(textChar, new Font("Arial", Font.BOLD, fontSize), profile.getFontRenderContext());
             //Float descent = text.getDescent();
             //Rectangle labelBounds = text.getPixelBounds(null, 0, 0);
 
@@ -878,16 +855,16 @@ public class SinglePointRenderer {
             }
             
            
-            siAffiliation = SymbolDraw.CreateModifierShapeInfo(text, textChar, x, y, textColor, textBackgroundColor);
+            siAffiliation = SymbolDraw.CreateModifierShapeInfo(text, textChar, x, y, textColor, textBackgroundColor, profile.getTextRenderMethod());
 
             siAffiliation.setShapeType(ShapeInfo.SHAPE_TYPE_UNIT_AFFILIATION_MODIFIER);
 
-            if(RendererSettings.getInstance().getTextBackgroundMethod() 
+            if(profile.getTextBackgroundMethod() 
                     != RendererSettings.TextBackgroundMethod_NONE)
             {
                 ArrayList<ShapeInfo> affiliationParts = new ArrayList<ShapeInfo>();
                 affiliationParts.add(siAffiliation);
-                affiliationParts = SymbolDraw.ProcessModifierBackgrounds(affiliationParts);
+                affiliationParts = SymbolDraw.ProcessModifierBackgrounds(affiliationParts, profile);
                 shapes.addAll(affiliationParts);            
             }
             else
@@ -912,7 +889,7 @@ public class SinglePointRenderer {
      * @param pixelSize
      * @param symStd 
      */
-    private void ProcessUnitDisplayModifiers(String SymbolID, ArrayList<ShapeInfo> shapes, Rectangle bounds, double pixelSize,int symStd, Color textColor, Color textBackgroundColor)
+    private void ProcessUnitDisplayModifiers(String SymbolID, ArrayList<ShapeInfo> shapes, Rectangle bounds, double pixelSize,int symStd, Color textColor, Color textBackgroundColor, RendererProfile profile)
     {
        // Path2D displayModifiers = new Path2D.Double();
         try
@@ -922,7 +899,7 @@ public class SinglePointRenderer {
 
             Rectangle2D echelonBounds = null;
 
-            siTempArray = CreateOperationalConditionIndicator(SymbolID, bounds, pixelSize);
+            siTempArray = CreateOperationalConditionIndicator(SymbolID, bounds, pixelSize, profile);
             if(siTempArray != null)
                 shapes.addAll(siTempArray);
 
@@ -935,13 +912,13 @@ public class SinglePointRenderer {
                     String echelon = SymbolID.substring(11, 12);
                     if(!echelon.equals("-") && !echelon.equals("*"))
                     {
-                        siTemp = CreateEchelonShapeInfo(SymbolID.substring(11, 12), _fontRenderContext, bounds, textColor, textBackgroundColor);
+                        siTemp = CreateEchelonShapeInfo(SymbolID.substring(11, 12), profile, bounds, textColor, textBackgroundColor);
                         if(siTemp != null)
                         {
                             //
                             ArrayList<ShapeInfo> echelonParts = new ArrayList<ShapeInfo>();
                             echelonParts.add(siTemp);
-                            echelonParts = SymbolDraw.ProcessModifierBackgrounds(echelonParts);
+                            echelonParts = SymbolDraw.ProcessModifierBackgrounds(echelonParts, profile);
                             shapes.addAll(echelonParts);
                             echelonBounds = echelonParts.get(echelonParts.size()-1).getBounds();
 //                            //grow for antialiasing
@@ -1328,7 +1305,7 @@ public class SinglePointRenderer {
      * @param pixelSize
      * @return
      */
-    private ArrayList<ShapeInfo> CreateOperationalConditionIndicator(String SymbolID, Rectangle2D symbolBounds, double pixelSize)
+    private ArrayList<ShapeInfo> CreateOperationalConditionIndicator(String SymbolID, Rectangle2D symbolBounds, double pixelSize, RendererProfile profile)
     {
         ArrayList<ShapeInfo> bars = null;
         char status = ' ';
@@ -1347,7 +1324,7 @@ public class SinglePointRenderer {
         try
         {
             status = SymbolID.charAt(3);
-            if(RendererSettings.getInstance().getOperationalConditionModifierType() == RendererSettings.OperationalConditionModifierType_BAR)
+            if(profile.getOperationalConditionModifierType() == RendererSettings.OperationalConditionModifierType_BAR)
             {
                 //set color
                 if(symbolBounds != null && SymbolID.length() > 4)
@@ -1439,8 +1416,9 @@ public class SinglePointRenderer {
         return bars;
     }
 
-    private ShapeInfo CreateEchelonShapeInfo(String echelon, FontRenderContext frc, Rectangle bounds, Color textColor, Color textBackgroundColor)
+    private ShapeInfo CreateEchelonShapeInfo(String echelon, RendererProfile profile, Rectangle bounds, Color textColor, Color textBackgroundColor)
     {
+        FontRenderContext frc = profile.getFontRenderContext();
         ShapeInfo siEchelon = null;
 
         int x = 0;
@@ -1454,9 +1432,9 @@ public class SinglePointRenderer {
 
         int fontSize = 12;
         
-        boolean scaleEchelon = RendererSettings.getInstance().getScaleEchelon();
+        boolean scaleEchelon = profile.getScaleEchelon();
         
-        fontSize = RendererSettings.getInstance().getLabelFontSize();
+        fontSize = profile.getLabelFontSize();
         
         if(scaleEchelon)
             fontSize = (int)Math.round(bounds.getWidth() / ratio);
@@ -1478,20 +1456,20 @@ public class SinglePointRenderer {
                     x = bounds.x + (bounds.width/2) - (labelBounds.width / 2);
                     y = bounds.y - descent.intValue();// - bufferY;
 
-                    if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE)
+                    if(profile.getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE)
                     {
-                        y = y - (RendererSettings.getInstance().getTextOutlineWidth()/2);
+                        y = y - (profile.getTextOutlineWidth()/2);
                     }
-                    else if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE_QUICK)
+                    else if(profile.getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE_QUICK)
                     {
-                        y = y - RendererSettings.getInstance().getTextOutlineWidth();
+                        y = y - profile.getTextOutlineWidth();
                     }
-                    else if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_COLORFILL)
+                    else if(profile.getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_COLORFILL)
                     {
                         y = y - 1;
                     }
 
-                    siEchelon = SymbolDraw.CreateModifierShapeInfo(text, echelonText, x, y, textColor, textBackgroundColor);
+                    siEchelon = SymbolDraw.CreateModifierShapeInfo(text, echelonText, x, y, textColor, textBackgroundColor, profile.getTextRenderMethod());
                     siEchelon.setShapeType(ShapeInfo.SHAPE_TYPE_UNIT_ECHELON);
 
                 }
@@ -1839,7 +1817,7 @@ public class SinglePointRenderer {
         {
             FontRenderContext fontRenderContext = _fontRenderContext;
                     
-            int tgRenderMethod = RendererSettings.getInstance().getSymbolRenderMethod();
+            int tgRenderMethod = symbol.getRendererProfile().getSymbolRenderMethod();
             
             int symStd = symbol.getSymbologyStandard();
 
@@ -1878,81 +1856,66 @@ public class SinglePointRenderer {
             //create unit shape
             char[] frameSymbol = {(char)charIndex};
             char[] fillSymbol = null;
+            if(fillIndex > 0)
+            {
+                fillSymbol = new char[1];
+                fillSymbol[0] = (char)fillIndex;
+            }
+
+            //glyph outlines and bounds come from the cache so we don't need
+            //to lock the font.
+            Font spFont = _SinglePointFont;
+            GlyphCache.GlyphInfo giFrame = _SPGlyphCache.getGlyph(spFont, frc, frameSymbol[0], symStd);
+            GlyphCache.GlyphInfo giFill = null;
+            if(fillSymbol != null)
+                giFill = _SPGlyphCache.getGlyph(spFont, frc, fillSymbol[0], symStd);
 
             //create glyhps
             GlyphVector gvFrame = null;
             GlyphVector gvFill = null;
-            //gvFrame = CreateTGSPGlyphVector(frc, frameSymbol);//_SinglePointFont.createGlyphVector(frc, frameSymbol);
 
             double ratio = 0;
-            synchronized(_SinglePointFontMutex)
-            {
-               double spScale;
-               if(pixelSize > 0)
-               {
-                   Rectangle foo = null;
-                   gvFrame = _SinglePointFont.createGlyphVector(frc, frameSymbol);
-                   foo = gvFrame.getPixelBounds(frc, 0, 0);
-                   if(symbol.getKeepUnitRatio()==true)
-                   {
-                       //scale it somehow for consistency with units.
-                       
-                       //when SymbolSizeMedium = 80;
-                       //a pixel size of 35 = scale value of 1.0
-                       if(scale <=0)
-                       {
-                           if(_SinglePointFont.getSize2D()==80.0f)//medium
-                           {
-                            scale = pixelSize / 35.0;
-                           }//TODO: need to adjust multiplier for other scales
-                           else if(_SinglePointFont.getSize2D()==60.0f)//small
-                           {
-                            scale = pixelSize / 35.0;
-                           }
-                           else if(_SinglePointFont.getSize2D()==100.0f)//large
-                           {
-                            scale = pixelSize / 35.0;
-                           }
-                           else if(_SinglePointFont.getSize2D()==120.0f)//XL
-                           {
-                            scale = pixelSize / 35.0;
-                           }
-                           else
-                           {
-                               scale = pixelSize / 35.0;
-                           }
-                       }
-                   }
-                   
-                   //adjust size
-                   ratio = Math.min((pixelSize / foo.getHeight()), (pixelSize / foo.getWidth()));
-               }
-               
-               if(gvFrame == null)
-                   gvFrame = _SinglePointFont.createGlyphVector(frc, frameSymbol);
-
-               if(fillIndex > 0)
-               {
-                   fillSymbol = new char[1];
-                   fillSymbol[0] = (char)fillIndex;
-                   gvFill = _SinglePointFont.createGlyphVector(frc, fillSymbol);
-               }
-               
-               
-               
-               //scale overrides pixel size.
-               if(scale > 0)
-               {
-                   ratio = scale;
-               }
+            if(pixelSize > 0)
+            {
+                Rectangle foo = giFrame.getPixelBounds(0, 0, 0);
+                if(symbol.getKeepUnitRatio()==true)
+                {
+                    //scale it somehow for consistency with units.
+
+                    //when SymbolSizeMedium = 80;
+                    //a pixel size of 35 = scale value of 1.0
+                    //TODO: need to adjust multiplier for other font sizes
+                    if(scale <=0)
+                    {
+                        scale = pixelSize / 35.0;
+                    }
+                }
+
+                //adjust size
+                ratio = Math.min((pixelSize / foo.getHeight()), (pixelSize / foo.getWidth()));
             }
 
-            if(ratio > 0)
+            //scale overrides pixel size.
+            if(scale > 0)
             {
-                if(gvFill != null)
-                    gvFill.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
-                if(gvFrame != null)
-                    gvFrame.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                ratio = scale;
+            }
+
+            if(tgRenderMethod == RendererSettings.RenderMethod_NATIVE)
+            {
+                //ShapeInfo needs its own GlyphVector, see createGlyphVector
+                //for why this still comes from the font.
+                gvFrame = giFrame.createGlyphVector();
+                if(giFill != null)
+                    gvFill = giFill.createGlyphVector();
+
+                if(ratio > 0)
+                {
+                    if(gvFill != null)
+                        gvFill.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                    if(gvFrame != null)
+                        gvFrame.setGlyphTransform(0, AffineTransform.getScaleInstance(ratio, ratio));
+                }
             }
 
             //convert coords to pixel
@@ -1968,10 +1931,10 @@ public class SinglePointRenderer {
             Shape shapeFrame = null;
             if(tgRenderMethod == RendererSettings.RenderMethod_SHAPES)
             {
-                if(gvFill != null)
-                    shapeFill = gvFill.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
+                if(giFill != null)
+                    shapeFill = giFill.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
                 
-                shapeFrame = gvFrame.getGlyphOutline(0, (int)pixel.getX(), (int)pixel.getY());
+                shapeFrame = giFrame.getOutline(ratio, (int)pixel.getX(), (int)pixel.getY());
             }
             //ErrorLogger.LogMessage("X: " + String.valueOf(pixel.x) + "Y: " + String.valueOf(pixel.y), Boolean.TRUE);
 
@@ -2134,6 +2097,7 @@ public class SinglePointRenderer {
         String validModifiers = "";
         SymbolDef sDef = null;
         ArrayList<ShapeInfo> modifierShapes = null;
+        RendererProfile profile = symbol.getRendererProfile();
         
         int symStd = symbol.getSymbologyStandard();
         
@@ -2147,9 +2111,9 @@ public class SinglePointRenderer {
         {
             textColor = symbol.getTextColor();
         }
-        else if(_RendererSettings.getLabelForegroundColor() != null)
+        else if(profile.getLabelForegroundColor() != null)
         {
-            textColor = _RendererSettings.getLabelForegroundColor();
+            textColor = profile.getLabelForegroundColor();
         }
         else if(SymbolUtilities.isTacticalGraphic(symbol.getSymbolID()) && symbol.getLineColor() != null)
         {
@@ -2171,7 +2135,7 @@ public class SinglePointRenderer {
             symbolBounds.grow(symbol.getOutlineWidth(), symbol.getOutlineWidth());
         
         modifierShapes = ProcessSPTGModifiers(symbol.getSymbolID(), validModifiers,
-                                     symbol.getModifierMap(), symbolBounds,_fontRenderContext, _ModifierFont,textColor,textBackgroundColor,symStd);
+                                     symbol.getModifierMap(), symbolBounds,profile,textColor,textBackgroundColor,symStd);
         return modifierShapes;
 
     }
@@ -2186,14 +2150,13 @@ public class SinglePointRenderer {
      * @param validModifiers  null or "" will result in no modifiers being processed
      * @param modifiers
      * @param bounds
-     * @param frc
-     * @param labelFont
+     * @param profile label font, FontRenderContext and text settings
      * @param textColor
      * @return
      */
     private static ArrayList<ShapeInfo> ProcessSPTGModifiers(String milStdCode,
             String validModifiers, Map<String, String> modifiers, Rectangle bounds,
-                                    FontRenderContext frc, Font labelFont, Color textColor, Color textBackgroundColor, int symStd)
+                                    RendererProfile profile, Color textColor, Color textBackgroundColor, int symStd)
     {
         ArrayList<ShapeInfo> modifierShapes = null;
 
@@ -2213,7 +2176,7 @@ public class SinglePointRenderer {
             
             if(SymbolUtilities.isTGSPWithIntegralText(milStdCode))
             {
-                alTemp.addAll(CreateTGSPIntegralText(milStdCode, bounds, frc, labelFont, textColor, textBackgroundColor, symStd));
+                alTemp.addAll(CreateTGSPIntegralText(milStdCode, bounds, profile, textColor, textBackgroundColor, symStd));
             }
 
             //if symbol can have modifiers and has pass modifier values, create modifier text
@@ -2255,12 +2218,12 @@ public class SinglePointRenderer {
 
                                 if(specialLayout)
                                 {
-                                    alTemp2 = GetSPTGSpecialModifierShape(milStdCode, modifierString, modifierName, frc, labelFont, bounds, textColor, textBackgroundColor);
+                                    alTemp2 = GetSPTGSpecialModifierShape(milStdCode, modifierString, modifierName, profile, bounds, textColor, textBackgroundColor);
                                 }
                                 else
                                 {
                                     //ErrorLogger.LogMessage(modifierString);
-                                    alTemp2 = GetSPTGModifierShape(milStdCode, modifierString, modifierName, frc, labelFont, bounds, textColor, textBackgroundColor);
+                                    alTemp2 = GetSPTGModifierShape(milStdCode, modifierString, modifierName, profile, bounds, textColor, textBackgroundColor);
                                 }
 
                                 if(alTemp2 != null && alTemp2.size() > 0)
@@ -2274,7 +2237,7 @@ public class SinglePointRenderer {
                 }
             }
 
-            modifierShapes = SymbolDraw.ProcessModifierBackgrounds(alTemp);
+            modifierShapes = SymbolDraw.ProcessModifierBackgrounds(alTemp, profile);
 
         }
         catch(Exception exc)
@@ -2295,15 +2258,16 @@ public class SinglePointRenderer {
      * @param symbolID
      * @param modifierValue
      * @param modifierName example: MilStdSymbol.ADDITIONAL_INFO_1
-     * @param frc
-     * @param labelFont
+     * @param profile label font, FontRenderContext and text settings
      * @param bounds
      * @param byLabelHeight position by label height (true) or position accurately (false).
      * Typically set to true when label font is too big to position modifiers accurately.
      * @return
      */
-    private static ArrayList<ShapeInfo> GetSPTGModifierShape(String symbolID, String modifierValue, String modifierName, FontRenderContext frc, Font labelFont, Rectangle bounds, Color TextColor, Color textBackgroundColor)
+    private static ArrayList<ShapeInfo> GetSPTGModifierShape(String symbolID, String modifierValue, String modifierName, RendererProfile profile, Rectangle bounds, Color TextColor, Color textBackgroundColor)
     {
+        FontRenderContext frc = profile.getFontRenderContext();
+        Font labelFont = profile.getLabelFont();
         //Shout(modifierName, modifierValue);
 
         double bufferXL = 6;
@@ -2424,7 +2388,7 @@ public class SinglePointRenderer {
 
                 //have the position, now create the shape
                 ShapeInfo si = null;
-                si = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, textBackgroundColor);
+                si = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, textBackgroundColor, profile.getTextRenderMethod());
 
                 alTemp = new ArrayList<ShapeInfo>(1);
                 alTemp.add(si);
@@ -2449,13 +2413,14 @@ public class SinglePointRenderer {
      * @param symbolID
      * @param modifierValue
      * @param modifierName example: MilStdSymbol.ADDITIONAL_INFO_1
-     * @param frc
-     * @param labelFont
+     * @param profile label font, FontRenderContext and text settings
      * @param bounds
      * @return
      */
-    private static ArrayList<ShapeInfo> GetSPTGSpecialModifierShape(String symbolID, String modifierValue, String modifierName, FontRenderContext frc, Font labelFont, Rectangle bounds, Color textColor, Color textBackgroundColor)
+    private static ArrayList<ShapeInfo> GetSPTGSpecialModifierShape(String symbolID, String modifierValue, String modifierName, RendererProfile profile, Rectangle bounds, Color textColor, Color textBackgroundColor)
     {
+        FontRenderContext frc = profile.getFontRenderContext();
+        Font labelFont = profile.getLabelFont();
         //Shout(modifierName, modifierValue);
 
         double bufferXL = 6;
@@ -2745,7 +2710,7 @@ public class SinglePointRenderer {
                 //Shape label = gv.getGlyphOutline(y, x, y);
 
                 ShapeInfo si = null;
-                si = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, textColor, textBackgroundColor);
+                si = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, textColor, textBackgroundColor, profile.getTextRenderMethod());
 
                 ArrayList<ShapeInfo> siList = new ArrayList<ShapeInfo>(1);
                 siList.add(si);
@@ -2754,7 +2719,7 @@ public class SinglePointRenderer {
                 {
 
                     ShapeInfo si2 = null;
-                    si2 = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x2, y2, textColor, textBackgroundColor);
+                    si2 = SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x2, y2, textColor, textBackgroundColor, profile.getTextRenderMethod());
 
                     siList.add(si2);
                 }
@@ -2937,8 +2902,7 @@ public class SinglePointRenderer {
      * (Label Modifiers, not Graphic modifiers)
      * @param symbolID
      * @param modifiers map of modifiers
-     * @param frc
-     * @param labelFont
+     * @param profile label font, FontRenderContext and text settings
      * @param bounds
      * @param echelonBounds optional - echelon width may indicate modifiers
      * need to be further out from the symbol (Region)
@@ -2946,8 +2910,10 @@ public class SinglePointRenderer {
      * may need to be repositioned.
      * @return
      */
-    private static ArrayList<ShapeInfo> GetUnitModifierShape(String symbolID, Map<String,String> modifiers, FontRenderContext frc, Font labelFont, Rectangle bounds, Rectangle echelonBounds, Rectangle affiliationBounds, Color TextColor, Color TextBackgroundColor)
+    private static ArrayList<ShapeInfo> GetUnitModifierShape(String symbolID, Map<String,String> modifiers, RendererProfile profile, Rectangle bounds, Rectangle echelonBounds, Rectangle affiliationBounds, Color TextColor, Color TextBackgroundColor)
     {
+        FontRenderContext frc = profile.getFontRenderContext();
+        Font labelFont = profile.getLabelFont();
         double bufferXL = 5;
         double bufferXR = 5;
         double bufferY = 2;
@@ -3050,7 +3016,7 @@ public class SinglePointRenderer {
                     y = bounds.y + y;
                 }
 
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.G_STAFF_COMMENTS))
             {
@@ -3076,7 +3042,7 @@ public class SinglePointRenderer {
                 }
                 
                
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
 
                 //Concession for cpof name label
                 if((x + text.getBounds().getWidth() + 3) > cpofNameX)
@@ -3098,7 +3064,7 @@ public class SinglePointRenderer {
                 y = bounds.y + y;
                 
                 
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.H_ADDITIONAL_INFO_1))
             {
@@ -3114,7 +3080,7 @@ public class SinglePointRenderer {
                 y = ((y * 0.5) + (labelHeight * 0.5));
                 y = bounds.y + y;
                 
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
                 
                 //Concession for cpof name label
                 if((x + text.getBounds().getWidth() + 3) > cpofNameX)
@@ -3138,7 +3104,7 @@ public class SinglePointRenderer {
                     y =  y + ((labelHeight + bufferText));
                     y = bounds.y + y;
                 }
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.M_HIGHER_FORMATION) ||
                        modifiers.containsKey(ModifiersUnits.CC_COUNTRY_CODE))
@@ -3171,7 +3137,7 @@ public class SinglePointRenderer {
                     y =  y + ((labelHeight + bufferText));
                     y = bounds.y + y;
                 }
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
                 
                 //Concession for cpof name label
                 if((x + text.getBounds().getWidth() + 3) > cpofNameX)
@@ -3195,7 +3161,7 @@ public class SinglePointRenderer {
                     y = y + ((labelHeight + bufferText)*2);
                     y = bounds.y + y;
                 }
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.J_EVALUATION_RATING) ||
                     modifiers.containsKey(ModifiersUnits.K_COMBAT_EFFECTIVENESS) ||
@@ -3238,7 +3204,7 @@ public class SinglePointRenderer {
                     y = y + ((labelHeight + bufferText)*2);
                     y = bounds.y + y;
                 }
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
                 
                 //Concession for cpof name label
                 if((x + text.getBounds().getWidth() + 3) > cpofNameX)
@@ -3265,7 +3231,7 @@ public class SinglePointRenderer {
                     y = y - ((labelHeight + bufferText)*2);
                     y = bounds.y + y;
                 }
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.F_REINFORCED_REDUCED) ||
                     modifiers.containsKey(ModifiersUnits.E_FRAME_SHAPE_MODIFIER))
@@ -3333,7 +3299,7 @@ public class SinglePointRenderer {
                         y = y - ((labelHeight + bufferText)*2);
                         y = bounds.y + y;
                     }
-                    alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                    alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
 
                     //Concession for cpof name label
                     if((x + text.getBounds().getWidth() + 3) > cpofNameX)
@@ -3348,7 +3314,7 @@ public class SinglePointRenderer {
                 labelWidth = labelBounds.width;//not needed for right side labels
                 x = (bounds.x + (bounds.width * 0.5)) - (labelWidth * 0.5);
                 y = bounds.y - bufferY - descent;
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.AA_SPECIAL_C2_HQ))
             {
@@ -3364,7 +3330,7 @@ public class SinglePointRenderer {
                 y = bounds.y + y;
                 
                 
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.CN_CPOF_NAME_LABEL))
             {
@@ -3381,7 +3347,7 @@ public class SinglePointRenderer {
                 y = bounds.y + y;
                 
                 
-                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
             }
             if(modifiers.containsKey(ModifiersUnits.SCC_SONAR_CLASSIFICATION_CONFIDENCE))
             {
@@ -3409,7 +3375,7 @@ public class SinglePointRenderer {
                         y = bounds.y + y;
 
 
-                        alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor));
+                        alTemp.add(SymbolDraw.CreateModifierShapeInfo(text, modifierValue, x, y, TextColor, TextBackgroundColor, profile.getTextRenderMethod()));
                     }
                 }
 
@@ -3511,8 +3477,10 @@ public class SinglePointRenderer {
      * @param symbolBounds
      * @return
      */
-    private static ArrayList<ShapeInfo> CreateTGSPIntegralText(String SymbolID, Rectangle2D symbolBounds, FontRenderContext frc, Font labelFont, Color textColor, Color textBackgroundColor, int symStd)
+    private static ArrayList<ShapeInfo> CreateTGSPIntegralText(String SymbolID, Rectangle2D symbolBounds, RendererProfile profile, Color textColor, Color textBackgroundColor, int symStd)
     {
+        FontRenderContext frc = profile.getFontRenderContext();
+        Font labelFont = profile.getLabelFont();
 
         double bufferXL = 6;
         double bufferXR = 4;
@@ -3662,7 +3630,7 @@ public class SinglePointRenderer {
             {
                 
                 ShapeInfo si1 = null;
-                si1 = SymbolDraw.CreateModifierShapeInfo(text1, strText1, x, y, textColor, textBackgroundColor);
+                si1 = SymbolDraw.CreateModifierShapeInfo(text1, strText1, x, y, textColor, textBackgroundColor, profile.getTextRenderMethod());
 
                 returnVal.add(si1);
             }
@@ -3670,7 +3638,7 @@ public class SinglePointRenderer {
             {
                 
                 ShapeInfo si2 = null;
-                si2 = SymbolDraw.CreateModifierShapeInfo(text2, strText2, x2, y2, textColor, textBackgroundColor);
+                si2 = SymbolDraw.CreateModifierShapeInfo(text2, strText2, x2, y2, textColor, textBackgroundColor, profile.getTextRenderMethod());
 
                 returnVal.add(si2);
             }
@@ -3699,26 +3667,81 @@ public class SinglePointRenderer {
         synchronized(_SinglePointFontMutex)
         {
             _SinglePointFont = SinglePointFont.getInstance().getSPFont(size);
+            _SPGlyphCache.clear();
         }
 
     }
 
+    /**
+     * Loads every single point tactical graphic in SinglePointLookup into the
+     * glyph cache so ProcessSPSymbol doesn't have to go to the font once the
+     * renderer is up.  Call again after setSinglePointTGSymbolSize.
+     * @param pixelSizes symbol sizes to also pre-scale the glyphs for,
+     * can be null.
+     */
+    public void warmSinglePointGlyphCache(int[] pixelSizes)
+    {
+        try
+        {
+            FontRenderContext frc = _fontRenderContext;
+            Font spFont = _SinglePointFont;
+            int[] symStds = {RendererSettings.Symbology_2525B, RendererSettings.Symbology_2525C};
+            for(int symStd : symStds)
+            {
+                ArrayList<SinglePointLookupInfo> infos = SinglePointLookup.getInstance().getLookupInfoList(symStd);
+                for(SinglePointLookupInfo spli : infos)
+                {
+                    //weather fills are the character after the frame
+                    int fillIndex = -1;
+                    if(SymbolUtilities.isWeatherSPWithFill(spli.getBasicSymbolID()))
+                        fillIndex = spli.getMappingP() + 1;
+                    int[] charIndexes = {spli.getMappingP(), spli.getMappingA(), fillIndex};
+                    for(int charIndex : charIndexes)
+                    {
+                        GlyphCache.GlyphInfo gi = _SPGlyphCache.getGlyph(spFont, frc, charIndex, symStd);
+                        if(gi != null && pixelSizes != null)
+                        {
+                            Rectangle bounds = gi.getPixelBounds(0, 0, 0);
+                            for(int pixelSize : pixelSizes)
+                            {
+                                if(pixelSize <= 0)
+                                    continue;
+                                //same ratios ProcessSPSymbol uses with and
+                                //without keepUnitRatio.
+                                double[] ratios = {pixelSize / 35.0,
+                                    Math.min((pixelSize / bounds.getHeight()), (pixelSize / bounds.getWidth()))};
+                                for(double ratio : ratios)
+                                {
+                                    gi.getPixelBounds(ratio, 0, 0);
+                                    gi.getOutline(ratio, 0, 0);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "warmSinglePointGlyphCache", exc);
+        }
+    }
+
     public void setUnitSymbolSize(int size) {
         synchronized(_UnitFontMutex)
         {
             _UnitFont = SinglePointFont.getInstance().getUnitFont(size);
+            _UnitGlyphCache.clear();
         }
     }
     
     /**
-     * reloads modifier font based on the current RendererSettings
+     * Label fonts come from each symbol's RendererProfile, which picks up
+     * RendererSettings changes by itself, so there's nothing to reload.
+     * @deprecated
      */
     public void RefreshModifierFont()
     {
-        synchronized(_ModifierFontMutex)
-        {
-            _ModifierFont = RendererSettings.getInstance().getLabelFont();
-        }
     }
     
     /**
@@ -3726,26 +3749,18 @@ public class SinglePointRenderer {
      * @param name
      * @param type
      * @param size 
-     * @deprecated
+     * @deprecated use RendererSettings.setLabelFont or a RendererProfile
      */
     public void setModifierFont(String name, int type, int size) 
     {
-        synchronized(_ModifierFontMutex)
-        {
-            _ModifierFont = RendererSettings.getInstance().getLabelFont();
-        }
     }
     /**
      * 
      * @param font 
-     * @deprecated
+     * @deprecated use RendererSettings.setLabelFont or a RendererProfile
      */
     public void setModifierFont(Font font) 
     {
-        synchronized(_ModifierFontMutex)
-        {
-            _ModifierFont = RendererSettings.getInstance().getLabelFont();
-        }
     }
 
     private static String PrintList(ArrayList list)
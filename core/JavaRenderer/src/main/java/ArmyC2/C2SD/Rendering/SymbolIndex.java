@@ -0,0 +1,678 @@
+package ArmyC2.C2SD.Rendering;
+
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.RendererException;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * R-tree over the bounds of indexed items, for finding the ones in a clip or
+ * under the mouse without checking all of them.  Items can be anything the
+ * caller wants back from a query, bounds are given with each item, so call
+ * update() when an item moves.  For rendered symbols, getRenderedBounds()
+ * gives the pixel bounds of a symbol that has been through
+ * JavaRenderer.Render and fromRendered() indexes a list of them.
+ * Query results come back in the order the items were added, which is the
+ * order they'd be drawn in.
+ * Methods are synchronized so the index can be drawn from while another
+ * thread adds to it.
+ */
+public class SymbolIndex<T> {
+
+    private static final String _className = "SymbolIndex";
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MIN_ENTRIES = 6;
+
+    private final IdentityHashMap<T, Entry<T>> _entries = new IdentityHashMap<T, Entry<T>>();
+    private Node _root = new Node(true);
+    private long _sequence = 0;
+
+    public SymbolIndex()
+    {
+    }
+
+    /**
+     * Builds a packed (sort-tile-recursive) tree, which queries faster and
+     * builds quicker than adding items one at a time.
+     * @param items in draw order
+     * @param bounds bounds.get(i) is for items.get(i).  Items with null
+     * bounds are left out.
+     */
+    public SymbolIndex(List<T> items, List<? extends Rectangle2D> bounds)
+    {
+        ArrayList<Box> boxes = new ArrayList<Box>(items.size());
+        for(int i = 0; i < items.size(); i++)
+        {
+            T item = items.get(i);
+            Rectangle2D itemBounds = bounds.get(i);
+            if(item != null && itemBounds != null && _entries.containsKey(item) == false)
+            {
+                Entry<T> entry = createEntry(item, itemBounds, _sequence);
+                _entries.put(item, entry);
+                boxes.add(entry);
+                _sequence++;
+            }
+        }
+
+        boolean leaf = true;
+        while(boxes.size() > MAX_ENTRIES)
+        {
+            boxes = pack(boxes, leaf);
+            leaf = false;
+        }
+        _root = new Node(leaf);
+        for(Box box : boxes)
+            _root.add(box);
+    }
+
+    /**
+     * Packed index of symbols that have already been rendered, see
+     * getRenderedBounds().  Symbols without shapes are left out.
+     * @param symbols in draw order
+     * @return
+     */
+    public static SymbolIndex<MilStdSymbol> fromRendered(List<MilStdSymbol> symbols)
+    {
+        ArrayList<Rectangle2D> bounds = new ArrayList<Rectangle2D>(symbols.size());
+        for(MilStdSymbol symbol : symbols)
+            bounds.add(getRenderedBounds(symbol));
+        return new SymbolIndex<MilStdSymbol>(symbols, bounds);
+    }
+
+    /**
+     * Pixel bounds of a rendered symbol, padded for the line width.
+     * @param symbol
+     * @return null if the symbol has no shapes.
+     */
+    public static Rectangle2D getRenderedBounds(MilStdSymbol symbol)
+    {
+        try
+        {
+            Rectangle bounds = symbol.getSymbolExtentFull();
+            if(bounds == null)
+                return null;
+
+            //shape bounds don't include the stroke, add half the line width
+            //plus a pixel for anti-aliasing.
+            double pad = Math.max(symbol.getLineWidth(), 0) / 2.0 + 1;
+            return new Rectangle2D.Double(bounds.getMinX() - pad, bounds.getMinY() - pad,
+                    bounds.getWidth() + pad * 2, bounds.getHeight() + pad * 2);
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "getRenderedBounds",
+                    new RendererException("Failed inside getRenderedBounds", exc));
+            return null;
+        }
+    }
+
+    /**
+     * Adds an item.  Queries need to be in the same units as the bounds.
+     * @param item
+     * @param bounds
+     * @return false if the item is already in the index or bounds is null.
+     */
+    public synchronized boolean insert(T item, Rectangle2D bounds)
+    {
+        if(item == null || bounds == null || _entries.containsKey(item))
+            return false;
+
+        Entry<T> entry = createEntry(item, bounds, _sequence);
+        _sequence++;
+        _entries.put(item, entry);
+        insert(entry);
+        return true;
+    }
+
+    /**
+     *
+     * @param item
+     * @return false if the item wasn't in the index.
+     */
+    public synchronized boolean remove(T item)
+    {
+        Entry<T> entry = _entries.remove(item);
+        if(entry == null)
+            return false;
+
+        remove(entry);
+        return true;
+    }
+
+    /**
+     * Takes new bounds for an item.  The item keeps its place in the draw
+     * order.
+     * @param item
+     * @param bounds null removes the item, like a symbol that no longer has
+     * shapes.
+     * @return false if the item wasn't in the index or bounds is null.
+     */
+    public synchronized boolean update(T item, Rectangle2D bounds)
+    {
+        Entry<T> entry = _entries.remove(item);
+        if(entry == null)
+            return false;
+
+        remove(entry);
+        if(bounds == null)
+            return false;
+
+        Entry<T> updated = createEntry(item, bounds, entry.sequence);
+        _entries.put(item, updated);
+        insert(updated);
+        return true;
+    }
+
+    public synchronized boolean contains(T item)
+    {
+        return _entries.containsKey(item);
+    }
+
+    public synchronized int size()
+    {
+        return _entries.size();
+    }
+
+    public synchronized void clear()
+    {
+        _entries.clear();
+        _root = new Node(true);
+        _sequence = 0;
+    }
+
+    /**
+     *
+     * @param area in the units of the bounds, pixels for rendered symbols
+     * @return items whose bounds touch the area, in the order they were
+     * added.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized ArrayList<T> intersect(Rectangle2D area)
+    {
+        ArrayList<Entry<T>> found = new ArrayList<Entry<T>>();
+        if(area != null && _root.count > 0)
+        {
+            double minX = area.getMinX();
+            double minY = area.getMinY();
+            double maxX = area.getMaxX();
+            double maxY = area.getMaxY();
+
+            ArrayList<Node> stack = new ArrayList<Node>();
+            stack.add(_root);
+            while(stack.isEmpty() == false)
+            {
+                Node node = stack.remove(stack.size() - 1);
+                for(int i = 0; i < node.count; i++)
+                {
+                    Box child = node.children[i];
+                    if(child.intersects(minX, minY, maxX, maxY))
+                    {
+                        if(node.leaf)
+                            found.add((Entry<T>)child);
+                        else
+                            stack.add((Node)child);
+                    }
+                }
+            }
+            Collections.sort(found, DRAW_ORDER);
+        }
+
+        ArrayList<T> items = new ArrayList<T>(found.size());
+        for(Entry<T> entry : found)
+            items.add(entry.item);
+        return items;
+    }
+
+    /**
+     *
+     * @param point in the units of the bounds
+     * @return the item whose bounds are closest to the point, one that
+     * contains it if there is one.  Null if the index is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T nearest(Point2D point)
+    {
+        if(point == null || _root.count == 0)
+            return null;
+
+        double x = point.getX();
+        double y = point.getY();
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<Candidate>();
+        queue.add(new Candidate(_root, _root.distanceSq(x, y)));
+        while(queue.isEmpty() == false)
+        {
+            Candidate closest = queue.poll();
+            if(closest.box instanceof Entry)
+                return ((Entry<T>)closest.box).item;
+
+            Node node = (Node)closest.box;
+            for(int i = 0; i < node.count; i++)
+            {
+                Box child = node.children[i];
+                queue.add(new Candidate(child, child.distanceSq(x, y)));
+            }
+        }
+        return null;
+    }
+
+    private static <T> Entry<T> createEntry(T item, Rectangle2D bounds, long sequence)
+    {
+        return new Entry<T>(item, sequence, bounds.getMinX(), bounds.getMinY(),
+                bounds.getMaxX(), bounds.getMaxY());
+    }
+
+    private void insert(Entry<T> entry)
+    {
+        //grow the bounds on the way down so splits below don't have to
+        //touch the parents' bounds.
+        Node node = _root;
+        node.include(entry);
+        while(node.leaf == false)
+        {
+            node = chooseChild(node, entry);
+            node.include(entry);
+        }
+        node.add(entry);
+
+        while(node.count > MAX_ENTRIES)
+        {
+            Node sibling = split(node);
+            if(node == _root)
+            {
+                _root = new Node(false);
+                _root.add(node);
+                _root.add(sibling);
+                break;
+            }
+            node = node.parent;
+            node.add(sibling);
+        }
+    }
+
+    /**
+     * Child needing the least enlargement to take the box, the smaller one
+     * on ties.
+     */
+    private static Node chooseChild(Node node, Box box)
+    {
+        Node best = null;
+        double bestGrowth = 0;
+        double bestArea = 0;
+        for(int i = 0; i < node.count; i++)
+        {
+            Node child = (Node)node.children[i];
+            double area = child.area();
+            double growth = child.unionArea(box) - area;
+            if(best == null || growth < bestGrowth || (growth == bestGrowth && area < bestArea))
+            {
+                best = child;
+                bestGrowth = growth;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Quadratic split.  Moves about half of the node's children to a new
+     * node and returns it.
+     */
+    private static Node split(Node node)
+    {
+        int total = node.count;
+        Box[] items = new Box[total];
+        System.arraycopy(node.children, 0, items, 0, total);
+
+        //seeds are the pair that would waste the most area together
+        int seedA = 0;
+        int seedB = 1;
+        double worst = Double.NEGATIVE_INFINITY;
+        for(int i = 0; i < total - 1; i++)
+        {
+            for(int j = i + 1; j < total; j++)
+            {
+                double waste = items[i].unionArea(items[j]) - items[i].area() - items[j].area();
+                if(waste > worst)
+                {
+                    worst = waste;
+                    seedA = i;
+                    seedB = j;
+                }
+            }
+        }
+
+        Node sibling = new Node(node.leaf);
+        node.clear();
+        node.add(items[seedA]);
+        sibling.add(items[seedB]);
+        items[seedA] = null;
+        items[seedB] = null;
+
+        int remaining = total - 2;
+        while(remaining > 0)
+        {
+            //make sure both end up with the minimum
+            if(node.count + remaining <= MIN_ENTRIES || sibling.count + remaining <= MIN_ENTRIES)
+            {
+                Node target = node.count + remaining <= MIN_ENTRIES ? node : sibling;
+                for(int i = 0; i < total; i++)
+                {
+                    if(items[i] != null)
+                        target.add(items[i]);
+                }
+                break;
+            }
+
+            //place the one with the strongest preference next
+            int next = -1;
+            double nextDiff = -1;
+            double nextGrowthA = 0;
+            double nextGrowthB = 0;
+            double areaA = node.area();
+            double areaB = sibling.area();
+            for(int i = 0; i < total; i++)
+            {
+                if(items[i] == null)
+                    continue;
+                double growthA = node.unionArea(items[i]) - areaA;
+                double growthB = sibling.unionArea(items[i]) - areaB;
+                double diff = Math.abs(growthA - growthB);
+                if(diff > nextDiff)
+                {
+                    next = i;
+                    nextDiff = diff;
+                    nextGrowthA = growthA;
+                    nextGrowthB = growthB;
+                }
+            }
+
+            Node target;
+            if(nextGrowthA != nextGrowthB)
+                target = nextGrowthA < nextGrowthB ? node : sibling;
+            else if(areaA != areaB)
+                target = areaA < areaB ? node : sibling;
+            else
+                target = node.count <= sibling.count ? node : sibling;
+            target.add(items[next]);
+            items[next] = null;
+            remaining--;
+        }
+        return sibling;
+    }
+
+    private void remove(Entry<T> entry)
+    {
+        Node leaf = findLeaf(_root, entry);
+        if(leaf == null)
+            return;
+        leaf.removeChild(entry);
+
+        //drop nodes that are now too small and put their entries back in
+        ArrayList<Entry<T>> orphans = new ArrayList<Entry<T>>();
+        Node node = leaf;
+        while(node != _root)
+        {
+            Node parent = node.parent;
+            if(node.count < MIN_ENTRIES)
+            {
+                parent.removeChild(node);
+                collectEntries(node, orphans);
+            }
+            else
+            {
+                node.recalculate();
+            }
+            node = parent;
+        }
+        _root.recalculate();
+
+        while(_root.leaf == false && _root.count == 1)
+        {
+            _root = (Node)_root.children[0];
+            _root.parent = null;
+        }
+        if(_root.leaf == false && _root.count == 0)
+            _root = new Node(true);
+
+        for(Entry<T> orphan : orphans)
+            insert(orphan);
+    }
+
+    private static Node findLeaf(Node node, Box entry)
+    {
+        for(int i = 0; i < node.count; i++)
+        {
+            Box child = node.children[i];
+            if(node.leaf)
+            {
+                if(child == entry)
+                    return node;
+            }
+            else if(child.contains(entry))
+            {
+                Node leaf = findLeaf((Node)child, entry);
+                if(leaf != null)
+                    return leaf;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void collectEntries(Node node, List<Entry<T>> entries)
+    {
+        for(int i = 0; i < node.count; i++)
+        {
+            if(node.leaf)
+                entries.add((Entry<T>)node.children[i]);
+            else
+                collectEntries((Node)node.children[i], entries);
+        }
+    }
+
+    /**
+     * One level of a sort-tile-recursive build: sorts into vertical slices by
+     * x, then each slice by y, and packs runs of MAX_ENTRIES into nodes.
+     */
+    private static ArrayList<Box> pack(ArrayList<Box> items, boolean leaf)
+    {
+        int nodeCount = (items.size() + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        int sliceCount = (int)Math.ceil(Math.sqrt(nodeCount));
+        int sliceSize = sliceCount * MAX_ENTRIES;
+
+        Collections.sort(items, BY_CENTER_X);
+        ArrayList<Box> nodes = new ArrayList<Box>(nodeCount);
+        for(int start = 0; start < items.size(); start += sliceSize)
+        {
+            List<Box> slice = items.subList(start, Math.min(start + sliceSize, items.size()));
+            Collections.sort(slice, BY_CENTER_Y);
+            Node node = null;
+            for(Box item : slice)
+            {
+                if(node == null || node.count == MAX_ENTRIES)
+                {
+                    node = new Node(leaf);
+                    nodes.add(node);
+                }
+                node.add(item);
+            }
+        }
+        return nodes;
+    }
+
+    private static final Comparator<Box> BY_CENTER_X = new Comparator<Box>()
+    {
+        public int compare(Box a, Box b)
+        {
+            return Double.compare(a.minX + a.maxX, b.minX + b.maxX);
+        }
+    };
+
+    private static final Comparator<Box> BY_CENTER_Y = new Comparator<Box>()
+    {
+        public int compare(Box a, Box b)
+        {
+            return Double.compare(a.minY + a.maxY, b.minY + b.maxY);
+        }
+    };
+
+    private static final Comparator<Entry<?>> DRAW_ORDER = new Comparator<Entry<?>>()
+    {
+        public int compare(Entry<?> a, Entry<?> b)
+        {
+            return a.sequence < b.sequence ? -1 : (a.sequence == b.sequence ? 0 : 1);
+        }
+    };
+
+    private static abstract class Box
+    {
+        double minX;
+        double minY;
+        double maxX;
+        double maxY;
+        Node parent;
+
+        double area()
+        {
+            return (maxX - minX) * (maxY - minY);
+        }
+
+        double unionArea(Box other)
+        {
+            return (Math.max(maxX, other.maxX) - Math.min(minX, other.minX))
+                    * (Math.max(maxY, other.maxY) - Math.min(minY, other.minY));
+        }
+
+        boolean intersects(double x1, double y1, double x2, double y2)
+        {
+            return minX <= x2 && x1 <= maxX && minY <= y2 && y1 <= maxY;
+        }
+
+        boolean contains(Box other)
+        {
+            return minX <= other.minX && minY <= other.minY && maxX >= other.maxX && maxY >= other.maxY;
+        }
+
+        double distanceSq(double x, double y)
+        {
+            double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+            double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+            return dx * dx + dy * dy;
+        }
+    }
+
+    private static final class Entry<T> extends Box
+    {
+        final T item;
+        final long sequence;
+
+        Entry(T item, long sequence, double minX, double minY, double maxX, double maxY)
+        {
+            this.item = item;
+            this.sequence = sequence;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+
+    private static final class Node extends Box
+    {
+        final boolean leaf;
+        //one extra slot so a node can overflow before it's split
+        final Box[] children = new Box[MAX_ENTRIES + 1];
+        int count = 0;
+
+        Node(boolean leaf)
+        {
+            this.leaf = leaf;
+        }
+
+        void add(Box child)
+        {
+            if(count == 0)
+            {
+                minX = child.minX;
+                minY = child.minY;
+                maxX = child.maxX;
+                maxY = child.maxY;
+            }
+            else
+            {
+                include(child);
+            }
+            children[count++] = child;
+            child.parent = this;
+        }
+
+        void include(Box box)
+        {
+            if(count == 0)
+                return;
+            minX = Math.min(minX, box.minX);
+            minY = Math.min(minY, box.minY);
+            maxX = Math.max(maxX, box.maxX);
+            maxY = Math.max(maxY, box.maxY);
+        }
+
+        void removeChild(Box child)
+        {
+            for(int i = 0; i < count; i++)
+            {
+                if(children[i] == child)
+                {
+                    children[i] = children[--count];
+                    children[count] = null;
+                    return;
+                }
+            }
+        }
+
+        void clear()
+        {
+            for(int i = 0; i < count; i++)
+                children[i] = null;
+            count = 0;
+        }
+
+        void recalculate()
+        {
+            if(count == 0)
+                return;
+            minX = children[0].minX;
+            minY = children[0].minY;
+            maxX = children[0].maxX;
+            maxY = children[0].maxY;
+            for(int i = 1; i < count; i++)
+                include(children[i]);
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate>
+    {
+        final Box box;
+        final double distance;
+
+        Candidate(Box box, double distance)
+        {
+            this.box = box;
+            this.distance = distance;
+        }
+
+        public int compareTo(Candidate other)
+        {
+            return Double.compare(distance, other.distance);
+        }
+    }
+}
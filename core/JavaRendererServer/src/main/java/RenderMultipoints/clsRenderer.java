@@ -7,6 +7,7 @@ import ArmyC2.C2SD.Utilities.IPointConversion;
 import ArmyC2.C2SD.Utilities.ShapeInfo;
 import ArmyC2.C2SD.Utilities.MilStdSymbol;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RenderContext;
 import ArmyC2.C2SD.Utilities.RendererException;
 import ArmyC2.C2SD.Utilities.ModifiersTG;
 //import ArmyC2.C2SD.Utilities.RendererSettings;
@@ -235,7 +236,7 @@ public final class clsRenderer {
             //build tg.Pixels
             tg.Pixels = clsUtility.LatLongToPixels(tg.LatLongs, converter);
             //tg.set_Font(new Font("Arial", Font.PLAIN, 12));
-            tg.set_Font(RendererSettings.getInstance().getMPLabelFont());
+            tg.set_Font(milStd.getRendererProfile().getMPLabelFont());
             //diagnostic
             tg.set_FillColor(milStd.getFillColor());
             //tg.set_FillColor(Color.CYAN);
@@ -293,6 +294,8 @@ public final class clsRenderer {
             if (milStd.getModifier(ModifiersTG.N_HOSTILE) != null) {
                 tg.set_N(milStd.getModifier(ModifiersTG.N_HOSTILE));
             }
+            //copied so the client set for this render stays with the tg
+            tg.set_RenderContext(new RenderContext(milStd.getRenderContext()));
             tg.set_UseDashArray(milStd.getUseDashArray());
             tg.set_UseHatchFill(milStd.getUsePatternFill());
 //            tg.set_UsePatternFill(milStd.getUsePatternFill());
@@ -1128,7 +1131,7 @@ public final class clsRenderer {
             } else {
                 if (CELineArray.CIsChannel(lineType) == 0) {
                     if (lineType != TacticalLines.BELT1) {
-                        tg.Pixels = arraysupport.GetLineArray2(lineType, tg.Pixels, shapes, null, rev,converter);
+                        tg.Pixels = arraysupport.GetLineArray2(lineType, tg.Pixels, shapes, null, rev,converter,tg.get_RenderContext());
                         Modifier2.GetIntegralTextShapes(tg, g2d, shapes);
                     }
                     //points = arraysupport.points;
@@ -1145,7 +1148,7 @@ public final class clsRenderer {
                             for (k = partitions.get(l).start; k <= partitions.get(l).end_Renamed + 1; k++) {
                                 pixels.add(tg.Pixels.get(k));
                             }
-                            pixels = arraysupport.GetLineArray2(lineType, pixels, tempShapes, null, rev,converter);
+                            pixels = arraysupport.GetLineArray2(lineType, pixels, tempShapes, null, rev,converter,tg.get_RenderContext());
                             shapes.addAll(tempShapes);
                         }
                     }
@@ -1594,7 +1597,7 @@ public final class clsRenderer {
             //diagnostic 1-9-13
             //uncomment line to trun off shift lines
             //Channels.setShiftLines(false);
-            CELineArray.setClient("ge");
+            tg.get_RenderContext().setClient(RenderContext.CLIENT_GE);
             //reversePoints(tg);
             //save original points if segment data is set
             //we don't want to clip if segment data is set            
@@ -2144,7 +2147,7 @@ public final class clsRenderer {
             int rev = mss.getSymbologyStandard();
             JavaTacticalRenderer.clsUtility.initializeLinetypes(rev);
             TGLight tg = createTGLightFromMilStdSymbol(mss, converter);
-            CELineArray.setClient("generic");
+            tg.get_RenderContext().setClient(RenderContext.CLIENT_GENERIC);
 //            if (shiftLines) {
 //                //Channels.setClient("generic");
 //                String affiliation = tg.get_Affiliation();
@@ -2664,14 +2664,22 @@ public final class clsUtilityCPOF {
                 latLongs.add(pt0);
             }
 
-            for (j = 0; j < latLongs.size() - 1; j++) {
+            int count = latLongs.size();
+            double[] lons = new double[count], lats = new double[count];
+            for (j = 0; j < count; j++) {
                 pt0 = latLongs.get(j);
-                pt1 = latLongs.get(j + 1);
-                pt1.style = -1;//end point
-                az = mdlGeodesic.GetAzimuth(pt0, pt1);
-                dist = mdlGeodesic.geodesic_distance(latLongs.get(j), latLongs.get(j + 1), null, null);
-                if (dist > maxDist) {
-                    maxDist = dist;
+                if (j > 0) {
+                    pt0.style = -1;//end point
+                }
+                lons[j] = pt0.x;
+                lats[j] = pt0.y;
+            }
+            double[] dists = new double[Math.max(count - 1, 0)];
+            double[] azimuths = new double[dists.length];
+            mdlGeodesic.geodesic_distances(lons, lats, count, dists, azimuths);
+            for (j = 0; j < dists.length; j++) {
+                if (dists[j] > maxDist) {
+                    maxDist = dists[j];
                 }
             }
 
@@ -2679,21 +2687,31 @@ public final class clsUtilityCPOF {
                 interval = maxDist;
             }
 
-            for (j = 0; j < latLongs.size() - 1; j++) {
+            double[] distances = new double[16], ptLons = new double[16], ptLats = new double[16];
+            for (j = 0; j < count - 1; j++) {
                 pt0 = new POINT2(latLongs.get(j));
                 pt0.style = 0;//anchor point
                 pt1 = new POINT2(latLongs.get(j + 1));
                 pt1.style = 0;//anchor point point
-                az = mdlGeodesic.GetAzimuth(pt0, pt1);
-                dist = mdlGeodesic.geodesic_distance(latLongs.get(j), latLongs.get(j + 1), null, null);
+                az = azimuths[j];
+                dist = dists[j];
 
                 n = (int) (dist / interval);
                 if (j == 0) {
                     resultPts.add(pt0);
                 }
 
+                if (n > distances.length) {
+                    distances = new double[n];
+                    ptLons = new double[n];
+                    ptLats = new double[n];
+                }
                 for (k = 1; k <= n; k++) {
-                    pt = mdlGeodesic.geodesic_coordinate(pt0, interval * k, az);
+                    distances[k - 1] = interval * k;
+                }
+                mdlGeodesic.geodesic_coordinates(pt0, az, distances, n, ptLons, ptLats);
+                for (k = 1; k <= n; k++) {
+                    pt = new POINT2(ptLons[k - 1], ptLats[k - 1]);
                     pt.style = -2;
                     //we do not want the last segment to be too close to the anchor point
                     //only add the segment point if it is a distance at least half the inteval
@@ -2720,9 +2738,10 @@ public final class clsUtilityCPOF {
      *
      * @param points the anchor points
      * @param n number of points per segment
+     * @param distances the geodesic_distance of each segment
      * @return the interpolated points
      */
-    private static ArrayList<POINT2> toGeodesic(TGLight tg, double interval, HashMap hmap) {
+    private static ArrayList<POINT2> toGeodesic(TGLight tg, double interval, HashMap hmap, double[] distances) {
         ArrayList<POINT2> locs = new ArrayList<POINT2>();
         try {
             int i = 0, k = 0, n = 0;
@@ -2755,11 +2774,17 @@ public final class clsUtilityCPOF {
                 double lon1 = Math.toRadians(points.get(i).x);
                 double lat2 = Math.toRadians(points.get(i + 1).y);
                 double lon2 = Math.toRadians(points.get(i + 1).x);
+                //the same for every point on the segment
+                double cosLat1 = Math.cos(lat1), sinLat1 = Math.sin(lat1);
+                double cosLon1 = Math.cos(lon1), sinLon1 = Math.sin(lon1);
+                double cosLat2 = Math.cos(lat2), sinLat2 = Math.sin(lat2);
+                double cosLon2 = Math.cos(lon2), sinLon2 = Math.sin(lon2);
                 // Calculate the total extent of the route
                 //var d = 2 * asin(sqrt(pow((sin((lat1 - lat2) / 2)), 2) + cos(lat1) * cos(lat2) * pow((sin((lon1 - lon2) / 2)), 2)));
-                double d = 2 * Math.asin(Math.sqrt(Math.pow((Math.sin((lat1 - lat2) / 2)), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow((Math.sin((lon1 - lon2) / 2)), 2)));
+                double d = 2 * Math.asin(Math.sqrt(Math.pow((Math.sin((lat1 - lat2) / 2)), 2) + cosLat1 * cosLat2 * Math.pow((Math.sin((lon1 - lon2) / 2)), 2)));
+                double sinD = Math.sin(d);
 
-                double dist = mdlGeodesic.geodesic_distance(points.get(i), points.get(i + 1), null, null);
+                double dist = distances[i];
                 //double dist=d;
                 float flt = (float) dist / (float) interval;
                 n = Math.round(flt);
@@ -2799,15 +2824,15 @@ public final class clsUtilityCPOF {
                     //var A = sin((1 - f) * d) / sin(d);
                     //var B = sin(f * d) / sin(d);
                     double f = ((double) k / (double) n);
-                    double A = Math.sin((1 - f) * d) / Math.sin(d);
-                    double B = Math.sin(f * d) / Math.sin(d);
+                    double A = Math.sin((1 - f) * d) / sinD;
+                    double B = Math.sin(f * d) / sinD;
                     // Obtain 3D Cartesian coordinates of each point
                     //var x = A * cos(lat1) * cos(lon1) + B * cos(lat2) * cos(lon2);
                     //var y = A * cos(lat1) * sin(lon1) + B * cos(lat2) * sin(lon2);
                     //var z = A * sin(lat1) + B * sin(lat2);
-                    double x = A * Math.cos(lat1) * Math.cos(lon1) + B * Math.cos(lat2) * Math.cos(lon2);
-                    double y = A * Math.cos(lat1) * Math.sin(lon1) + B * Math.cos(lat2) * Math.sin(lon2);
-                    double z = A * Math.sin(lat1) + B * Math.sin(lat2);
+                    double x = A * cosLat1 * cosLon1 + B * cosLat2 * cosLon2;
+                    double y = A * cosLat1 * sinLon1 + B * cosLat2 * sinLon2;
+                    double z = A * sinLat1 + B * sinLat2;
                     // Convert these to latitude/longitude
                     //var lat = atan2(z, sqrt(pow(x, 2) + pow(y, 2)));
                     //var lon = atan2(y, x);
@@ -2933,15 +2958,20 @@ public final class clsUtilityCPOF {
             double az = 0;
 
             double maxDist = 0;
-            for (j = 0; j < tg.LatLongs.size() - 1; j++) {
+            int count = tg.LatLongs.size();
+            double[] lons = new double[count], lats = new double[count];
+            for (j = 0; j < count; j++) {
                 pt0 = tg.LatLongs.get(j);
-                pt1 = tg.LatLongs.get(j + 1);
-                if(!bolIsAC)
-                    pt1.style = -1;//end point
-                az = mdlGeodesic.GetAzimuth(pt0, pt1);
-                dist = mdlGeodesic.geodesic_distance(tg.LatLongs.get(j), tg.LatLongs.get(j + 1), null, null);
-                if (dist > maxDist) {
-                    maxDist = dist;
+                if(j > 0 && !bolIsAC)
+                    pt0.style = -1;//end point
+                lons[j] = pt0.x;
+                lats[j] = pt0.y;
+            }
+            double[] dists = new double[Math.max(count - 1, 0)];
+            mdlGeodesic.geodesic_distances(lons, lats, count, dists, null);
+            for (j = 0; j < dists.length; j++) {
+                if (dists[j] > maxDist) {
+                    maxDist = dists[j];
                 }
             }
 
@@ -2967,7 +2997,7 @@ public final class clsUtilityCPOF {
             useVincenty = true;
             if (useVincenty) {
                 //resultPts=toGeodesic(tg.LatLongs,interval);
-                resultPts = toGeodesic(tg, interval, hmap);
+                resultPts = toGeodesic(tg, interval, hmap, dists);
                 tg.LatLongs = resultPts;
                 tg.Pixels = RenderMultipoints.clsUtility.LatLongToPixels(tg.LatLongs, converter);
                 return;
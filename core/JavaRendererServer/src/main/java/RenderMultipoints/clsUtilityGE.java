@@ -15,7 +15,6 @@ import JavaLineArray.Shape2;
 import JavaLineArray.lineutility;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
 import ArmyC2.C2SD.Utilities.RendererException;
-import ArmyC2.C2SD.Utilities.RendererSettings;
 import java.awt.Shape;
 import java.awt.geom.PathIterator;
 import ArmyC2.C2SD.Utilities.ShapeInfo;
@@ -211,7 +210,7 @@ public final class clsUtilityGE {
             double patternLength=0;
             int numSegments=0;
             //high resolution devices
-            double dashMultiplier=(double)RendererSettings.getInstance().getDeviceDPI()/96.0;
+            double dashMultiplier=(double)tg.get_RenderContext().getRendererProfile().getDeviceDPI()/96.0;
             for(j=0;j<dash.length;j++)
                 dash[j]*=dashMultiplier;
             //end section
@@ -0,0 +1,60 @@
+package ArmyC2.C2SD.Utilities;
+
+/**
+ * How much of each symbol SymbolDraw.Draw paints.  Symbols whose bounds miss
+ * the visible area can be skipped, and symbols that are drawn small can drop
+ * their modifiers or be drawn as a plain frame, which keeps a zoomed out map
+ * with many symbols quick to redraw.  Immutable, so one can be shared by
+ * every map.
+ */
+public final class DrawOptions {
+
+    /**
+     * Draws every symbol in full, same as passing no options.
+     */
+    public static final DrawOptions FULL = new DrawOptions(false, 0, 0);
+
+    private final boolean _cullToClip;
+    private final int _minimumModifierSize;
+    private final int _minimumSymbolSize;
+
+    /**
+     *
+     * @param cullToClip skip symbols whose bounds, modifiers included, are
+     * entirely outside the clip
+     * @param minimumModifierSize symbols whose shapes are smaller than this,
+     * in pixels on the larger side, are drawn without modifiers or labels.
+     * 0 to always draw modifiers.
+     * @param minimumSymbolSize symbols whose shapes are smaller than this are
+     * drawn as a rectangle in the symbol's colors.  0 to always draw the
+     * shapes.
+     */
+    public DrawOptions(boolean cullToClip, int minimumModifierSize, int minimumSymbolSize)
+    {
+        _cullToClip = cullToClip;
+        _minimumModifierSize = minimumModifierSize;
+        _minimumSymbolSize = minimumSymbolSize;
+    }
+
+    public boolean getCullToClip()
+    {
+        return _cullToClip;
+    }
+
+    public int getMinimumModifierSize()
+    {
+        return _minimumModifierSize;
+    }
+
+    public int getMinimumSymbolSize()
+    {
+        return _minimumSymbolSize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DrawOptions[cullToClip=" + _cullToClip + ", minimumModifierSize=" + _minimumModifierSize
+                + ", minimumSymbolSize=" + _minimumSymbolSize + "]";
+    }
+}
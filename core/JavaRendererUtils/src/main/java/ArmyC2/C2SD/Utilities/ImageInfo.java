@@ -12,20 +12,13 @@ import java.awt.RenderingHints;
 import java.awt.Transparency;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.RenderedImage;
 import java.io.File;
-import java.io.StringReader;
 import java.util.Iterator;
-import javax.imageio.IIOImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.ImageWriter;
-import javax.imageio.metadata.IIOMetadata;
 import javax.imageio.stream.ImageOutputStream;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMResult;
-import javax.xml.transform.stream.StreamSource;
-import org.w3c.dom.Node;
 
 /**
  * Object that holds an image of the symbol and all the information
@@ -236,81 +229,19 @@ public class ImageInfo {
     {
         try
         {
-            RenderedImage image = (RenderedImage)_Image;
-            Iterator<ImageWriter> itr = ImageIO.getImageWritersBySuffix("png");
-            String metaDataFormatName = "";
-
-            if(itr.hasNext())
-            {
-                ImageWriter iw = itr.next();
-                IIOMetadata meta = iw.getDefaultImageMetadata(new ImageTypeSpecifier(image), null);
-
-                //create & populate metadata
-                metaDataFormatName = meta.getMetadataFormatNames()[0];
-                StringBuilder XML = new StringBuilder("");
-                XML.append("<"+metaDataFormatName+">");//"</javax_imageio_png_1.0>"
-                XML.append("<tEXt>");
-                //XML.append("<tEXtEntry keyword=\"symbolCenterX\" value=\"" + String.valueOf(_symbolCenterX)+"\"/>");
-                XML.append("<tEXtEntry keyword=\"centerPoint\" value=\"" + "x="+String.valueOf(_symbolCenterX)+
-                        ",y="+String.valueOf(_symbolCenterY)+"\"/>");
-
-                XML.append("<tEXtEntry keyword=\"bounds\" value=\"" + "x="+String.valueOf(_symbolBounds.getX())+
-                        ",y="+String.valueOf(_symbolBounds.getY())+
-                        ",width="+String.valueOf(_symbolBounds.getWidth())+
-                        ",height="+String.valueOf(_symbolBounds.getHeight())+"\"/>");
-
-                XML.append("<tEXtEntry keyword=\"imageExtent\" value=\"" +
-                        "width="+String.valueOf(_Image.getWidth())+
-                        ",height="+String.valueOf(_Image.getHeight())+"\"/>");
-
-                XML.append("</tEXt>");
-                XML.append( "</"+metaDataFormatName+">");//"</javax_imageio_png_1.0>"
-
-                //ErrorLogger.LogMessage(XML.toString());
-                DOMResult domresult = new DOMResult();
-                TransformerFactory.newInstance().newTransformer().transform(new StreamSource(new StringReader(XML.toString())), domresult);
-                Node document = domresult.getNode();
-
-                //test
-//                Node foo = document.getFirstChild();
-//                for(int i=0; i<foo.getChildNodes().getLength(); i++)
-//                            ErrorLogger.LogMessage(foo.getChildNodes().item(i).getNodeName());
-
-                
-                //apply metadata
-                meta.mergeTree(metaDataFormatName, document.getFirstChild());
-
-                //test
-//                foo = meta.getAsTree(meta.getMetadataFormatNames()[0]);
-//                //foo = foo.getFirstChild();
-//                for(int i=0; i<foo.getChildNodes().getLength(); i++)
-//                            ErrorLogger.LogMessage(foo.getChildNodes().item(i).getNodeName());
-
-                //Render PNG to Memory
-                IIOImage iioImage = new IIOImage(image, null, null);
-                iioImage.setMetadata(meta);
-
-                //ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-                //iw.setOutput(ImageIO.createImageOutputStream(bytes));
-                //iw.write(null, iioImage, null);
-
-                iw.setOutput(ios);
-                iw.write(null, iioImage, null); //iw.write(metadata, iioImage, null);
-                ios.close();
-
-                iw.dispose();
-                iw = null;
-                itr = null;
-                iioImage = null;
-
-                return true;
-            }
-            else
-            {
-                ErrorLogger.LogMessage("ImageInfo", "SaveImageToPNG", "no PNG imageWriter available");
-                return false;
-            }
-
+            Map<String, String> text = new LinkedHashMap<String, String>();
+            text.put("centerPoint", "x="+String.valueOf(_symbolCenterX)+
+                    ",y="+String.valueOf(_symbolCenterY));
+            text.put("bounds", "x="+String.valueOf(_symbolBounds.getX())+
+                    ",y="+String.valueOf(_symbolBounds.getY())+
+                    ",width="+String.valueOf(_symbolBounds.getWidth())+
+                    ",height="+String.valueOf(_symbolBounds.getHeight()));
+            text.put("imageExtent", "width="+String.valueOf(_Image.getWidth())+
+                    ",height="+String.valueOf(_Image.getHeight()));
+
+            ios.write(PNGEncoder.encode(_Image, text));
+            ios.close();
+            return true;
         }
         catch(Exception exc)
         {
@@ -107,6 +107,21 @@ public class MilStdAttributes {
     
     public static final String HideOptionalLabels = "HIDEOPTIONALLABELS";
     
+    /**
+     * Name of a RendererProfile registered with
+     * RendererSettings.registerProfile.  Symbols without one, or with a name
+     * that isn't registered, use the global RendererSettings.
+     */
+    public static final String Profile = "PROFILE";
+
+    /**
+     * For multipoints rendered through MultiPointHandler, how far in pixels
+     * (at the requested scale) lines may be simplified.  Control points of
+     * lines and areas and the rendered polylines are reduced with
+     * Douglas-Peucker.  0 or not set to leave them as they are.
+     */
+    public static final String SimplifyTolerance = "SIMPLIFY";
+    
     public static ArrayList<String> GetModifierList()
     {
         ArrayList<String> list = new ArrayList<String>();
@@ -85,17 +85,14 @@ public class MilStdSymbol {
      */
     public static final int Symbology_2525C = 1;
 
-    private static int _SymbologyStandard = 0;
+    private int _SymbologyStandard = 0;
 
-    private static String _AltitudeMode = "";
-    
-    private static boolean _HideOptionalLabels = false;
-
-    private static boolean _UseDashArray = true;
+    //client, altitude mode, dash array and optional label settings
+    private RenderContext _RenderContext = new RenderContext();
 
-    private static boolean _DrawAffiliationModifierAsLabel = true;
+    private boolean _DrawAffiliationModifierAsLabel = true;
 
-    private static boolean _UseLineInterpolation = false;
+    private boolean _UseLineInterpolation = false;
     
     private boolean _wasClipped = false;
 
@@ -229,8 +226,8 @@ public class MilStdSymbol {
     }
 
     /**
-     * Controls what symbols are supported. Set this before loading the
-     * renderer.
+     * Symbology standard used to render this symbol. Defaults to the
+     * RendererSettings standard when the symbol is created.
      *
      * @param symbologyStandard Like
      * RendererSettings.Symbology_2525Bch2_USAS_13_14
@@ -249,28 +246,82 @@ public class MilStdSymbol {
         return _SymbologyStandard;
     }
 
+    /**
+     * Options for rendering this symbol, shared with nothing else.
+     *
+     * @return
+     */
+    public RenderContext getRenderContext() {
+        return _RenderContext;
+    }
+
+    public void setRenderContext(RenderContext value) {
+        if (value == null) {
+            value = new RenderContext();
+        }
+        _RenderContext = value;
+    }
+
+    /**
+     * Settings this symbol is rendered with.
+     *
+     * @return the profile from setRendererProfile or the one for the
+     * current RendererSettings.
+     */
+    public RendererProfile getRendererProfile() {
+        return _RenderContext.getRendererProfile();
+    }
+
+    /**
+     * Render this symbol with a settings profile instead of the global
+     * RendererSettings. Also resets the line interpolation and affiliation
+     * modifier defaults to the profile's values, so set those afterwards to
+     * override them. The symbology standard is left alone.
+     *
+     * @param value like RendererSettings.getInstance().getProfile("ge"), null
+     * to go back to RendererSettings.
+     */
+    public void setRendererProfile(RendererProfile value) {
+        _RenderContext.setRendererProfile(value);
+        RendererProfile profile = _RenderContext.getRendererProfile();
+        _DrawAffiliationModifierAsLabel = profile.getDrawAffiliationModifierAsLabel();
+        _UseLineInterpolation = profile.getUseLineInterpolation();
+    }
+
     public String getAltitudeMode() {
-        return _AltitudeMode;
+        return _RenderContext.getAltitudeMode();
     }
 
     public void setAltitudeMode(String value) {
-        _AltitudeMode = value;
+        _RenderContext.setAltitudeMode(value);
     }
 
     public boolean getUseDashArray() {
-        return _UseDashArray;
+        return _RenderContext.getUseDashArray();
     }
 
     public void setUseDashArray(boolean value) {
-        _UseDashArray = value;
+        _RenderContext.setUseDashArray(value);
     }
     
     public boolean getHideOptionalLabels() {
-        return _HideOptionalLabels;
+        return _RenderContext.getHideOptionalLabels();
     }
 
     public void setHideOptionalLabels(boolean value) {
-        _HideOptionalLabels = value;
+        _RenderContext.setHideOptionalLabels(value);
+    }
+
+    public double getSimplifyTolerance() {
+        return _RenderContext.getSimplifyTolerance();
+    }
+
+    /**
+     * @param value pixels lines may be simplified by, 0 to not simplify.
+     * See MilStdAttributes.SimplifyTolerance.
+     */
+    public void setSimplifyTolerance(double value) {
+        _RenderContext.setSimplifyTolerance(value);
     }
 
     public void setUseLineInterpolation(boolean value) {
@@ -1356,6 +1407,23 @@ public class MilStdSymbol {
         return returnVal;
     }
 
+    /**
+     * returns the symbol as vector SVG, the same size and placement as the
+     * image from toImageInfo.  Call after the symbol has been rendered.
+     *
+     * @param drawMode SymbolSVG.DrawMode_NORMAL, DrawMode_CENTER or
+     * DrawMode_SQUARE, same as PNGInfo.toSVG
+     * @return null if the symbol has no shapes.
+     */
+    public String toSVG(int drawMode) {
+        ImageLayout layout = getImageLayout(false);
+        if (layout == null) {
+            return null;
+        }
+        return SymbolSVG.toSVG(this, layout.x, layout.y, layout.width, layout.height,
+                layout.centerX, layout.centerY, drawMode);
+    }
+
     /**
      * takes a collection of ShapeInfo objects and converts it into an ImageInfo
      * object.
@@ -1367,6 +1435,36 @@ public class MilStdSymbol {
     private ImageInfo ConvertShapesToImageInfo(int type, Boolean addBuffer) {
 
         ImageInfo returnVal = null;
+        ImageLayout layout = getImageLayout(addBuffer);
+        if (layout == null) {
+            return null;
+        }
+
+        try {
+            BufferedImage image = new BufferedImage(layout.width, layout.height, type);
+            Graphics2D g2d = (Graphics2D) image.createGraphics();
+            //draw symbol to bufferedImage
+            SymbolDraw.Draw(this, g2d, -(layout.x), -(layout.y));
+            g2d.dispose();
+
+            //create ImageInfo which holds image and coords to draw at
+            returnVal = new ImageInfo(image, layout.x, layout.y, layout.centerX, layout.centerY, layout.bounds);
+        } catch (Exception exc) {
+            ErrorLogger.LogException("MilStdSymbol", "ConvertShapesToImageInfo()", exc);
+        }
+        return returnVal;
+    }
+
+    /**
+     * Size and placement of the image ConvertShapesToImageInfo draws the
+     * shapes into, worked out without drawing anything.
+     *
+     * @param addBuffer adds a 1 pixel buffer around symbol.
+     * @return null if there are no shapes.
+     */
+    private ImageLayout getImageLayout(Boolean addBuffer) {
+
+        ImageLayout returnVal = null;
         int widthBuffer = 0;//2;
         int heightBuffer = 0;//2;
         int offsetX = 0;//1;
@@ -1417,23 +1515,10 @@ public class MilStdSymbol {
                  offsetY += 2;
                  }//*/
 
-                //BufferedImage image = new BufferedImage(Math.round(boundsFull.width+boundsFull.x) + widthBuffer, Math.round(boundsFull.height+boundsFull.y) + heightBuffer, type);
-                BufferedImage image = new BufferedImage(Math.round(boundsFull.width) + widthBuffer, Math.round(boundsFull.height) + heightBuffer, type);
-                Graphics2D g2d = (Graphics2D) image.createGraphics();
-                    //set antialiasing. if not, buffers & offsets should be 0
-                //g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                //AffineTransform oldTransform = g2d.getTransform(); 
-
+                int width = Math.round(boundsFull.width) + widthBuffer;
+                int height = Math.round(boundsFull.height) + heightBuffer;
                 int newX = boundsFull.x - offsetX;
                 int newY = boundsFull.y - offsetY;
-                    //g2d.translate(-(newX), -(newY));
-
-                    //test
-//                    g2d.setColor(Color.white);
-//                    g2d.fill(boundsFull);
-                    //draw symbol to bufferedImage
-                //SymbolDraw.Draw(this, g2d, 0, 0);
-                SymbolDraw.Draw(this, g2d, -(newX), -(newY));
 
                     //System.out.println("image dimensions: width " + String.valueOf(image.getWidth()) + " height " + String.valueOf(image.getHeight()));
                 //create ImageInfo which holds image and coords to draw at
@@ -1470,7 +1555,7 @@ public class MilStdSymbol {
                         centerX = offsetX + bounds.x - boundsFull.x + (bounds.width / 2);
                         centerY = offsetY + bounds.y - boundsFull.y + (bounds.height / 2);
                     }
-                    returnVal = new ImageInfo(image, newX, newY, centerX, centerY, new Rectangle2D.Double(bounds.getX() - newX, bounds.getY() - newY, bounds.getWidth(), bounds.getHeight()));
+                    returnVal = new ImageLayout(newX, newY, width, height, centerX, centerY, new Rectangle2D.Double(bounds.getX() - newX, bounds.getY() - newY, bounds.getWidth(), bounds.getHeight()));
                 } else//is tactical graphic
                 {
                     ShapeInfo temp = null;
@@ -1496,18 +1581,40 @@ public class MilStdSymbol {
                     if (isMultiPoint) {
                         bounds = boundsFull;
                     }
-                    returnVal = new ImageInfo(image, newX, newY, centerX, centerY, new Rectangle2D.Double(bounds.getX() - newX, bounds.getY() - newY, bounds.getWidth(), bounds.getHeight()));
+                    returnVal = new ImageLayout(newX, newY, width, height, centerX, centerY, new Rectangle2D.Double(bounds.getX() - newX, bounds.getY() - newY, bounds.getWidth(), bounds.getHeight()));
                 }
 
-                g2d.dispose();
-
             } else {
                 return null;
             }
         } catch (Exception exc) {
-            ErrorLogger.LogException("MilStdSymbol", "ConvertShapesToImageInfo()", exc);
+            ErrorLogger.LogException("MilStdSymbol", "getImageLayout()", exc);
         }
         return returnVal;
     }
 
+    /**
+     * Where the symbol's image goes, see getImageLayout.
+     */
+    private static final class ImageLayout {
+
+        final int x;
+        final int y;
+        final int width;
+        final int height;
+        final int centerX;
+        final int centerY;
+        final Rectangle2D bounds;
+
+        ImageLayout(int x, int y, int width, int height, int centerX, int centerY, Rectangle2D bounds) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.centerX = centerX;
+            this.centerY = centerY;
+            this.bounds = bounds;
+        }
+    }
+
 }
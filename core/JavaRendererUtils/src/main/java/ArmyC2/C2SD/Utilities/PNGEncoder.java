@@ -0,0 +1,226 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes 8 bit RGBA PNGs straight from a BufferedImage's raster.  Much
+ * quicker than ImageIO for the small ARGB images the renderer makes since
+ * there's no writer lookup, metadata tree or ImageOutputStream, and the
+ * Deflater and buffers are kept per thread and reused.  Rows aren't
+ * filtered, like ImageIO does for RGBA images, since the flat colors and
+ * transparent areas in symbols deflate better unfiltered.
+ * <p>
+ * tEXt chunks, like the centerPoint and bounds values written by
+ * ImageInfo.SaveImageToPNG, can be passed in as a keyword/value map.
+ */
+public class PNGEncoder {
+
+    private static final byte[] SIGNATURE = {(byte)137, 80, 78, 71, 13, 10, 26, 10};
+
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] TEXT = {'t', 'E', 'X', 't'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private static final byte FILTER_NONE = 0;
+
+    private static final ThreadLocal<EncoderState> _state = new ThreadLocal<EncoderState>()
+    {
+        @Override
+        protected EncoderState initialValue()
+        {
+            return new EncoderState();
+        }
+    };
+
+    private PNGEncoder()
+    {
+    }
+
+    /**
+     * Encodes the image with the RendererSettings PNG compression level.
+     * @param image
+     * @return the PNG
+     */
+    public static byte[] encode(BufferedImage image)
+    {
+        return encode(image, null, RendererSettings.getInstance().getPNGCompressionLevel());
+    }
+
+    /**
+     * Encodes the image with the RendererSettings PNG compression level.
+     * @param image
+     * @param text tEXt keywords and values, Latin-1, in the order given.
+     * Can be null.
+     * @return the PNG
+     */
+    public static byte[] encode(BufferedImage image, Map<String, String> text)
+    {
+        return encode(image, text, RendererSettings.getInstance().getPNGCompressionLevel());
+    }
+
+    /**
+     *
+     * @param image
+     * @param text tEXt keywords and values, Latin-1, in the order given.
+     * Can be null.
+     * @param level 0 (none) to 9 (smallest), see
+     * RendererSettings.PNGCompression_FAST, PNGCompression_DEFAULT and
+     * PNGCompression_SMALL.
+     * @return the PNG
+     */
+    public static byte[] encode(BufferedImage image, Map<String, String> text, int level)
+    {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int rowLength = width * 4 + 1;
+        EncoderState state = _state.get();
+        state.ensureCapacity(width);
+
+        Deflater deflater = state.deflater;
+        deflater.reset();
+        deflater.setLevel(Math.max(Deflater.NO_COMPRESSION, Math.min(Deflater.BEST_COMPRESSION, level)));
+        state.idatLength = 0;
+
+        boolean intARGB = image.getType() == BufferedImage.TYPE_INT_ARGB;
+        Raster raster = image.getRaster();
+        int[] pixels = state.pixels;
+        byte[] row = state.row;
+        row[0] = FILTER_NONE;
+
+        for(int y = 0; y < height; y++)
+        {
+            //getDataElements copies the row without making the image
+            //unmanaged like grabbing the DataBuffer array would.
+            if(intARGB)
+                raster.getDataElements(0, y, width, 1, pixels);
+            else
+                image.getRGB(0, y, width, 1, pixels, 0, width);
+
+            for(int x = 0, i = 1; x < width; x++)
+            {
+                int argb = pixels[x];
+                row[i++] = (byte)(argb >> 16);
+                row[i++] = (byte)(argb >> 8);
+                row[i++] = (byte)argb;
+                row[i++] = (byte)(argb >>> 24);
+            }
+            deflate(state, row, rowLength);
+        }
+
+        deflater.finish();
+        while(deflater.finished() == false)
+            drain(state);
+
+        //one array, sized exactly, for the whole file
+        int size = SIGNATURE.length + 12 + 13 + 12 + state.idatLength + 12;
+        byte[][] textChunks = null;
+        if(text != null && text.isEmpty() == false)
+        {
+            textChunks = new byte[text.size()][];
+            int t = 0;
+            for(Map.Entry<String, String> entry : text.entrySet())
+            {
+                textChunks[t] = toLatin1(entry.getKey() + '\0' + entry.getValue());
+                size += 12 + textChunks[t].length;
+                t++;
+            }
+        }
+
+        byte[] png = new byte[size];
+        System.arraycopy(SIGNATURE, 0, png, 0, SIGNATURE.length);
+        int offset = SIGNATURE.length;
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8;//bit depth
+        header[9] = 6;//RGBA
+        offset = writeChunk(state.crc, png, offset, IHDR, header, 13);
+
+        if(textChunks != null)
+        {
+            for(byte[] chunk : textChunks)
+                offset = writeChunk(state.crc, png, offset, TEXT, chunk, chunk.length);
+        }
+
+        offset = writeChunk(state.crc, png, offset, IDAT, state.idat, state.idatLength);
+        writeChunk(state.crc, png, offset, IEND, state.idat, 0);
+        return png;
+    }
+
+    private static void deflate(EncoderState state, byte[] data, int length)
+    {
+        Deflater deflater = state.deflater;
+        deflater.setInput(data, 0, length);
+        while(deflater.needsInput() == false)
+            drain(state);
+    }
+
+    private static void drain(EncoderState state)
+    {
+        if(state.idat.length - state.idatLength < 4096)
+            state.idat = Arrays.copyOf(state.idat, state.idat.length * 2);
+        state.idatLength += state.deflater.deflate(state.idat, state.idatLength,
+                state.idat.length - state.idatLength);
+    }
+
+    private static int writeChunk(CRC32 crc, byte[] png, int offset, byte[] type, byte[] data, int length)
+    {
+        putInt(png, offset, length);
+        offset += 4;
+        System.arraycopy(type, 0, png, offset, 4);
+        System.arraycopy(data, 0, png, offset + 4, length);
+        crc.reset();
+        crc.update(png, offset, length + 4);
+        offset += 4 + length;
+        putInt(png, offset, (int)crc.getValue());
+        return offset + 4;
+    }
+
+    private static void putInt(byte[] array, int offset, int value)
+    {
+        array[offset] = (byte)(value >>> 24);
+        array[offset + 1] = (byte)(value >>> 16);
+        array[offset + 2] = (byte)(value >>> 8);
+        array[offset + 3] = (byte)value;
+    }
+
+    private static byte[] toLatin1(String value)
+    {
+        byte[] bytes = new byte[value.length()];
+        for(int i = 0; i < bytes.length; i++)
+        {
+            char c = value.charAt(i);
+            bytes[i] = (byte)(c < 256 ? c : '?');
+        }
+        return bytes;
+    }
+
+    /**
+     * Deflater and buffers for one thread.  The Deflater's native memory is
+     * kept for the life of the thread.
+     */
+    private static final class EncoderState
+    {
+        final Deflater deflater = new Deflater();
+        final CRC32 crc = new CRC32();
+        int[] pixels = new int[0];
+        byte[] row = new byte[0];
+        byte[] idat = new byte[16384];
+        int idatLength = 0;
+
+        void ensureCapacity(int width)
+        {
+            if(pixels.length >= width)
+                return;
+            pixels = new int[width];
+            row = new byte[width * 4 + 1];
+        }
+    }
+}
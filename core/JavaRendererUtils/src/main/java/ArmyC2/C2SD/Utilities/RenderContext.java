@@ -0,0 +1,138 @@
+package ArmyC2.C2SD.Utilities;
+
+/**
+ * Per-render options: which client the line array is being built for, the
+ * per-symbol flags that used to be shared by every MilStdSymbol and the
+ * RendererProfile to render with.  Each MilStdSymbol and TGLight has its own,
+ * so renders on different threads don't affect each other.
+ */
+public class RenderContext {
+
+    /**
+     * Client used by clsRenderer.render
+     */
+    public static final String CLIENT_GENERIC = "generic";
+    /**
+     * Client used by clsRenderer.render_GE
+     */
+    public static final String CLIENT_GE = "ge";
+
+    private String _client = "";
+
+    private String _altitudeMode = "";
+
+    private boolean _useDashArray = true;
+
+    private boolean _hideOptionalLabels = false;
+
+    private double _simplifyTolerance = 0;
+
+    private RendererProfile _rendererProfile = null;
+
+    public RenderContext()
+    {
+    }
+
+    /**
+     * @param client like "generic", "ge", "cpof2d" or "cpof3d"
+     */
+    public RenderContext(String client)
+    {
+        setClient(client);
+    }
+
+    /**
+     * Copies another context.
+     * @param context
+     */
+    public RenderContext(RenderContext context)
+    {
+        _client = context._client;
+        _altitudeMode = context._altitudeMode;
+        _useDashArray = context._useDashArray;
+        _hideOptionalLabels = context._hideOptionalLabels;
+        _simplifyTolerance = context._simplifyTolerance;
+        _rendererProfile = context._rendererProfile;
+    }
+
+    public String getClient()
+    {
+        return _client;
+    }
+
+    /**
+     * @param value like "generic", "ge", "cpof2d" or "cpof3d".  Null is
+     * treated as "".
+     */
+    public void setClient(String value)
+    {
+        if(value == null)
+            value = "";
+        _client = value;
+    }
+
+    public String getAltitudeMode()
+    {
+        return _altitudeMode;
+    }
+
+    public void setAltitudeMode(String value)
+    {
+        _altitudeMode = value;
+    }
+
+    public boolean getUseDashArray()
+    {
+        return _useDashArray;
+    }
+
+    public void setUseDashArray(boolean value)
+    {
+        _useDashArray = value;
+    }
+
+    public boolean getHideOptionalLabels()
+    {
+        return _hideOptionalLabels;
+    }
+
+    public void setHideOptionalLabels(boolean value)
+    {
+        _hideOptionalLabels = value;
+    }
+
+    public double getSimplifyTolerance()
+    {
+        return _simplifyTolerance;
+    }
+
+    /**
+     * @param value pixels lines may be simplified by, 0 to not simplify.
+     * See MilStdAttributes.SimplifyTolerance.
+     */
+    public void setSimplifyTolerance(double value)
+    {
+        _simplifyTolerance = value;
+    }
+
+    /**
+     * Settings to render with.
+     * @return the profile set for this render or, if there isn't one,
+     * RendererSettings.getInstance().getDefaultProfile()
+     */
+    public RendererProfile getRendererProfile()
+    {
+        RendererProfile profile = _rendererProfile;
+        if(profile == null)
+            profile = RendererSettings.getInstance().getDefaultProfile();
+        return profile;
+    }
+
+    /**
+     * @param value null to follow the global RendererSettings
+     */
+    public void setRendererProfile(RendererProfile value)
+    {
+        _rendererProfile = value;
+    }
+}
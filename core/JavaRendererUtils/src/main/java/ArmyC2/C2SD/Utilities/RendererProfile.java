@@ -0,0 +1,579 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextAttribute;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Named, immutable set of renderer settings.  Unlike RendererSettings, which
+ * is shared by the whole process, a profile can be picked per request and
+ * handed down to the renderers with the symbol (see
+ * MilStdSymbol.setRendererProfile) so clients with different fonts, DPIs or
+ * label styles can be served from one JVM.  The label fonts and the
+ * FontRenderContext are created once, when the profile is built.
+ * Use RendererProfile.Builder to make one and
+ * RendererSettings.registerProfile to make it available by name.
+ */
+public final class RendererProfile {
+
+    /**
+     * Name of the profile that mirrors the current RendererSettings values.
+     */
+    public static final String DEFAULT_PROFILE_NAME = "default";
+
+    private final String _name;
+
+    private final int _TextBackgroundMethod;
+    private final int _TextOutlineWidth;
+    private final Color _ColorLabelForeground;
+    private final Color _ColorLabelBackground;
+    private final int _SymbolRenderMethod;
+    private final int _UnitRenderMethod;
+    private final int _TextRenderMethod;
+    private final boolean _AutoCollapseModifiers;
+    private final boolean _CenterOnHQStaff;
+    private final int _SymbologyStandard;
+    private final int _OCMType;
+    private final boolean _UseLineInterpolation;
+    private final boolean _scaleEchelon;
+    private final boolean _DrawAffiliationModifierAsLabel;
+    private final String _ModifierFontName;
+    private final int _ModifierFontType;
+    private final int _ModifierFontSize;
+    private final int _ModifierFontKerning;
+    private final float _ModifierFontTracking;
+    private final String _MPModifierFontName;
+    private final int _MPModifierFontType;
+    private final int _MPModifierFontSize;
+    private final float _KMLLabelScale;
+    private final int _DPI;
+
+    private final Font _LabelFont;
+    private final Font _MPLabelFont;
+    private final FontRenderContext _FontRenderContext;
+
+    private RendererProfile(Builder builder)
+    {
+        _name = builder._name;
+        _TextBackgroundMethod = builder._TextBackgroundMethod;
+        _TextOutlineWidth = builder._TextOutlineWidth;
+        _ColorLabelForeground = builder._ColorLabelForeground;
+        _ColorLabelBackground = builder._ColorLabelBackground;
+        _SymbolRenderMethod = builder._SymbolRenderMethod;
+        _UnitRenderMethod = builder._UnitRenderMethod;
+        _TextRenderMethod = builder._TextRenderMethod;
+        _AutoCollapseModifiers = builder._AutoCollapseModifiers;
+        _CenterOnHQStaff = builder._CenterOnHQStaff;
+        _SymbologyStandard = builder._SymbologyStandard;
+        _OCMType = builder._OCMType;
+        _UseLineInterpolation = builder._UseLineInterpolation;
+        _scaleEchelon = builder._scaleEchelon;
+        _DrawAffiliationModifierAsLabel = builder._DrawAffiliationModifierAsLabel;
+        _ModifierFontName = builder._ModifierFontName;
+        _ModifierFontType = builder._ModifierFontType;
+        _ModifierFontSize = builder._ModifierFontSize;
+        _ModifierFontKerning = builder._ModifierFontKerning;
+        _ModifierFontTracking = builder._ModifierFontTracking;
+        _MPModifierFontName = builder._MPModifierFontName;
+        _MPModifierFontType = builder._MPModifierFontType;
+        _MPModifierFontSize = builder._MPModifierFontSize;
+        _KMLLabelScale = builder._KMLLabelScale;
+        _DPI = builder._DPI;
+
+        _LabelFont = createLabelFont(_ModifierFontName, _ModifierFontType, _ModifierFontSize, _ModifierFontKerning, _ModifierFontTracking);
+        _MPLabelFont = createMPLabelFont(_MPModifierFontName, _MPModifierFontType, _MPModifierFontSize);
+        //same values as the context of a Graphics2D from a new BufferedImage,
+        //which is what the renderers measured text with before.
+        _FontRenderContext = new FontRenderContext(null, RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT,
+                RenderingHints.VALUE_FRACTIONALMETRICS_DEFAULT);
+    }
+
+    /**
+     * Takes a copy of the current RendererSettings values.
+     * @param name
+     * @param settings
+     * @return
+     */
+    static RendererProfile fromSettings(String name, RendererSettings settings)
+    {
+        Builder builder = new Builder(name);
+        builder._TextBackgroundMethod = settings.getTextBackgroundMethod();
+        builder._TextOutlineWidth = settings.getTextOutlineWidth();
+        builder._ColorLabelForeground = settings.getLabelForegroundColor();
+        builder._ColorLabelBackground = settings.getLabelBackgroundColor();
+        builder._SymbolRenderMethod = settings.getSymbolRenderMethod();
+        builder._UnitRenderMethod = settings.getUnitRenderMethod();
+        builder._TextRenderMethod = settings.getTextRenderMethod();
+        builder._AutoCollapseModifiers = settings.getAutoCollapseModifiers();
+        builder._CenterOnHQStaff = settings.getCenterOnHQStaff();
+        builder._SymbologyStandard = settings.getSymbologyStandard();
+        builder._OCMType = settings.getOperationalConditionModifierType();
+        builder._UseLineInterpolation = settings.getUseLineInterpolation();
+        builder._scaleEchelon = settings.getScaleEchelon();
+        builder._DrawAffiliationModifierAsLabel = settings.getDrawAffiliationModifierAsLabel();
+        builder._ModifierFontName = settings.getLabelFontName();
+        builder._ModifierFontType = settings.getLabelFontType();
+        builder._ModifierFontSize = settings.getLabelFontSize();
+        builder._ModifierFontKerning = settings.getLabelFontKerning();
+        builder._ModifierFontTracking = settings.getLabelFontTracking();
+        builder._MPModifierFontName = settings.getMPLabelFontName();
+        builder._MPModifierFontType = settings.getMPLabelFontType();
+        builder._MPModifierFontSize = settings.getMPLabelFontSize();
+        builder._KMLLabelScale = settings.getKMLLabelScale();
+        builder._DPI = settings.getDeviceDPI();
+        return builder.build();
+    }
+
+    static Font createLabelFont(String name, int type, int size, int kerning, float tracking)
+    {
+        try
+        {
+            Map<TextAttribute, Object> map = new HashMap<TextAttribute, Object>();
+            map.put(TextAttribute.KERNING, kerning);
+            map.put(TextAttribute.TRACKING, tracking);
+            Font temp = new Font(name, type, size);
+            return temp.deriveFont(map);
+        }
+        catch(Exception exc)
+        {
+            String message = "font creation error, returning \"" + name + "\" font, " + size + "pt. Check font name and type.";
+            ErrorLogger.LogMessage("RendererProfile", "createLabelFont", message);
+            ErrorLogger.LogMessage("RendererProfile", "createLabelFont", exc.getMessage());
+            return new Font("arial", Font.BOLD, 12);
+        }
+    }
+
+    static Font createMPLabelFont(String name, int type, int size)
+    {
+        try
+        {
+            return new Font(name, type, size);
+        }
+        catch(Exception exc)
+        {
+            String message = "font creation error, returning \"" + name + "\" font, " + size + "pt. Check font name and type.";
+            ErrorLogger.LogMessage("RendererProfile", "createMPLabelFont", message);
+            ErrorLogger.LogMessage("RendererProfile", "createMPLabelFont", exc.getMessage());
+            return new Font("arial", Font.BOLD, 12);
+        }
+    }
+
+    public String getName()
+    {
+        return _name;
+    }
+
+    /**
+     * @return method like RendererSettings.TextBackgroundMethod_NONE
+     */
+    public int getTextBackgroundMethod()
+    {
+        return _TextBackgroundMethod;
+    }
+
+    public int getTextOutlineWidth()
+    {
+        return _TextOutlineWidth;
+    }
+
+    /**
+     * @return null means use the symbol's colors
+     */
+    public Color getLabelForegroundColor()
+    {
+        return _ColorLabelForeground;
+    }
+
+    public Color getLabelBackgroundColor()
+    {
+        return _ColorLabelBackground;
+    }
+
+    /**
+     * @return method like RendererSettings.RenderMethod_NATIVE
+     */
+    public int getSymbolRenderMethod()
+    {
+        return _SymbolRenderMethod;
+    }
+
+    /**
+     * @return method like RendererSettings.RenderMethod_NATIVE
+     */
+    public int getUnitRenderMethod()
+    {
+        return _UnitRenderMethod;
+    }
+
+    /**
+     * @return method like RendererSettings.RenderMethod_NATIVE
+     */
+    public int getTextRenderMethod()
+    {
+        return _TextRenderMethod;
+    }
+
+    public boolean getAutoCollapseModifiers()
+    {
+        return _AutoCollapseModifiers;
+    }
+
+    public boolean getCenterOnHQStaff()
+    {
+        return _CenterOnHQStaff;
+    }
+
+    /**
+     * @return like RendererSettings.Symbology_2525C
+     */
+    public int getSymbologyStandard()
+    {
+        return _SymbologyStandard;
+    }
+
+    /**
+     * @return like RendererSettings.OperationalConditionModifierType_SLASH
+     */
+    public int getOperationalConditionModifierType()
+    {
+        return _OCMType;
+    }
+
+    public boolean getUseLineInterpolation()
+    {
+        return _UseLineInterpolation;
+    }
+
+    public boolean getScaleEchelon()
+    {
+        return _scaleEchelon;
+    }
+
+    public boolean getDrawAffiliationModifierAsLabel()
+    {
+        return _DrawAffiliationModifierAsLabel;
+    }
+
+    public String getLabelFontName()
+    {
+        return _ModifierFontName;
+    }
+
+    public int getLabelFontType()
+    {
+        return _ModifierFontType;
+    }
+
+    public int getLabelFontSize()
+    {
+        return _ModifierFontSize;
+    }
+
+    public int getLabelFontKerning()
+    {
+        return _ModifierFontKerning;
+    }
+
+    public float getLabelFontTracking()
+    {
+        return _ModifierFontTracking;
+    }
+
+    public String getMPLabelFontName()
+    {
+        return _MPModifierFontName;
+    }
+
+    public int getMPLabelFontType()
+    {
+        return _MPModifierFontType;
+    }
+
+    public int getMPLabelFontSize()
+    {
+        return _MPModifierFontSize;
+    }
+
+    public float getKMLLabelScale()
+    {
+        return _KMLLabelScale;
+    }
+
+    public int getDeviceDPI()
+    {
+        return _DPI;
+    }
+
+    /**
+     * Font used for single point and unit labels, built with the profile.
+     * @return
+     */
+    public Font getLabelFont()
+    {
+        return _LabelFont;
+    }
+
+    /**
+     * Font used for multipoint labels, built with the profile.
+     * @return
+     */
+    public Font getMPLabelFont()
+    {
+        return _MPLabelFont;
+    }
+
+    /**
+     * FontRenderContext to measure and lay out label text with.
+     * @return
+     */
+    public FontRenderContext getFontRenderContext()
+    {
+        return _FontRenderContext;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RendererProfile[" + _name + "]";
+    }
+
+    /**
+     * Builds a RendererProfile.  Starts from the RendererSettings defaults or
+     * from another profile; setters behave like the matching RendererSettings
+     * setters.
+     */
+    public static final class Builder
+    {
+        private String _name;
+
+        private int _TextBackgroundMethod = RendererSettings.TextBackgroundMethod_OUTLINE_QUICK;
+        private int _TextOutlineWidth = 2;
+        private Color _ColorLabelForeground = null;
+        private Color _ColorLabelBackground = Color.WHITE;
+        private int _SymbolRenderMethod = RendererSettings.RenderMethod_NATIVE;
+        private int _UnitRenderMethod = RendererSettings.RenderMethod_NATIVE;
+        private int _TextRenderMethod = RendererSettings.RenderMethod_NATIVE;
+        private boolean _AutoCollapseModifiers = true;
+        private boolean _CenterOnHQStaff = true;
+        private int _SymbologyStandard = RendererSettings.Symbology_2525B;
+        private int _OCMType = RendererSettings.OperationalConditionModifierType_BAR;
+        private boolean _UseLineInterpolation = true;
+        private boolean _scaleEchelon = false;
+        private boolean _DrawAffiliationModifierAsLabel = true;
+        private String _ModifierFontName = "arial";
+        private int _ModifierFontType = Font.BOLD;
+        private int _ModifierFontSize = 12;
+        private int _ModifierFontKerning = 0;
+        private float _ModifierFontTracking = 0;
+        private String _MPModifierFontName = "arial";
+        private int _MPModifierFontType = Font.BOLD;
+        private int _MPModifierFontSize = 12;
+        private float _KMLLabelScale = 1.0f;
+        private int _DPI = 90;
+
+        /**
+         * Starts with the same defaults RendererSettings has at startup.
+         * @param name name the profile will be registered and requested by
+         */
+        public Builder(String name)
+        {
+            setName(name);
+        }
+
+        /**
+         * Starts with the values of another profile.
+         * @param name name the profile will be registered and requested by
+         * @param base profile to copy, like
+         * RendererSettings.getInstance().getDefaultProfile()
+         */
+        public Builder(String name, RendererProfile base)
+        {
+            setName(name);
+            _TextBackgroundMethod = base._TextBackgroundMethod;
+            _TextOutlineWidth = base._TextOutlineWidth;
+            _ColorLabelForeground = base._ColorLabelForeground;
+            _ColorLabelBackground = base._ColorLabelBackground;
+            _SymbolRenderMethod = base._SymbolRenderMethod;
+            _UnitRenderMethod = base._UnitRenderMethod;
+            _TextRenderMethod = base._TextRenderMethod;
+            _AutoCollapseModifiers = base._AutoCollapseModifiers;
+            _CenterOnHQStaff = base._CenterOnHQStaff;
+            _SymbologyStandard = base._SymbologyStandard;
+            _OCMType = base._OCMType;
+            _UseLineInterpolation = base._UseLineInterpolation;
+            _scaleEchelon = base._scaleEchelon;
+            _DrawAffiliationModifierAsLabel = base._DrawAffiliationModifierAsLabel;
+            _ModifierFontName = base._ModifierFontName;
+            _ModifierFontType = base._ModifierFontType;
+            _ModifierFontSize = base._ModifierFontSize;
+            _ModifierFontKerning = base._ModifierFontKerning;
+            _ModifierFontTracking = base._ModifierFontTracking;
+            _MPModifierFontName = base._MPModifierFontName;
+            _MPModifierFontType = base._MPModifierFontType;
+            _MPModifierFontSize = base._MPModifierFontSize;
+            _KMLLabelScale = base._KMLLabelScale;
+            _DPI = base._DPI;
+        }
+
+        private void setName(String name)
+        {
+            if(name == null || name.trim().equals(""))
+                throw new IllegalArgumentException("profile name can't be empty");
+            _name = name.trim();
+        }
+
+        /**
+         * Like RendererSettings.setTextBackgroundMethod, also resets the
+         * outline width for the outline methods.
+         * @param value like RendererSettings.TextBackgroundMethod_NONE
+         * @return
+         */
+        public Builder setTextBackgroundMethod(int value)
+        {
+            _TextBackgroundMethod = value;
+            if(value == RendererSettings.TextBackgroundMethod_OUTLINE)
+                _TextOutlineWidth = 4;
+            else if(value == RendererSettings.TextBackgroundMethod_OUTLINE_QUICK)
+                _TextOutlineWidth = 2;
+            return this;
+        }
+
+        public Builder setTextOutlineWidth(int value)
+        {
+            _TextOutlineWidth = value;
+            return this;
+        }
+
+        public Builder setLabelForegroundColor(Color value)
+        {
+            _ColorLabelForeground = value;
+            return this;
+        }
+
+        public Builder setLabelBackgroundColor(Color value)
+        {
+            _ColorLabelBackground = value;
+            return this;
+        }
+
+        public Builder setSymbolRenderMethod(int value)
+        {
+            _SymbolRenderMethod = value;
+            return this;
+        }
+
+        public Builder setUnitRenderMethod(int value)
+        {
+            _UnitRenderMethod = value;
+            return this;
+        }
+
+        public Builder setTextRenderMethod(int value)
+        {
+            _TextRenderMethod = value;
+            return this;
+        }
+
+        public Builder setAutoCollapseModifiers(boolean value)
+        {
+            _AutoCollapseModifiers = value;
+            return this;
+        }
+
+        public Builder setCenterOnHQStaff(boolean value)
+        {
+            _CenterOnHQStaff = value;
+            return this;
+        }
+
+        /**
+         * Standard given to symbols that are created with this profile and
+         * don't ask for one.
+         * @param value like RendererSettings.Symbology_2525C
+         * @return
+         */
+        public Builder setSymbologyStandard(int value)
+        {
+            _SymbologyStandard = value;
+            return this;
+        }
+
+        public Builder setOperationalConditionModifierType(int value)
+        {
+            _OCMType = value;
+            return this;
+        }
+
+        public Builder setUseLineInterpolation(boolean value)
+        {
+            _UseLineInterpolation = value;
+            return this;
+        }
+
+        public Builder setScaleEchelon(boolean value)
+        {
+            _scaleEchelon = value;
+            return this;
+        }
+
+        public Builder setDrawAffiliationModifierAsLabel(boolean value)
+        {
+            _DrawAffiliationModifierAsLabel = value;
+            return this;
+        }
+
+        /**
+         * Like RendererSettings.setLabelFont(name, type, size)
+         * @param name Like "arial"
+         * @param type Like Font.BOLD
+         * @param size Like 12
+         * @return
+         */
+        public Builder setLabelFont(String name, int type, int size)
+        {
+            return setLabelFont(name, type, size, false, TextAttribute.TRACKING_LOOSE);
+        }
+
+        public Builder setLabelFont(String name, int type, int size, boolean kerning, float tracking)
+        {
+            _ModifierFontName = name;
+            _ModifierFontType = type;
+            _ModifierFontSize = size;
+            _ModifierFontKerning = kerning ? TextAttribute.KERNING_ON : 0;
+            _ModifierFontTracking = tracking;
+            return this;
+        }
+
+        /**
+         * Like RendererSettings.setMPLabelFont(name, type, size, kmlScale)
+         * @param name Like "arial"
+         * @param type Like Font.BOLD
+         * @param size Like 12, before kmlScale is applied
+         * @param kmlScale 1.0 for no scaling
+         * @return
+         */
+        public Builder setMPLabelFont(String name, int type, int size, float kmlScale)
+        {
+            _MPModifierFontName = name;
+            _MPModifierFontType = type;
+            _MPModifierFontSize = Math.round(size * kmlScale);
+            _KMLLabelScale = kmlScale;
+            return this;
+        }
+
+        public Builder setDeviceDPI(int value)
+        {
+            _DPI = value;
+            return this;
+        }
+
+        public RendererProfile build()
+        {
+            return new RendererProfile(this);
+        }
+    }
+}
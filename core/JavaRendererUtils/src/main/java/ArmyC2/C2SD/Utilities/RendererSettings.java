@@ -8,6 +8,7 @@ package ArmyC2.C2SD.Utilities;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.font.TextAttribute;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -139,6 +140,31 @@ public class RendererSettings {
     
     private static int _DPI = 90;
 
+    /**
+     * Quickest PNG encoding, PNGs are about an eighth bigger than the
+     * default.
+     */
+    public static final int PNGCompression_FAST = 1;
+    /**
+     * Same size PNGs as ImageIO writes, in about half the time.  Default.
+     */
+    public static final int PNGCompression_DEFAULT = 4;
+    /**
+     * Smallest PNGs, about an eighth smaller than the default but several
+     * times slower to encode.
+     */
+    public static final int PNGCompression_SMALL = 9;
+    private static int _PNGCompressionLevel = PNGCompression_DEFAULT;
+
+    private static ArrayList<SettingsChangedEventListener> _listeners = new ArrayList<SettingsChangedEventListener>();
+
+    //snapshot of the values above, rebuilt after any of them change.
+    private static volatile RendererProfile _defaultProfile = null;
+    private static volatile int _settingsGeneration = 0;
+    private static final Object _defaultProfileMutex = new Object();
+
+    private static final Map<String, RendererProfile> _profiles = new HashMap<String, RendererProfile>();
+
     private RendererSettings()
     {
         Init();
@@ -158,6 +184,63 @@ public class RendererSettings {
 
     }
 
+    /**
+     * Register to be notified when a setting that affects rendered output
+     * changes.  Useful if you're holding on to rendered results.
+     * @param listener
+     */
+    public void addEventListener(SettingsChangedEventListener listener)
+    {
+        synchronized(_listeners)
+        {
+            if(listener != null && _listeners.contains(listener) == false)
+                _listeners.add(listener);
+        }
+    }
+
+    public void removeEventListener(SettingsChangedEventListener listener)
+    {
+        synchronized(_listeners)
+        {
+            _listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Lets listeners know a setting changed.  Listeners are called outside
+     * of the listener list lock so they're free to add or remove listeners.
+     * @param eventType like SettingsChangedEvent.EventType_FontChanged
+     */
+    private void fireSettingsChangedEvent(String eventType)
+    {
+        synchronized(_defaultProfileMutex)
+        {
+            _settingsGeneration++;
+            _defaultProfile = null;
+        }
+
+        SettingsChangedEventListener[] listeners = null;
+        synchronized(_listeners)
+        {
+            if(_listeners.isEmpty())
+                return;
+            listeners = _listeners.toArray(new SettingsChangedEventListener[_listeners.size()]);
+        }
+
+        SettingsChangedEvent sce = new SettingsChangedEvent(eventType);
+        for(int i = 0; i < listeners.length; i++)
+        {
+            try
+            {
+                listeners[i].onSettingsChanged(sce);
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException("RendererSettings", "fireSettingsChangedEvent", exc);
+            }
+        }
+    }
+
     /**
      * None, outline (default), or filled background.
      * If set to OUTLINE, TextOutlineWidth changed to default of 4.
@@ -172,6 +255,7 @@ public class RendererSettings {
             _TextOutlineWidth = 4;
         else if(_TextBackgroundMethod == TextBackgroundMethod_OUTLINE_QUICK)
             _TextOutlineWidth = 2;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
 
     /**
@@ -193,6 +277,7 @@ public class RendererSettings {
     public void setSymbolRenderMethod(int symbolRenderMethod)
     {
         _SymbolRenderMethod = symbolRenderMethod;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
 
     /**
@@ -217,6 +302,7 @@ public class RendererSettings {
 
         /*ErrorLogger.LogMessage("symStd set to: " + String.valueOf(standard));
         System.out.println(ErrorLogger.getStackTrace(new Exception()));//*/
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_SymbologyStandardChanged);
     }
 
     /**
@@ -236,6 +322,7 @@ public class RendererSettings {
     public void setOperationalConditionModifierType(int value)
     {
         _OCMType = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
 
     public int getOperationalConditionModifierType()
@@ -255,6 +342,7 @@ public class RendererSettings {
     public void setUseLineInterpolation(boolean value)
     {
         _UseLineInterpolation = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
     
     /**
@@ -274,18 +362,38 @@ public class RendererSettings {
     public void setDeviceDPI(int value)
     {
         _DPI = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
     public int getDeviceDPI()
     {
         return _DPI;
     }
+
+    /**
+     * Deflate level for PNGs from PNGEncoder, 0 to 9.
+     * Doesn't change how anything looks so caches aren't cleared.
+     * @param value PNGCompression_FAST, PNGCompression_DEFAULT,
+     * PNGCompression_SMALL or anything in between.
+     */
+    public void setPNGCompressionLevel(int value)
+    {
+        _PNGCompressionLevel = Math.max(0, Math.min(9, value));
+    }
+    public int getPNGCompressionLevel()
+    {
+        return _PNGCompressionLevel;
+    }
     /**
      * Collapse Modifiers for fire support areas when the symbol isn't large enough to show all
      * the labels.  Identifying label will always be visible.  Zooming in, to make the symbol larger,
      * will make more modifiers visible.  Resizing the symbol can also make more modifiers visible.
      * @param value
      */
-    public void setAutoCollapseModifiers(boolean value) {_AutoCollapseModifiers = value;}
+    public void setAutoCollapseModifiers(boolean value)
+    {
+        _AutoCollapseModifiers = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
+    }
 
     public boolean getAutoCollapseModifiers() {return _AutoCollapseModifiers;}
 
@@ -307,6 +415,7 @@ public class RendererSettings {
     public void setUnitRenderMethod(int symbolRenderMethod)
     {
         _UnitRenderMethod = symbolRenderMethod;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
 
     /**
@@ -327,6 +436,7 @@ public class RendererSettings {
     public void setCenterOnHQStaff(Boolean value)
     {
         _CenterOnHQStaff = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
 
     /**
@@ -350,6 +460,7 @@ public class RendererSettings {
     public void setTextRenderMethod(int symbolRenderMethod)
     {
         _TextRenderMethod = symbolRenderMethod;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
 
     /**
@@ -370,6 +481,7 @@ public class RendererSettings {
     synchronized public void setTextOutlineWidth(int width)
     {
         _TextOutlineWidth = width;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
 
     /**
@@ -402,6 +514,7 @@ public class RendererSettings {
     synchronized public void setLabelForegroundColor(Color value)
     {
        _ColorLabelForeground = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_ColorChanged);
     }
 
     /**
@@ -425,6 +538,7 @@ public class RendererSettings {
     synchronized public void setLabelBackgroundColor(Color value)
     {
         _ColorLabelBackground = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_ColorChanged);
     }
 
     /**
@@ -435,6 +549,7 @@ public class RendererSettings {
     public void setTextBackgroundAutoColorThreshold(int value)
     {
         _TextBackgroundAutoColorThreshold = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_ColorChanged);
     }
 
     /**
@@ -459,6 +574,7 @@ public class RendererSettings {
     synchronized public void setSinglePointSymbolOutlineWidth(int width)
     {
         _SymbolOutlineWidth = width;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_SymbolSizeChanged);
     }
 
     /**
@@ -478,6 +594,7 @@ public class RendererSettings {
     public void setScaleEchelon(boolean value)
     {
         _scaleEchelon = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
     /**
      * Returns the value determining if we scale the echelon font size or
@@ -497,6 +614,7 @@ public class RendererSettings {
     public void setDrawAffiliationModifierAsLabel(boolean value)
     {
         _DrawAffiliationModifierAsLabel = value;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
     /**
      * True to draw as modifier label in the "E/F" location.
@@ -520,6 +638,7 @@ public class RendererSettings {
         _ModifierFontSize = size;
         _ModifierFontKerning = 0;
         _ModifierFontTracking = TextAttribute.TRACKING_LOOSE;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
     
     public void setMPLabelFont(String name, int type, int size)
@@ -530,6 +649,7 @@ public class RendererSettings {
         _KMLLabelScale = 1.0f;
         //_MPModifierFontKerning = 0;
         //_MPModifierFontTracking = TextAttribute.TRACKING_LOOSE;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
     
     public void setMPLabelFont(String name, int type, int size, float kmlScale)
@@ -540,6 +660,7 @@ public class RendererSettings {
         _KMLLabelScale = kmlScale;
         //_MPModifierFontKerning = 0;
         //_MPModifierFontTracking = TextAttribute.TRACKING_LOOSE;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
     
 
@@ -572,6 +693,7 @@ public class RendererSettings {
         else
             _ModifierFontKerning = TextAttribute.KERNING_ON;
         _ModifierFontTracking = tracking;
+        fireSettingsChangedEvent(SettingsChangedEvent.EventType_FontChanged);
     }
     
     /*public void setLabelFont(Font font)
@@ -644,59 +766,109 @@ public class RendererSettings {
      */
     public Font getLabelFont()
     {
-        try
-        {
-            Map<TextAttribute, Object> map = new HashMap<TextAttribute, Object>();
-//            map.put(TextAttribute.FONT, _ModifierFontName);
-//            map.put(TextAttribute.SIZE, _ModifierFontSize);
-//            map.put(TextAttribute.WEIGHT, _ModifierFontType);
-            map.put(TextAttribute.KERNING, _ModifierFontKerning);
-            map.put(TextAttribute.TRACKING, _ModifierFontTracking);
-            
-            Font temp = new Font(_ModifierFontName, _ModifierFontType, _ModifierFontSize);
-                    
-            return temp.deriveFont(map);
-        }
-        catch(Exception exc)
-        {
-            String message = "font creation error, returning \"" + _ModifierFontName + "\" font, " + _ModifierFontSize + "pt. Check font name and type.";
-            ErrorLogger.LogMessage("RendererSettings", "getLabelFont", message);
-            ErrorLogger.LogMessage("RendererSettings", "getLabelFont", exc.getMessage());
-            return new Font("arial", Font.BOLD, 12);
-        }
+        return getDefaultProfile().getLabelFont();
     }
-    
-        /**
-     * get font object used for labels
+
+    /**
+     * get font object used for multipoint labels
      * @return Font object
      */
     public Font getMPLabelFont()
     {
-        try
+        return getDefaultProfile().getMPLabelFont();
+    }
+
+    public String getMPLabelFontName()
+    {
+        return _MPModifierFontName;
+    }
+
+    public int getMPLabelFontType()
+    {
+        return _MPModifierFontType;
+    }
+
+    public int getMPLabelFontSize()
+    {
+        return _MPModifierFontSize;
+    }
+
+    public float getKMLLabelScale()
+    {
+        return _KMLLabelScale;
+    }
+
+
+    /**
+     * Profile with the current values of these settings.  The same object is
+     * returned until one of the settings changes.
+     * @return
+     */
+    public RendererProfile getDefaultProfile()
+    {
+        RendererProfile profile = _defaultProfile;
+        if(profile == null)
         {
-            Map<TextAttribute, Object> map = new HashMap<TextAttribute, Object>();
-//            map.put(TextAttribute.FONT, _ModifierFontName);
-//            map.put(TextAttribute.SIZE, _ModifierFontSize);
-//            map.put(TextAttribute.WEIGHT, _ModifierFontType);
-            //map.put(TextAttribute.KERNING, _ModifierFontKerning);
-            //map.put(TextAttribute.TRACKING, _ModifierFontTracking);
-            
-            Font temp = new Font(_MPModifierFontName, _MPModifierFontType, _MPModifierFontSize);
-                    
-            return temp;//.deriveFont(map);
+            int generation = _settingsGeneration;
+            profile = RendererProfile.fromSettings(RendererProfile.DEFAULT_PROFILE_NAME, this);
+            //don't keep it if a setting changed while we were reading them.
+            synchronized(_defaultProfileMutex)
+            {
+                if(generation == _settingsGeneration)
+                    _defaultProfile = profile;
+            }
         }
-        catch(Exception exc)
+        return profile;
+    }
+
+    /**
+     * Makes a profile available to getProfile by its name, replacing any
+     * profile already registered with that name.
+     * @param profile
+     */
+    public void registerProfile(RendererProfile profile)
+    {
+        if(profile.getName().equalsIgnoreCase(RendererProfile.DEFAULT_PROFILE_NAME))
+            throw new IllegalArgumentException("\"" + RendererProfile.DEFAULT_PROFILE_NAME + "\" is reserved for the RendererSettings profile");
+
+        RendererProfile old = null;
+        synchronized(_profiles)
         {
-            String message = "font creation error, returning \"" + _MPModifierFontName + "\" font, " + _MPModifierFontSize + "pt. Check font name and type.";
-            ErrorLogger.LogMessage("RendererSettings", "getMPLabelFont", message);
-            ErrorLogger.LogMessage("RendererSettings", "getMPLabelFont", exc.getMessage());
-            return new Font("arial", Font.BOLD, 12);
+            old = _profiles.put(profile.getName().toLowerCase(), profile);
         }
+        //anything rendered with the old profile is out of date.
+        if(old != null)
+            fireSettingsChangedEvent(SettingsChangedEvent.EventType_RenderSettingChanged);
     }
-    
-    public float getKMLLabelScale()
+
+    /**
+     * @param name not case sensitive
+     * @return the registered profile, the default profile for "default", or
+     * null if there's no profile with that name.
+     */
+    public RendererProfile getProfile(String name)
     {
-        return _KMLLabelScale;
+        if(name == null)
+            return null;
+        if(name.equalsIgnoreCase(RendererProfile.DEFAULT_PROFILE_NAME))
+            return getDefaultProfile();
+        synchronized(_profiles)
+        {
+            return _profiles.get(name.toLowerCase());
+        }
     }
 
+    /**
+     * @return names of the registered profiles, not including "default".
+     */
+    public ArrayList<String> getProfileNames()
+    {
+        ArrayList<String> names = new ArrayList<String>();
+        synchronized(_profiles)
+        {
+            for(RendererProfile profile : _profiles.values())
+                names.add(profile.getName());
+        }
+        return names;
+    }
 }
@@ -0,0 +1,46 @@
+package ArmyC2.C2SD.Utilities;
+
+/**
+ * Fired by RendererSettings when a setting that affects rendered output
+ * changes.  Lets anything holding on to previously rendered results
+ * (like cached images) know that they may no longer be valid.
+ */
+public class SettingsChangedEvent {
+
+    /**
+     * Symbology standard changed
+     */
+    public static final String EventType_SymbologyStandardChanged = "SymbologyStandardChanged";
+    /**
+     * Label font, text background or text outline changed
+     */
+    public static final String EventType_FontChanged = "FontChanged";
+    /**
+     * Label or line colors changed
+     */
+    public static final String EventType_ColorChanged = "ColorChanged";
+    /**
+     * Single point symbol size or outline width changed
+     */
+    public static final String EventType_SymbolSizeChanged = "SymbolSizeChanged";
+    /**
+     * Any other setting that affects how a symbol is drawn
+     */
+    public static final String EventType_RenderSettingChanged = "RenderSettingChanged";
+
+    private String _EventType = null;
+
+    public SettingsChangedEvent(String eventType)
+    {
+        _EventType = eventType;
+    }
+
+    /**
+     * @return like SettingsChangedEvent.EventType_FontChanged
+     */
+    public String getEventType()
+    {
+        return _EventType;
+    }
+
+}
@@ -0,0 +1,13 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.util.EventListener;
+
+/**
+ * Implement and register with RendererSettings.addEventListener() to be
+ * notified when a renderer setting changes.
+ */
+public interface SettingsChangedEventListener extends EventListener {
+
+    public void onSettingsChanged(SettingsChangedEvent sce);
+
+}
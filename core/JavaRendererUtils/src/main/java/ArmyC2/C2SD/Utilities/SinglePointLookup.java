@@ -242,6 +242,21 @@ public class SinglePointLookup {
       return spli;
   }
 
+  /**
+   * Every SinglePointLookupInfo for a symbology standard.
+   * @param symStd RendererSettings.Symbology_2525B or Symbology_2525C
+   * @return a new list, empty if symStd isn't recognized.
+   */
+  public ArrayList<SinglePointLookupInfo> getLookupInfoList(int symStd)
+  {
+      ArrayList<SinglePointLookupInfo> list = new ArrayList<SinglePointLookupInfo>();
+      if(symStd==RendererSettings.Symbology_2525B)
+        list.addAll(hashMapB.values());
+      else if(symStd==RendererSettings.Symbology_2525C)
+        list.addAll(hashMapC.values());
+      return list;
+  }
+
   /*
   public static void main(String[] args)
   {
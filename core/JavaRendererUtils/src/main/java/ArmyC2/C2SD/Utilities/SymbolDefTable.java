@@ -101,7 +101,7 @@ public class SymbolDefTable {
       String minpoints = XMLUtil.parseTagValue(data, "<MINPOINTS>", "</MINPOINTS>");
       String modifiers = XMLUtil.parseTagValue(data, "<MODIFIERS>", "</MODIFIERS>");
       String description = XMLUtil.parseTagValue(data, "<DESCRIPTION>", "</DESCRIPTION>");
-      description = description.replaceAll("&amp;", "&");
+      description = description.replace("&amp;", "&");
       String hierarchy = XMLUtil.parseTagValue(data, "<HIERARCHY>", "</HIERARCHY>");
       //String alphaHierarchy = XMLUtil.parseTagValue(data, "<ALPHAHIERARCHY>", "</ALPHAHIERARCHY>");
       String path = XMLUtil.parseTagValue(data, "<PATH>", "</PATH>");
@@ -61,6 +61,26 @@ public class SymbolDraw {
      * @throws RendererException
      */
     public static void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination, int offsetX, int offsetY) throws RendererException
+    {
+        Draw(symbols, destination, offsetX, offsetY, null, null);
+    }
+
+    /**
+     * Does the actual drawing of the Symbol.  MilstdSymbol need to be properly populated
+     * via the Render call first.
+     * Not for client use.  They should Use IJavaRenderer.Draw or IJavaRenderer.DrawDB
+     * @param symbols
+     * @param destination surface to draw to
+     * @param offsetX usually a negative value.  if your clip.X is 40, offsetX should be -40
+     * @param offsetY usually a negative value.  if your clip.Y is 40, offsetY should be -40
+     * @param clip area being drawn, in the symbols' pixel coordinates (before
+     * the offset).  Only used when options.getCullToClip() is true; null to
+     * draw symbols wherever they are.
+     * @param options culling and level of detail.  Null to draw everything
+     * in full.
+     * @throws RendererException
+     */
+    public static void Draw(ArrayList<MilStdSymbol> symbols, Graphics2D destination, int offsetX, int offsetY, Rectangle clip, DrawOptions options) throws RendererException
     {
         Logger loggy = Logger.getLogger(ErrorLogger.LoggerName);
         try
@@ -83,6 +103,41 @@ public class SymbolDraw {
                 {
                     symbol = symbols.get(lcv);
 
+                    boolean drawModifiers = true;
+                    if(options != null)
+                    {
+                        if(clip != null && options.getCullToClip())
+                        {
+                            Rectangle fullBounds = getBounds(symbol.getSymbolShapes(), null);
+                            fullBounds = getBounds(symbol.getModifierShapes(), fullBounds);
+                            if(fullBounds == null)
+                                continue;
+                            //shape bounds don't include the stroke
+                            int pad = Math.max(symbol.getLineWidth(), 0) / 2 + 1;
+                            fullBounds.grow(pad, pad);
+                            if(fullBounds.intersects(clip) == false)
+                                continue;
+                        }
+                        Rectangle symbolBounds = null;
+                        if(options.getMinimumModifierSize() > 0 || options.getMinimumSymbolSize() > 0)
+                        {
+                            //just the frame for units, everything for lines
+                            symbolBounds = symbol.getSymbolExtent();
+                            if(symbolBounds == null)
+                                symbolBounds = getBounds(symbol.getSymbolShapes(), null);
+                        }
+                        if(symbolBounds != null)
+                        {
+                            int size = Math.max(symbolBounds.width, symbolBounds.height);
+                            if(size < options.getMinimumSymbolSize())
+                            {
+                                drawFrame(symbol.getSymbolShapes(), symbolBounds, destination, offsetX, offsetY);
+                                continue;
+                            }
+                            drawModifiers = size >= options.getMinimumModifierSize();
+                        }
+                    }
+
                     //synchronized(destination)
                     //{
                         ArrayList<ShapeInfo> shapes = symbol.getSymbolShapes();
@@ -93,6 +148,9 @@ public class SymbolDraw {
                             {
                                 siTemp = shapes.get(i);
 
+                                if(drawModifiers == false && isDisplayModifier(siTemp))
+                                    continue;
+
                                 if(siTemp.getAffineTransform() != null)
                                 {
                                     AffineTransform atTemp = (AffineTransform)siTemp.getAffineTransform().clone();
@@ -144,7 +202,7 @@ public class SymbolDraw {
                             //draw modifiers
                             shapes = symbol.getModifierShapes();
 
-                            if(shapes != null)
+                            if(shapes != null && drawModifiers)
                             {
                                 for(int i = 0; i < shapes.size(); i++)
                                 {
@@ -229,18 +287,120 @@ public class SymbolDraw {
         }
     }
     
+    /**
+     * Union of the shapes' bounds with bounds, which is modified.
+     * @param shapes
+     * @param bounds can be null
+     * @return null if there are no bounds
+     */
+    private static Rectangle getBounds(ArrayList<ShapeInfo> shapes, Rectangle bounds)
+    {
+        if(shapes != null)
+        {
+            for(int i = 0; i < shapes.size(); i++)
+            {
+                Rectangle temp = shapes.get(i).getBounds();
+                if(temp == null)
+                    continue;
+                if(bounds == null)
+                    bounds = new Rectangle(temp);
+                else
+                    bounds.add(temp);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Echelon, HQ staff, operational condition and other parts of a symbol
+     * that are left off along with the modifiers when it's drawn small.
+     */
+    private static boolean isDisplayModifier(ShapeInfo shape)
+    {
+        int type = shape.getShapeType();
+        return type == ShapeInfo.SHAPE_TYPE_UNIT_DISPLAY_MODIFIER
+                || type == ShapeInfo.SHAPE_TYPE_UNIT_ECHELON
+                || type == ShapeInfo.SHAPE_TYPE_UNIT_AFFILIATION_MODIFIER
+                || type == ShapeInfo.SHAPE_TYPE_UNIT_HQ_STAFF
+                || type == ShapeInfo.SHAPE_TYPE_UNIT_OPERATIONAL_CONDITION
+                || type == ShapeInfo.SHAPE_TYPE_TG_Q_MODIFIER
+                || shape.getTextLayout() != null;
+    }
+
+    /**
+     * Draws a symbol that's too small to make out as a rectangle filled with
+     * the symbol's fill color and outlined in its frame color.
+     */
+    private static void drawFrame(ArrayList<ShapeInfo> shapes, Rectangle bounds, Graphics2D destination, int offsetX, int offsetY)
+    {
+        Color fillColor = null;
+        Color lineColor = null;
+        for(int i = 0; i < shapes.size(); i++)
+        {
+            ShapeInfo siTemp = shapes.get(i);
+            int type = siTemp.getShapeType();
+            if(type == ShapeInfo.SHAPE_TYPE_UNIT_FILL || type == ShapeInfo.SHAPE_TYPE_TG_SP_FILL)
+            {
+                //fill glyphs are drawn in their line color
+                if(fillColor == null)
+                    fillColor = siTemp.getFillColor() != null ? siTemp.getFillColor() : siTemp.getLineColor();
+            }
+            else if(type == ShapeInfo.SHAPE_TYPE_UNIT_FRAME || type == ShapeInfo.SHAPE_TYPE_TG_SP_FRAME)
+            {
+                if(lineColor == null)
+                    lineColor = siTemp.getLineColor();
+            }
+            else if(siTemp.getShape() != null)
+            {
+                if(fillColor == null && siTemp.getTexturePaint() == null)
+                    fillColor = siTemp.getFillColor();
+                if(lineColor == null)
+                    lineColor = siTemp.getLineColor();
+            }
+        }
+        if(fillColor == null && lineColor == null)
+            lineColor = Color.BLACK;
+
+        int x = bounds.x + offsetX;
+        int y = bounds.y + offsetY;
+        int width = Math.max(bounds.width, 1);
+        int height = Math.max(bounds.height, 1);
+        if(fillColor != null)
+        {
+            destination.setColor(fillColor);
+            destination.fillRect(x, y, width, height);
+        }
+        if(lineColor != null && (fillColor == null || (width > 2 && height > 2)))
+        {
+            destination.setColor(lineColor);
+            destination.drawRect(x, y, width - 1, height - 1);
+        }
+    }
+
     /**
      * 
      * @param modifiers
      * @return 
      */
     public static ArrayList<ShapeInfo> ProcessModifierBackgrounds(ArrayList<ShapeInfo> modifiers)
+    {
+        return ProcessModifierBackgrounds(modifiers, RendererSettings.getInstance().getDefaultProfile());
+    }
+
+    /**
+     * 
+     * @param modifiers
+     * @param profile text background method and outline width come from here
+     * @return 
+     */
+    public static ArrayList<ShapeInfo> ProcessModifierBackgrounds(ArrayList<ShapeInfo> modifiers, RendererProfile profile)
     {
         ArrayList<ShapeInfo> alTemp = modifiers;
         ArrayList<ShapeInfo> modifierShapes = new ArrayList<ShapeInfo>();
         ShapeInfo temp = null;
         ShapeInfo outline = null;
         ShapeInfo background = null;
+        int textBackgroundMethod = profile.getTextBackgroundMethod();
         //PROCESS shapes and add backgrounds if needed
             if(alTemp != null)
             {
@@ -250,21 +410,21 @@ public class SymbolDraw {
                     temp = alTemp.get(i);
                     if(temp != null)
                     {
-                        if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_COLORFILL)
+                        if(textBackgroundMethod == RendererSettings.TextBackgroundMethod_COLORFILL)
                         {
-                            background = SymbolDraw.createTextBackgroundFill(temp);
+                            background = SymbolDraw.createTextBackgroundFill(temp, profile);
                             if(background != null)
                                 modifierShapes.add(background);
                         }
-                        else if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE)
+                        else if(textBackgroundMethod == RendererSettings.TextBackgroundMethod_OUTLINE)
                         {
-                            outline = SymbolDraw.createTextOutline(temp);
+                            outline = SymbolDraw.createTextOutline(temp, profile.getTextOutlineWidth());
                             if(outline != null)
                                 modifierShapes.add(outline);
                         }
-                        else if(RendererSettings.getInstance().getTextBackgroundMethod() == RendererSettings.TextBackgroundMethod_OUTLINE_QUICK)
+                        else if(textBackgroundMethod == RendererSettings.TextBackgroundMethod_OUTLINE_QUICK)
                         {
-                            Collection<ShapeInfo> outlines = SymbolDraw.createTextOutlineQuick(temp);
+                            Collection<ShapeInfo> outlines = SymbolDraw.createTextOutlineQuick(temp, profile.getTextOutlineWidth());
                             if(outlines != null)
                                 modifierShapes.addAll(outlines);
                         }
@@ -906,6 +1066,17 @@ public class SymbolDraw {
      * @return
      */
     public static ShapeInfo createTextBackgroundFill(ShapeInfo originalText)
+    {
+        return createTextBackgroundFill(originalText, RendererSettings.getInstance().getDefaultProfile());
+    }
+
+    /**
+     * Creates a filled rectangle backdrop for the text
+     * @param originalText
+     * @param profile label background color comes from here
+     * @return
+     */
+    public static ShapeInfo createTextBackgroundFill(ShapeInfo originalText, RendererProfile profile)
     {
         Rectangle tempRect = null;
         ShapeInfo background = null;
@@ -920,9 +1091,9 @@ public class SymbolDraw {
             {
                 background.setFillColor(originalText.getTextBackgroundColor());
             }
-            else if(RendererSettings.getInstance().getLabelBackgroundColor() != null)
+            else if(profile.getLabelBackgroundColor() != null)
             {
-                background.setFillColor(RendererSettings.getInstance().getLabelBackgroundColor());
+                background.setFillColor(profile.getLabelBackgroundColor());
             }
             else
             {
@@ -987,6 +1158,22 @@ public class SymbolDraw {
      * @return 
      */
     public static ShapeInfo CreateModifierShapeInfo(TextLayout text, String modifierValue, double x, double y, Color textColor, Color textBackgroundColor)
+    {
+        return CreateModifierShapeInfo(text, modifierValue, x, y, textColor, textBackgroundColor, RendererSettings.getInstance().getTextRenderMethod());
+    }
+
+    /**
+     * 
+     * @param text
+     * @param modifierValue
+     * @param x
+     * @param y
+     * @param textColor Null == Black
+     * @param textBackgroundColor null == renderer decides
+     * @param textRenderMethod like RendererSettings.RenderMethod_NATIVE
+     * @return 
+     */
+    public static ShapeInfo CreateModifierShapeInfo(TextLayout text, String modifierValue, double x, double y, Color textColor, Color textBackgroundColor, int textRenderMethod)
     {
         try
         {
@@ -996,8 +1183,6 @@ public class SymbolDraw {
             if(textColor == null)
                 textColor = Color.BLACK;
 
-            int textRenderMethod = RendererSettings.getInstance().getTextRenderMethod();
-
             AffineTransform at = null;//new AffineTransform();
 
             if(textRenderMethod == RendererSettings.RenderMethod_SHAPES)
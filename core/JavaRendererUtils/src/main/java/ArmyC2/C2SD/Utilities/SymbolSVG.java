@@ -0,0 +1,434 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.font.GlyphVector;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+
+/**
+ * Writes a rendered single point symbol as vector SVG, drawing its shapes
+ * and modifiers the same way SymbolDraw draws them into an image.
+ * <p>
+ * Glyphs and text are written as outlines since the symbol fonts aren't
+ * available to clients.  Each distinct glyph or label outline is written
+ * once in defs and placed with use elements, so the copies the quick text
+ * outline makes don't repeat the path.
+ */
+public class SymbolSVG {
+
+    /**
+     * Same size as the image from MilStdSymbol.toImageInfo.
+     */
+    public static final int DrawMode_NORMAL = 0;
+    /**
+     * Grown so the symbol's center point is in the middle.
+     */
+    public static final int DrawMode_CENTER = 1;
+    /**
+     * Grown to a square with the symbol in the middle.
+     */
+    public static final int DrawMode_SQUARE = 2;
+
+    //java's default stroke
+    private static final BasicStroke DEFAULT_STROKE = new BasicStroke();
+
+    private SymbolSVG()
+    {
+    }
+
+    /**
+     *
+     * @param symbol rendered symbol
+     * @param x left of the symbol's image in the symbol's pixel space
+     * @param y top of the symbol's image in the symbol's pixel space
+     * @param width of the symbol's image
+     * @param height of the symbol's image
+     * @param centerX center point within the image
+     * @param centerY center point within the image
+     * @param drawMode DrawMode_NORMAL, DrawMode_CENTER or DrawMode_SQUARE
+     * @return
+     */
+    public static String toSVG(MilStdSymbol symbol, int x, int y, int width, int height,
+            int centerX, int centerY, int drawMode)
+    {
+        int svgWidth = width;
+        int svgHeight = height;
+        int offsetX = 0;
+        int offsetY = 0;
+
+        //same as PNGInfo.toSVG
+        if(drawMode == DrawMode_CENTER)
+        {
+            if(centerY > svgHeight - centerY)
+            {
+                svgHeight = centerY * 2;
+            }
+            else
+            {
+                svgHeight = (svgHeight - centerY) * 2;
+                offsetY = (svgHeight / 2) - centerY;
+            }
+
+            if(centerX > svgWidth - centerX)
+            {
+                svgWidth = centerX * 2;
+            }
+            else
+            {
+                svgWidth = (svgWidth - centerX) * 2;
+                offsetX = (svgWidth / 2) - centerX;
+            }
+        }
+        else if(drawMode == DrawMode_SQUARE)
+        {
+            int newSize = Math.max(svgWidth, svgHeight);
+            offsetX = (int)((newSize - svgWidth) / 2.0);
+            offsetY = (int)((newSize - svgHeight) / 2.0);
+            svgWidth = newSize;
+            svgHeight = newSize;
+        }
+
+        StringBuilder defs = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        Outlines outlines = new Outlines(defs);
+
+        writeShapes(symbol.getSymbolShapes(), false, defs, body, outlines);
+        writeShapes(symbol.getModifierShapes(), true, defs, body, outlines);
+
+        StringBuilder svg = new StringBuilder(defs.length() + body.length() + 256);
+        svg.append("<svg version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" ");
+        svg.append("width=\"").append(svgWidth).append("\" height=\"").append(svgHeight).append("\">");
+        if(defs.length() > 0)
+            svg.append("<defs>").append(defs).append("</defs>");
+        svg.append("<g transform=\"translate(").append(offsetX - x).append(' ').append(offsetY - y).append(")\">");
+        svg.append(body);
+        svg.append("</g></svg>");
+        return svg.toString();
+    }
+
+    /**
+     * Follows SymbolDraw.Draw.  Modifiers with a fill color and no shape are
+     * text that SymbolDraw draws in the fill color.
+     */
+    private static void writeShapes(ArrayList<ShapeInfo> shapes, boolean modifiers,
+            StringBuilder defs, StringBuilder body, Outlines outlines)
+    {
+        if(shapes == null)
+            return;
+
+        for(int i = 0; i < shapes.size(); i++)
+        {
+            ShapeInfo siTemp = shapes.get(i);
+            Shape shape = siTemp.getShape();
+            Color fillColor = siTemp.getFillColor();
+            Color lineColor = siTemp.getLineColor();
+            if(modifiers && shape == null && fillColor != null)
+            {
+                lineColor = fillColor;
+                fillColor = null;
+            }
+            //pattern fills are for multipoint areas, not single points
+            if(modifiers == false && siTemp.getTexturePaint() != null)
+                fillColor = null;
+
+            String transform = toTransform(siTemp.getAffineTransform());
+
+            if(shape != null)
+            {
+                if(fillColor == null && lineColor == null)
+                    continue;
+
+                body.append("<path d=\"");
+                appendPath(body, shape.getPathIterator(null));
+                body.append('"');
+                if(transform != null)
+                    body.append(" transform=\"").append(transform).append('"');
+                if(fillColor != null)
+                {
+                    appendColor(body, "fill", fillColor);
+                    if(shape.getPathIterator(null).getWindingRule() == PathIterator.WIND_EVEN_ODD)
+                        body.append(" fill-rule=\"evenodd\"");
+                }
+                else
+                    body.append(" fill=\"none\"");
+                if(lineColor != null)
+                {
+                    appendColor(body, "stroke", lineColor);
+                    appendStroke(body, siTemp.getStroke());
+                }
+                body.append("/>");
+            }
+            else if(lineColor != null)
+            {
+                String id = null;
+                if(siTemp.getGlyphVector() != null)
+                    id = outlines.getID(siTemp.getGlyphVector());
+                else if(siTemp.getTextLayout() != null)
+                    id = outlines.getID(siTemp.getTextLayout());
+                if(id == null)
+                    continue;
+
+                Point2D point = siTemp.getGlyphPosition();
+                body.append("<use xlink:href=\"#").append(id).append('"');
+                if(point != null)
+                {
+                    body.append(" x=\"");
+                    appendNumber(body, point.getX());
+                    body.append("\" y=\"");
+                    appendNumber(body, point.getY());
+                    body.append('"');
+                }
+                if(transform != null)
+                    body.append(" transform=\"").append(transform).append('"');
+                appendColor(body, "fill", lineColor);
+                body.append("/>");
+            }
+        }
+    }
+
+    /**
+     * The outlines written to defs.  Each glyph vector or text layout is
+     * turned into a path once, and each distinct path is written once.
+     */
+    private static class Outlines
+    {
+        private final StringBuilder _defs;
+        //glyph vector or text layout to the id of its path
+        private final IdentityHashMap<Object, String> _sources = new IdentityHashMap<Object, String>();
+        //path data to its id
+        private final HashMap<String, String> _paths = new HashMap<String, String>();
+        private final HashSet<String> _ids = new HashSet<String>();
+
+        Outlines(StringBuilder defs)
+        {
+            _defs = defs;
+        }
+
+        String getID(GlyphVector gv)
+        {
+            String id = _sources.get(gv);
+            if(id == null)
+                id = add(gv, gv.getOutline());
+            return id;
+        }
+
+        String getID(TextLayout tl)
+        {
+            String id = _sources.get(tl);
+            if(id == null)
+                id = add(tl, tl.getOutline(null));
+            return id;
+        }
+
+        private String add(Object source, Shape outline)
+        {
+            StringBuilder d = new StringBuilder();
+            appendPath(d, outline.getPathIterator(null));
+            String path = d.toString();
+
+            String id = _paths.get(path);
+            if(id == null)
+            {
+                //named from the path so the same outline gets the same id
+                //in every symbol put on one page, with a suffix in the
+                //unlikely case two paths in this symbol hash the same
+                String name = "o" + Long.toHexString(hash(path));
+                id = name;
+                for(int n = 1; _ids.contains(id); n++)
+                    id = name + "_" + n;
+                _ids.add(id);
+                _paths.put(path, id);
+                _defs.append("<path id=\"").append(id).append("\" d=\"").append(path).append("\"/>");
+            }
+            _sources.put(source, id);
+            return id;
+        }
+
+        /**
+         * 64 bit FNV-1a, String.hashCode is too short to keep ids from
+         * different symbols apart.
+         */
+        private static long hash(String text)
+        {
+            long hash = 0xcbf29ce484222325L;
+            for(int i = 0; i < text.length(); i++)
+            {
+                hash ^= text.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+
+    private static String toTransform(AffineTransform at)
+    {
+        if(at == null || at.isIdentity())
+            return null;
+        StringBuilder sb = new StringBuilder("matrix(");
+        double[] matrix = new double[6];
+        at.getMatrix(matrix);
+        for(int i = 0; i < 6; i++)
+        {
+            if(i > 0)
+                sb.append(' ');
+            appendNumber(sb, matrix[i], 10000);
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void appendPath(StringBuilder sb, PathIterator it)
+    {
+        double[] coords = new double[6];
+        while(it.isDone() == false)
+        {
+            int type = it.currentSegment(coords);
+            switch(type)
+            {
+                case PathIterator.SEG_MOVETO:
+                    sb.append('M');
+                    appendPoints(sb, coords, 1);
+                    break;
+                case PathIterator.SEG_LINETO:
+                    sb.append('L');
+                    appendPoints(sb, coords, 1);
+                    break;
+                case PathIterator.SEG_QUADTO:
+                    sb.append('Q');
+                    appendPoints(sb, coords, 2);
+                    break;
+                case PathIterator.SEG_CUBICTO:
+                    sb.append('C');
+                    appendPoints(sb, coords, 3);
+                    break;
+                case PathIterator.SEG_CLOSE:
+                    sb.append('Z');
+                    break;
+            }
+            it.next();
+        }
+    }
+
+    private static void appendPoints(StringBuilder sb, double[] coords, int count)
+    {
+        for(int i = 0; i < count * 2; i++)
+        {
+            if(i > 0)
+                sb.append(' ');
+            appendNumber(sb, coords[i]);
+        }
+    }
+
+    /**
+     * Java's default stroke is square capped with miter joins, SVG's is
+     * butt capped, so cap and join are always written.
+     */
+    private static void appendStroke(StringBuilder sb, Stroke stroke)
+    {
+        BasicStroke bs = stroke instanceof BasicStroke ? (BasicStroke)stroke : DEFAULT_STROKE;
+
+        //0 is the thinnest line java can draw, in svg it's no line.
+        sb.append(" stroke-width=\"");
+        appendNumber(sb, bs.getLineWidth() > 0 ? bs.getLineWidth() : 1);
+        sb.append('"');
+
+        switch(bs.getEndCap())
+        {
+            case BasicStroke.CAP_BUTT:
+                sb.append(" stroke-linecap=\"butt\"");
+                break;
+            case BasicStroke.CAP_ROUND:
+                sb.append(" stroke-linecap=\"round\"");
+                break;
+            default:
+                sb.append(" stroke-linecap=\"square\"");
+                break;
+        }
+        switch(bs.getLineJoin())
+        {
+            case BasicStroke.JOIN_ROUND:
+                sb.append(" stroke-linejoin=\"round\"");
+                break;
+            case BasicStroke.JOIN_BEVEL:
+                sb.append(" stroke-linejoin=\"bevel\"");
+                break;
+            default:
+                sb.append(" stroke-linejoin=\"miter\" stroke-miterlimit=\"");
+                appendNumber(sb, Math.max(1, bs.getMiterLimit()));
+                sb.append('"');
+                break;
+        }
+
+        float[] dash = bs.getDashArray();
+        if(dash != null && dash.length > 0)
+        {
+            sb.append(" stroke-dasharray=\"");
+            for(int i = 0; i < dash.length; i++)
+            {
+                if(i > 0)
+                    sb.append(' ');
+                appendNumber(sb, dash[i]);
+            }
+            sb.append('"');
+            if(bs.getDashPhase() != 0)
+            {
+                sb.append(" stroke-dashoffset=\"");
+                appendNumber(sb, bs.getDashPhase());
+                sb.append('"');
+            }
+        }
+    }
+
+    private static void appendColor(StringBuilder sb, String attribute, Color color)
+    {
+        sb.append(' ').append(attribute).append("=\"#");
+        String hex = Integer.toHexString(color.getRGB() & 0xffffff);
+        for(int i = hex.length(); i < 6; i++)
+            sb.append('0');
+        sb.append(hex).append('"');
+        if(color.getAlpha() < 255)
+        {
+            sb.append(' ').append(attribute).append("-opacity=\"");
+            appendNumber(sb, color.getAlpha() / 255.0, 1000);
+            sb.append('"');
+        }
+    }
+
+    private static void appendNumber(StringBuilder sb, double value)
+    {
+        appendNumber(sb, value, 100);
+    }
+
+    /**
+     * Writes value rounded to 1/scale without trailing zeros.
+     * @param scale a power of 10
+     */
+    private static void appendNumber(StringBuilder sb, double value, int scale)
+    {
+        long scaled = Math.round(value * scale);
+        if(scaled < 0)
+        {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / scale);
+        long fraction = scaled % scale;
+        if(fraction != 0)
+        {
+            sb.append('.');
+            for(int digit = scale / 10; digit > 0 && fraction != 0; digit /= 10)
+            {
+                sb.append(fraction / digit);
+                fraction %= digit;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads the symbol definition and font lookup tables on background threads
+ * so their XML is parsed at the same time instead of one after another on
+ * the first call that needs each table.  Calling getInstance() on a table
+ * that is still loading just waits for it, so callers don't need to wait
+ * on this class before rendering.
+ */
+public class SymbolTableLoader {
+
+    private static ArrayList<Future<Object>> _futures = null;
+
+    private SymbolTableLoader()
+    {
+    }
+
+    /**
+     * Starts loading all the tables if they haven't been started already.
+     * Returns right away.
+     */
+    public static synchronized void loadAsync()
+    {
+        if(_futures != null)
+            return;
+
+        ArrayList<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        //largest first
+        tasks.add(new Callable<Object>() {
+            public Object call() { return SymbolDefTable.getInstance(); }
+        });
+        tasks.add(new Callable<Object>() {
+            public Object call() { return UnitFontLookup.getInstance(); }
+        });
+        tasks.add(new Callable<Object>() {
+            public Object call() { return UnitDefTable.getInstance(); }
+        });
+        tasks.add(new Callable<Object>() {
+            public Object call() { return SinglePointLookup.getInstance(); }
+        });
+        tasks.add(new Callable<Object>() {
+            public Object call() { return TacticalGraphicLookup.getInstance(); }
+        });
+
+        int threads = Math.max(1, Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int _count = 0;
+            public synchronized Thread newThread(Runnable r)
+            {
+                Thread t = new Thread(r, "SymbolTableLoader-" + (++_count));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        _futures = new ArrayList<Future<Object>>(tasks.size());
+        for(Callable<Object> task : tasks)
+        {
+            _futures.add(executor.submit(task));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Loads all the tables and waits for them to finish.
+     */
+    public static void load()
+    {
+        loadAsync();
+
+        ArrayList<Future<Object>> futures = null;
+        synchronized(SymbolTableLoader.class)
+        {
+            futures = _futures;
+        }
+        for(Future<Object> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException("SymbolTableLoader", "load", exc);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ArmyC2.C2SD.Utilities;
+
+import java.awt.geom.Point2D;
+
+/**
+ * Point conversion for one Web Mercator (EPSG:3857) map tile, numbered like
+ * most tile servers with x increasing east from -180 and y increasing south
+ * from the top of the map.  Pixel 0,0 is the tile's top left corner.
+ * Longitudes are taken relative to the tile's left edge like
+ * PointConversion, so points across the antimeridian land next to the tile
+ * instead of a world away.
+ */
+public class TileConversion implements IPointConversion {
+
+    /**
+     * Latitude where Web Mercator is square, tiles stop here.
+     */
+    public static final double MAX_LATITUDE = 85.0511287798066;
+
+    private final int _zoom;
+    private final int _tileX;
+    private final int _tileY;
+    private final int _tileSize;
+    private final double _worldSize;
+    private final double _leftLon;
+    private final double _top;
+
+    /**
+     *
+     * @param zoom 0 is the whole world in one tile
+     * @param tileX column, 0 at -180
+     * @param tileY row, 0 at the top
+     * @param tileSize width and height of a tile in pixels, usually 256
+     */
+    public TileConversion(int zoom, int tileX, int tileY, int tileSize)
+    {
+        _zoom = zoom;
+        _tileX = tileX;
+        _tileY = tileY;
+        _tileSize = tileSize;
+        _worldSize = tileSize * Math.pow(2, zoom);
+        _leftLon = tileX * (double)tileSize / _worldSize * 360.0 - 180.0;
+        _top = tileY * (double)tileSize;
+    }
+
+    public Point2D PixelsToGeo(Point2D pixel)
+    {
+        double lon = _leftLon + pixel.getX() / _worldSize * 360.0;
+        if(lon < -180)
+            lon += 360;
+        if(lon > 180)
+            lon -= 360;
+
+        double n = Math.PI - 2.0 * Math.PI * (pixel.getY() + _top) / _worldSize;
+        double lat = Math.toDegrees(Math.atan(Math.sinh(n)));
+        return new Point2D.Double(lon, lat);
+    }
+
+    public Point2D GeoToPixels(Point2D coord)
+    {
+        double dLon = coord.getX() - _leftLon;
+        if(dLon < -180)
+            dLon += 360;
+        else if(dLon > 180)
+            dLon -= 360;
+
+        double x = dLon / 360.0 * _worldSize;
+        double y = latitudeToWorldY(coord.getY()) * _worldSize - _top;
+        return new Point2D.Double(x, y);
+    }
+
+    public int getZoom()
+    {
+        return _zoom;
+    }
+
+    public int getTileX()
+    {
+        return _tileX;
+    }
+
+    public int getTileY()
+    {
+        return _tileY;
+    }
+
+    public int getTileSize()
+    {
+        return _tileSize;
+    }
+
+    /**
+     * @param longitude
+     * @return 0 at -180 to 1 at 180
+     */
+    public static double longitudeToWorldX(double longitude)
+    {
+        return (longitude + 180.0) / 360.0;
+    }
+
+    /**
+     * @param latitude clamped to +/-MAX_LATITUDE
+     * @return 0 at the top of the map to 1 at the bottom
+     */
+    public static double latitudeToWorldY(double latitude)
+    {
+        if(latitude > MAX_LATITUDE)
+            latitude = MAX_LATITUDE;
+        else if(latitude < -MAX_LATITUDE)
+            latitude = -MAX_LATITUDE;
+        double sin = Math.sin(Math.toRadians(latitude));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+}
@@ -90,7 +90,7 @@ public class UnitDefTable {
       String data = (String)al.get(i);
       String symbolID = XMLUtil.parseTagValue(data, "<SYMBOLID>", "</SYMBOLID>");
       String description = XMLUtil.parseTagValue(data, "<DESCRIPTION>", "</DESCRIPTION>");
-      description = description.replaceAll("&amp;", "&");
+      description = description.replace("&amp;", "&");
       String drawCategory = XMLUtil.parseTagValue(data, "<DRAWCATEGORY>", "</DRAWCATEGORY>");
       String hierarchy = XMLUtil.parseTagValue(data, "<HIERARCHY>", "</HIERARCHY>");
       String alphaHierarchy = XMLUtil.parseTagValue(data, "<ALPHAHIERARCHY>", "</ALPHAHIERARCHY>");
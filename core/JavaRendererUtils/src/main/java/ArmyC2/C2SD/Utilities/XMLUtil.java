@@ -37,15 +37,16 @@ public class XMLUtil {
 
 		String value = null;
 		try {
+			//scan by offset, cutting the remaining xml off after every item
+			//copied the rest of the file each time.
 			int index = xml.indexOf(startTag);
 			int index2 = 0;
-			while (xml != null && index > -1 && index2 > -1) {
+			while (index > -1 && index2 > -1) {
 				index2 = xml.indexOf(endTag, index);
 				if (index2 > -1) {
 					value = xml.substring(index, index2 + endTag.length());
 					list.add(value);
-					xml = xml.substring(index2 + endTag.length());
-					index = xml.indexOf(startTag);
+					index = xml.indexOf(startTag, index2 + endTag.length());
 				}
 			}
 		} catch (Throwable thrown) {
@@ -5,11 +5,13 @@ import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Arc2D;
 import java.awt.geom.FlatteningPathIterator;
+import java.awt.geom.IllegalPathStateException;
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.gavaghan.geodesy.Angle;
@@ -21,29 +23,39 @@ import org.gavaghan.geodesy.GlobalCoordinates;
 public class GeoPath implements Shape {
 	protected static final Ellipsoid REFERENCE_ELLIPSOID = Ellipsoid.WGS84;
 	
-	private final Path2D path;
+	private Path2D path;
 	private final List<GeoPoint> toPoints;
+	
+	// Segments not yet added to path.  Path2D is only built when it's asked
+	// for, so a shape is copied into it once instead of once per lineTo.
+	private byte[] pendingTypes;
+	private double[] pendingCoords;
+	private int numPending;
+	
 	private final double maxDistanceMeters;
 	private final double flatnessDistanceMeters;
 	private final int limit;
 	
 	protected final GeodeticCalculator geoCalc;
+	private final GeodeticLine geoLine;
 	
 	public GeoPath() {
 		this(100000, 1, 4);
 	}
 	
 	public GeoPath(double maxDistanceMeters, double flatnessDistanceMeters, int limit) {
-		path = new Path2D.Double();
 		toPoints = new ArrayList<GeoPoint>();
+		pendingTypes = new byte[16];
+		pendingCoords = new double[32];
 		geoCalc = new GeodeticCalculator();
+		geoLine = new GeodeticLine(REFERENCE_ELLIPSOID);
 		this.maxDistanceMeters = maxDistanceMeters;
 		this.flatnessDistanceMeters = flatnessDistanceMeters;
 		this.limit = limit;
 	}
 	
 	public void moveTo(GeoPoint point) {
-		path.moveTo(point.x, point.y);
+		append(PathIterator.SEG_MOVETO, point.x, point.y);
 		toPoints.add(point);
 	}
 	
@@ -52,32 +64,32 @@ public class GeoPath implements Shape {
 	}
 	
 	public void lineTo(GeoPoint point) {
-		Path2D newPath = new Path2D.Double();
-		
-		// Move to the initial point
-		GeoPoint lastPoint = new GeoPoint();
-		if (toPoints.size() > 0) {
-			lastPoint = toPoints.get(toPoints.size() - 1);
-			newPath.moveTo(lastPoint.x, lastPoint.y);
+		if (toPoints.isEmpty()) {
+			throw new IllegalPathStateException("missing initial moveto in path definition");
 		}
 		
+		// Start from the last point
+		GeoPoint lastPoint = toPoints.get(toPoints.size() - 1);
+		connect(lastPoint.x, lastPoint.y);
+		
 		// Calculate the curve to the new point
 		GlobalCoordinates start = toGlobalCoord(lastPoint);
 		GlobalCoordinates end = toGlobalCoord(point);
 		GeodeticCurve curve = geoCalc.calculateGeodeticCurve(REFERENCE_ELLIPSOID, start, end);
 		
-		// Generate points along the curve, adding them to the new path
+		// Generate points along the curve
+		double length = curve.getEllipsoidalDistance();
 		double distance = maxDistanceMeters;
-		while (distance < curve.getEllipsoidalDistance()) {
-			GlobalCoordinates c = geoCalc.calculateEndingGlobalCoordinates(REFERENCE_ELLIPSOID, start, curve
-					.getAzimuth(), distance);
-			newPath.lineTo(c.getLongitude(), c.getLatitude());
-			distance += maxDistanceMeters;
+		if (distance < length) {
+			geoLine.setStart(start);
+			geoLine.setAzimuth(curve.getAzimuth());
+			while (distance < length) {
+				GlobalCoordinates c = geoLine.getCoordinates(distance);
+				append(PathIterator.SEG_LINETO, c.getLongitude(), c.getLatitude());
+				distance += maxDistanceMeters;
+			}
 		}
-		newPath.lineTo(point.x, point.y);
-		
-		// Append the new path to the existing path
-		path.append(newPath, true);                
+		append(PathIterator.SEG_LINETO, point.x, point.y);
 		toPoints.add(point);
                 
 	}
@@ -88,7 +100,6 @@ public class GeoPath implements Shape {
 	
 	public void arcTo(GeoPoint pivot, double widthMeters, double heightMeters, double leftAzimuthDegrees,
 			double rightAzimuthDegrees) {
-		Path2D newPath = new Path2D.Double();
                 Arc2D arc;
 		                                
                 if (leftAzimuthDegrees > rightAzimuthDegrees) {
@@ -101,27 +112,29 @@ public class GeoPath implements Shape {
 		
 		GeoPoint point = null;
 		if (pivot != null) {
+			// Not geoLine, lineTo uses that to join the start of the arc
+			GeodeticLine fromPivot = new GeodeticLine(REFERENCE_ELLIPSOID);
+			fromPivot.setStart(new GlobalCoordinates(pivot.getLatitude(), pivot.getLongitude()));
+			double[] strokePoints = new double[6];
 			PathIterator it = new FlatteningPathIterator(arc.getPathIterator(null), flatnessDistanceMeters, limit);
 			while (!it.isDone()) {
 				// Add a point to the list for each segment flattened from the curve
-				double[] strokePoints = new double[6];
 				int type = it.currentSegment(strokePoints);
 				double x = strokePoints[0];
 				double y = strokePoints[1];
 				double azimuth = Angle.toDegrees(Math.atan2(x, y));
-				GlobalCoordinates coord = new GlobalCoordinates(pivot.getLatitude(), pivot.getLongitude());
-				GlobalCoordinates c = geoCalc.calculateEndingGlobalCoordinates(REFERENCE_ELLIPSOID, coord, azimuth,
-						new Point2D.Double().distance(x, y));
+				fromPivot.setAzimuth(azimuth);
+				GlobalCoordinates c = fromPivot.getCoordinates(Math.sqrt(x * x + y * y));
 				switch (type) {
 					case PathIterator.SEG_MOVETO:
-						newPath.moveTo(c.getLongitude(), c.getLatitude());
 						GeoPoint startPoint = new GeoPoint(c.getLongitude(), c.getLatitude());
 						if (toPoints.size() > 0 && !startPoint.equals(toPoints.get(toPoints.size() - 1))) {
 							lineTo(startPoint);
 						}
+						connect(c.getLongitude(), c.getLatitude());
 						break;
 					case PathIterator.SEG_LINETO:
-						newPath.lineTo(c.getLongitude(), c.getLatitude());
+						append(PathIterator.SEG_LINETO, c.getLongitude(), c.getLatitude());
 						point = new GeoPoint(c.getLongitude(), c.getLatitude());
 						break;
 				}
@@ -129,7 +142,6 @@ public class GeoPath implements Shape {
 			}
 		}
 		
-		path.append(newPath, true);
 		toPoints.add(point);
 	}
 	
@@ -147,52 +159,52 @@ public class GeoPath implements Shape {
 	
 	@Override
 	public boolean contains(Point2D p) {
-		return path.contains(p);
+		return getPath().contains(p);
 	}
 	
 	@Override
 	public boolean contains(Rectangle2D r) {
-		return path.contains(r);
+		return getPath().contains(r);
 	}
 	
 	@Override
 	public boolean contains(double x, double y) {
-		return path.contains(x, y);
+		return getPath().contains(x, y);
 	}
 	
 	@Override
 	public boolean contains(double x, double y, double w, double h) {
-		return contains(x, y, w, h);
+		return getPath().contains(x, y, w, h);
 	}
 	
 	@Override
 	public Rectangle getBounds() {
-		return path.getBounds();
+		return getPath().getBounds();
 	}
 	
 	@Override
 	public Rectangle2D getBounds2D() {
-		return path.getBounds2D();
+		return getPath().getBounds2D();
 	}
 	
 	@Override
 	public PathIterator getPathIterator(AffineTransform at) {
-		return path.getPathIterator(at);
+		return getPath().getPathIterator(at);
 	}
 	
 	@Override
 	public PathIterator getPathIterator(AffineTransform at, double flatness) {
-		return path.getPathIterator(at, flatness);
+		return getPath().getPathIterator(at, flatness);
 	}
 	
 	@Override
 	public boolean intersects(Rectangle2D r) {
-		return path.intersects(r);
+		return getPath().intersects(r);
 	}
 	
 	@Override
 	public boolean intersects(double x, double y, double w, double h) {
-		return path.intersects(x, y, w, h);
+		return getPath().intersects(x, y, w, h);
 	}
         
         @Override
@@ -206,6 +218,52 @@ public class GeoPath implements Shape {
         //added path accessor for use by Ellipse only
         public Path2D getPath()
         {
+            if (path == null) {
+                path = new Path2D.Double(Path2D.WIND_NON_ZERO, Math.max(numPending, 2));
+            }
+            for (int i = 0; i < numPending; i++) {
+                if (pendingTypes[i] == PathIterator.SEG_MOVETO) {
+                    path.moveTo(pendingCoords[2 * i], pendingCoords[2 * i + 1]);
+                } else {
+                    path.lineTo(pendingCoords[2 * i], pendingCoords[2 * i + 1]);
+                }
+            }
+            numPending = 0;
             return path;
         }
+        
+        /**
+         * Continues the path from (x, y) the way Path2D.append(path, true)
+         * joins a path starting there: nothing if the path already ends at
+         * (x, y), a line if it ends somewhere else, a move if it's empty.
+         */
+        private void connect(double x, double y) {
+            double lastX;
+            double lastY;
+            if (numPending > 0) {
+                lastX = pendingCoords[2 * numPending - 2];
+                lastY = pendingCoords[2 * numPending - 1];
+            } else if (path != null && path.getCurrentPoint() != null) {
+                Point2D current = path.getCurrentPoint();
+                lastX = current.getX();
+                lastY = current.getY();
+            } else {
+                append(PathIterator.SEG_MOVETO, x, y);
+                return;
+            }
+            if (lastX != x || lastY != y) {
+                append(PathIterator.SEG_LINETO, x, y);
+            }
+        }
+        
+        private void append(int type, double x, double y) {
+            if (numPending == pendingTypes.length) {
+                pendingTypes = Arrays.copyOf(pendingTypes, numPending * 2);
+                pendingCoords = Arrays.copyOf(pendingCoords, numPending * 4);
+            }
+            pendingTypes[numPending] = (byte) type;
+            pendingCoords[2 * numPending] = x;
+            pendingCoords[2 * numPending + 1] = y;
+            numPending++;
+        }
 }
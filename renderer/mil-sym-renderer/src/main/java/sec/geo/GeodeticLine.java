@@ -0,0 +1,120 @@
+package sec.geo;
+
+import org.gavaghan.geodesy.Angle;
+import org.gavaghan.geodesy.Ellipsoid;
+import org.gavaghan.geodesy.GlobalCoordinates;
+
+/**
+ * Points along geodesics from one start point.  Everything
+ * GeodeticCalculator.calculateEndingGlobalCoordinates works out from the start
+ * and the azimuth is kept between calls, so a point along a line costs only
+ * the sigma iteration and a new azimuth from the same start skips the
+ * latitude terms.  Results are the same as calculateEndingGlobalCoordinates.
+ */
+final class GeodeticLine {
+	private final double b;
+	private final double f;
+	private final double aSquared;
+	private final double bSquared;
+
+	private double startLongitude;
+	private double tanU1;
+	private double cosU1;
+	private double sinU1;
+	private double cosAlpha1;
+	private double sinAlpha1;
+	private double sigma1;
+	private double sinAlpha;
+	private double sin2Alpha;
+	private double cos2Alpha;
+	private double A;
+	private double B;
+	private double C;
+
+	GeodeticLine(Ellipsoid ellipsoid) {
+		double a = ellipsoid.getSemiMajorAxis();
+		b = ellipsoid.getSemiMinorAxis();
+		f = ellipsoid.getFlattening();
+		aSquared = a * a;
+		bSquared = b * b;
+	}
+
+	/**
+	 * @param start the point lines start from until this is called again
+	 */
+	void setStart(GlobalCoordinates start) {
+		double phi1 = Angle.toRadians(start.getLatitude());
+		startLongitude = start.getLongitude();
+		tanU1 = (1.0 - f) * Math.tan(phi1);
+		cosU1 = 1.0 / Math.sqrt(1.0 + tanU1 * tanU1);
+		sinU1 = tanU1 * cosU1;
+	}
+
+	/**
+	 * @param azimuthDegrees starting bearing from the start point
+	 */
+	void setAzimuth(double azimuthDegrees) {
+		double alpha1 = Angle.toRadians(azimuthDegrees);
+		cosAlpha1 = Math.cos(alpha1);
+		sinAlpha1 = Math.sin(alpha1);
+		sigma1 = Math.atan2(tanU1, cosAlpha1);
+		sinAlpha = cosU1 * sinAlpha1;
+		sin2Alpha = sinAlpha * sinAlpha;
+		cos2Alpha = 1 - sin2Alpha;
+		double uSquared = cos2Alpha * (aSquared - bSquared) / bSquared;
+		A = 1 + (uSquared / 16384) * (4096 + uSquared * (-768 + uSquared * (320 - 175 * uSquared)));
+		B = (uSquared / 1024) * (256 + uSquared * (-128 + uSquared * (74 - 47 * uSquared)));
+		C = (f / 16) * cos2Alpha * (4 + f * (4 - 3 * cos2Alpha));
+	}
+
+	/**
+	 * @param distance meters from the start
+	 * @return the point that far along the line
+	 */
+	GlobalCoordinates getCoordinates(double distance) {
+		double sOverbA = distance / (b * A);
+		double sigma = sOverbA;
+		double sinSigma;
+		double prevSigma = sOverbA;
+		double sigmaM2;
+		double cosSigmaM2;
+		double cos2SigmaM2;
+
+		for (;;) {
+			sigmaM2 = 2.0 * sigma1 + sigma;
+			cosSigmaM2 = Math.cos(sigmaM2);
+			cos2SigmaM2 = cosSigmaM2 * cosSigmaM2;
+			sinSigma = Math.sin(sigma);
+			double cosSignma = Math.cos(sigma);
+
+			double deltaSigma = B
+					* sinSigma
+					* (cosSigmaM2 + (B / 4.0)
+							* (cosSignma * (-1 + 2 * cos2SigmaM2) - (B / 6.0) * cosSigmaM2 * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaM2)));
+
+			sigma = sOverbA + deltaSigma;
+
+			if (Double.isNaN(sigma) || Double.isNaN(prevSigma)) {
+				throw new RuntimeException("Point values may be the same; approximation convereged to NaN");
+			}
+
+			if (Math.abs(sigma - prevSigma) < 0.0000000000001) break;
+
+			prevSigma = sigma;
+		}
+
+		sigmaM2 = 2.0 * sigma1 + sigma;
+		cosSigmaM2 = Math.cos(sigmaM2);
+		cos2SigmaM2 = cosSigmaM2 * cosSigmaM2;
+
+		double cosSigma = Math.cos(sigma);
+		sinSigma = Math.sin(sigma);
+
+		double phi2 = Math.atan2(sinU1 * cosSigma + cosU1 * sinSigma * cosAlpha1, (1.0 - f)
+				* Math.sqrt(sin2Alpha + Math.pow(sinU1 * sinSigma - cosU1 * cosSigma * cosAlpha1, 2.0)));
+		double lambda = Math.atan2(sinSigma * sinAlpha1, (cosU1 * cosSigma - sinU1 * sinSigma * cosAlpha1));
+		double L = lambda - (1 - C) * f * sinAlpha * (sigma + C * sinSigma * (cosSigmaM2 + C * cosSigma * (-1 + 2 * cos2SigmaM2)));
+
+		return new GlobalCoordinates(Angle.toDegrees(phi2), startLongitude + Angle.toDegrees(L));
+	}
+}
@@ -3,6 +3,8 @@ package sec.geo.shape;
 import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.PathIterator;
+import java.util.ArrayList;
+import java.util.List;
 
 import sec.geo.GeoBlock;
 import sec.geo.GeoBlock2;
@@ -26,7 +28,7 @@ public class Route extends APath {
 	
 	@Override
 	protected Shape createShape() {
-		Area route = new Area();
+		List<Area> blocks = new ArrayList<Area>(points.size());
 		GeoPoint previousPoint = null;                
 		for (int i = 0; i < points.size(); i++) {
                         
@@ -48,12 +50,30 @@ public class Route extends APath {
 				// Draw rectangle connection
 				GeoBlock2 block = new GeoBlock2(previousPoint, point, this.leftWidthMeters, this.rightWidthMeters, maxDistanceMeters,
 						flatnessDistanceMeters, limit);
-                                Area area = new Area(block);
-				route.add(area);
+                                blocks.add(new Area(block));
                                 
                          }
                          previousPoint = point;
                 }                               
-                return route;
+                return union(blocks, 0, blocks.size());
 	}
+        
+        /**
+         * Unions blocks[from, to) by halves.  Adding each block to one growing
+         * Area reprocesses the whole corridor every time, which made long routes
+         * quadratic; merging neighbours pairwise keeps the inputs of every
+         * Area.add about the same size.
+         */
+        private static Area union(List<Area> blocks, int from, int to) {
+                if (to - from == 0) {
+                        return new Area();
+                }
+                if (to - from == 1) {
+                        return blocks.get(from);
+                }
+                int middle = (from + to) >>> 1;
+                Area route = union(blocks, from, middle);
+                route.add(union(blocks, middle, to));
+                return route;
+        }
 }
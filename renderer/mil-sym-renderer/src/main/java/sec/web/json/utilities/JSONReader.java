@@ -0,0 +1,669 @@
+package sec.web.json.utilities;
+
+import java.util.ArrayList;
+
+/**
+ * Pull parser that reads a JSON string one token at a time, for request
+ * parsing where building JSONObject and JSONArray trees costs more than the
+ * work done with them.  Accepts what JSONTokener accepts: single quoted and
+ * unquoted strings, '=' or '=>' after a name and ';' between members.
+ * Unlike JSONTokener, unquoted values may contain '=' so url parameters
+ * don't have to be escaped.
+ * <p>
+ * The typed getters follow JSONObject's: nextString only takes strings,
+ * nextDouble, nextInt and nextBoolean also take strings that parse.  Errors
+ * are JSONExceptions.
+ * <pre>
+ * JSONReader reader = new JSONReader(json);
+ * reader.beginObject();
+ * while(reader.hasNext())
+ * {
+ *     String name = reader.nextName();
+ *     if(name.equals("size"))
+ *         size = reader.nextInt();
+ *     else
+ *         reader.skipValue();
+ * }
+ * reader.endObject();
+ * </pre>
+ */
+public class JSONReader {
+
+    public static final int BEGIN_OBJECT = 1;
+    public static final int END_OBJECT = 2;
+    public static final int BEGIN_ARRAY = 3;
+    public static final int END_ARRAY = 4;
+    public static final int NAME = 5;
+    public static final int STRING = 6;
+    public static final int NUMBER = 7;
+    public static final int BOOLEAN = 8;
+    public static final int NULL = 9;
+    public static final int END_DOCUMENT = 10;
+
+    //where we are in the enclosing object or array
+    private static final int SCOPE_EMPTY_DOCUMENT = 0;
+    private static final int SCOPE_NONEMPTY_DOCUMENT = 1;
+    private static final int SCOPE_EMPTY_OBJECT = 2;
+    private static final int SCOPE_DANGLING_NAME = 3;
+    private static final int SCOPE_NONEMPTY_OBJECT = 4;
+    private static final int SCOPE_EMPTY_ARRAY = 5;
+    private static final int SCOPE_NONEMPTY_ARRAY = 6;
+
+    //same as JSONTokener.nextValue, minus '=' for values
+    private static final String NAME_DELIMITERS = ",:]}/\\\"[{;=#";
+    private static final String VALUE_DELIMITERS = ",:]}/\\\"[{;#";
+
+    private final String _json;
+    private final int _length;
+    private int _pos = 0;
+
+    private int[] _stack = new int[16];
+    private int _stackSize = 1;
+
+    //token found by peek() and not yet consumed, 0 if none
+    private int _peeked = 0;
+    //for quoted strings the opening quote, 0 for unquoted text
+    private char _quote = 0;
+    //start and end of unquoted text
+    private int _literalStart = 0;
+    private int _literalEnd = 0;
+
+    private final StringBuilder _sb = new StringBuilder();
+
+    public JSONReader(String json)
+    {
+        _json = json;
+        _length = json.length();
+        _stack[0] = SCOPE_EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return the type of the next token without consuming it, one of
+     * BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER,
+     * BOOLEAN, NULL or END_DOCUMENT.
+     * @throws JSONException
+     */
+    public int peek() throws JSONException
+    {
+        if(_peeked == 0)
+            _peeked = doPeek();
+        return _peeked;
+    }
+
+    public void beginObject() throws JSONException
+    {
+        expect(BEGIN_OBJECT, "A JSONObject text must begin with '{'");
+        push(SCOPE_EMPTY_OBJECT);
+        _peeked = 0;
+    }
+
+    public void endObject() throws JSONException
+    {
+        expect(END_OBJECT, "Expected a ',' or '}'");
+        _stackSize--;
+        _peeked = 0;
+    }
+
+    public void beginArray() throws JSONException
+    {
+        expect(BEGIN_ARRAY, "A JSONArray text must start with '['");
+        push(SCOPE_EMPTY_ARRAY);
+        _peeked = 0;
+    }
+
+    public void endArray() throws JSONException
+    {
+        expect(END_ARRAY, "Expected a ',' or ']'");
+        _stackSize--;
+        _peeked = 0;
+    }
+
+    /**
+     * @return true if the current object or array has another member.
+     * @throws JSONException
+     */
+    public boolean hasNext() throws JSONException
+    {
+        int token = peek();
+        return token != END_OBJECT && token != END_ARRAY && token != END_DOCUMENT;
+    }
+
+    public String nextName() throws JSONException
+    {
+        expect(NAME, "Expected a key");
+        _peeked = 0;
+        return readText();
+    }
+
+    /**
+     * @return the next value, which must be a string like JSONObject.getString
+     * @throws JSONException if it isn't a string
+     */
+    public String nextString() throws JSONException
+    {
+        int token = peek();
+        if(token == STRING || (token == NUMBER && parseNumber() == null))
+        {
+            _peeked = 0;
+            return readText();
+        }
+        throw syntaxError("Value is not a string");
+    }
+
+    /**
+     * @return a number, or a string that parses as a double
+     * @throws JSONException
+     */
+    public double nextDouble() throws JSONException
+    {
+        int token = peek();
+        if(token == NUMBER || token == STRING)
+        {
+            Number value = token == NUMBER ? parseNumber() : null;
+            double d;
+            if(value != null)
+                d = value.doubleValue();
+            else
+            {
+                try
+                {
+                    d = Double.parseDouble(readText());
+                }
+                catch(NumberFormatException nfe)
+                {
+                    throw syntaxError("Value is not a number");
+                }
+            }
+            _peeked = 0;
+            return d;
+        }
+        throw syntaxError("Value is not a number");
+    }
+
+    /**
+     * @return a number truncated to an int, or a string that parses as an int
+     * @throws JSONException
+     */
+    public int nextInt() throws JSONException
+    {
+        int token = peek();
+        if(token == NUMBER)
+        {
+            Number value = parseNumber();
+            if(value != null)
+            {
+                _peeked = 0;
+                return value.intValue();
+            }
+        }
+        if(token == NUMBER || token == STRING)
+        {
+            try
+            {
+                int value = Integer.parseInt(readText());
+                _peeked = 0;
+                return value;
+            }
+            catch(NumberFormatException nfe)
+            {
+            }
+        }
+        throw syntaxError("Value is not an int");
+    }
+
+    /**
+     * @return true or false, or the strings "true" or "false" in any case
+     * @throws JSONException
+     */
+    public boolean nextBoolean() throws JSONException
+    {
+        int token = peek();
+        if(token == BOOLEAN || token == STRING)
+        {
+            String text = readText();
+            if(text.equalsIgnoreCase("true"))
+            {
+                _peeked = 0;
+                return true;
+            }
+            if(text.equalsIgnoreCase("false"))
+            {
+                _peeked = 0;
+                return false;
+            }
+        }
+        throw syntaxError("Value is not a Boolean");
+    }
+
+    public void nextNull() throws JSONException
+    {
+        expect(NULL, "Value is not null");
+        _peeked = 0;
+    }
+
+    /**
+     * Reads an array of numbers.
+     * @return
+     * @throws JSONException
+     */
+    public ArrayList<Double> nextDoubles() throws JSONException
+    {
+        ArrayList<Double> values = new ArrayList<Double>();
+        beginArray();
+        while(hasNext())
+        {
+            values.add(nextDouble());
+        }
+        endArray();
+        return values;
+    }
+
+    /**
+     * Skips the next value, along with everything in it if it's an object
+     * or array.
+     * @throws JSONException
+     */
+    public void skipValue() throws JSONException
+    {
+        int depth = 0;
+        do
+        {
+            int token = peek();
+            if(token == BEGIN_OBJECT)
+            {
+                beginObject();
+                depth++;
+            }
+            else if(token == BEGIN_ARRAY)
+            {
+                beginArray();
+                depth++;
+            }
+            else if(token == END_OBJECT)
+            {
+                endObject();
+                depth--;
+            }
+            else if(token == END_ARRAY)
+            {
+                endArray();
+                depth--;
+            }
+            else if(token == END_DOCUMENT)
+            {
+                throw syntaxError("Unexpected end of text");
+            }
+            else
+            {
+                //strings are skipped without unescaping
+                _peeked = 0;
+            }
+        }
+        while(depth > 0);
+    }
+
+    /**
+     * Reads the next value the way JSONTokener.nextValue would, for the odd
+     * value that has to be kept whole.
+     * @return a JSONObject, JSONArray, String, Number, Boolean or
+     * JSONObject.NULL
+     * @throws JSONException
+     */
+    public Object nextValue() throws JSONException
+    {
+        int token = peek();
+        if(token == BEGIN_OBJECT)
+        {
+            JSONObject object = new JSONObject();
+            beginObject();
+            while(hasNext())
+            {
+                String name = nextName();
+                object.putOnce(name, nextValue());
+            }
+            endObject();
+            return object;
+        }
+        if(token == BEGIN_ARRAY)
+        {
+            JSONArray array = new JSONArray();
+            beginArray();
+            while(hasNext())
+                array.put(nextValue());
+            endArray();
+            return array;
+        }
+        if(token == NULL)
+        {
+            nextNull();
+            return JSONObject.NULL;
+        }
+        if(token == BOOLEAN)
+            return nextBoolean();
+        if(token == STRING || token == NUMBER)
+        {
+            Number value = token == NUMBER ? parseNumber() : null;
+            _peeked = 0;
+            if(value != null)
+                return value;
+            return readText();
+        }
+        throw syntaxError("Missing value");
+    }
+
+    /**
+     * Skips the next value and returns its text as it is in the JSON, so an
+     * object can be handed on to code that reads it again without building
+     * a JSONObject and writing it back out.
+     * @return the value's text, quoted strings keep their quotes and
+     * escapes.  Nulls, including empty array elements, come back as "null".
+     * @throws JSONException
+     */
+    public String nextValueText() throws JSONException
+    {
+        int token = peek();
+        if(token == BEGIN_OBJECT || token == BEGIN_ARRAY)
+        {
+            //the bracket was the last character read
+            int start = _pos - 1;
+            skipValue();
+            return _json.substring(start, _pos);
+        }
+        if(token == STRING || token == NUMBER || token == BOOLEAN)
+        {
+            _peeked = 0;
+            if(_quote != 0)
+                return _json.substring(_literalStart - 1, _literalEnd + 1);
+            return _json.substring(_literalStart, _literalEnd);
+        }
+        if(token == NULL)
+        {
+            nextNull();
+            return "null";
+        }
+        throw syntaxError("Missing value");
+    }
+
+    /**
+     * @param message
+     * @return JSONException with the position in the text.
+     */
+    public JSONException syntaxError(String message)
+    {
+        return new JSONException(message + " at character " + _pos);
+    }
+
+    private void expect(int token, String message) throws JSONException
+    {
+        if(peek() != token)
+            throw syntaxError(message);
+    }
+
+    private void push(int scope)
+    {
+        if(_stackSize == _stack.length)
+        {
+            int[] stack = new int[_stackSize * 2];
+            System.arraycopy(_stack, 0, stack, 0, _stackSize);
+            _stack = stack;
+        }
+        _stack[_stackSize++] = scope;
+    }
+
+    /**
+     * Moves past separators to the start of the next token and works out
+     * what it is.  Quoted strings and unquoted text are read to their end
+     * so the position is after the token.
+     */
+    private int doPeek() throws JSONException
+    {
+        int scope = _stack[_stackSize - 1];
+        char c;
+        if(scope == SCOPE_EMPTY_ARRAY)
+        {
+            _stack[_stackSize - 1] = SCOPE_NONEMPTY_ARRAY;
+            c = nextClean();
+            if(c == ']')
+                return END_ARRAY;
+            _pos--;
+            //like JSONArray, a missing element is null
+            if(c == ',')
+                return NULL;
+        }
+        else if(scope == SCOPE_NONEMPTY_ARRAY)
+        {
+            c = nextClean();
+            if(c == ']')
+                return END_ARRAY;
+            if(c != ',' && c != ';')
+                throw syntaxError("Expected a ',' or ']'");
+            //like JSONArray, a trailing comma ends the array
+            c = nextClean();
+            if(c == ']')
+                return END_ARRAY;
+            _pos--;
+            if(c == ',')
+                return NULL;
+        }
+        else if(scope == SCOPE_EMPTY_OBJECT || scope == SCOPE_NONEMPTY_OBJECT)
+        {
+            _stack[_stackSize - 1] = SCOPE_DANGLING_NAME;
+            c = nextClean();
+            if(scope == SCOPE_NONEMPTY_OBJECT)
+            {
+                if(c == '}')
+                    return END_OBJECT;
+                if(c != ',' && c != ';')
+                    throw syntaxError("Expected a ',' or '}'");
+                c = nextClean();
+            }
+            if(c == '}')
+                return END_OBJECT;
+            if(c == 0)
+                throw syntaxError("A JSONObject text must end with '}'");
+            return readTextToken(c, NAME_DELIMITERS, true);
+        }
+        else if(scope == SCOPE_DANGLING_NAME)
+        {
+            _stack[_stackSize - 1] = SCOPE_NONEMPTY_OBJECT;
+            c = nextClean();
+            if(c == '=')
+            {
+                if(_pos < _length && _json.charAt(_pos) == '>')
+                    _pos++;
+            }
+            else if(c != ':')
+                throw syntaxError("Expected a ':' after a key");
+        }
+        else if(scope == SCOPE_EMPTY_DOCUMENT)
+        {
+            _stack[_stackSize - 1] = SCOPE_NONEMPTY_DOCUMENT;
+        }
+        else if(scope == SCOPE_NONEMPTY_DOCUMENT)
+        {
+            if(nextClean() == 0)
+                return END_DOCUMENT;
+            throw syntaxError("Expected end of text");
+        }
+
+        c = nextClean();
+        switch(c)
+        {
+            case '{':
+                return BEGIN_OBJECT;
+            case '[':
+                return BEGIN_ARRAY;
+            case 0:
+                if(scope == SCOPE_EMPTY_DOCUMENT)
+                    return END_DOCUMENT;
+                throw syntaxError("Missing value");
+            default:
+                return readTextToken(c, VALUE_DELIMITERS, false);
+        }
+    }
+
+    /**
+     * Reads a quoted string or unquoted text starting with c.
+     */
+    private int readTextToken(char c, String delimiters, boolean name) throws JSONException
+    {
+        if(c == '"' || c == '\'')
+        {
+            _quote = c;
+            _literalStart = _pos;
+            //find the closing quote, unescaped later by readText
+            while(true)
+            {
+                if(_pos >= _length)
+                    throw syntaxError("Unterminated string");
+                char s = _json.charAt(_pos++);
+                if(s == '\\')
+                    checkEscape();
+                else if(s == c)
+                    break;
+                else if(s == '\n' || s == '\r')
+                    throw syntaxError("Unterminated string");
+            }
+            _literalEnd = _pos - 1;
+            return name ? NAME : STRING;
+        }
+
+        _quote = 0;
+        int start = _pos - 1;
+        while(c >= ' ' && delimiters.indexOf(c) < 0)
+        {
+            c = _pos < _length ? _json.charAt(_pos) : 0;
+            _pos++;
+        }
+        _pos--;
+        //trim like JSONTokener
+        int end = _pos;
+        while(start < end && _json.charAt(start) <= ' ')
+            start++;
+        while(end > start && _json.charAt(end - 1) <= ' ')
+            end--;
+        if(start == end)
+            throw syntaxError("Missing value");
+        _literalStart = start;
+        _literalEnd = end;
+        if(name)
+            return NAME;
+
+        //same rules as JSONObject.stringToValue
+        int length = end - start;
+        if(length == 4 && _json.regionMatches(true, start, "true", 0, 4))
+            return BOOLEAN;
+        if(length == 5 && _json.regionMatches(true, start, "false", 0, 5))
+            return BOOLEAN;
+        if(length == 4 && _json.regionMatches(true, start, "null", 0, 4))
+            return NULL;
+        char first = _json.charAt(start);
+        if((first >= '0' && first <= '9') || first == '.' || first == '-' || first == '+')
+            return NUMBER;
+        return STRING;
+    }
+
+    /**
+     * Checks the escape after a backslash so skipped strings fail the same
+     * way JSONTokener would.
+     */
+    private void checkEscape() throws JSONException
+    {
+        char c = _pos < _length ? _json.charAt(_pos) : 0;
+        if(c == 'u')
+        {
+            if(_pos + 4 >= _length)
+                throw syntaxError("Substring bounds error");
+            for(int i = _pos + 1; i <= _pos + 4; i++)
+            {
+                if(Character.digit(_json.charAt(i), 16) < 0)
+                    throw syntaxError("Illegal escape.");
+            }
+            _pos += 5;
+        }
+        else if(c != 0 && "btnfr\"'\\/".indexOf(c) >= 0)
+            _pos++;
+        else
+            throw syntaxError("Illegal escape.");
+    }
+
+    /**
+     * @return the current token's text, unescaped if it was quoted.
+     */
+    private String readText()
+    {
+        if(_quote == 0)
+            return _json.substring(_literalStart, _literalEnd);
+
+        //only look inside the string, indexOf would scan the rest of the
+        //document when there's no escape
+        int escape = _literalStart;
+        while(escape < _literalEnd && _json.charAt(escape) != '\\')
+            escape++;
+        if(escape == _literalEnd)
+            return _json.substring(_literalStart, _literalEnd);
+
+        //escapes were checked by checkEscape
+        _sb.setLength(0);
+        _sb.append(_json, _literalStart, escape);
+        for(int i = escape; i < _literalEnd; i++)
+        {
+            char c = _json.charAt(i);
+            if(c != '\\')
+            {
+                _sb.append(c);
+                continue;
+            }
+            c = _json.charAt(++i);
+            switch(c)
+            {
+                case 'b':
+                    _sb.append('\b');
+                    break;
+                case 't':
+                    _sb.append('\t');
+                    break;
+                case 'n':
+                    _sb.append('\n');
+                    break;
+                case 'f':
+                    _sb.append('\f');
+                    break;
+                case 'r':
+                    _sb.append('\r');
+                    break;
+                case 'u':
+                    _sb.append((char)Integer.parseInt(_json.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    _sb.append(c);
+            }
+        }
+        return _sb.toString();
+    }
+
+    /**
+     * @return unquoted text as a number, or null if it isn't one, in which
+     * case JSONObject would have kept it as a string.
+     */
+    private Number parseNumber()
+    {
+        Object value = JSONObject.stringToValue(_json.substring(_literalStart, _literalEnd));
+        if(value instanceof Number)
+            return (Number)value;
+        return null;
+    }
+
+    private char nextClean()
+    {
+        while(_pos < _length)
+        {
+            char c = _json.charAt(_pos++);
+            if(c > ' ')
+                return c;
+        }
+        _pos++;
+        return 0;
+    }
+}
@@ -3,20 +3,18 @@ package sec.web.renderer;
 import ArmyC2.C2SD.RendererPluginInterface.ISinglePointInfo;
 import ArmyC2.C2SD.RendererPluginInterface.ISinglePointRenderer;
 import ArmyC2.C2SD.RendererPluginInterface.SinglePointInfo;
-import ArmyC2.C2SD.Rendering.JavaRenderer;
-import ArmyC2.C2SD.Utilities.ImageInfo;
-import ArmyC2.C2SD.Utilities.MilStdAttributes;
 import java.awt.Graphics2D;
-import java.awt.Polygon;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import RenderMultipoints.clsClipPolygon2;
+import sec.web.renderer.utilities.FillStampCache;
+import sec.web.renderer.utilities.FillStampCache.Stamp;
 import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
@@ -53,22 +51,28 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 
 	@Override
 	public ISinglePointInfo render(String symbolID, Map<String, String> params) {
-		if (params.containsKey(KEY_SYMBOL_FILL_IDS)) {
-			return renderAreaSymbolFill(params);
-		} else if (params.containsKey(KEY_SYMBOL_LINE_IDS)) {
-			return renderLineSymbolFill(params);
+		if (params.containsKey(KEY_SYMBOL_FILL_IDS) || params.containsKey(KEY_SYMBOL_LINE_IDS)) {
+			return renderSymbolFill(SymbolFill.fromParams(params));
 		} else {
 			return null;
 		}
 	}
-    
+
     /**
-     * 
-     * @param symbolID
-     * @param params
-     * @return 
+     * Draws the fill without the url round trip through
+     * SinglePointRendererService.
+     * @param fill
+     * @return image of the fill, or null if it couldn't be drawn
      */
-    private ISinglePointInfo renderAreaSymbolFill(Map<String, String> params) {
+    public static ISinglePointInfo renderSymbolFill(SymbolFill fill) {
+        if (fill.isLineFill()) {
+            return renderLineSymbolFill(fill);
+        } else {
+            return renderAreaSymbolFill(fill);
+        }
+    }
+
+    private static ISinglePointInfo renderAreaSymbolFill(SymbolFill symbolFill) {
         ISinglePointInfo returnVal = null; // new SinglePointInfo(null);
 
         try 
@@ -77,47 +81,18 @@ public class AreaSymbolFill implements ISinglePointRenderer {
             // get
             // values////////////////////////////////////////////////////////
 
-            String strCoords = String.valueOf(params.get(KEY_SYMBOL_COORDS));
-            String strSymbolIDs = String.valueOf(params.get(KEY_SYMBOL_FILL_IDS));
-
-			String strClip = null;
-			String[] arrclip = null;
-			Rectangle2D clip = null;
-
-			String[] strArrCoords = strCoords.split(",");
-			int length = strArrCoords.length;
-			int[] coords = new int[strArrCoords.length];
+			Rectangle2D clip = symbolFill.getClip();
+			List<Point2D> coords = symbolFill.getPoints();
 
-			for (int i = 0; i < length; i++) {
-				// coords[i] = Double.valueOf(strArrCoords[i]);
-				coords[i] = Integer.valueOf(strArrCoords[i]);
-			}
-
-			if (params.containsKey(KEY_SYMBOL_CLIP)) {
-				strClip = String.valueOf(params.get(KEY_SYMBOL_CLIP));
-			}
-			if (strClip != null) {
-				// System.out.println(strClip);
-				arrclip = strClip.split(",");
-				clip = new Rectangle2D.Double(Double.valueOf(arrclip[0]), Double.valueOf(arrclip[1]),
-						Double.valueOf(arrclip[2]), Double.valueOf(arrclip[3]));
-			}
-
-            int height = Integer.valueOf(params.get(KEY_SYMBOL_HEIGHT));
-            int width = Integer.valueOf(params.get(KEY_SYMBOL_WIDTH));
+            int height = symbolFill.getHeight();
+            int width = symbolFill.getWidth();
             if(height<=0) {
                 height = 1;
             }
             if(width<=0) {
                 width=1;
             }
-            int size = -1;
-            if (params.containsKey(KEY_SYMBOL_FILL_ICON_SIZE)) {
-                    size = Integer.valueOf(params.get(KEY_SYMBOL_FILL_ICON_SIZE));
-            } else {
-                    size = DEFAULT_SYMBOL_SIZE;
-            }
-            String[] symbolIDs = strSymbolIDs.split(",");
+            int size = symbolFill.getIconSize();
 
             double ratio = 1;
             double maxImageSize=1000;
@@ -148,43 +123,14 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 
             // create a list of the single point
             // images//////////////////////////
-            List<ImageInfo> images = new ArrayList<ImageInfo>();
-            //Point2D.Double fakePoint = new Point2D.Double(0, 0);
-
-            Map<String, String> modifiers = new HashMap<String,String>();
-
-            if (size > 0) {
-                    modifiers.put(MilStdAttributes.PixelSize, String.valueOf(size));
-            }
-            Rectangle2D bounds = null;
-
-            ImageInfo iiTemp = null;
+            List<Stamp> images = FillStampCache.getInstance().getStamps(symbolFill.getFillIDs(), symbolFill.getSymbologyStandard(), size, null);
+            //skip any icons that couldn't be rendered
+            images.removeAll(Collections.singleton(null));
+            Stamp iiTemp = null;
             int maxHeight = 0;
-
-            //scale icon size for png
-            /*if(width > height)
-            {
-                size = (width/10) - 5;
-            }
-            else
-            {
-                size = (height/10) - 5;
-            }
-            if(size>50)
-            {
-                size=50;
-            }//*/
-            
-            //System.out.println("icon size: " + String.valueOf(size));
-            int symStd = 1;//1 for 2525C, 0 for 2525Bch2
-            for (String id : symbolIDs) {
-
-                    iiTemp = JavaRenderer.getInstance().RenderSinglePointAsImageInfo(id, modifiers, size, true, symStd);
-
-                    images.add(iiTemp);
-
-                    if (iiTemp.getImage().getHeight() > maxHeight) {
-                            maxHeight = iiTemp.getImage().getHeight();
+            for (Stamp image : images) {
+                    if (image.getImage().getHeight() > maxHeight) {
+                            maxHeight = image.getImage().getHeight();
                     }
             }
             // create clip shapes for area fill (not relevant for line fill )
@@ -195,22 +141,14 @@ public class AreaSymbolFill implements ISinglePointRenderer {
             int y = hOffset;
             Graphics2D g = (Graphics2D) fill.createGraphics();
             int imageIndex = 0;
-            int cx = 0;
-            int cy = 0;
-            Polygon clipShape = new Polygon();
             Path2D clipPath = new Path2D.Double();
-            for (int i = 0; i < coords.length - 1; i++) {
-                    clipShape.addPoint(coords[i], coords[i + 1]);
+            for (int i = 0; i < coords.size(); i++) {
+                    Point2D coord = coords.get(i);
                     if (i == 0) {
-                            cx = coords[i];
-                            cy = coords[i + 1];
-                            clipPath.moveTo(coords[i], coords[i + 1]);
+                            clipPath.moveTo(coord.getX(), coord.getY());
                     } else {
-                            cx = coords[i];
-                            cy = coords[i + 1];
-                            clipPath.lineTo(coords[i], coords[i + 1]);
+                            clipPath.lineTo(coord.getX(), coord.getY());
                     }
-                    i++;
             }
             clipPath.closePath();
             clipPath.setWindingRule(Path2D.WIND_EVEN_ODD);
@@ -244,7 +182,7 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 				g.setClip(clipPath);
 			}
             
-            while ((y < fill.getHeight()) && x < fill.getWidth()) {
+            while (images.isEmpty() == false && (y < fill.getHeight()) && x < fill.getWidth()) {
                     iiTemp = images.get(imageIndex);
 
                     // draw image
@@ -278,38 +216,18 @@ public class AreaSymbolFill implements ISinglePointRenderer {
         return returnVal;
     }
 
-	private ISinglePointInfo renderLineSymbolFill(Map<String, String> params) {
+	private static ISinglePointInfo renderLineSymbolFill(SymbolFill symbolFill) {
 		ISinglePointInfo returnVal = null;
 		try {
 			// get values
 			ArrayList<Point2D.Double> points = null;
-			String strClip = null;
-			String strCoords = String.valueOf(params.get(KEY_SYMBOL_COORDS));
-			// System.out.println(strCoords);
-			String strSymbolIDs = String.valueOf(params.get(KEY_SYMBOL_LINE_IDS));
 			int buffer = DEFAULT_SYMBOL_SIZE / 2;
-			String[] arrclip = null;
-			Rectangle2D clip = null;
-			int size = -1;
-			if (params.containsKey(KEY_SYMBOL_FILL_ICON_SIZE)) {
-				size = Integer.valueOf(params.get(KEY_SYMBOL_FILL_ICON_SIZE));
-			} else {
-				size = DEFAULT_SYMBOL_SIZE;
-			}
+			Rectangle2D clip = symbolFill.getClip();
+			int size = symbolFill.getIconSize();
 			buffer = (size / 2) + 3;
-			if (params.containsKey(KEY_SYMBOL_CLIP)) {
-				strClip = String.valueOf(params.get(KEY_SYMBOL_CLIP));
-			}
 
-			if (strClip != null) {
-				// System.out.println(strClip);
-				arrclip = strClip.split(",");
-				clip = new Rectangle2D.Double(Double.valueOf(arrclip[0]), Double.valueOf(arrclip[1]),
-						Double.valueOf(arrclip[2]), Double.valueOf(arrclip[3]));
-			}
-
-			int height = Integer.valueOf(params.get(KEY_SYMBOL_HEIGHT));
-			int width = Integer.valueOf(params.get(KEY_SYMBOL_WIDTH));
+			int height = symbolFill.getHeight();
+			int width = symbolFill.getWidth();
 
 			if (height <= 0) {
 				height = 1;
@@ -322,25 +240,15 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 			double minImageSize = 400;
 
                 
-			String[] strArrCoords = strCoords.split(",");
-			int length = strArrCoords.length;
-			int[] coords = new int[strArrCoords.length];
-
-			for (int j = 0; j < strArrCoords.length; j++) {
-				coords[j] = Integer.valueOf(strArrCoords[j]);
-			}
-
+			List<Point2D> coords = symbolFill.getPoints();
 			Path2D path = new Path2D.Double();
-			for (int i = 0; i < length - 1; i++) {
-				// coords[i] = Double.valueOf(strArrCoords[i]);
+			for (int i = 0; i < coords.size(); i++) {
+				Point2D coord = coords.get(i);
 				if (i > 0) {
-					path.lineTo(coords[i], coords[i + 1]);
-				} else if (i == 0) {
-					path.moveTo(coords[i], coords[i + 1]);
+					path.lineTo(coord.getX(), coord.getY());
+				} else {
+					path.moveTo(coord.getX(), coord.getY());
 				}
-				// System.out.println(String.valueOf(coords[i]) + ", " +
-				// String.valueOf(coords[i+1]));
-				i++;
 			}
 			Rectangle2D pathBounds = path.getBounds2D();
 			if (pathBounds.getHeight() > maxImageSize || pathBounds.getWidth() > maxImageSize) {
@@ -405,8 +313,6 @@ public class AreaSymbolFill implements ISinglePointRenderer {
                     size=50;
                 }//*/
                 
-                String[] symbolIDs = strSymbolIDs.split(",");
-                //System.out.println(strSymbolIDs.toString());
                 // create destination
                 // image//////////////////////////////////////////
                 // may have to larger for line decoration since symbols will be
@@ -416,17 +322,10 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 
 			// create a list of the single point
 			// images//////////////////////////
-			List<ImageInfo> images = new ArrayList<ImageInfo>();
-
-			Map<String, String> modifiers = new HashMap<String, String>();
-
-			if (size > 0) {
-				modifiers.put(MilStdAttributes.PixelSize, String.valueOf(size));
-			}
-			Rectangle2D bounds = null;
-
-			ImageInfo iiTemp = null;
-			int maxHeight = 0;
+			List<Stamp> images = FillStampCache.getInstance().getStamps(symbolFill.getLineIDs(), symbolFill.getSymbologyStandard(), size, null);
+			//skip any icons that couldn't be rendered
+			images.removeAll(Collections.singleton(null));
+			Stamp iiTemp = null;
 
                 ////////////////////////////////////////////////////////
                 //MAGIC FUNCTIONS to get points along the line to
@@ -438,35 +337,6 @@ public class AreaSymbolFill implements ISinglePointRenderer {
                 //System.out.println("icon points: "+String.valueOf(iconPoints.size()));
                 ////////////////////////////////////////////////////////
 
-                //get image collection
-			int j = 0;
-			double rotation = 0;
-			int symStd = 1;// 1 for 2525C, 0 for 2525Bch2
-			// MilStdSymbol msTemp = null;
-			for (String id : symbolIDs) {
-				// System.out.println(id);
-				// rotation = iconPoints.get(j).getRotation();
-				// j++;
-				// if(j>iconPoints.size())
-				// {
-				// j=0;
-				// }
-				// msTemp = JavaRendererUtilities.createMilstdSymbol(id,
-				// modifiers);
-				// msTemp.setRotation(rotation);
-				// iiTemp =
-				// JavaRenderer.getInstance().RenderSinglePointAsImageInfo(id,
-				// modifiers, size, true);
-				iiTemp = JavaRenderer.getInstance().RenderSinglePointAsImageInfo(id, modifiers, size, true, symStd);
-
-				images.add(iiTemp);
-
-				if (iiTemp.getImage().getHeight() > maxHeight) {
-					maxHeight = iiTemp.getImage().getHeight();
-				}
-
-			}
-
 			Graphics2D g = (Graphics2D) fill.createGraphics();
 			// for drawing shapes, does not apply:
 			// g.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
@@ -478,11 +348,13 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 			// Now Draw Points on Lines with the list of points
 			int i = 0;
 			int k = 0;
-			double currentRotation = 0;
 			// System.out.println("point count: " +
 			// String.valueOf(iconPoints.size()));
 			// String currentID = null;
 			for (SymbolPoint point : iconPoints) {
+				if (images.isEmpty()) {
+					break;
+				}
 
 				iiTemp = images.get(i);
 				i++;
@@ -491,18 +363,8 @@ public class AreaSymbolFill implements ISinglePointRenderer {
 				if (i >= images.size()) {
 					i = 0;
 				}
-				int x = (int) point.getX() - iiTemp.getSymbolCenterX();
-				int y = (int) point.getY() - iiTemp.getSymbolCenterY();
-
-				currentRotation = Math.toRadians(point.getRotation());
-				// adjust for rotation
-				g.setTransform(AffineTransform.getRotateInstance(currentRotation, point.getX(), point.getY()));
-
-				// draw image
-				g.drawImage(iiTemp.getImage(), x, y, null);
-
-				// reset transform
-				g.setTransform(new AffineTransform());
+				// draw the image turned to match the line
+				iiTemp.draw(g, point.getX(), point.getY(), point.getRotation());
 			}
 			returnVal = new SinglePointInfo(fill);
 			g.dispose();
@@ -523,7 +385,7 @@ public class AreaSymbolFill implements ISinglePointRenderer {
      * @return Collection of points that say where the icons
      * should be drawn.
      */
-    private ArrayList<SymbolPoint> getPointsOnLineForSymbols(ArrayList<Point2D.Double> points,
+    private static ArrayList<SymbolPoint> getPointsOnLineForSymbols(ArrayList<Point2D.Double> points,
             int iconHeight, int iconWidth, Rectangle2D clip)
     {
         ArrayList<SymbolPoint> returnPoints = new ArrayList<SymbolPoint>();
@@ -551,7 +413,7 @@ public class AreaSymbolFill implements ISinglePointRenderer {
         return returnPoints;
     }
 
-    public class SymbolPoint
+    public static class SymbolPoint
     {
         double _x;
         double _y;
@@ -0,0 +1,407 @@
+package sec.web.renderer;
+
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import sec.web.json.utilities.JSONException;
+import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
+
+/**
+ * Renders a batch of multipoint symbols in parallel and writes the results
+ * as one JSON array.  Items are written in request order as soon as they
+ * and everything before them are done, so clients get the first graphics
+ * before the last ones are rendered.
+ * <p>
+ * Request like:
+ * [{"id":"1","symbolCode":"GFGPGLB----K---","controlPoints":"66.26,30.62 66.39,30.60",
+ * "bbox":"66.0,30.0,67.0,31.0","modifiers":{"T":"T1"},"format":2}, ...]
+ * <p>
+ * Other optional item fields: name, description, symStd, and for 3D
+ * altitudeMode and scale, for 2D pixelWidth and pixelHeight.
+ * <p>
+ * Response like:
+ * [{"index":0,"id":"1","result":{...}},{"index":1,"id":"2","error":"..."}]
+ * KML results are returned as a JSON string.
+ */
+public class MultiPointBatchRenderer {
+
+    private static MultiPointBatchRenderer _instance = null;
+
+    private ExecutorService _executor = null;
+    private volatile int _parallelism = Runtime.getRuntime().availableProcessors();
+    private final Object _executorMutex = new Object();
+
+    private MultiPointBatchRenderer()
+    {
+    }
+
+    public static synchronized MultiPointBatchRenderer getInstance()
+    {
+        if(_instance == null)
+            _instance = new MultiPointBatchRenderer();
+
+        return _instance;
+    }
+
+    /**
+     * Renders every item in the batch and writes the JSON array to writer.
+     * Writer is flushed after each item but not closed.
+     * @param batch JSON array of items, see class description.
+     * @param for2D true for RenderMultiPointSymbol2D, false for
+     * RenderMultiPointSymbol.
+     * @param writer
+     * @return number of items written
+     * @throws JSONException if batch isn't a JSON array, nothing is written
+     * @throws IOException if the writer fails, remaining items are cancelled.
+     */
+    public int RenderBatch(String batch, boolean for2D, Writer writer) throws JSONException, IOException
+    {
+        return RenderBatch(ReadBatch(batch), for2D, writer);
+    }
+
+    /**
+     * Reads the items out of a batch without rendering them, so callers can
+     * reject bad JSON before sending a response.  Fields are pulled straight
+     * out of the text, modifiers objects are kept as text for the renderer
+     * to read.
+     * @param batch JSON array of items, see class description.
+     * @return one BatchItem per array element
+     * @throws JSONException if batch isn't a JSON array
+     */
+    public List<BatchItem> ReadBatch(String batch) throws JSONException
+    {
+        ArrayList<BatchItem> items = new ArrayList<BatchItem>();
+        JSONReader reader = new JSONReader(batch);
+        reader.beginArray();
+        while(reader.hasNext())
+        {
+            if(reader.peek() != JSONReader.BEGIN_OBJECT)
+            {
+                //rendered as an error so the indexes still line up
+                reader.skipValue();
+                items.add(new BatchItem());
+                continue;
+            }
+
+            BatchItem item = new BatchItem();
+            item.isObject = true;
+            reader.beginObject();
+            while(reader.hasNext())
+            {
+                String name = reader.nextName();
+                if(name.equals("modifiers"))
+                {
+                    //modifiers can be a JSON object or the string form
+                    //used by the single symbol calls.
+                    int token = reader.peek();
+                    if(token == JSONReader.BEGIN_OBJECT)
+                        item.modifiers = reader.nextValueText();
+                    else if(token == JSONReader.NULL)
+                    {
+                        reader.nextNull();
+                        item.modifiers = null;
+                    }
+                    else
+                        item.modifiers = String.valueOf(reader.nextValue());
+                }
+                else if(BatchItem.isField(name))
+                    item.fields.put(name, reader.nextValue());
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+            items.add(item);
+        }
+        reader.endArray();
+        return items;
+    }
+
+    /**
+     * Same as RenderBatch(String, boolean, Writer) for a batch read by
+     * ReadBatch.
+     * @param items
+     * @param for2D
+     * @param writer
+     * @return number of items written
+     * @throws IOException
+     */
+    public int RenderBatch(List<BatchItem> items, final boolean for2D, Writer writer) throws IOException
+    {
+        int count = items.size();
+        ExecutorService executor = getExecutor();
+
+        //limit how far ahead of the writer we render so a slow client
+        //doesn't make us hold the whole batch in memory.
+        int window = Math.max(1, _parallelism * 4);
+
+        List<FutureTask<String>> tasks = new ArrayList<FutureTask<String>>(count);
+        int submitted = 0;
+        try
+        {
+            writer.write('[');
+            for(int i = 0; i < count; i++)
+            {
+                while(submitted < count && submitted < i + window)
+                {
+                    final BatchItem item = items.get(submitted);
+                    FutureTask<String> task = new FutureTask<String>(new Callable<String>()
+                    {
+                        public String call() throws Exception
+                        {
+                            return renderItem(item, for2D);
+                        }
+                    });
+                    tasks.add(task);
+                    try
+                    {
+                        executor.execute(task);
+                    }
+                    catch(RejectedExecutionException ree)
+                    {//pool was replaced by setParallelism, do it here
+                        task.run();
+                    }
+                    submitted++;
+                }
+
+                String id = items.get(i).optString("id", null);
+
+                String output = null;
+                String error = null;
+                try
+                {
+                    output = tasks.get(i).get();
+                }
+                catch(ExecutionException ee)
+                {
+                    Throwable cause = ee.getCause() != null ? ee.getCause() : ee;
+                    error = cause.toString();
+                }
+                catch(InterruptedException ie)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while rendering batch");
+                }
+
+                if(i > 0)
+                    writer.write(',');
+                writeItem(writer, i, id, output, error);
+                writer.flush();
+            }
+            writer.write(']');
+            writer.flush();
+        }
+        finally
+        {
+            //stop anything still queued if we bailed out early
+            for(FutureTask<String> task : tasks)
+            {
+                task.cancel(false);
+            }
+        }
+        return count;
+    }
+
+    private String renderItem(BatchItem item, boolean for2D) throws Exception
+    {
+        if(item.isObject == false)
+            throw new JSONException("Batch item is not a JSON object");
+
+        String symbolCode = item.getString("symbolCode");
+        String id = item.optString("id", "ID");
+        String name = item.optString("name", "NAME");
+        String description = item.optString("description", "DESCRIPTION");
+        String controlPoints = item.optString("controlPoints", "0,0");
+        String bbox = item.optString("bbox", "");
+        int format = item.optInt("format", 0);
+        int symStd = item.optInt("symStd", 0);
+        String modifiers = item.modifiers != null ? item.modifiers : "";
+
+        if(for2D)
+        {
+            int pixelWidth = item.optInt("pixelWidth", 1280);
+            int pixelHeight = item.optInt("pixelHeight", 1024);
+            return SECRenderer.getInstance().RenderMultiPointSymbol2D(id, name, description, symbolCode,
+                    controlPoints, pixelWidth, pixelHeight, bbox, modifiers, format, symStd);
+        }
+        else
+        {
+            String altitudeMode = item.optString("altitudeMode", "clampToGround");
+            double scale = item.optDouble("scale", 50000);
+            return SECRenderer.getInstance().RenderMultiPointSymbol(id, name, description, symbolCode,
+                    controlPoints, altitudeMode, scale, bbox, modifiers, format, symStd);
+        }
+    }
+
+    private static void writeItem(Writer writer, int index, String id, String output, String error) throws IOException
+    {
+        writer.write("{\"index\":");
+        writer.write(String.valueOf(index));
+        writer.write(",\"id\":");
+        writer.write(id != null ? JSONObject.quote(id) : "null");
+
+        if(error == null)
+        {
+            if(output == null || output.equals(""))
+                error = "No output";
+            else if(output.startsWith("{\"type\":'error'") || output.startsWith("{\"type\":\"error\""))
+                error = output;//error messages aren't escaped, return them as a string
+        }
+
+        if(error != null)
+        {
+            writer.write(",\"error\":");
+            writer.write(JSONObject.quote(error));
+        }
+        else if(output.startsWith("{") || output.startsWith("["))
+        {
+            writer.write(",\"result\":");
+            writer.write(output);
+        }
+        else//KML
+        {
+            writer.write(",\"result\":");
+            writer.write(JSONObject.quote(output));
+        }
+        writer.write('}');
+    }
+
+    /**
+     * One item of a batch as read by ReadBatch.  The getters follow
+     * JSONObject's opt and get methods so items render the same as when
+     * the batch was parsed into JSONObjects.
+     */
+    public static class BatchItem {
+
+        private static final String[] FIELDS = {
+            "symbolCode", "id", "name", "description", "controlPoints", "bbox", "format",
+            "symStd", "pixelWidth", "pixelHeight", "altitudeMode", "scale"
+        };
+
+        //false for an array element that isn't an object
+        private boolean isObject = false;
+        //JSONReader.nextValue of each field that was there
+        private final HashMap<String, Object> fields = new HashMap<String, Object>();
+        //the modifiers object's text, or the value's string form
+        private String modifiers = null;
+
+        private BatchItem()
+        {
+        }
+
+        private static boolean isField(String name)
+        {
+            for(String field : FIELDS)
+            {
+                if(field.equals(name))
+                    return true;
+            }
+            return false;
+        }
+
+        private String getString(String key) throws JSONException
+        {
+            Object value = fields.get(key);
+            if(value == null)
+                throw new JSONException("JSONObject[" + JSONObject.quote(key) + "] not found.");
+            if(value instanceof String)
+                return (String)value;
+            throw new JSONException("JSONObject[" + JSONObject.quote(key) + "] not a string.");
+        }
+
+        private String optString(String key, String defaultValue)
+        {
+            Object value = fields.get(key);
+            if(value == null || value == JSONObject.NULL)
+                return defaultValue;
+            return value.toString();
+        }
+
+        private int optInt(String key, int defaultValue)
+        {
+            Object value = fields.get(key);
+            try
+            {
+                if(value instanceof Number)
+                    return ((Number)value).intValue();
+                return Integer.parseInt((String)value);
+            }
+            catch(Exception e)
+            {
+                return defaultValue;
+            }
+        }
+
+        private double optDouble(String key, double defaultValue)
+        {
+            Object value = fields.get(key);
+            try
+            {
+                if(value instanceof Number)
+                    return ((Number)value).doubleValue();
+                return Double.parseDouble((String)value);
+            }
+            catch(Exception e)
+            {
+                return defaultValue;
+            }
+        }
+    }
+
+    private ExecutorService getExecutor()
+    {
+        synchronized(_executorMutex)
+        {
+            if(_executor == null)
+            {
+                _executor = Executors.newFixedThreadPool(Math.max(1, _parallelism), new ThreadFactory()
+                {
+                    private int _count = 0;
+                    public synchronized Thread newThread(Runnable r)
+                    {
+                        Thread thread = new Thread(r, "MultiPointBatch-" + (++_count));
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return _executor;
+        }
+    }
+
+    /**
+     * Number of threads used to render batch items, shared by all batches.
+     * Defaults to the number of processors.
+     * @param value
+     */
+    public void setParallelism(int value)
+    {
+        synchronized(_executorMutex)
+        {
+            _parallelism = Math.max(1, value);
+            if(_executor != null)
+            {
+                _executor.shutdown();
+                _executor = null;
+            }
+        }
+        ErrorLogger.LogMessage("MultiPointBatchRenderer", "setParallelism",
+                "Batch parallelism set to " + String.valueOf(_parallelism), Level.FINE);
+    }
+
+    public int getParallelism()
+    {
+        return _parallelism;
+    }
+}
@@ -0,0 +1,269 @@
+package sec.web.renderer;
+
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.IPointConversion;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.PointConversion;
+import ArmyC2.C2SD.Utilities.RendererException;
+import ArmyC2.C2SD.Utilities.ShapeInfo;
+import ArmyC2.C2SD.Utilities.SymbolUtilities;
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import sec.web.renderer.utilities.CoordinateParser;
+
+/**
+ * Keeps the last RenderSymbol2D result for one multipoint graphic so a
+ * client dragging control points doesn't have to re-render the whole
+ * graphic for every move.
+ * <p>
+ * For plain lines like phase lines, where the rendered line is just the
+ * control points and the labels only depend on the first and last two
+ * points, moving an interior point patches that vertex of the last render
+ * and writes it again.  Anything else, like channels, fronts, decorated
+ * lines, areas, symbol fills or points outside the bbox, is fully
+ * re-rendered, since moving one of their points changes geometry and labels
+ * along the whole graphic.  Either way the output is the same as
+ * RenderSymbol2D with the new points.
+ * <p>
+ * Not thread safe, use one session per graphic being edited.
+ */
+public class MultiPointEditSession {
+
+    private static final String _className = "MultiPointEditSession";
+
+    /**
+     * Basic symbol IDs rendered as a single line through the control points
+     * with labels placed off the first and last segments only.
+     */
+    static final Set<String> _incrementalSymbols = new HashSet<String>(Arrays.asList(
+            "G*G*GLP---****X",//phase line
+            "G*G*GLL---****X",//light line
+            "G*G*OLC---****X",//LD/LC
+            "G*G*OLF---****X",//final coordination line
+            "G*G*OLL---****X",//LOA
+            "G*G*OLT---****X",//LD
+            "G*G*SLR---****X",//release line
+            "G*F*LCF---****X",//FSCL
+            "G*F*LCN---****X",//NFL
+            "G*F*LCR---****X"//RFL
+            ));
+
+    /**
+     * How many points at each end labels depend on, moving one of these
+     * is a full render.
+     */
+    static final int END_POINTS = 2;
+
+    private final String _id;
+    private final String _name;
+    private final String _description;
+    private final String _symbolCode;
+    private final String _symbolModifiers;
+    private final int _format;
+    private final int _symStd;
+    private final IPointConversion _ipc;
+    private final double _left;
+    private final double _top;
+    private final double _right;
+    private final double _bottom;
+
+    //{lon0,lat0,lon1,lat1...}
+    private double[] _geoCoords = null;
+    //last full render, null if it failed
+    private MilStdSymbol _symbol = null;
+    //the rendered line when it can be patched, null otherwise
+    private ArrayList<Point2D> _line = null;
+
+    /**
+     * Takes the same parameters as MultiPointHandler.RenderSymbol2D.
+     * @throws IllegalArgumentException if bbox is missing
+     */
+    public MultiPointEditSession(String id,
+            String name,
+            String description,
+            String symbolCode,
+            String controlPoints,
+            int pixelWidth,
+            int pixelHeight,
+            String bbox,
+            String symbolModifiers,
+            int format, int symStd)
+    {
+        if(bbox == null || bbox.equals(""))
+            throw new IllegalArgumentException("Bad bbox value: " + bbox);
+
+        double[] bounds = CoordinateParser.parseValues(bbox);
+        _left = bounds[0];
+        _right = bounds[2];
+        _top = bounds[3];
+        _bottom = bounds[1];
+        _ipc = new PointConversion(pixelWidth, pixelHeight, _top, _left, _bottom, _right);
+
+        _id = id;
+        _name = name;
+        _description = description;
+        _symbolCode = symbolCode;
+        _symbolModifiers = symbolModifiers;
+        _format = format;
+        _symStd = symStd;
+        _geoCoords = CoordinateParser.parseCoordinates(controlPoints);
+    }
+
+    /**
+     * Renders the graphic with its current control points.
+     * @return same as MultiPointHandler.RenderSymbol2D
+     */
+    public String render()
+    {
+        StringBuilder output = new StringBuilder();
+        try
+        {
+            _symbol = MultiPointHandler.renderSymbol2D(_id, _name, _description, _symbolCode,
+                    _geoCoords, _ipc, _left, _top, _right, _bottom,
+                    _symbolModifiers, _format, _symStd, output);
+            _line = getPatchableLine();
+        }
+        catch(Exception exc)
+        {
+            _symbol = null;
+            _line = null;
+            ErrorLogger.LogException(_className, "render",
+                    new RendererException("Failed inside render", exc));
+        }
+        return output.toString();
+    }
+
+    /**
+     * Moves one control point and renders the graphic again.
+     * @param index of the control point to move
+     * @param longitude
+     * @param latitude
+     * @return same as MultiPointHandler.RenderSymbol2D with the new points
+     * @throws IllegalArgumentException if there's no control point at index,
+     * the points are left as they were
+     */
+    public String moveControlPoint(int index, double longitude, double latitude)
+    {
+        int count = _geoCoords.length / 2;
+        if(index < 0 || index >= count)
+            throw new IllegalArgumentException("Bad control point index: " + index
+                    + ", graphic has " + count + " points");
+
+        double[] geoCoords = _geoCoords.clone();
+        geoCoords[index * 2] = longitude;
+        geoCoords[index * 2 + 1] = latitude;
+
+        if(_line != null && index >= END_POINTS && index < _line.size() - END_POINTS
+                && isInBounds(longitude, latitude))
+        {
+            try
+            {
+                //the symbol keeps the points it was rendered from, patch
+                //them along with the line
+                Point2D.Double geo = new Point2D.Double(longitude, latitude);
+                _line.set(index, toLinePoint(geo));
+                ArrayList<Point2D.Double> points = _symbol.getCoordinates();
+                points.set(index, geo);
+                _geoCoords = geoCoords;
+
+                StringBuilder output = new StringBuilder();
+                MultiPointHandler.writeSymbol2D(output, _id, _name, _description, _symbolCode,
+                        _symbol, null, points, _ipc, _format);
+                return output.toString();
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException(_className, "moveControlPoint",
+                        new RendererException("Failed inside moveControlPoint", exc));
+            }
+        }
+
+        _geoCoords = geoCoords;
+        return render();
+    }
+
+    /**
+     * Replaces all the control points and renders the graphic again.
+     * @param controlPoints like "lon,lat lon,lat"
+     * @return same as MultiPointHandler.RenderSymbol2D
+     */
+    public String setControlPoints(String controlPoints)
+    {
+        _geoCoords = CoordinateParser.parseCoordinates(controlPoints);
+        return render();
+    }
+
+    /**
+     * @return the current control points like "lon,lat lon,lat"
+     */
+    public String getControlPoints()
+    {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < _geoCoords.length; i += 2)
+        {
+            if(i > 0)
+                sb.append(" ");
+            sb.append(_geoCoords[i]).append(",").append(_geoCoords[i + 1]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the symbol's rendered line if the last render was exactly
+     * the control points in pixels, so an interior point can be patched.
+     */
+    private ArrayList<Point2D> getPatchableLine()
+    {
+        if(_symbol == null
+                || _incrementalSymbols.contains(SymbolUtilities.getBasicSymbolID(_symbolCode)) == false
+                || _geoCoords.length / 2 < END_POINTS * 2 + 1
+                || _symbol.getSimplifyTolerance() > 0
+                || _symbol.getModifierMap().containsKey(MultiPointHandler.SYMBOL_FILL_IDS)
+                || _symbol.getModifierMap().containsKey(MultiPointHandler.SYMBOL_LINE_IDS)
+                || MultiPointHandler.ShouldClipSymbol(_symbolCode))
+            return null;
+
+        ArrayList<ShapeInfo> shapes = _symbol.getSymbolShapes();
+        if(shapes == null || shapes.size() != 1)
+            return null;
+        ArrayList<ArrayList<Point2D>> polylines = shapes.get(0).getPolylines();
+        if(polylines == null || polylines.size() != 1)
+            return null;
+
+        ArrayList<Point2D> line = polylines.get(0);
+        ArrayList<Point2D.Double> points = _symbol.getCoordinates();
+        if(line.size() != points.size())
+            return null;
+        for(int i = 0; i < line.size(); i++)
+        {
+            Point2D.Double geo = points.get(i);
+            if(isInBounds(geo.getX(), geo.getY()) == false
+                    || line.get(i).equals(toLinePoint(geo)) == false)
+                return null;
+        }
+        return line;
+    }
+
+    /**
+     * Segments that leave the bbox can be split by the renderer, so the
+     * fast path only takes points inside it.
+     */
+    private boolean isInBounds(double longitude, double latitude)
+    {
+        return longitude >= _left && longitude <= _right
+                && latitude >= _bottom && latitude <= _top;
+    }
+
+    /**
+     * Rendered lines come back from a GeneralPath, so their pixels are
+     * floats.
+     */
+    private Point2D toLinePoint(Point2D geo)
+    {
+        Point2D pixel = _ipc.GeoToPixels(geo);
+        return new Point2D.Double((float) pixel.getX(), (float) pixel.getY());
+    }
+}
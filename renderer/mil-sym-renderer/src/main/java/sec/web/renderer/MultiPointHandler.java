@@ -7,6 +7,7 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -16,8 +17,12 @@ import java.util.Map;
 import sec.web.json.utilities.JSONArray;
 import sec.web.json.utilities.JSONException;
 import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
+import sec.web.renderer.utilities.CoordinateParser;
+import sec.web.renderer.utilities.CoordinateWriter;
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import sec.web.renderer.utilities.LineInfo;
+import sec.web.renderer.utilities.LineSimplifier;
 import sec.web.renderer.utilities.PNGInfo;
 import sec.web.renderer.utilities.SymbolInfo;
 import sec.web.renderer.utilities.TextInfo;
@@ -30,6 +35,7 @@ import ArmyC2.C2SD.Utilities.MilStdAttributes;
 import ArmyC2.C2SD.Utilities.MilStdSymbol;
 import ArmyC2.C2SD.Utilities.ModifiersTG;
 import ArmyC2.C2SD.Utilities.PointConversion;
+import ArmyC2.C2SD.Utilities.RendererProfile;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.ShapeInfo;
 import ArmyC2.C2SD.Utilities.SymbolDef;
@@ -85,9 +91,9 @@ public class MultiPointHandler {
     private final static String USE_PATTERN_FILL = "usePatternFill";
     private final static String PATTERN_FILL_TYPE = "patternFillType";
 
-    private final static String SYMBOL_FILL_ICON_SIZE = "symbolFillIconSize";
-    private final static String SYMBOL_FILL_IDS = "symbolFillIds";
-    private final static String SYMBOL_LINE_IDS = "symbolLineIds";
+    final static String SYMBOL_FILL_ICON_SIZE = "symbolFillIconSize";
+    final static String SYMBOL_FILL_IDS = "symbolFillIds";
+    final static String SYMBOL_LINE_IDS = "symbolLineIds";
 
     /**
      * 2525Bch2 and USAS 13/14 symbology
@@ -189,18 +195,17 @@ public class MultiPointHandler {
 //            else
 //                return null;
 
-            String[] coordinates = controlPoints.split(" ");
+            double[] coordinates = CoordinateParser.parseCoordinates(controlPoints);
             //ArrayList<Point2D.Double> geoCoords = new ArrayList();
-            int len = coordinates.length;
+            int len = coordinates.length / 2;
             int i = 0;
             left = Double.MAX_VALUE;
             right = -Double.MAX_VALUE;
             top = -Double.MAX_VALUE;
             bottom = Double.MAX_VALUE;
             for (i = 0; i < len; i++) {
-                String[] coordPair = coordinates[i].split(",");
-                Double latitude = Double.valueOf(coordPair[1].trim()).doubleValue();
-                Double longitude = Double.valueOf(coordPair[0].trim()).doubleValue();
+                double latitude = coordinates[i * 2 + 1];
+                double longitude = coordinates[i * 2];
                 //geoCoords.add(new Point2D.Double(longitude, latitude));
                 if (longitude < left) {
                     left = longitude;
@@ -227,11 +232,11 @@ public class MultiPointHandler {
         try {
             //we need to adjust the bounding box to at least include the symbol
             String bbox2 = getBoundingRectangle(controlPoints, bbox);
-            String[] bounds2 = bbox2.split(",");
-            double left = Double.valueOf(bounds2[0]).doubleValue();
-            double right = Double.valueOf(bounds2[2]).doubleValue();
-            double top = Double.valueOf(bounds2[3]).doubleValue();
-            double bottom = Double.valueOf(bounds2[1]).doubleValue();
+            double[] bounds2 = CoordinateParser.parseValues(bbox2);
+            double left = bounds2[0];
+            double right = bounds2[2];
+            double top = bounds2[3];
+            double bottom = bounds2[1];
             double width = Math.abs(right - left);
             double height = Math.abs(top - bottom);
             rect = new Rectangle.Double(left, top, width, height);
@@ -384,7 +389,7 @@ public class MultiPointHandler {
         return bbox;
     }
 
-    private static boolean crossesIDL(ArrayList<Point2D.Double> geoCoords) {
+    static boolean crossesIDL(ArrayList<Point2D.Double> geoCoords) {
         boolean result = false;
         Point2D pt2d = getControlPoint(geoCoords);
         double left = pt2d.getX();
@@ -517,11 +522,11 @@ public class MultiPointHandler {
     private static double getReasonableScale(String bbox, double origScale) {
         double scale = origScale;
         try {
-            String[] bounds = bbox.split(",");
-            double left = Double.valueOf(bounds[0]).doubleValue();
-            double right = Double.valueOf(bounds[2]).doubleValue();
-            double top = Double.valueOf(bounds[3]).doubleValue();
-            double bottom = Double.valueOf(bounds[1]).doubleValue();
+            double[] bounds = CoordinateParser.parseValues(bbox);
+            double left = bounds[0];
+            double right = bounds[2];
+            double top = bounds[3];
+            double bottom = bounds[1];
             //return a somewhat arbitrary scale value for unreasonable extents, i.e. 1000 is typical
             //earth circumference/2 meters * 39.3701 inches/meter * 96 pixels/inch * 1000 pixels wide
             //features will shrink as the globe gets shrinks less than 1000 pixels across
@@ -606,6 +611,40 @@ public class MultiPointHandler {
             String symbolModifiers,
             int format, int symStd)//,
     //ArrayList<ShapeInfo>shapes)
+    {
+        StringBuilder jsonOutput = new StringBuilder();
+        try {
+            RenderSymbol(id, name, description, symbolCode, controlPoints,
+                    scale, bbox, symbolModifiers, format, symStd, jsonOutput);
+        } catch (IOException ioe) {
+            //can't happen writing to a StringBuilder
+            ErrorLogger.LogException("MultiPointHandler", "RenderSymbol", ioe);
+        }
+        return jsonOutput.toString();
+    }
+
+    /**
+     * Same as RenderSymbol but writes the KML, JSON or GeoJSON straight to
+     * output instead of building a String, so large graphics don't need
+     * the whole document in memory.  If the symbol can't be rendered the
+     * error JSON is written instead, unless writing the document had already
+     * started on a stream that can't be rewound.
+     *
+     * @param output where the KML or JSON is written, like a Writer on the
+     * response stream.
+     * @throws IOException if output throws, or if rendering failed after
+     * writing to output other than a StringBuilder started
+     */
+    public static void RenderSymbol(String id,
+            String name,
+            String description,
+            String symbolCode,
+            String controlPoints,
+            Double scale,
+            String bbox,
+            String symbolModifiers,
+            int format, int symStd,
+            Appendable output) throws IOException
     {
         boolean debug = false;
         if (debug) {
@@ -627,8 +666,15 @@ public class MultiPointHandler {
         Double controlLong = 0.0;
         //Double metPerPix = GeoPixelConversion.metersPerPixel(scale);
         //String bbox2=getBoundingRectangle(controlPoints,bbox);
-        StringBuilder jsonOutput = new StringBuilder();
-        String jsonContent = null;
+        //a StringBuilder can be rewound so an error replaces partial output,
+        //anything else is passed through as is (so a Writer keeps
+        //CoordinateWriter's fast path) and writing marks when it's too late
+        //for the error to be written on its own
+        int outputStart = 0;
+        if (output instanceof StringBuilder) {
+            outputStart = ((StringBuilder) output).length();
+        }
+        boolean writing = false;
 
         Rectangle rect = null;
 
@@ -636,23 +682,14 @@ public class MultiPointHandler {
         ArrayList<JavaLineArray.POINT2> tgPoints = null;
         //ErrorLogger.LogMessage("MultiPointHandler", "RenderSymbol()", "enter RenderSymbol", Level.FINER);
 
-        String[] coordinates = controlPoints.split(" ");
         TGLight tgl = new TGLight();
         ArrayList<ShapeInfo> shapes = new ArrayList<ShapeInfo>();
         ArrayList<ShapeInfo> modifiers = new ArrayList<ShapeInfo>();
         //ArrayList<Point2D.Double> pixels = new ArrayList<Point2D.Double>();
         ArrayList<Point2D.Double> geoCoords = new ArrayList<Point2D.Double>();
-        int len = coordinates.length;
         //diagnostic create geoCoords here
         Point2D coordsUL = null;
-        for (int i = 0; i < len; i++) {
-            String[] coordPair = coordinates[i].split(",");
-            if (coordPair.length >= 2) {
-                Double latitude = Double.valueOf(coordPair[1].trim());
-                Double longitude = Double.valueOf(coordPair[0].trim());
-                geoCoords.add(new Point2D.Double(longitude, latitude));
-            }
-        }
+        geoCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(controlPoints));
 
         IPointConversion ipc = null;
 
@@ -672,20 +709,12 @@ public class MultiPointHandler {
         int j = 0;
         ArrayList<Point2D.Double> bboxCoords = null;
         if (bbox != null && bbox.equals("") == false) {
-            String[] bounds = null;
+            double[] bounds = null;
             if (bbox.contains(" "))//trapezoid
             {
-                bboxCoords = new ArrayList<Point2D.Double>();
                 double x = 0;
                 double y = 0;
-                String[] coords = bbox.split(" ");
-                String[] arrCoord;
-                for (String coord : coords) {
-                    arrCoord = coord.split(",");
-                    x = Double.valueOf(arrCoord[0]);
-                    y = Double.valueOf(arrCoord[1]);
-                    bboxCoords.add(new Point2D.Double(x, y));
-                }
+                bboxCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(bbox));
                 //use the upper left corner of the MBR containing geoCoords
                 //to set the converter
                 ptGeoUL = getGeoUL(bboxCoords);
@@ -714,11 +743,11 @@ public class MultiPointHandler {
                 }
             } else//rectangle
             {
-                bounds = bbox.split(",");
-                left = Double.valueOf(bounds[0]).doubleValue();
-                right = Double.valueOf(bounds[2]).doubleValue();
-                top = Double.valueOf(bounds[3]).doubleValue();
-                bottom = Double.valueOf(bounds[1]).doubleValue();
+                bounds = CoordinateParser.parseValues(bbox);
+                left = bounds[0];
+                right = bounds[2];
+                top = bounds[3];
+                bottom = bounds[1];
                 scale = getReasonableScale(bbox, scale);
                 ipc = new PointConverter(left, top, scale);
             }
@@ -854,14 +883,15 @@ public class MultiPointHandler {
             //check for required points & parameters
             String symbolIsValid = canRenderMultiPoint(mSymbol);
             if (symbolIsValid.equals("true") == false) {
-                String ErrorOutput = "";
-                ErrorOutput += ("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
-                ErrorOutput += (symbolIsValid + " - ");
-                ErrorOutput += ("\"}");
+                output.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
+                output.append(symbolIsValid + " - ");
+                output.append("\"}");
                 //ErrorLogger.LogMessage("MultiPointHandler","RenderSymbol",symbolIsValid,Level.WARNING);
-                return ErrorOutput;
+                return;
             }//*/
 
+            simplifyControlPoints(mSymbol, ipc);
+
             //get pixel values in case we need to do a fill.
             if (mSymbol.getModifierMap().containsKey(SYMBOL_FILL_IDS)
                     || mSymbol.getModifierMap().containsKey(SYMBOL_LINE_IDS)) {
@@ -900,12 +930,13 @@ public class MultiPointHandler {
             
             shapes = mSymbol.getSymbolShapes();
             modifiers = mSymbol.getModifierShapes();
+            simplifyPolylines(shapes, mSymbol.getSimplifyTolerance());
 
             if (format == 1) {
-                jsonOutput.append("{\"type\":\"symbol\",");
-                jsonContent = JSONize(shapes, modifiers, ipc, normalize);
-                jsonOutput.append(jsonContent);
-                jsonOutput.append("}");
+                writing = true;
+                output.append("{\"type\":\"symbol\",");
+                writeJSON(output, shapes, modifiers, ipc, normalize);
+                output.append("}");
             } else if (format == 0) {
 
                 Color textColor = null;
@@ -921,18 +952,11 @@ public class MultiPointHandler {
                     textColor = Color.white;//textColor = "#FFFFFFFF";
                 }
 
-                jsonContent = KMLize(id, name, description, symbolCode, shapes, modifiers, ipc, normalize, textColor);
-                jsonOutput.append(jsonContent);
-
                 //if there's a symbol fill or line pattern, add to KML//////////
+                String fillKML = null;
                 if (mSymbol.getModifierMap().containsKey(SYMBOL_FILL_IDS)
                         || mSymbol.getModifierMap().containsKey(SYMBOL_LINE_IDS)) {
-                    String fillKML = AddImageFillToKML(tgPoints, jsonContent, mSymbol, ipc, normalize);
-                    //if(fillKML != null && fillKML.equals("")==false)
-                    if (fillKML != null && !fillKML.isEmpty()) {
-                        //jsonContent = fillKML;
-                        jsonOutput.append(fillKML);
-                    }
+                    fillKML = GenerateImageFillKML(tgPoints, mSymbol, ipc, normalize);
 
                     // <editor-fold defaultstate="collapsed" desc="code moved to AddImageFillToKML">
                     /*
@@ -969,32 +993,35 @@ public class MultiPointHandler {
                     // </editor-fold>
                 }///end if symbol fill or line pattern//////////////////////////
 
-                //jsonOutput.append(jsonContent);
+                writing = true;
+                writeKML(output, id, name, description, symbolCode, shapes, modifiers, ipc, normalize, textColor, mSymbol.getRendererProfile().getKMLLabelScale(), null, fillKML);
             } else if (format == 2) {
-                jsonOutput.append("{\"type\":\"FeatureCollection\",\"features\":");
-                jsonContent = GeoJSONize(shapes, modifiers, ipc, normalize, mSymbol.getTextColor(), mSymbol.getTextBackgroundColor());
-                jsonOutput.append(jsonContent);
-                jsonOutput.append(",\"properties\":{\"id\":\"");
-                jsonOutput.append(id);
-                jsonOutput.append("\",\"name\":\"");
-                jsonOutput.append(name);
-                jsonOutput.append("\",\"description\":\"");
-                jsonOutput.append(description);
-                jsonOutput.append("\",\"symbolID\":\"");
-                jsonOutput.append(symbolCode);
-                jsonOutput.append("\",\"wasClipped\":\"");
-                jsonOutput.append(String.valueOf(mSymbol.get_WasClipped()));
-                jsonOutput.append("\"}}");
-
-            }
-
+                writing = true;
+                output.append("{\"type\":\"FeatureCollection\",\"features\":");
+                writeGeoJSON(output, shapes, modifiers, ipc, normalize, mSymbol.getTextColor(), mSymbol.getTextBackgroundColor());
+                output.append(",\"properties\":{\"id\":\"");
+                output.append(id);
+                output.append("\",\"name\":\"");
+                output.append(name);
+                output.append("\",\"description\":\"");
+                output.append(description);
+                output.append("\",\"symbolID\":\"");
+                output.append(symbolCode);
+                output.append("\",\"wasClipped\":\"");
+                output.append(String.valueOf(mSymbol.get_WasClipped()));
+                output.append("\"}}");
+
+            }
+
+        } catch (IOException ioe) {
+            throw ioe;
         } catch (Exception exc) {
             String st = JavaRendererUtilities.getStackTrace(exc);
-            jsonOutput = new StringBuilder();
-            jsonOutput.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
-            jsonOutput.append(exc.getMessage() + " - ");
-            jsonOutput.append(st);
-            jsonOutput.append("\"}");
+            discardPartialOutput(output, outputStart, writing, exc);
+            output.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
+            output.append(exc.getMessage() + " - ");
+            output.append(st);
+            output.append("\"}");
 
             //ErrorLogger.LogException("MultiPointHandler", "RenderSymbol", exc);
         }
@@ -1018,26 +1045,97 @@ public class MultiPointHandler {
             if (rect != null) {
                 System.out.println("pixel bounds: " + rect.toString());
             }
-            if (jsonOutput != null) {
-                System.out.println(jsonOutput.toString());
+            if (output != null) {
+                System.out.println(output.toString());
             }
         }
 
         //ErrorLogger.LogMessage("MultiPointHandler", "RenderSymbol()", "exit RenderSymbol", Level.FINER);
-        return jsonOutput.toString();
+    }
+
+    /**
+     * Drops control points of lines and areas that are closer than the
+     * symbol's simplify tolerance, in pixels at the converter's scale, to the
+     * simplified line.  Graphics whose points have set roles (arrows, routes,
+     * autoshapes) are left alone, and nothing is dropped if it would leave
+     * fewer points than the graphic needs.
+     */
+    private static void simplifyControlPoints(MilStdSymbol symbol, IPointConversion ipc) {
+        double tolerance = symbol.getSimplifyTolerance();
+        ArrayList<Point2D.Double> geoCoords = symbol.getCoordinates();
+        if (tolerance <= 0 || geoCoords == null || geoCoords.size() < 3) {
+            return;
+        }
+
+        int minPoints = 2;
+        String symbolID = symbol.getSymbolID();
+        int symStd = symbol.getSymbologyStandard();
+        int linetype = JavaLineArray.CELineArray.CGetLinetypeFromString(symbolID, symStd);
+        if (linetype != TacticalLines.BS_LINE && linetype != TacticalLines.BS_AREA
+                && linetype != TacticalLines.BBS_LINE && linetype != TacticalLines.BBS_AREA) {
+            String basicID = SymbolUtilities.getBasicSymbolID(symbolID);
+            SymbolDef sd = null;
+            if (SymbolDefTable.getInstance().HasSymbolDef(basicID, symStd)) {
+                sd = SymbolDefTable.getInstance().getSymbolDef(basicID, symStd);
+            }
+            if (sd == null || (sd.getDrawCategory() != SymbolDef.DRAW_CATEGORY_LINE
+                    && sd.getDrawCategory() != SymbolDef.DRAW_CATEGORY_POLYGON)) {
+                return;
+            }
+            minPoints = Math.max(minPoints, sd.getMinPoints());
+        }
 
+        int count = geoCoords.size();
+        ArrayList<Point2D> pixels = new ArrayList<Point2D>(count);
+        for (int k = 0; k < count; k++) {
+            pixels.add(ipc.GeoToPixels(geoCoords.get(k)));
+        }
+        boolean[] keep = LineSimplifier.mark(pixels, tolerance);
+        if (keep == null) {
+            return;
+        }
+
+        ArrayList<Point2D.Double> simplified = new ArrayList<Point2D.Double>();
+        for (int k = 0; k < count; k++) {
+            if (keep[k]) {
+                simplified.add(geoCoords.get(k));
+            }
+        }
+        if (simplified.size() < count && simplified.size() >= minPoints) {
+            symbol.setCoordinates(simplified);
+        }
+    }
+
+    /**
+     * Simplifies the rendered polylines, which are in pixels, so points that
+     * can't be told apart at this scale aren't written out.
+     */
+    private static void simplifyPolylines(ArrayList<ShapeInfo> shapes, double tolerance) {
+        if (tolerance <= 0 || shapes == null) {
+            return;
+        }
+        for (ShapeInfo shape : shapes) {
+            ArrayList<ArrayList<Point2D>> polylines = shape.getPolylines();
+            if (polylines == null) {
+                continue;
+            }
+            for (int k = 0; k < polylines.size(); k++) {
+                polylines.set(k, LineSimplifier.simplify(polylines.get(k), tolerance));
+            }
+        }
     }
 
     /**
      *
      * @param tgPoints
-     * @param jsonContent
      * @param mSymbol
      * @param ipc
      * @param normalize
+     * @return GroundOverlay KML for the symbol fill or line pattern, null if
+     * there are no points.
      */
-    static private String AddImageFillToKML(ArrayList<JavaLineArray.POINT2> tgPoints,
-            String jsonContent, MilStdSymbol mSymbol, IPointConversion ipc, Boolean normalize) {
+    static private String GenerateImageFillKML(ArrayList<JavaLineArray.POINT2> tgPoints,
+            MilStdSymbol mSymbol, IPointConversion ipc, Boolean normalize) {
         if (tgPoints == null || tgPoints.size() == 0) {
             return null;
         }
@@ -1061,14 +1159,7 @@ public class MultiPointHandler {
         //get url for the fill or line pattern PNG
         String goImageUrl = SECWebRenderer.GenerateSymbolLineFillUrl(mSymbol.getModifierMap(), pixelPoints, rect);
         //generate the extra KML needed to insert the image
-        String goKML = GenerateGroundOverlayKML(goImageUrl, ipc, rect, normalize);
-        goKML += "</Folder>";
-
-        //StringBuilder sb = new StringBuilder();
-        //sb.replace(start, end, str)
-        jsonContent = jsonContent.replace("</Folder>", goKML);
-
-        return jsonContent;
+        return GenerateGroundOverlayKML(goImageUrl, ipc, rect, normalize);
     }
 
     static public PNGInfo GenerateImageFillPNGInfo(ArrayList<JavaLineArray.POINT2> tgPoints,
@@ -1092,29 +1183,18 @@ public class MultiPointHandler {
         Rectangle rect = path.getBounds();
         double centerX = rect.getCenterX();
         double centerY = rect.getCenterY();
-        //get url for the fill or line pattern PNG
-        String goImageUrl = SECWebRenderer.GenerateSymbolLineFillUrl(mSymbol.getModifierMap(), pixelPoints, rect);
-
-        //System.out.println("fillURL: " + goImageUrl);
-        Map<String, String> params = SinglePointRendererService.getInstance().processParams(goImageUrl);
-
-        //System.out.println("params:");
-        //System.out.println(ErrorLogger.PrintStringMap(params));
-        ISinglePointInfo spi = SinglePointRendererService.getInstance().render(params.get("RENDERER"), "AREASYMBOLFILL", params);
-        PNGInfo pi = new PNGInfo(spi);
+        //render the fill or line pattern PNG
+        SymbolFill symbolFill = SymbolFill.fromModifiers(mSymbol.getModifierMap(), mSymbol.getSymbologyStandard(), pixelPoints, rect);
+        ISinglePointInfo spi = AreaSymbolFill.renderSymbolFill(symbolFill);
+        PNGInfo pi = null;
 
         //get extents for image fill////////////////////////////////////////////
         Point2D topLeft = null;
         Point2D bottomRight = null;
         Rectangle2D bounds = path.getBounds2D();
-        double imageSize = 0;
-        if (params.containsKey(AreaSymbolFill.KEY_SYMBOL_FILL_ICON_SIZE)) {
-            imageSize = Double.valueOf(params.get(AreaSymbolFill.KEY_SYMBOL_FILL_ICON_SIZE));
-        } else {
-            imageSize = (double) AreaSymbolFill.DEFAULT_SYMBOL_SIZE;
-        }
+        double imageSize = symbolFill.getIconSize();
         double imageOffset = 0;
-        if (params.containsKey(AreaSymbolFill.KEY_SYMBOL_LINE_IDS)) {
+        if (symbolFill.getLineIDs() != null) {
             imageOffset = (imageSize / 2) + 3;//+3 to make room for rotation
         }
 
@@ -1282,13 +1362,11 @@ public class MultiPointHandler {
         ArrayList<JavaLineArray.POINT2> tgPoints = null;
         //ErrorLogger.LogMessage("MultiPointHandler", "RenderSymbol()", "enter RenderSymbol", Level.FINER);
 
-        String[] coordinates = controlPoints.split(" ");
         TGLight tgl = new TGLight();
         ArrayList<ShapeInfo> shapes = new ArrayList<ShapeInfo>();
         ArrayList<ShapeInfo> modifiers = new ArrayList<ShapeInfo>();
         //ArrayList<Point2D.Double> pixels = new ArrayList<Point2D.Double>();
         ArrayList<Point2D.Double> geoCoords = new ArrayList<Point2D.Double>();
-        int len = coordinates.length;
 
         IPointConversion ipc = null;
 
@@ -1308,20 +1386,12 @@ public class MultiPointHandler {
         int j = 0;
         ArrayList<Point2D.Double> bboxCoords = null;
         if (bbox != null && bbox.equals("") == false) {
-            String[] bounds = null;
+            double[] bounds = null;
             if (bbox.contains(" "))//trapezoid
             {
-                bboxCoords = new ArrayList<Point2D.Double>();
                 double x = 0;
                 double y = 0;
-                String[] coords = bbox.split(" ");
-                String[] arrCoord;
-                for (String coord : coords) {
-                    arrCoord = coord.split(",");
-                    x = Double.valueOf(arrCoord[0]);
-                    y = Double.valueOf(arrCoord[1]);
-                    bboxCoords.add(new Point2D.Double(x, y));
-                }
+                bboxCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(bbox));
                 //use the upper left corner of the MBR containing geoCoords
                 //to set the converter
                 ptGeoUL = getGeoUL(bboxCoords);
@@ -1348,11 +1418,11 @@ public class MultiPointHandler {
                 }
             } else//rectangle
             {
-                bounds = bbox.split(",");
-                left = Double.valueOf(bounds[0]).doubleValue();
-                right = Double.valueOf(bounds[2]).doubleValue();
-                top = Double.valueOf(bounds[3]).doubleValue();
-                bottom = Double.valueOf(bounds[1]).doubleValue();
+                bounds = CoordinateParser.parseValues(bbox);
+                left = bounds[0];
+                right = bounds[2];
+                top = bounds[3];
+                bottom = bounds[1];
                 scale = getReasonableScale(bbox, scale);
                 ipc = new PointConverter(left, top, scale);
             }
@@ -1426,14 +1496,7 @@ public class MultiPointHandler {
         }
         //end section
 
-        for (int i = 0; i < len; i++) {
-            String[] coordPair = coordinates[i].split(",");
-            if (coordPair.length >= 2) {
-                Double latitude = Double.valueOf(coordPair[1].trim());
-                Double longitude = Double.valueOf(coordPair[0].trim());
-                geoCoords.add(new Point2D.Double(longitude, latitude));
-            }
-        }
+        geoCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(controlPoints));
         if (ipc == null) {
             Point2D ptCoordsUL = getGeoUL(geoCoords);
             ipc = new PointConverter(ptCoordsUL.getX(), ptCoordsUL.getY(), scale);
@@ -1715,19 +1778,41 @@ public class MultiPointHandler {
             int format, int symStd)//,
     //ArrayList<ShapeInfo>shapes)
     {
-
         StringBuilder jsonOutput = new StringBuilder();
-        String jsonContent = "";
-
-        Rectangle rect = null;
+        try {
+            RenderSymbol2D(id, name, description, symbolCode, controlPoints,
+                    pixelWidth, pixelHeight, bbox, symbolModifiers, format, symStd, jsonOutput);
+        } catch (IOException ioe) {
+            //can't happen writing to a StringBuilder
+            ErrorLogger.LogException("MultiPointHandler", "RenderSymbol2D", ioe);
+        }
+        return jsonOutput.toString();
+    }
 
-        ArrayList<JavaLineArray.POINT2> tgPoints = null;
+    /**
+     * Same as RenderSymbol2D but writes the KML, JSON or GeoJSON straight to
+     * output instead of building a String.  If the symbol can't be rendered
+     * the error message is written instead, unless writing the document had
+     * already started on a stream that can't be rewound.
+     *
+     * @param output where the KML or JSON is written, like a Writer on the
+     * response stream.
+     * @throws IOException if output throws, or if rendering failed after
+     * writing to output other than a StringBuilder started
+     */
+    public static void RenderSymbol2D(String id,
+            String name,
+            String description,
+            String symbolCode,
+            String controlPoints,
+            int pixelWidth,
+            int pixelHeight,
+            String bbox,
+            String symbolModifiers,
+            int format, int symStd,
+            Appendable output) throws IOException
+    {
 
-        String[] coordinates = controlPoints.split(" ");
-        TGLight tgl = new TGLight();
-        ArrayList<ShapeInfo> shapes = new ArrayList<ShapeInfo>();
-        ArrayList<ShapeInfo> modifiers = new ArrayList<ShapeInfo>();
-        ArrayList<Point2D.Double> geoCoords = new ArrayList<Point2D.Double>();
         IPointConversion ipc = null;
 
         //Deutch moved section 6-29-11
@@ -1736,33 +1821,80 @@ public class MultiPointHandler {
         Double top = 0.0;
         Double bottom = 0.0;
         if (bbox != null && bbox.equals("") == false) {
-            String[] bounds = bbox.split(",");
+            double[] bounds = CoordinateParser.parseValues(bbox);
 
-            left = Double.valueOf(bounds[0]).doubleValue();
-            right = Double.valueOf(bounds[2]).doubleValue();
-            top = Double.valueOf(bounds[3]).doubleValue();
-            bottom = Double.valueOf(bounds[1]).doubleValue();
+            left = bounds[0];
+            right = bounds[2];
+            top = bounds[3];
+            bottom = bounds[1];
 
             ipc = new PointConversion(pixelWidth, pixelHeight, top, left, bottom, right);
         } else {
             System.out.println("Bad bbox value: " + bbox);
             System.out.println("bbox is viewable area of the map.  Passed in the format of a string \"lowerLeftX,lowerLeftY,upperRightX,upperRightY.\" example: \"-50.4,23.6,-42.2,24.2\"");
-            return "ERROR - Bad bbox value: " + bbox;
+            output.append("ERROR - Bad bbox value: " + bbox);
+            return;
         }
         //end section
 
         //get coordinates
-        int len = coordinates.length;
-        for (int i = 0; i < len; i++) {
-            String[] coordPair = coordinates[i].split(",");
-            if (coordPair.length >= 2) {
-                Double latitude = Double.valueOf(coordPair[1].trim());
-                Double longitude = Double.valueOf(coordPair[0].trim());
-                geoCoords.add(new Point2D.Double(longitude, latitude));
+        double[] coordinates = CoordinateParser.parseCoordinates(controlPoints);
+
+        renderSymbol2D(id, name, description, symbolCode, coordinates, ipc,
+                left, top, right, bottom, symbolModifiers, format, symStd, output);
+
+        boolean debug = false;
+        if (debug == true) {
+            System.out.println("Symbol Code: " + symbolCode);
+            System.out.println("BBOX: " + bbox);
+            if (controlPoints != null) {
+                System.out.println("Geo Points: " + controlPoints);
             }
+            if (output != null) {
+                System.out.println(output.toString());
+            }
+        }
+
+    }
+
+    /**
+     * The part of RenderSymbol2D after the bbox and control points are
+     * parsed.  MultiPointEditSession calls this directly so it can keep the
+     * rendered symbol between edits.
+     *
+     * @param coordinates {lon0,lat0,lon1,lat1...} from
+     * CoordinateParser.parseCoordinates
+     * @return the rendered symbol, or null if an error was written instead
+     */
+    static MilStdSymbol renderSymbol2D(String id,
+            String name,
+            String description,
+            String symbolCode,
+            double[] coordinates,
+            IPointConversion ipc,
+            double left, double top, double right, double bottom,
+            String symbolModifiers,
+            int format, int symStd,
+            Appendable output) throws IOException
+    {
+        //a StringBuilder can be rewound so an error replaces partial output,
+        //anything else is passed through as is (so a Writer keeps
+        //CoordinateWriter's fast path) and writing marks when it's too late
+        //for the error to be written on its own
+        int outputStart = 0;
+        if (output instanceof StringBuilder) {
+            outputStart = ((StringBuilder) output).length();
         }
+        boolean writing = false;
+
+        Rectangle rect = null;
+
+        ArrayList<JavaLineArray.POINT2> tgPoints = null;
+
+        TGLight tgl = new TGLight();
 
         try {
+            ArrayList<Point2D.Double> geoCoords = CoordinateParser.toPoints(coordinates);
             MilStdSymbol mSymbol = new MilStdSymbol(symbolCode, null, geoCoords, null);
             mSymbol.setUseDashArray(false);
             //set milstd symbology standard.
@@ -1782,7 +1914,6 @@ public class MultiPointHandler {
             int rightX;
             int width;
             int height;
-            boolean normalize = true;
 //            if(Math.abs(right-left)>180)
 //            {
 //                ((PointConversion)ipc).set_normalize(true);                
@@ -1811,14 +1942,15 @@ public class MultiPointHandler {
             //check for required points & parameters
             String symbolIsValid = canRenderMultiPoint(mSymbol);
             if (symbolIsValid.equals("true") == false) {
-                String ErrorOutput = "";
-                ErrorOutput += ("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
-                ErrorOutput += (symbolIsValid + " - ");
-                ErrorOutput += ("\"}");
+                output.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
+                output.append(symbolIsValid + " - ");
+                output.append("\"}");
                 //ErrorLogger.LogMessage("MultiPointHandler","RenderSymbol",symbolIsValid,Level.WARNING);
-                return ErrorOutput;
+                return null;
             }//*/
 
+            simplifyControlPoints(mSymbol, ipc);
+
             if (mSymbol.getModifierMap().containsKey(SYMBOL_FILL_IDS)
                     || mSymbol.getModifierMap().containsKey(SYMBOL_LINE_IDS)) {
                 tgl = clsRenderer.createTGLightFromMilStdSymbol(mSymbol, ipc);
@@ -1832,102 +1964,108 @@ public class MultiPointHandler {
             //new interface
             IMultiPointRenderer mpr = MultiPointRenderer.getInstance();
             mpr.renderWithPolylines(mSymbol, ipc, rect);
-            shapes = mSymbol.getSymbolShapes();
-            modifiers = mSymbol.getModifierShapes();
+            simplifyPolylines(mSymbol.getSymbolShapes(), mSymbol.getSimplifyTolerance());
 
-            //boolean normalize = false;
-            if (format == 1) {
-                jsonOutput.append("{\"type\":\"symbol\",");
-                jsonContent = JSONize(shapes, modifiers, ipc, normalize);
-                jsonOutput.append(jsonContent);
-                jsonOutput.append("}");
-            } else if (format == 0) {
-                String fillColor = null;
-                if (mSymbol.getFillColor() != null) {
-                    fillColor = Integer.toHexString(mSymbol.getFillColor().getRGB());//Integer.toHexString(shapeInfo.getFillColor().getRGB()
-                }
-                Color textColor = null;
+            writing = true;
+            writeSymbol2D(output, id, name, description, symbolCode, mSymbol, tgPoints, geoCoords, ipc, format);
+            return mSymbol;
 
-                textColor = mSymbol.getTextColor();
-                String hexColor = SymbolUtilities.colorToHexString(textColor, true);
-                if (hexColor.equals("#FF000000"))//black
-                {
-                    textColor = Color.white;//textColor = "#FFFFFFFF";
-                }
-                jsonContent = KMLize(id, name, description, symbolCode, shapes, modifiers, ipc, normalize, textColor);
-                jsonOutput.append(jsonContent);
+        } catch (IOException ioe) {
+            throw ioe;
+        } catch (Exception exc) {
+            discardPartialOutput(output, outputStart, writing, exc);
+            output.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
+            output.append(exc.getMessage() + " - ");
+            //output.append(ErrorLogger.getStackTrace(exc));
+            output.append("\"}");
+            return null;
+        }
+    }
 
-                //if there's a symbol fill or line pattern, add to KML//////////
-                if (mSymbol.getModifierMap().containsKey(SYMBOL_FILL_IDS)
-                        || mSymbol.getModifierMap().containsKey(SYMBOL_LINE_IDS)) {
-                    String fillKML = AddImageFillToKML(tgPoints, jsonContent, mSymbol, ipc, normalize);
-                    //if(fillKML != null && fillKML.equals("")==false)
-                    if (fillKML != null && !fillKML.isEmpty()) {
-                        //jsonContent = fillKML;
-                        jsonOutput.append(fillKML);
-                    }
-                }///end if symbol fill or line pattern//////////////////////////
+    /**
+     * Drops partial output before the error JSON is written.  A
+     * StringBuilder is rewound; a stream that writing already started on
+     * can't be, so the error is thrown rather than appended to broken KML
+     * or JSON.
+     */
+    private static void discardPartialOutput(Appendable output, int outputStart, boolean writing, Exception exc) throws IOException {
+        if (output instanceof StringBuilder) {
+            ((StringBuilder) output).setLength(outputStart);
+        } else if (writing) {
+            throw new IOException("Rendering failed after output was written: " + exc.getMessage(), exc);
+        }
+    }
 
-                //jsonOutput.append(jsonContent);
-                if (mSymbol.getModifierMap().containsKey(MilStdAttributes.LookAtTag)
-                        && mSymbol.getModifierMap().get(MilStdAttributes.LookAtTag).toLowerCase().equals("true")) {
-                    String LookAtTag = JavaRendererUtilities.generateLookAtTag(geoCoords, mSymbol.getModifiers_AM_AN_X(ModifiersTG.X_ALTITUDE_DEPTH));
-                    if (LookAtTag != null && LookAtTag.endsWith("</LookAt>") == true) {
-                        int idx = jsonContent.indexOf("<visibility>");
-                        jsonContent = jsonContent.substring(0, idx) + LookAtTag + jsonContent.substring(idx);
-                    }
-                }
-            } else if (format == 2) {
-                jsonOutput.append("{\"type\":\"FeatureCollection\",\"features\":");
-                jsonContent = GeoJSONize(shapes, modifiers, ipc, normalize, mSymbol.getTextColor(), mSymbol.getTextBackgroundColor());
-                jsonOutput.append(jsonContent);
-                jsonOutput.append(",\"properties\":{\"id\":\"");
-                jsonOutput.append(id);
-                jsonOutput.append("\",\"name\":\"");
-                jsonOutput.append(name);
-                jsonOutput.append("\",\"description\":\"");
-                jsonOutput.append(description);
-                jsonOutput.append("\",\"symbolID\":\"");
-                jsonOutput.append(symbolCode);
-                jsonOutput.append("\",\"wasClipped\":\"");
-                jsonOutput.append(String.valueOf(mSymbol.get_WasClipped()));
-                jsonOutput.append("\"}}");
+    /**
+     * Writes a symbol rendered by renderSymbol2D in the requested format.
+     *
+     * @param tgPoints clipped pixels for a symbol fill or line pattern, only
+     * read when the symbol has SYMBOL_FILL_IDS or SYMBOL_LINE_IDS
+     */
+    static void writeSymbol2D(Appendable output,
+            String id,
+            String name,
+            String description,
+            String symbolCode,
+            MilStdSymbol mSymbol,
+            ArrayList<JavaLineArray.POINT2> tgPoints,
+            ArrayList<Point2D.Double> geoCoords,
+            IPointConversion ipc,
+            int format) throws IOException
+    {
+        ArrayList<ShapeInfo> shapes = mSymbol.getSymbolShapes();
+        ArrayList<ShapeInfo> modifiers = mSymbol.getModifierShapes();
+        boolean normalize = true;
 
+        if (format == 1) {
+            output.append("{\"type\":\"symbol\",");
+            writeJSON(output, shapes, modifiers, ipc, normalize);
+            output.append("}");
+        } else if (format == 0) {
+            String fillColor = null;
+            if (mSymbol.getFillColor() != null) {
+                fillColor = Integer.toHexString(mSymbol.getFillColor().getRGB());//Integer.toHexString(shapeInfo.getFillColor().getRGB()
             }
+            Color textColor = null;
 
-        } catch (Exception exc) {
-            jsonOutput = new StringBuilder();
-            jsonOutput.append("{\"type\":\"error\",\"error\":\"There was an error creating the MilStdSymbol " + symbolCode + ": " + "- ");
-            jsonOutput.append(exc.getMessage() + " - ");
-            //jsonOutput.append(ErrorLogger.getStackTrace(exc));
-            jsonOutput.append("\"}");
-        }
-
-        boolean debug = false;
-        if (debug == true) {
-            System.out.println("Symbol Code: " + symbolCode);
-            System.out.println("BBOX: " + bbox);
-            if (controlPoints != null) {
-                System.out.println("Geo Points: " + controlPoints);
-            }
-            if (tgl != null && tgl.get_Pixels() != null)//pixels != null
+            textColor = mSymbol.getTextColor();
+            String hexColor = SymbolUtilities.colorToHexString(textColor, true);
+            if (hexColor.equals("#FF000000"))//black
             {
-                //System.out.println("Pixel: " + pixels.toString());
-                System.out.println("Pixel: " + tgl.get_Pixels().toString());
+                textColor = Color.white;//textColor = "#FFFFFFFF";
             }
-            if (bbox != null) {
-                System.out.println("geo bounds: " + bbox);
-            }
-            if (rect != null) {
-                System.out.println("pixel bounds: " + rect.toString());
-            }
-            if (jsonOutput != null) {
-                System.out.println(jsonOutput.toString());
+            //if there's a symbol fill or line pattern, add to KML//////////
+            String fillKML = null;
+            if (mSymbol.getModifierMap().containsKey(SYMBOL_FILL_IDS)
+                    || mSymbol.getModifierMap().containsKey(SYMBOL_LINE_IDS)) {
+                fillKML = GenerateImageFillKML(tgPoints, mSymbol, ipc, normalize);
+            }///end if symbol fill or line pattern//////////////////////////
+
+            String LookAtTag = null;
+            if (mSymbol.getModifierMap().containsKey(MilStdAttributes.LookAtTag)
+                    && mSymbol.getModifierMap().get(MilStdAttributes.LookAtTag).toLowerCase().equals("true")) {
+                LookAtTag = JavaRendererUtilities.generateLookAtTag(geoCoords, mSymbol.getModifiers_AM_AN_X(ModifiersTG.X_ALTITUDE_DEPTH));
+                if (LookAtTag != null && LookAtTag.endsWith("</LookAt>") == false) {
+                    LookAtTag = null;
+                }
             }
-        }
-
-        return jsonOutput.toString();
+            writeKML(output, id, name, description, symbolCode, shapes, modifiers, ipc, normalize, textColor, mSymbol.getRendererProfile().getKMLLabelScale(), LookAtTag, fillKML);
+        } else if (format == 2) {
+            output.append("{\"type\":\"FeatureCollection\",\"features\":");
+            writeGeoJSON(output, shapes, modifiers, ipc, normalize, mSymbol.getTextColor(), mSymbol.getTextBackgroundColor());
+            output.append(",\"properties\":{\"id\":\"");
+            output.append(id);
+            output.append("\",\"name\":\"");
+            output.append(name);
+            output.append("\",\"description\":\"");
+            output.append(description);
+            output.append("\",\"symbolID\":\"");
+            output.append(symbolCode);
+            output.append("\",\"wasClipped\":\"");
+            output.append(String.valueOf(mSymbol.get_WasClipped()));
+            output.append("\"}}");
 
+        }
     }
 
     /**
@@ -2112,11 +2250,9 @@ public class MultiPointHandler {
     {
 
         StringBuilder jsonOutput = new StringBuilder();
-        String jsonContent = "";
 
         Rectangle rect = null;
 
-        String[] coordinates = controlPoints.split(" ");
         TGLight tgl = new TGLight();
         //ArrayList<ShapeInfo> shapes = new ArrayList<ShapeInfo>();
         //ArrayList<ShapeInfo> modifiers = new ArrayList<ShapeInfo>();
@@ -2129,12 +2265,12 @@ public class MultiPointHandler {
         Double top = 0.0;
         Double bottom = 0.0;
         if (bbox != null && bbox.equals("") == false) {
-            String[] bounds = bbox.split(",");
+            double[] bounds = CoordinateParser.parseValues(bbox);
 
-            left = Double.valueOf(bounds[0]).doubleValue();
-            right = Double.valueOf(bounds[2]).doubleValue();
-            top = Double.valueOf(bounds[3]).doubleValue();
-            bottom = Double.valueOf(bounds[1]).doubleValue();
+            left = bounds[0];
+            right = bounds[2];
+            top = bounds[3];
+            bottom = bounds[1];
 
             ipc = new PointConversion(pixelWidth, pixelHeight, top, left, bottom, right);
         } else {
@@ -2145,15 +2281,7 @@ public class MultiPointHandler {
         //end section
 
         //get coordinates
-        int len = coordinates.length;
-        for (int i = 0; i < len; i++) {
-            String[] coordPair = coordinates[i].split(",");
-            if (coordPair.length >= 2) {
-                Double latitude = Double.valueOf(coordPair[1].trim());
-                Double longitude = Double.valueOf(coordPair[0].trim());
-                geoCoords.add(new Point2D.Double(longitude, latitude));
-            }
-        }
+        geoCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(controlPoints));
 
         try {
             MilStdSymbol mSymbol = new MilStdSymbol(symbolCode, null, geoCoords, null);
@@ -2177,16 +2305,14 @@ public class MultiPointHandler {
 
             if (format == 1) {
                 jsonOutput.append("{\"type\":\"symbol\",");
-                jsonContent = JSONize(shapes, modifiers, ipc, normalize);
-                jsonOutput.append(jsonContent);
+                writeJSON(jsonOutput, shapes, modifiers, ipc, normalize);
                 jsonOutput.append("}");
             } else if (format == 0) {
                 String fillColor = null;
                 if (mSymbol.getFillColor() != null) {
                     fillColor = Integer.toHexString(mSymbol.getFillColor().getRGB());//Integer.toHexString(shapeInfo.getFillColor().getRGB()
                 }
-                jsonContent = KMLize(id, name, description, symbolCode, shapes, modifiers, ipc, normalize, mSymbol.getLineColor());
-                jsonOutput.append(jsonContent);
+                writeKML(jsonOutput, id, name, description, symbolCode, shapes, modifiers, ipc, normalize, mSymbol.getLineColor(), mSymbol.getRendererProfile().getKMLLabelScale(), null, null);
             }
 
         } catch (Exception exc) {
@@ -2499,7 +2625,7 @@ public class MultiPointHandler {
      * @param symbol An existing MilStdSymbol
      * @return
      */
-    private static boolean populateModifiers(String jsonString, MilStdSymbol symbol) {
+    static boolean populateModifiers(String jsonString, MilStdSymbol symbol) {
         //ErrorLogger.LogMessage(String.valueOf(rect), Boolean.TRUE);
         // Stores label modifiers for MilStdSymbol
         Map<String, String> modifierMap = new HashMap<String, String>();
@@ -2521,223 +2647,55 @@ public class MultiPointHandler {
         int patternFillType = 0;
         String altMode = null;
         boolean hideOptionalLabels = false;
+        double simplifyTolerance = 0;
+        RendererProfile profile = null;
 
         String symbolFillIDs = null;
         String symbolFillIconSize = null;
 
         try {
 
-            JSONObject jsonModifiersString = new JSONObject(jsonString);
-            JSONObject jsonModifiersArray = null;
-            if (jsonModifiersString.has("modifiers")) {
-                jsonModifiersArray = jsonModifiersString.getJSONObject("modifiers");
-            } else {
-                jsonModifiersArray = jsonModifiersString;
-            }
-
-            // The following attirubtes are labels.  All of them
-            // are strings and can be added on the creation of the
-            // MilStdSymbol by adding to a Map and passing in the
-            // modifiers parameter.
-            if (jsonModifiersArray.has(QUANTITY) && !jsonModifiersArray.isNull(QUANTITY)) {
-                modifierMap.put(ModifiersTG.C_QUANTITY, jsonModifiersArray.getString(QUANTITY));
-            } else if (jsonModifiersArray.has(ModifiersTG.C_QUANTITY) && !jsonModifiersArray.isNull(ModifiersTG.C_QUANTITY)) {
-                modifierMap.put(ModifiersTG.C_QUANTITY, jsonModifiersArray.getString(ModifiersTG.C_QUANTITY));
-            }
-            //                if (jsonModifiersArray.has(REINFORCE_OR_REDUCED)) {
-            //                    modifierMap.put(ModifiersTG.REINFORCE_OR_REDUCED, jsonModifiersArray.getString(REINFORCE_OR_REDUCED));
-            //                }
-            //                if (jsonModifiersArray.has(STAFF_COMMENTS)) {
-            //                    modifierMap.put(STAFF_COMMENTS, jsonModifiersArray.getString(STAFF_COMMENTS));
-            //                }
-            if (jsonModifiersArray.has(ADDITIONAL_INFO_1) && !jsonModifiersArray.isNull(ADDITIONAL_INFO_1)) {
-                modifierMap.put(ModifiersTG.H_ADDITIONAL_INFO_1, jsonModifiersArray.getString(ADDITIONAL_INFO_1));
-            } else if (jsonModifiersArray.has(ModifiersTG.H_ADDITIONAL_INFO_1) && !jsonModifiersArray.isNull(ModifiersTG.H_ADDITIONAL_INFO_1)) {
-                modifierMap.put(ModifiersTG.H_ADDITIONAL_INFO_1, jsonModifiersArray.getString(ModifiersTG.H_ADDITIONAL_INFO_1));
-            }
-
-            if (jsonModifiersArray.has(ADDITIONAL_INFO_2) && !jsonModifiersArray.isNull(ADDITIONAL_INFO_2)) {
-                modifierMap.put(ModifiersTG.H1_ADDITIONAL_INFO_2, jsonModifiersArray.getString(ADDITIONAL_INFO_2));
-            } else if (jsonModifiersArray.has(ModifiersTG.H1_ADDITIONAL_INFO_2) && !jsonModifiersArray.isNull(ModifiersTG.H1_ADDITIONAL_INFO_2)) {
-                modifierMap.put(ModifiersTG.H1_ADDITIONAL_INFO_2, jsonModifiersArray.getString(ModifiersTG.H1_ADDITIONAL_INFO_2));
-            }
-
-            if (jsonModifiersArray.has(ADDITIONAL_INFO_3) && !jsonModifiersArray.isNull(ADDITIONAL_INFO_3)) {
-                modifierMap.put(ModifiersTG.H2_ADDITIONAL_INFO_3, jsonModifiersArray.getString(ADDITIONAL_INFO_3));
-            } else if (jsonModifiersArray.has(ModifiersTG.H2_ADDITIONAL_INFO_3) && !jsonModifiersArray.isNull(ModifiersTG.H2_ADDITIONAL_INFO_3)) {
-                modifierMap.put(ModifiersTG.H2_ADDITIONAL_INFO_3, jsonModifiersArray.getString(ModifiersTG.H2_ADDITIONAL_INFO_3));
-            }
-            //                if (jsonModifiersArray.has(EVALUATION_RATION)) {
-            //                    modifierMap.put(ModifiersTG. EVALUATION_RATION, jsonModifiersArray.getString(EVALUATION_RATION));
-            //                }
-            //                if (jsonModifiersArray.has(COMBAT_EFFECTIVENESS)) {
-            //                    modifierMap.put(COMBAT_EFFECTIVENESS, jsonModifiersArray.getString(COMBAT_EFFECTIVENESS));
-            //                }
-            //                if (jsonModifiersArray.has(SIGNATURE_EQUIPMENT)) {
-            //                    modifierMap.put(SIGNATURE_EQUIPMENT, jsonModifiersArray.getString(SIGNATURE_EQUIPMENT));
-            //                }
-            //                if (jsonModifiersArray.has(HIGHER_FORMATION)) {
-            //                    modifierMap.put(HIGHER_FORMATION, jsonModifiersArray.getString(HIGHER_FORMATION));
-            //                }
-            if (jsonModifiersArray.has(HOSTILE) && !jsonModifiersArray.isNull(HOSTILE)) {
-                modifierMap.put(ModifiersTG.N_HOSTILE, jsonModifiersArray.getString(HOSTILE));
-            } else if (jsonModifiersArray.has(ModifiersTG.N_HOSTILE) && !jsonModifiersArray.isNull(ModifiersTG.N_HOSTILE)) {
-                modifierMap.put(ModifiersTG.N_HOSTILE, jsonModifiersArray.getString(ModifiersTG.N_HOSTILE));
-            }
-            //                if (jsonModifiersArray.has(IFFSIFF)) {
-            //                    modifierMap.put(IFFSIFF, jsonModifiersArray.getString(IFFSIFF));
-            //                }
-            if (jsonModifiersArray.has(DIRECTION_OF_MOVEMENT) && !jsonModifiersArray.isNull(DIRECTION_OF_MOVEMENT)) {
-                double directionOfMovement = jsonModifiersArray.getDouble(DIRECTION_OF_MOVEMENT);
-                modifierMap.put(ModifiersTG.Q_DIRECTION_OF_MOVEMENT, Double.toString(directionOfMovement));
-            } else if (jsonModifiersArray.has(ModifiersTG.Q_DIRECTION_OF_MOVEMENT) && !jsonModifiersArray.isNull(ModifiersTG.Q_DIRECTION_OF_MOVEMENT)) {
-                double directionOfMovement = jsonModifiersArray.getDouble(ModifiersTG.Q_DIRECTION_OF_MOVEMENT);
-                modifierMap.put(ModifiersTG.Q_DIRECTION_OF_MOVEMENT, Double.toString(directionOfMovement));
-            }
-
-            if (jsonModifiersArray.has(UNIQUE_DESIGNATION_1) && !jsonModifiersArray.isNull(UNIQUE_DESIGNATION_1)) {
-                modifierMap.put(ModifiersTG.T_UNIQUE_DESIGNATION_1, jsonModifiersArray.getString(UNIQUE_DESIGNATION_1));
-            } else if (jsonModifiersArray.has(ModifiersTG.T_UNIQUE_DESIGNATION_1) && !jsonModifiersArray.isNull(ModifiersTG.T_UNIQUE_DESIGNATION_1)) {
-                modifierMap.put(ModifiersTG.T_UNIQUE_DESIGNATION_1, jsonModifiersArray.getString(ModifiersTG.T_UNIQUE_DESIGNATION_1));
-            }
-
-            if (jsonModifiersArray.has(UNIQUE_DESIGNATION_2) && !jsonModifiersArray.isNull(UNIQUE_DESIGNATION_2)) {
-                modifierMap.put(ModifiersTG.T1_UNIQUE_DESIGNATION_2, jsonModifiersArray.getString(UNIQUE_DESIGNATION_2));
-            } else if (jsonModifiersArray.has(ModifiersTG.T1_UNIQUE_DESIGNATION_2) && !jsonModifiersArray.isNull(ModifiersTG.T1_UNIQUE_DESIGNATION_2)) {
-                modifierMap.put(ModifiersTG.T1_UNIQUE_DESIGNATION_2, jsonModifiersArray.getString(ModifiersTG.T1_UNIQUE_DESIGNATION_2));
-            }
-
-            if (jsonModifiersArray.has(EQUIPMENT_TYPE) && !jsonModifiersArray.isNull(EQUIPMENT_TYPE)) {
-                modifierMap.put(ModifiersTG.V_EQUIP_TYPE, jsonModifiersArray.getString(EQUIPMENT_TYPE));
-            } else if (jsonModifiersArray.has(ModifiersTG.V_EQUIP_TYPE) && !jsonModifiersArray.isNull(ModifiersTG.V_EQUIP_TYPE)) {
-                modifierMap.put(ModifiersTG.V_EQUIP_TYPE, jsonModifiersArray.getString(ModifiersTG.V_EQUIP_TYPE));
-            }
-
-            if (jsonModifiersArray.has(DATE_TIME_GROUP_1) && !jsonModifiersArray.isNull(DATE_TIME_GROUP_1)) {
-                modifierMap.put(ModifiersTG.W_DTG_1, jsonModifiersArray.getString(DATE_TIME_GROUP_1));
-            } else if (jsonModifiersArray.has(ModifiersTG.W_DTG_1) && !jsonModifiersArray.isNull(ModifiersTG.W_DTG_1)) {
-                modifierMap.put(ModifiersTG.W_DTG_1, jsonModifiersArray.getString(ModifiersTG.W_DTG_1));
-            }
-
-            if (jsonModifiersArray.has(DATE_TIME_GROUP_2) && !jsonModifiersArray.isNull(DATE_TIME_GROUP_2)) {
-                modifierMap.put(ModifiersTG.W1_DTG_2, jsonModifiersArray.getString(DATE_TIME_GROUP_2));
-            } else if (jsonModifiersArray.has(ModifiersTG.W1_DTG_2) && !jsonModifiersArray.isNull(ModifiersTG.W1_DTG_2)) {
-                modifierMap.put(ModifiersTG.W1_DTG_2, jsonModifiersArray.getString(ModifiersTG.W1_DTG_2));
-            }
-
-            //                if (jsonModifiersArray.has(LOCATION)) {
-            //                    modifierMap.put(LOCATION, jsonModifiersArray.getString(LOCATION));
-            //                }
-            //                if (jsonModifiersArray.has(SPEED)) {
-            //                    modifierMap.put(SPEED, jsonModifiersArray.getString(SPEED));
-            //                }
-            //                if (jsonModifiersArray.has(SPECIAL_C2_HQ)) {
-            //                    modifierMap.put(SPECIAL_C2_HQ, jsonModifiersArray.getString(SPECIAL_C2_HQ));
-            //                }
-            // These guys store array values.  Put in appropriate data strucutre
-            // for MilStdSymbol.
-            if (jsonModifiersArray.has(ALTITUDE_DEPTH) && !jsonModifiersArray.isNull(ALTITUDE_DEPTH)) {
-                JSONArray jsonAltitudeArray = jsonModifiersArray.getJSONArray(ALTITUDE_DEPTH);
-                altitudes = new ArrayList<Double>();
-                for (int i = 0; i < jsonAltitudeArray.length(); i++) {
-                    altitudes.add(jsonAltitudeArray.getDouble(i));
-                }
-            } else if (jsonModifiersArray.has(ModifiersTG.X_ALTITUDE_DEPTH) && !jsonModifiersArray.isNull(ModifiersTG.X_ALTITUDE_DEPTH)) {
-                JSONArray jsonAltitudeArray = jsonModifiersArray.getJSONArray(ModifiersTG.X_ALTITUDE_DEPTH);
-                altitudes = new ArrayList<Double>();
-                for (int i = 0; i < jsonAltitudeArray.length(); i++) {
-                    altitudes.add(jsonAltitudeArray.getDouble(i));
-                }
-            } else if (jsonModifiersArray.has("X") && !jsonModifiersArray.isNull("X")) {
-                JSONArray jsonAltitudeArray = jsonModifiersArray.getJSONArray("X");
-                altitudes = new ArrayList<Double>();
-                for (int i = 0; i < jsonAltitudeArray.length(); i++) {
-                    altitudes.add(jsonAltitudeArray.getDouble(i));
-                }
-            }
-
-            if (jsonModifiersArray.has(DISTANCE) && !jsonModifiersArray.isNull(DISTANCE)) {
-                JSONArray jsonDistanceArray = jsonModifiersArray.getJSONArray(DISTANCE);
-                distances = new ArrayList<Double>();
-                for (int i = 0; i < jsonDistanceArray.length(); i++) {
-                    distances.add(jsonDistanceArray.getDouble(i));
-                }
-            } else if (jsonModifiersArray.has(ModifiersTG.AM_DISTANCE) && !jsonModifiersArray.isNull(ModifiersTG.AM_DISTANCE)) {
-                JSONArray jsonDistanceArray = jsonModifiersArray.getJSONArray(ModifiersTG.AM_DISTANCE);
-                distances = new ArrayList<Double>();
-                for (int i = 0; i < jsonDistanceArray.length(); i++) {
-                    distances.add(jsonDistanceArray.getDouble(i));
-                }
-            }
+            ModifierValues values = ModifierValues.read(jsonString);
 
-            if (jsonModifiersArray.has(AZIMUTH) && !jsonModifiersArray.isNull(AZIMUTH)) {
-                JSONArray jsonAzimuthArray = jsonModifiersArray.getJSONArray(AZIMUTH);
-                azimuths = new ArrayList<Double>();
-                for (int i = 0; i < jsonAzimuthArray.length(); i++) {
-                    azimuths.add(jsonAzimuthArray.getDouble(i));
-                }
-            } else if (jsonModifiersArray.has(ModifiersTG.AN_AZIMUTH) && !jsonModifiersArray.isNull(ModifiersTG.AN_AZIMUTH)) {
-                JSONArray jsonAzimuthArray = jsonModifiersArray.getJSONArray(ModifiersTG.AN_AZIMUTH);
-                azimuths = new ArrayList<Double>();
-                for (int i = 0; i < jsonAzimuthArray.length(); i++) {
-                    azimuths.add(jsonAzimuthArray.getDouble(i));
+            // Labels, and the symbol fill ids which AreaSymbolFill reads
+            // from the modifier map.
+            for (int i = 0; i < ModifierValues.LABEL_KEYS.length; i++) {
+                if (values.has(i)) {
+                    modifierMap.put(ModifierValues.LABEL_KEYS[i], (String) values.get(i));
                 }
             }
 
-            // These properties are ints, not labels, they are colors.//////////////////
-            if (jsonModifiersArray.has(FILL_COLOR) && !jsonModifiersArray.isNull(FILL_COLOR)) {
-                fillColor = jsonModifiersArray.getString(FILL_COLOR);
-            }
-            if (jsonModifiersArray.has(LINE_COLOR) && !jsonModifiersArray.isNull(LINE_COLOR)) {
-                lineColor = jsonModifiersArray.getString(LINE_COLOR);
-            }
-
-            if (jsonModifiersArray.has(TEXT_COLOR) && !jsonModifiersArray.isNull(TEXT_COLOR)) {
-                textColor = jsonModifiersArray.getString(TEXT_COLOR);
-            }
-            if (jsonModifiersArray.has(TEXT_BACKGROUND_COLOR) && !jsonModifiersArray.isNull(TEXT_BACKGROUND_COLOR)) {
-                textBackgroundColor = jsonModifiersArray.getString(TEXT_BACKGROUND_COLOR);
-            }
+            altitudes = (ArrayList<Double>) values.get(ModifierValues.ALTITUDES);
+            distances = (ArrayList<Double>) values.get(ModifierValues.DISTANCES);
+            azimuths = (ArrayList<Double>) values.get(ModifierValues.AZIMUTHS);
 
-            if (jsonModifiersArray.has(LINE_THICKNESS) && !jsonModifiersArray.isNull(LINE_THICKNESS)) {
-                lineWidth = jsonModifiersArray.getInt(LINE_THICKNESS);
-            }
+            fillColor = (String) values.get(ModifierValues.FILL_COLOR);
+            lineColor = (String) values.get(ModifierValues.LINE_COLOR);
+            textColor = (String) values.get(ModifierValues.TEXT_COLOR);
+            textBackgroundColor = (String) values.get(ModifierValues.TEXT_BACKGROUND_COLOR);
 
-            if (jsonModifiersArray.has(USE_DASH_ARRAY) && !jsonModifiersArray.isNull(USE_DASH_ARRAY)) {
-                useDashArray = jsonModifiersArray.getBoolean(USE_DASH_ARRAY);
-            } else if (jsonModifiersArray.has(MilStdAttributes.UseDashArray) && !jsonModifiersArray.isNull(MilStdAttributes.UseDashArray)) {
-                useDashArray = jsonModifiersArray.getBoolean(MilStdAttributes.UseDashArray);
-            }
-            //pattern fill (hatch lines)
-            if (jsonModifiersArray.has(USE_PATTERN_FILL) && !jsonModifiersArray.isNull(USE_PATTERN_FILL)) {
-                usePatternFill = jsonModifiersArray.getBoolean(USE_PATTERN_FILL);
-            } else if (jsonModifiersArray.has(MilStdAttributes.UsePatternFill) && !jsonModifiersArray.isNull(MilStdAttributes.UsePatternFill)) {
-                usePatternFill = jsonModifiersArray.getBoolean(MilStdAttributes.UsePatternFill);
+            if (values.has(ModifierValues.LINE_THICKNESS)) {
+                lineWidth = (Integer) values.get(ModifierValues.LINE_THICKNESS);
             }
-            
-            if (jsonModifiersArray.has(PATTERN_FILL_TYPE) && !jsonModifiersArray.isNull(PATTERN_FILL_TYPE)) {
-                patternFillType = jsonModifiersArray.getInt(PATTERN_FILL_TYPE);
-            } else if (jsonModifiersArray.has(MilStdAttributes.PatternFillType) && !jsonModifiersArray.isNull(MilStdAttributes.PatternFillType)) {
-                patternFillType = jsonModifiersArray.getInt(MilStdAttributes.PatternFillType);
+            if (values.has(ModifierValues.USE_DASH_ARRAY)) {
+                useDashArray = (Boolean) values.get(ModifierValues.USE_DASH_ARRAY);
             }
-
-            if (jsonModifiersArray.has(MilStdAttributes.AltitudeMode)) {
-                altMode = jsonModifiersArray.getString(MilStdAttributes.AltitudeMode);
+            if (values.has(ModifierValues.USE_PATTERN_FILL)) {
+                usePatternFill = (Boolean) values.get(ModifierValues.USE_PATTERN_FILL);
             }
-
-            if (jsonModifiersArray.has(MilStdAttributes.HideOptionalLabels)) {
-                hideOptionalLabels = jsonModifiersArray.getBoolean(MilStdAttributes.HideOptionalLabels);
+            if (values.has(ModifierValues.PATTERN_FILL_TYPE)) {
+                patternFillType = (Integer) values.get(ModifierValues.PATTERN_FILL_TYPE);
             }
 
-            // These are for when we create a area fill that is comprised of symbols//////////
-            if (jsonModifiersArray.has(SYMBOL_FILL_IDS) && !jsonModifiersArray.isNull(SYMBOL_FILL_IDS)) {
-                modifierMap.put(SYMBOL_FILL_IDS, jsonModifiersArray.getString(SYMBOL_FILL_IDS));
+            altMode = (String) values.get(ModifierValues.ALT_MODE);
+            if (values.has(ModifierValues.HIDE_OPTIONAL_LABELS)) {
+                hideOptionalLabels = (Boolean) values.get(ModifierValues.HIDE_OPTIONAL_LABELS);
             }
-            if (jsonModifiersArray.has(SYMBOL_LINE_IDS) && !jsonModifiersArray.isNull(SYMBOL_LINE_IDS)) {
-                modifierMap.put(SYMBOL_LINE_IDS, jsonModifiersArray.getString(SYMBOL_LINE_IDS));
+            if (values.has(ModifierValues.SIMPLIFY_TOLERANCE)) {
+                simplifyTolerance = (Double) values.get(ModifierValues.SIMPLIFY_TOLERANCE);
             }
-            if (jsonModifiersArray.has(SYMBOL_FILL_ICON_SIZE) && !jsonModifiersArray.isNull(SYMBOL_FILL_ICON_SIZE)) {
-                modifierMap.put(SYMBOL_FILL_ICON_SIZE, jsonModifiersArray.getString(SYMBOL_FILL_ICON_SIZE));
+            if (values.has(ModifierValues.PROFILE)) {
+                profile = RendererSettings.getInstance().getProfile((String) values.get(ModifierValues.PROFILE));
             }
 
         } catch (JSONException je) {
@@ -2783,7 +2741,11 @@ public class MultiPointHandler {
                 symbol.setAltitudeMode(altMode);
             }
 
+            if (profile != null) {
+                symbol.setRendererProfile(profile);
+            }
             symbol.setHideOptionalLabels(hideOptionalLabels);
+            symbol.setSimplifyTolerance(simplifyTolerance);
             symbol.setUseDashArray(useDashArray);
             symbol.setUsePatternFill(usePatternFill);
             if(SymbolUtilities.isBasicShape(symbol.getSymbolID()))
@@ -2825,6 +2787,244 @@ public class MultiPointHandler {
 
     }
 
+    /**
+     * Modifier values read by populateModifiers, straight from the JSON text
+     * without building a JSONObject.  Where a modifier can be given by more
+     * than one name the long name wins over the modifier code, whichever
+     * comes first, and a null value is the same as leaving it out.  If there
+     * is a "modifiers" object only its values are used.
+     */
+    private static final class ModifierValues {
+
+        // modifier map keys for the label slots
+        static final String[] LABEL_KEYS = {
+            ModifiersTG.C_QUANTITY,
+            ModifiersTG.H_ADDITIONAL_INFO_1,
+            ModifiersTG.H1_ADDITIONAL_INFO_2,
+            ModifiersTG.H2_ADDITIONAL_INFO_3,
+            ModifiersTG.N_HOSTILE,
+            ModifiersTG.Q_DIRECTION_OF_MOVEMENT,
+            ModifiersTG.T_UNIQUE_DESIGNATION_1,
+            ModifiersTG.T1_UNIQUE_DESIGNATION_2,
+            ModifiersTG.V_EQUIP_TYPE,
+            ModifiersTG.W_DTG_1,
+            ModifiersTG.W1_DTG_2,
+            SYMBOL_FILL_IDS,
+            SYMBOL_LINE_IDS,
+            SYMBOL_FILL_ICON_SIZE
+        };
+
+        private static final int DIRECTION_OF_MOVEMENT = 5;
+        static final int ALTITUDES = 14;
+        static final int DISTANCES = 15;
+        static final int AZIMUTHS = 16;
+        static final int FILL_COLOR = 17;
+        static final int LINE_COLOR = 18;
+        static final int TEXT_COLOR = 19;
+        static final int TEXT_BACKGROUND_COLOR = 20;
+        static final int LINE_THICKNESS = 21;
+        static final int USE_DASH_ARRAY = 22;
+        static final int USE_PATTERN_FILL = 23;
+        static final int PATTERN_FILL_TYPE = 24;
+        static final int ALT_MODE = 25;
+        static final int HIDE_OPTIONAL_LABELS = 26;
+        static final int SIMPLIFY_TOLERANCE = 27;
+        static final int PROFILE = 28;
+        private static final int SLOT_COUNT = 29;
+
+        // name -> {slot, priority}
+        private static final Map<String, int[]> FIELDS = new HashMap<String, int[]>();
+
+        static {
+            addField(QUANTITY, 0, 2);
+            addField(ModifiersTG.C_QUANTITY, 0, 1);
+            addField(ADDITIONAL_INFO_1, 1, 2);
+            addField(ModifiersTG.H_ADDITIONAL_INFO_1, 1, 1);
+            addField(ADDITIONAL_INFO_2, 2, 2);
+            addField(ModifiersTG.H1_ADDITIONAL_INFO_2, 2, 1);
+            addField(ADDITIONAL_INFO_3, 3, 2);
+            addField(ModifiersTG.H2_ADDITIONAL_INFO_3, 3, 1);
+            addField(HOSTILE, 4, 2);
+            addField(ModifiersTG.N_HOSTILE, 4, 1);
+            addField(MultiPointHandler.DIRECTION_OF_MOVEMENT, DIRECTION_OF_MOVEMENT, 2);
+            addField(ModifiersTG.Q_DIRECTION_OF_MOVEMENT, DIRECTION_OF_MOVEMENT, 1);
+            addField(UNIQUE_DESIGNATION_1, 6, 2);
+            addField(ModifiersTG.T_UNIQUE_DESIGNATION_1, 6, 1);
+            addField(UNIQUE_DESIGNATION_2, 7, 2);
+            addField(ModifiersTG.T1_UNIQUE_DESIGNATION_2, 7, 1);
+            addField(EQUIPMENT_TYPE, 8, 2);
+            addField(ModifiersTG.V_EQUIP_TYPE, 8, 1);
+            addField(DATE_TIME_GROUP_1, 9, 2);
+            addField(ModifiersTG.W_DTG_1, 9, 1);
+            addField(DATE_TIME_GROUP_2, 10, 2);
+            addField(ModifiersTG.W1_DTG_2, 10, 1);
+            addField(SYMBOL_FILL_IDS, 11, 1);
+            addField(SYMBOL_LINE_IDS, 12, 1);
+            addField(SYMBOL_FILL_ICON_SIZE, 13, 1);
+            addField(ALTITUDE_DEPTH, ALTITUDES, 2);
+            addField(ModifiersTG.X_ALTITUDE_DEPTH, ALTITUDES, 1);
+            addField(DISTANCE, DISTANCES, 2);
+            addField(ModifiersTG.AM_DISTANCE, DISTANCES, 1);
+            addField(AZIMUTH, AZIMUTHS, 2);
+            addField(ModifiersTG.AN_AZIMUTH, AZIMUTHS, 1);
+            addField(MultiPointHandler.FILL_COLOR, FILL_COLOR, 1);
+            addField(MultiPointHandler.LINE_COLOR, LINE_COLOR, 1);
+            addField(MultiPointHandler.TEXT_COLOR, TEXT_COLOR, 1);
+            addField(MultiPointHandler.TEXT_BACKGROUND_COLOR, TEXT_BACKGROUND_COLOR, 1);
+            addField(MultiPointHandler.LINE_THICKNESS, LINE_THICKNESS, 1);
+            addField(MultiPointHandler.USE_DASH_ARRAY, USE_DASH_ARRAY, 2);
+            addField(MilStdAttributes.UseDashArray, USE_DASH_ARRAY, 1);
+            addField(MultiPointHandler.USE_PATTERN_FILL, USE_PATTERN_FILL, 2);
+            addField(MilStdAttributes.UsePatternFill, USE_PATTERN_FILL, 1);
+            addField(MultiPointHandler.PATTERN_FILL_TYPE, PATTERN_FILL_TYPE, 2);
+            addField(MilStdAttributes.PatternFillType, PATTERN_FILL_TYPE, 1);
+            addField(MilStdAttributes.AltitudeMode, ALT_MODE, 1);
+            addField(MilStdAttributes.HideOptionalLabels, HIDE_OPTIONAL_LABELS, 1);
+            addField(MilStdAttributes.SimplifyTolerance, SIMPLIFY_TOLERANCE, 1);
+            addField(MilStdAttributes.Profile, PROFILE, 1);
+        }
+
+        private static void addField(String name, int slot, int priority) {
+            FIELDS.put(name, new int[]{slot, priority});
+        }
+
+        private final Object[] _values = new Object[SLOT_COUNT];
+        private final int[] _priorities = new int[SLOT_COUNT];
+        // a bad value only fails the parse if no better named value replaces it
+        private final JSONException[] _errors = new JSONException[SLOT_COUNT];
+
+        /**
+         * @param json modifiers object, or an object with a "modifiers" object
+         * @return
+         * @throws JSONException if the text isn't JSON or a value that would
+         * be used is the wrong type.
+         */
+        static ModifierValues read(String json) throws JSONException {
+            JSONReader reader = new JSONReader(json);
+            ModifierValues values = new ModifierValues();
+            ModifierValues modifiers = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals(MODIFIER_HEADER)) {
+                    if (reader.peek() != JSONReader.BEGIN_OBJECT) {
+                        throw reader.syntaxError("JSONObject[\"" + MODIFIER_HEADER + "\"] is not a JSONObject.");
+                    }
+                    modifiers = new ModifierValues();
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        modifiers.readValue(reader.nextName(), reader);
+                    }
+                    reader.endObject();
+                } else {
+                    values.readValue(name, reader);
+                }
+            }
+            reader.endObject();
+
+            if (modifiers != null) {
+                values = modifiers;
+            }
+            for (JSONException je : values._errors) {
+                if (je != null) {
+                    throw je;
+                }
+            }
+            return values;
+        }
+
+        private void readValue(String name, JSONReader reader) throws JSONException {
+            int[] field = FIELDS.get(name);
+            if (field == null || field[1] < _priorities[field[0]]) {
+                reader.skipValue();
+                return;
+            }
+            int slot = field[0];
+
+            int token = reader.peek();
+            if (token == JSONReader.NULL) {
+                reader.nextNull();
+                // JSONObject.has() is true for null, and these were read without checking isNull
+                if (slot == ALT_MODE || slot == HIDE_OPTIONAL_LABELS) {
+                    setError(slot, field[1], reader.syntaxError("JSONObject[\"" + name + "\"] is null."));
+                }
+                return;
+            }
+
+            try {
+                Object value;
+                if (slot == DIRECTION_OF_MOVEMENT) {
+                    value = Double.toString(reader.nextDouble());
+                } else if (slot == ALTITUDES || slot == DISTANCES || slot == AZIMUTHS) {
+                    value = readDoubles(reader);
+                } else if (slot == LINE_THICKNESS || slot == PATTERN_FILL_TYPE) {
+                    value = reader.nextInt();
+                } else if (slot == USE_DASH_ARRAY || slot == USE_PATTERN_FILL || slot == HIDE_OPTIONAL_LABELS) {
+                    value = reader.nextBoolean();
+                } else if (slot == SIMPLIFY_TOLERANCE) {
+                    value = reader.nextDouble();
+                } else {
+                    value = reader.nextString();
+                }
+                _values[slot] = value;
+                _priorities[slot] = field[1];
+                _errors[slot] = null;
+            } catch (JSONException je) {
+                // wrong type, the value hasn't been read unless readDoubles
+                // got an array, which it reads to the end either way
+                boolean doubles = slot == ALTITUDES || slot == DISTANCES || slot == AZIMUTHS;
+                if (!doubles || token != JSONReader.BEGIN_ARRAY) {
+                    reader.skipValue();
+                }
+                setError(slot, field[1], je);
+            }
+        }
+
+        /**
+         * Reads an array of numbers.  If one isn't a number, skips the rest
+         * and throws.
+         */
+        private static ArrayList<Double> readDoubles(JSONReader reader) throws JSONException {
+            if (reader.peek() != JSONReader.BEGIN_ARRAY) {
+                throw reader.syntaxError("Value is not a JSONArray");
+            }
+            ArrayList<Double> doubles = new ArrayList<Double>();
+            JSONException error = null;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (error == null) {
+                    try {
+                        doubles.add(reader.nextDouble());
+                        continue;
+                    } catch (JSONException je) {
+                        error = je;
+                    }
+                }
+                reader.skipValue();
+            }
+            reader.endArray();
+            if (error != null) {
+                throw error;
+            }
+            return doubles;
+        }
+
+        private void setError(int slot, int priority, JSONException je) {
+            _values[slot] = null;
+            _priorities[slot] = priority;
+            _errors[slot] = je;
+        }
+
+        boolean has(int slot) {
+            return _values[slot] != null;
+        }
+
+        Object get(int slot) {
+            return _values[slot];
+        }
+    }
+
     /**
      * FOR DEUTCH USE ONLY
      *
@@ -2846,13 +3046,10 @@ public class MultiPointHandler {
 
         boolean normalize = false;
         StringBuilder jsonOutput = new StringBuilder();
-        String jsonContent = "";
         Rectangle rect = null;
         int j = 0;
-        String[] coordinates = controlPoints.split(" ");
         TGLight tgl = new TGLight();
         ArrayList<Point2D.Double> geoCoords = new ArrayList<Point2D.Double>();
-        int len = coordinates.length;
 
         IPointConversion ipc = null;
 
@@ -2871,20 +3068,12 @@ public class MultiPointHandler {
         ArrayList<Point2D.Double> bboxCoords = null;
         Point2D ptGeoUL;
         if (bbox != null && bbox.equals("") == false) {
-            String[] bounds = null;
+            double[] bounds = null;
             if (bbox.contains(" "))//trapezoid or polygon
             {
-                bboxCoords = new ArrayList<Point2D.Double>();
                 double x = 0;
                 double y = 0;
-                String[] coords = bbox.split(" ");
-                String[] arrCoord;
-                for (String coord : coords) {
-                    arrCoord = coord.split(",");
-                    x = Double.valueOf(arrCoord[0]);
-                    y = Double.valueOf(arrCoord[1]);
-                    bboxCoords.add(new Point2D.Double(x, y));
-                }
+                bboxCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(bbox));
                 //use the upper left corner of the MBR containing geoCoords
                 //so lowest possible pxiels values for the trapezoid points are 0,0
                 ptGeoUL = getGeoUL(bboxCoords);
@@ -2908,11 +3097,11 @@ public class MultiPointHandler {
                 }
             } else//rectangle
             {
-                bounds = bbox.split(",");
-                left = Double.valueOf(bounds[0]).doubleValue();
-                right = Double.valueOf(bounds[2]).doubleValue();
-                top = Double.valueOf(bounds[3]).doubleValue();
-                bottom = Double.valueOf(bounds[1]).doubleValue();
+                bounds = CoordinateParser.parseValues(bbox);
+                left = bounds[0];
+                right = bounds[2];
+                top = bounds[3];
+                bottom = bounds[1];
                 ipc = new PointConverter(left, top, scale);
             }
 
@@ -2948,18 +3137,7 @@ public class MultiPointHandler {
         //end section
 
         //System.out.println("Pixel Coords: ");
-        for (int i = 0; i < len; i++) {
-            String[] coordPair = coordinates[i].split(",");
-            if (coordPair.length >= 2) {
-                Double latitude = Double.valueOf(coordPair[1].trim());
-                Double longitude = Double.valueOf(coordPair[0].trim());
-                geoCoords.add(new Point2D.Double(longitude, latitude));
-            }
-            //pixels.add(new Point2D.Double(longitudeX, latitudeY));
-
-            //System.out.println(String.valueOf(latitudeY) + ", " + String.valueOf(longitudeX));
-            //ipc = new PointConverter(controlLong, controlLat, scale);
-        }
+        geoCoords = CoordinateParser.toPoints(CoordinateParser.parseCoordinates(controlPoints));
         if (ipc == null) {
             Point2D ptCoordsUL = getGeoUL(geoCoords);
             ipc = new PointConverter(ptCoordsUL.getX(), ptCoordsUL.getY(), scale);
@@ -2993,8 +3171,7 @@ public class MultiPointHandler {
             }
 
             jsonOutput.append("{\"type\":\"symbol\",");
-            jsonContent = JSONize(shapes, modifiers, ipc, normalize);
-            jsonOutput.append(jsonContent);
+            writeJSON(jsonOutput, shapes, modifiers, ipc, normalize);
             jsonOutput.append("}");
 
         } catch (Exception exc) {
@@ -3030,15 +3207,24 @@ public class MultiPointHandler {
 
     }
 
-    private static String KMLize(String id, String name,
+    /**
+     * Writes a KML Folder with a Placemark for each shape and label.
+     *
+     * @param output
+     * @param kmlLabelScale labels are left out when this is 0
+     * @param lookAtTag optional LookAt element for the folder, can be null
+     * @param groundOverlay optional GroundOverlay for a symbol fill or line
+     * pattern, can be null
+     * @throws IOException
+     */
+    private static void writeKML(Appendable output, String id, String name,
             String description,
             String symbolCode,
             ArrayList<ShapeInfo> shapes,
             ArrayList<ShapeInfo> modifiers,
             IPointConversion ipc,
-            boolean normalize, Color textColor) {
-
-        StringBuilder kml = new StringBuilder();
+            boolean normalize, Color textColor, float kmlLabelScale,
+            String lookAtTag, String groundOverlay) throws IOException {
 
         ShapeInfo tempModifier = null;
 
@@ -3046,14 +3232,15 @@ public class MultiPointHandler {
         String cdataEnd = "]]>";
 
         int len = shapes.size();
-        kml.append("<Folder id=\"" + id + "\">");
-        kml.append("<name>" + cdataStart + name + cdataEnd + "</name>");
-        kml.append("<visibility>1</visibility>");
+        output.append("<Folder id=\"").append(id).append("\">");
+        output.append("<name>").append(cdataStart).append(name).append(cdataEnd).append("</name>");
+        if (lookAtTag != null) {
+            output.append(lookAtTag);
+        }
+        output.append("<visibility>1</visibility>");
 
         for (int i = 0; i < len; i++) {
-
-            String shapesToAdd = ShapeToKMLString(name, description, symbolCode, shapes.get(i), ipc, normalize);
-            kml.append(shapesToAdd);
+            writeShapeKML(output, name, description, symbolCode, shapes.get(i), ipc, normalize);
         }
 
         int len2 = modifiers.size();
@@ -3065,92 +3252,86 @@ public class MultiPointHandler {
             //if(geMap)//if using google earth
             //assume kml text is going to be centered
             //AdjustModifierPointToCenter(tempModifier);
-            String labelsToAdd = LabelToKMLString(tempModifier, ipc, normalize, textColor);
+            writeLabelKML(output, tempModifier, ipc, normalize, textColor, kmlLabelScale);
+        }
 
-            kml.append(labelsToAdd);
+        if (groundOverlay != null) {
+            output.append(groundOverlay);
         }
 
-        kml.append("</Folder>");
-        return kml.toString();
+        output.append("</Folder>");
     }
 
-    private static String JSONize(ArrayList<ShapeInfo> shapes, ArrayList<ShapeInfo> modifiers, IPointConversion ipc, boolean normalize) {
-        String polygons = "";
-        String lines = "";
-        String labels = "";
-        String jstr = "";
+    /**
+     * Writes the polygons, lines and labels members of the "symbol" JSON
+     * object.
+     *
+     * @throws IOException
+     */
+    private static void writeJSON(Appendable output, ArrayList<ShapeInfo> shapes, ArrayList<ShapeInfo> modifiers, IPointConversion ipc, boolean normalize) throws IOException {
         ShapeInfo tempModifier = null;
+        boolean written = false;
 
+        //shapes with a fill color are polygons, everything else is a line.
+        //one pass for each so each array keeps the original shape order.
         int len = shapes.size();
+        output.append("\"polygons\": [");
         for (int i = 0; i < len; i++) {
-            if (jstr.length() > 0) {
-                jstr += ",";
-            }
-            String shapesToAdd = ShapeToJSONString(shapes.get(i), ipc, normalize);
-            if (shapesToAdd.length() > 0) {
-                if (shapesToAdd.startsWith("line", 2)) {
-                    if (lines.length() > 0) {
-                        lines += ",";
-                    }
-
-                    lines += shapesToAdd;
-                } else if (shapesToAdd.startsWith("polygon", 2)) {
-                    if (polygons.length() > 0) {
-                        polygons += ",";
-                    }
+            if (shapes.get(i).getFillColor() != null) {
+                if (writeShapeJSON(output, shapes.get(i), ipc, normalize, written)) {
+                    written = true;
+                }
+            }
+        }
+        output.append("],");
 
-                    polygons += shapesToAdd;
+        written = false;
+        output.append("\"lines\": [");
+        for (int i = 0; i < len; i++) {
+            if (shapes.get(i).getFillColor() == null) {
+                if (writeShapeJSON(output, shapes.get(i), ipc, normalize, written)) {
+                    written = true;
                 }
             }
         }
+        output.append("],");
 
-        jstr += "\"polygons\": [" + polygons + "],"
-                + "\"lines\": [" + lines + "],";
+        written = false;
         int len2 = modifiers.size();
-        labels = "";
+        output.append("\"labels\": [");
         for (int j = 0; j < len2; j++) {
             tempModifier = modifiers.get(j);
 
             //AdjustModifierPointToCenter(tempModifier);
-            String labelsToAdd = LabelToJSONString(tempModifier, ipc, normalize);
-            if (labelsToAdd.length() > 0) {
-                if (labels.length() > 0) {
-                    labels += ",";
-                }
-
-                labels += labelsToAdd;
-
+            if (writeLabelJSON(output, tempModifier, ipc, normalize, written)) {
+                written = true;
             }
         }
-        jstr += "\"labels\": [" + labels + "]";
-        return jstr;
+        output.append("]");
     }
 
     /**
+     * Writes the features array of a GeoJSON FeatureCollection.
      *
+     * @param output
      * @param shapes
      * @param modifiers
-     * @param ipcgeMap
+     * @param ipc
      * @param normalize
-     * @return
+     * @throws IOException
      */
-    private static String GeoJSONize(ArrayList<ShapeInfo> shapes, ArrayList<ShapeInfo> modifiers, IPointConversion ipc, boolean normalize, Color textColor, Color textBackgroundColor) {
+    private static void writeGeoJSON(Appendable output, ArrayList<ShapeInfo> shapes, ArrayList<ShapeInfo> modifiers, IPointConversion ipc, boolean normalize, Color textColor, Color textBackgroundColor) throws IOException {
 
-        String jstr = "";
         ShapeInfo tempModifier = null;
-        StringBuilder fc = new StringBuilder();//JSON feature collection
 
-        fc.append("[");
+        output.append("[");
 
         int len = shapes.size();
         for (int i = 0; i < len; i++) {
 
-            String shapesToAdd = ShapeToGeoJSONString(shapes.get(i), ipc, normalize);
-            if (shapesToAdd.length() > 0) {
-                fc.append(shapesToAdd);
-            }
+            writeShapeGeoJSON(output, shapes.get(i), ipc, normalize);
             if (i < len - 1) {
-                fc.append(",");
+                output.append(",");
             }
         }
 
@@ -3159,15 +3340,9 @@ public class MultiPointHandler {
         for (int j = 0; j < len2; j++) {
             tempModifier = modifiers.get(j);
 
-            String labelsToAdd = LabelToGeoJSONString(tempModifier, ipc, normalize, textColor, textBackgroundColor);
-            if (labelsToAdd.length() > 0) {
-                fc.append(",");
-                fc.append(labelsToAdd);
-            }
+            writeLabelGeoJSON(output, tempModifier, ipc, normalize, textColor, textBackgroundColor);
         }
-        fc.append("]");
-        String GeoJSON = fc.toString();
-        return GeoJSON;
+        output.append("]");
     }
 
     /**
@@ -3387,14 +3562,13 @@ public class MultiPointHandler {
         return normalize;
     }
 
-    private static String ShapeToKMLString(String name,
+    private static void writeShapeKML(Appendable kml,
+            String name,
             String description,
             String symbolCode,
             ShapeInfo shapeInfo,
             IPointConversion ipc,
-            boolean normalize) {
-
-        StringBuilder kml = new StringBuilder();
+            boolean normalize) throws IOException {
 
         Color lineColor = null;
         Color fillColor = null;
@@ -3412,7 +3586,7 @@ public class MultiPointHandler {
         String cdataEnd = "]]>";
 
         kml.append("<Placemark>");//("<Placemark id=\"" + id + "_mg" + "\">");
-        kml.append("<description>" + cdataStart + "<b>" + name + "</b><br/>" + "\n" + description + cdataEnd + "</description>");
+        kml.append("<description>").append(cdataStart).append("<b>").append(name).append("</b><br/>").append("\n").append(description).append(cdataEnd).append("</description>");
         //kml.append("<Style id=\"" + lineStyleId + "\">");
         kml.append("<Style>");
 
@@ -3435,9 +3609,9 @@ public class MultiPointHandler {
             googleLineColor = JavaRendererUtilities.ARGBtoABGR(googleLineColor);
 
             kml.append("<LineStyle>");
-            kml.append("<color>" + googleLineColor + "</color>");
+            kml.append("<color>").append(googleLineColor).append("</color>");
             kml.append("<colorMode>normal</colorMode>");
-            kml.append("<width>" + String.valueOf(lineWidth) + "</width>");
+            kml.append("<width>").append(String.valueOf(lineWidth)).append("</width>");
             kml.append("</LineStyle>");
         }
 
@@ -3451,7 +3625,7 @@ public class MultiPointHandler {
             googleFillColor = JavaRendererUtilities.ARGBtoABGR(googleFillColor);
 
             kml.append("<PolyStyle>");
-            kml.append("<color>" + googleFillColor + "</color>");
+            kml.append("<color>").append(googleFillColor).append("</color>");
             kml.append("<colorMode>normal</colorMode>");
             kml.append("<fill>1</fill>");
             if (lineColor != null) {
@@ -3485,12 +3659,10 @@ public class MultiPointHandler {
                         geoCoord = NormalizeCoordToGECoord(geoCoord);
                     }
 
-                    double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-                    double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+                    double latitude = CoordinateWriter.round(geoCoord.getY());
+                    double longitude = CoordinateWriter.round(geoCoord.getX());
 
-                    kml.append(longitude);
-                    kml.append(",");
-                    kml.append(latitude);
+                    CoordinateWriter.appendPair(kml, longitude, latitude);
                     if (j < shape.size() - 1) {
                         kml.append(" ");
                     }
@@ -3545,8 +3717,8 @@ public class MultiPointHandler {
                     //if(normalize)
                     //geoCoord=NormalizeCoordToGECoord(geoCoord);
 
-                    double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-                    double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+                    double latitude = CoordinateWriter.round(geoCoord.getY());
+                    double longitude = CoordinateWriter.round(geoCoord.getX());
 
                     //fix for fill crossing DTL
                     if (normalize) {
@@ -3555,9 +3727,7 @@ public class MultiPointHandler {
                         }
                     }
 
-                    kml.append(longitude);
-                    kml.append(",");
-                    kml.append(latitude);
+                    CoordinateWriter.appendPair(kml, longitude, latitude);
                     if (j < shape.size() - 1) {
                         kml.append(" ");
                     }
@@ -3579,8 +3749,6 @@ public class MultiPointHandler {
 
         kml.append("</MultiGeometry>");
         kml.append("</Placemark>");
-
-        return kml.toString();
     }
 
     private static ShapeInfo ShapeToWWReady(
@@ -3852,8 +4020,15 @@ public class MultiPointHandler {
         }
     }
 
-    private static String ShapeToJSONString(ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize) {
-        StringBuilder JSONed = new StringBuilder();
+    /**
+     * Writes one {"line":[...]} or {"polygon":[...]} object per polyline.
+     * Points in the shape are replaced with their geo coordinates.
+     *
+     * @param needComma true to write a comma before the first object
+     * @return true if anything was written
+     * @throws IOException
+     */
+    private static boolean writeShapeJSON(Appendable JSONed, ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, boolean needComma) throws IOException {
         /*
          NOTE: Google Earth / KML colors are backwards.
          They are ordered Alpha,Blue,Green,Red, not Red,Green,Blue,Aplha like the rest of the world
@@ -3880,6 +4055,10 @@ public class MultiPointHandler {
 
         ArrayList shapesArray = shapeInfo.getPolylines();
 
+        if (shapesArray.size() > 0 && needComma) {
+            JSONed.append(",");
+        }
+
         for (int i = 0; i < shapesArray.size(); i++) {
             ArrayList shape = (ArrayList) shapesArray.get(i);
 
@@ -3899,8 +4078,8 @@ public class MultiPointHandler {
                 if (normalize) {
                     geoCoord = NormalizeCoordToGECoord(geoCoord);
                 }
-                double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-                double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+                double latitude = CoordinateWriter.round(geoCoord.getY());
+                double longitude = CoordinateWriter.round(geoCoord.getX());
 
                 //fix for fill crossing DTL
                 if (normalize && fillColor != null) {
@@ -3909,17 +4088,9 @@ public class MultiPointHandler {
                     }
                 }
 
-                //diagnostic M. Deutch 10-18-11
-                //set the point as geo so that the 
-                //coord.setLocation(longitude, latitude);
-                coord = new Point2D.Double(longitude, latitude);
-                shape.set(j, coord);
-                //end section
 
                 JSONed.append("[");
-                JSONed.append(longitude);
-                JSONed.append(",");
-                JSONed.append(latitude);
+                CoordinateWriter.appendPair(JSONed, longitude, latitude);
                 JSONed.append("]");
 
                 if (j < (shape.size() - 1)) {
@@ -3955,20 +4126,19 @@ public class MultiPointHandler {
             }
         }
 
-        return JSONed.toString();
+        return shapesArray.size() > 0;
     }
 
     /**
+     * Writes a GeoJSON Feature for the shape.  Points in the shape are
+     * replaced with their geo coordinates.
      *
      * @param shapeInfo
      * @param ipc
      * @param normalize
-     * @return
+     * @throws IOException
      */
-    private static String ShapeToGeoJSONString(ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize) {
-        StringBuilder JSONed = new StringBuilder();
-        StringBuilder properties = new StringBuilder();
-        StringBuilder geometry = new StringBuilder();
+    private static void writeShapeGeoJSON(Appendable JSONed, ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize) throws IOException {
         String geometryType = null;
         /*
          NOTE: Google Earth / KML colors are backwards.
@@ -3994,26 +4164,30 @@ public class MultiPointHandler {
             //System.out.println("lineWidth: " + String.valueOf(lineWidth));
         }
 
+        JSONed.append("{\"type\":\"Feature\",");
+
         //generate JSON properties for feature
-        properties.append("\"properties\":{");
-        properties.append("\"label\":\"\",");
+        JSONed.append("\"properties\":{");
+        JSONed.append("\"label\":\"\",");
         if (lineColor != null) {
-            properties.append("\"strokeColor\":\"" + SymbolUtilities.colorToHexString(lineColor, false) + "\",");
-            properties.append("\"lineOpacity\":" + String.valueOf(lineColor.getAlpha() / 255f) + ",");
+            JSONed.append("\"strokeColor\":\"").append(SymbolUtilities.colorToHexString(lineColor, false)).append("\",");
+            JSONed.append("\"lineOpacity\":").append(String.valueOf(lineColor.getAlpha() / 255f)).append(",");
         }
         if (fillColor != null) {
-            properties.append("\"fillColor\":\"" + SymbolUtilities.colorToHexString(fillColor, false) + "\",");
-            properties.append("\"fillOpacity\":" + String.valueOf(fillColor.getAlpha() / 255f) + ",");
+            JSONed.append("\"fillColor\":\"").append(SymbolUtilities.colorToHexString(fillColor, false)).append("\",");
+            JSONed.append("\"fillOpacity\":").append(String.valueOf(fillColor.getAlpha() / 255f)).append(",");
         }
         String strokeWidth = String.valueOf(lineWidth);
-        properties.append("\"strokeWidth\":" + strokeWidth + ",");
-        properties.append("\"strokeWeight\":" + strokeWidth + "");
-        properties.append("}");
+        JSONed.append("\"strokeWidth\":").append(strokeWidth).append(",");
+        JSONed.append("\"strokeWeight\":").append(strokeWidth);
+        JSONed.append("}");
+
+        JSONed.append(",");
 
         //generate JSON geometry for feature
-        geometry.append("\"geometry\":{\"type\":");
-        geometry.append(geometryType);
-        geometry.append(",\"coordinates\":[");
+        JSONed.append("\"geometry\":{\"type\":");
+        JSONed.append(geometryType);
+        JSONed.append(",\"coordinates\":[");
 
         ArrayList shapesArray = shapeInfo.getPolylines();
 
@@ -4022,7 +4196,7 @@ public class MultiPointHandler {
 
             normalize = normalizePoints(pointList, ipc);
 
-            geometry.append("[");
+            JSONed.append("[");
 
             //System.out.println("Pixel Coords:");
             for (int j = 0; j < pointList.size(); j++) {
@@ -4032,8 +4206,8 @@ public class MultiPointHandler {
                 if (normalize) {
                     geoCoord = NormalizeCoordToGECoord(geoCoord);
                 }
-                double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-                double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+                double latitude = CoordinateWriter.round(geoCoord.getY());
+                double longitude = CoordinateWriter.round(geoCoord.getX());
 
                 //fix for fill crossing DTL
                 if (normalize && fillColor != null) {
@@ -4042,43 +4216,28 @@ public class MultiPointHandler {
                     }
                 }
 
-                //diagnostic M. Deutch 10-18-11
-                //set the point as geo so that the 
-                //coord.setLocation(longitude, latitude);
-                coord = new Point2D.Double(longitude, latitude);
-                pointList.set(j, coord);
-                //end section
 
-                geometry.append("[");
-                geometry.append(longitude);
-                geometry.append(",");
-                geometry.append(latitude);
-                geometry.append("]");
+                JSONed.append("[");
+                CoordinateWriter.appendPair(JSONed, longitude, latitude);
+                JSONed.append("]");
 
                 if (j < (pointList.size() - 1)) {
-                    geometry.append(",");
+                    JSONed.append(",");
                 }
             }
 
-            geometry.append("]");
+            JSONed.append("]");
 
             if (i < (shapesArray.size() - 1)) {
-                geometry.append(",");
+                JSONed.append(",");
             }
         }
-        geometry.append("]}");
+        JSONed.append("]}");
 
-        JSONed.append("{\"type\":\"Feature\",");
-        JSONed.append(properties);
-        JSONed.append(",");
-        JSONed.append(geometry);
         JSONed.append("}");
-
-        return JSONed.toString();
     }
 
-    private static String LabelToKMLString(ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, Color textColor) {
-        StringBuilder kml = new StringBuilder();
+    private static void writeLabelKML(Appendable kml, ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, Color textColor, float kmlScale) throws IOException {
 
         //Point2D coord = (Point2D) new Point2D.Double(shapeInfo.getGlyphPosition().getX(), shapeInfo.getGlyphPosition().getY());
         Point2D coord = (Point2D) new Point2D.Double(shapeInfo.getModifierStringPosition().getX(), shapeInfo.getModifierStringPosition().getY());
@@ -4087,8 +4246,8 @@ public class MultiPointHandler {
         if (normalize) {
             geoCoord = NormalizeCoordToGECoord(geoCoord);
         }
-        double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-        double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+        double latitude = CoordinateWriter.round(geoCoord.getY());
+        double longitude = CoordinateWriter.round(geoCoord.getX());
         long angle = Math.round(shapeInfo.getModifierStringAngle());
 
         String text = shapeInfo.getModifierString();
@@ -4098,42 +4257,42 @@ public class MultiPointHandler {
 
         String color = SymbolUtilities.colorToHexString(textColor, true);
         color = JavaRendererUtilities.ARGBtoABGR(color.substring(1));
-        float kmlScale = RendererSettings.getInstance().getKMLLabelScale();
         if (kmlScale > 0 && text != null && text.equals("") == false) {
             kml.append("<Placemark>");//("<Placemark id=\"" + id + "_lp" + i + "\">");
-            kml.append("<name>" + cdataStart + text + cdataEnd + "</name>");
+            kml.append("<name>").append(cdataStart).append(text).append(cdataEnd).append("</name>");
             kml.append("<Style>");
             kml.append("<IconStyle>");
             kml.append("<scale>.7</scale>");
-            kml.append("<heading>" + angle + "</heading>");
+            kml.append("<heading>").append(String.valueOf(angle)).append("</heading>");
             kml.append("<Icon>");
             kml.append("<href></href>");
             kml.append("</Icon>");
             kml.append("</IconStyle>");
             kml.append("<LabelStyle>");
-            kml.append("<color>" + color + "</color>");
-            kml.append("<scale>" + String.valueOf(kmlScale) + "</scale>");
+            kml.append("<color>").append(color).append("</color>");
+            kml.append("<scale>").append(String.valueOf(kmlScale)).append("</scale>");
             kml.append("</LabelStyle>");
             kml.append("</Style>");
             kml.append("<Point>");
             kml.append("<extrude>1</extrude>");
             kml.append("<altitudeMode>relativeToGround</altitudeMode>");
             kml.append("<coordinates>");
-            kml.append(longitude);
-            kml.append(",");
-            kml.append(latitude);
+            CoordinateWriter.appendPair(kml, longitude, latitude);
             kml.append("</coordinates>");
             kml.append("</Point>");
             kml.append("</Placemark>");
-        } else {
-            return "";
         }
-
-        return kml.toString();
     }
 
-    private static String LabelToJSONString(ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize) {
-        StringBuilder JSONed = new StringBuilder();
+    /**
+     * Writes a {"label":...} object if the label has text.  The label's
+     * glyph position is replaced with its geo coordinate either way.
+     *
+     * @param needComma true to write a comma before the label
+     * @return true if the label was written
+     * @throws IOException
+     */
+    private static boolean writeLabelJSON(Appendable JSONed, ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, boolean needComma) throws IOException {
         /*
          NOTE: Google Earth / KML colors are backwards.
          They are ordered Alpha,Blue,Green,Red, not Red,Green,Blue,Aplha like the rest of the world
@@ -4141,10 +4300,6 @@ public class MultiPointHandler {
         //String lineColor = Integer.toHexString(shapeInfo.getLineColor().getRGB());
         //lineColor = ARGBtoABGR(lineColor);
 
-        //ArrayList shapesArray = shapeInfo.getPolylines();
-        //if(shapesArray.get(i).getClass().getSimpleName().equals("ArrayList") ){
-        JSONed.append("{\"label\":");
-
         //AffineTransform at = shapeInfo.getAffineTransform();
         //Point2D coord = (Point2D)new Point2D.Double(at.getTranslateX(), at.getTranslateY());
         Point2D coord = (Point2D) new Point2D.Double(shapeInfo.getGlyphPosition().getX(), shapeInfo.getGlyphPosition().getY());
@@ -4153,21 +4308,20 @@ public class MultiPointHandler {
         if (normalize) {
             geoCoord = NormalizeCoordToGECoord(geoCoord);
         }
-        double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-        double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+        double latitude = CoordinateWriter.round(geoCoord.getY());
+        double longitude = CoordinateWriter.round(geoCoord.getX());
         double angle = shapeInfo.getModifierStringAngle();
         coord.setLocation(longitude, latitude);
 
-        //diagnostic M. Deutch 10-18-11
-        shapeInfo.setGlyphPosition(coord);
-
         String text = shapeInfo.getModifierString();
 
         if (text != null && text.equals("") == false) {
+            if (needComma) {
+                JSONed.append(",");
+            }
+            JSONed.append("{\"label\":");
             JSONed.append("[");
-            JSONed.append(longitude);
-            JSONed.append(",");
-            JSONed.append(latitude);
+            CoordinateWriter.appendPair(JSONed, longitude, latitude);
             JSONed.append("]");
 
             JSONed.append(",\"text\":\"");
@@ -4175,27 +4329,24 @@ public class MultiPointHandler {
             JSONed.append("\"");
 
             JSONed.append(",\"angle\":\"");
-            JSONed.append(angle);
+            JSONed.append(String.valueOf(angle));
             JSONed.append("\"}");
-        } else {
-            return "";
+            return true;
         }
 
-        return JSONed.toString();
+        return false;
     }
 
     /**
+     * Writes a comma and a GeoJSON Feature for the label if it has text. The
+     * label's glyph position is replaced with its geo coordinate either way.
      *
      * @param shapeInfo
      * @param ipc
      * @param normalize
-     * @return
+     * @throws IOException
      */
-    private static String LabelToGeoJSONString(ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, Color textColor, Color textBackgroundColor) {
-
-        StringBuilder JSONed = new StringBuilder();
-        StringBuilder properties = new StringBuilder();
-        StringBuilder geometry = new StringBuilder();
+    private static void writeLabelGeoJSON(Appendable JSONed, ShapeInfo shapeInfo, IPointConversion ipc, boolean normalize, Color textColor, Color textBackgroundColor) throws IOException {
 
         Color outlineColor = SymbolDraw.getIdealTextBackgroundColor(textColor);
         if (textBackgroundColor != null) {
@@ -4211,14 +4362,11 @@ public class MultiPointHandler {
         if (normalize) {
             geoCoord = NormalizeCoordToGECoord(geoCoord);
         }
-        double latitude = Math.round(geoCoord.getY() * 100000000.0) / 100000000.0;
-        double longitude = Math.round(geoCoord.getX() * 100000000.0) / 100000000.0;
+        double latitude = CoordinateWriter.round(geoCoord.getY());
+        double longitude = CoordinateWriter.round(geoCoord.getX());
         double angle = shapeInfo.getModifierStringAngle();
         coord.setLocation(longitude, latitude);
 
-        //diagnostic M. Deutch 10-18-11
-        shapeInfo.setGlyphPosition(coord);
-
         String text = shapeInfo.getModifierString();
 
         int justify = shapeInfo.getTextJustify();
@@ -4235,12 +4383,13 @@ public class MultiPointHandler {
 
         if (text != null && text.equals("") == false) {
 
+            JSONed.append(",");
             JSONed.append("{\"type\":\"Feature\",\"properties\":{\"label\":\"");
             JSONed.append(text);
             JSONed.append("\",\"pointRadius\":0,\"fontColor\":\"");
             JSONed.append(SymbolUtilities.colorToHexString(textColor, false));
             JSONed.append("\",\"fontSize\":\"");
-            JSONed.append(String.valueOf(RS.getLabelFontSize()) + "pt\"");
+            JSONed.append(String.valueOf(RS.getLabelFontSize())).append("pt\"");
             JSONed.append(",\"fontFamily\":\"");
             JSONed.append(RS.getLabelFontName());
             JSONed.append(", sans-serif");
@@ -4260,25 +4409,18 @@ public class MultiPointHandler {
             JSONed.append(",\"labelOutlineColor\":\"");
             JSONed.append(SymbolUtilities.colorToHexString(outlineColor, false));
             JSONed.append("\",\"labelOutlineWidth\":");
-            JSONed.append(4);
+            JSONed.append("4");
             JSONed.append(",\"rotation\":");
-            JSONed.append(angle);
+            JSONed.append(String.valueOf(angle));
             JSONed.append(",\"angle\":");
-            JSONed.append(angle);
+            JSONed.append(String.valueOf(angle));
             JSONed.append("},");
 
             JSONed.append("\"geometry\":{\"type\":\"Point\",\"coordinates\":[");
-            JSONed.append(longitude);
-            JSONed.append(",");
-            JSONed.append(latitude);
+            CoordinateWriter.appendPair(JSONed, longitude, latitude);
             JSONed.append("]");
             JSONed.append("}}");
-
-        } else {
-            return "";
         }
-
-        return JSONed.toString();
     }
 
     /**
@@ -6,7 +6,6 @@
 package sec.web.renderer;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -15,6 +14,8 @@ import java.util.logging.Level;
 
 import ArmyC2.C2SD.Utilities.ErrorLogger;
 import com.sun.net.httpserver.Filter;
+import sec.web.json.utilities.JSONArray;
+import sec.web.json.utilities.JSONException;
 
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpContext;
@@ -22,14 +23,18 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.BindException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -77,6 +82,11 @@ public class MultiPointServer {
                         //for parsing post parameters
                         c3d.getFilters().add(new ParameterFilter());
                         c2d.getFilters().add(new ParameterFilter());
+                        //batch contexts read the whole body themselves
+                        httpServer.createContext("/mil-sym-service/renderer/mp3dbatch/", new MultiPointBatchHandler(false));
+                        httpServer.createContext("/mil-sym-service/renderer/mp2dbatch/", new MultiPointBatchHandler(true));
+                        //GET z/x/y tiles, POST graphics, DELETE a graphic or all of them
+                        httpServer.createContext("/mil-sym-service/renderer/mptile/", new MultiPointTileHandler());
 			httpServer.setExecutor(Executors.newCachedThreadPool());
 		} catch(BindException bexc){
                     String strTypicalPortInUseMessage = "Address already in use: bind";
@@ -212,10 +222,13 @@ public class MultiPointServer {
                 return copy;
             }
                         
-            private byte[] getMultiPointKML(HttpExchange he, String symbolCode)
+            /**
+             * Renders the symbol and streams the KML or JSON to the response.
+             * @return false if nothing was sent
+             */
+            private boolean writeMultiPointKML(HttpExchange he, String symbolCode, String allowOrigin) throws IOException
             {
-                byte[] byteArray = null;
-                String kml = null;
+                boolean sent = false;
                 int origCount = 0;
                 int origCount2 = 0;
                 int newCount = 0;
@@ -308,21 +321,35 @@ public class MultiPointServer {
                     {
                         ErrorLogger.LogException("SinglePointServer", "getMultiPointKML", exc1, Level.WARNING);
                     }
+                    Headers headers = he.getResponseHeaders();
+                    headers.set("Content-Type", "text/xml;charset=UTF-8");
+                    if(allowOrigin.contains("127.0.0.1"))
+                        headers.set("Access-Control-Allow-Origin", "*");//127.0.0.1
+                    he.sendResponseHeaders(200, 0);
+                    sent = true;
+
+                    //write straight to the response rather than building
+                    //the whole document as a String and then a byte array
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(he.getResponseBody(), "UTF-8"), 8192);
                     try
                     {
                         if(is2D == false)
                         {
-                            kml = SECRenderer.getInstance().RenderMultiPointSymbol(
+                            SECRenderer.getInstance().RenderMultiPointSymbol(
                                     id, name, description, symbolID, controlPoints, 
-                                    altitudeMode, scale, bbox, modifiers, format, symStd);
+                                    altitudeMode, scale, bbox, modifiers, format, symStd, writer);
                         }
                         else
                         {
-                            kml = SECRenderer.getInstance().RenderMultiPointSymbol2D(
+                            SECRenderer.getInstance().RenderMultiPointSymbol2D(
                                     id, name, description, symbolID, controlPoints, 
-                                    pWidth, pHeight, bbox, modifiers, format, symStd);
+                                    pWidth, pHeight, bbox, modifiers, format, symStd, writer);
                         }
                     }
+                    catch(IOException ioe)
+                    {
+                        throw ioe;
+                    }
                     catch(Exception foo)
                     {
                         ErrorLogger.LogException("SinglePointServer", "getMultiPointKML", foo, Level.WARNING);
@@ -334,16 +361,16 @@ public class MultiPointServer {
                             parameters = new String[]{id, name, description, symbolID, controlPoints, String.valueOf(pWidth), String.valueOf(pHeight), bbox, modifiers, String.valueOf(format), String.valueOf(symStd)};
                         ErrorLogger.LogMessage("SinglePointServer", "getMultiPointKML", "parameters: ", Level.WARNING, parameters, false);
                     }
-                    
-                    if(kml != null && kml.equals("")==false)
-                    {
-                        byteArray = kml.getBytes("UTF-8");
-                    }
+                    writer.close();
                 }
                 catch(UnsupportedEncodingException uee)
                 {
                     ErrorLogger.LogException("SinglePointServer", "getMultiPointKML", uee, Level.WARNING);
                 }
+                catch(IOException ioe)
+                {
+                    throw ioe;
+                }
                 catch(NumberFormatException nfe)
                 {
                     ErrorLogger.LogException("SinglePointServer", "getMultiPointKML", nfe, Level.WARNING);
@@ -356,7 +383,7 @@ public class MultiPointServer {
                 {
                     ErrorLogger.LogException("SinglePointServer", "getMultiPointKML", exc, Level.WARNING);
                 }
-                return byteArray;
+                return sent;
             }
             
             public void handle(HttpExchange exchange) {
@@ -368,13 +395,21 @@ public class MultiPointServer {
 				// String url = exchange.getRequestURI().toString();
                                 String allowOrigin;
                                 allowOrigin = exchange.getRemoteAddress().toString();
-				byte[] kmlResponse = null;
 
 				try {
 					url = exchange.getRequestURI().toString();
 					String symbolID = url.substring(url.lastIndexOf("/") + 1);
 					// System.out.println(symbolID);
-					kmlResponse = getMultiPointKML(exchange, symbolID);
+					writeMultiPointKML(exchange, symbolID, allowOrigin);
+
+				} catch (IOException exc) {
+					Date date = new Date();
+					SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss:SSS");
+					System.err.println("MultiPointServer.handle() tried sending response");
+					// System.err.println(date.toString());
+					System.err.println(sdf.format(date));
+					System.err.println(exchange.getRequestURI().toString());
+					System.err.println(exc.getMessage());
 
 				} catch (Exception exc) {
 					// System.err.println(exc.getMessage());
@@ -394,39 +429,202 @@ public class MultiPointServer {
 						ErrorLogger.LogException("MultiPointServer", "handle", exc2, Level.WARNING);
 					}
 				}
-
-				if (kmlResponse != null) {
-
-					OutputStream responseBody = null;
-					try {
-						Headers headers = exchange.getResponseHeaders();
-						headers.set("Content-Type", "text/xml;charset=UTF-8");
-                                                if(allowOrigin.contains("127.0.0.1"))
-                                                    headers.set("Access-Control-Allow-Origin", "*");//127.0.0.1
-						exchange.sendResponseHeaders(200, 0);
-
-						responseBody = exchange.getResponseBody();
-						responseBody.write(kmlResponse);
-						responseBody.close();
-					} catch (IOException exc) {
-						Date date = new Date();
-						SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss:SSS");
-						System.err.println("MultiPointServer.handle() tried sending response");
-						// System.err.println(date.toString());
-						System.err.println(sdf.format(date));
-						System.err.println(exchange.getRequestURI().toString());
-						System.err.println(exc.getMessage());
-
-					} catch (Exception exc3) {
-						ErrorLogger.LogException("MultiPointServer", "handle", exc3, Level.WARNING);
-					}
-				}
 			}
 		}
         }
         
 	
         
+        /**
+         * Takes a JSON array of multipoint symbols as the POST body (or as
+         * a url encoded "batch" parameter) and streams back a JSON array of
+         * results.  See MultiPointBatchRenderer for the formats.
+         */
+        class MultiPointBatchHandler implements HttpHandler {
+            private Boolean is2D = false;
+
+            public MultiPointBatchHandler(Boolean for2D) {
+                is2D = for2D;
+            }
+
+            private String readBatch(HttpExchange exchange) throws IOException
+            {
+                StringBuilder sb = new StringBuilder();
+                InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), "UTF-8");
+                char[] buffer = new char[8192];
+                int read = 0;
+                while((read = isr.read(buffer)) > 0)
+                {
+                    sb.append(buffer, 0, read);
+                }
+                isr.close();
+
+                String batch = sb.toString().trim();
+                if(batch.toLowerCase().startsWith("batch="))
+                    batch = URLDecoder.decode(batch.substring(6), "UTF-8");
+                return batch;
+            }
+
+            public void handle(HttpExchange exchange) {
+
+                if (exchange.getRequestMethod().equalsIgnoreCase("POST") == false)
+                {
+                    exchange.close();
+                    return;
+                }
+
+                String allowOrigin = exchange.getRemoteAddress().toString();
+                String batch = null;
+                try {
+                    batch = readBatch(exchange);
+                    List<MultiPointBatchRenderer.BatchItem> items = MultiPointBatchRenderer.getInstance().ReadBatch(batch);
+
+                    Headers headers = exchange.getResponseHeaders();
+                    headers.set("Content-Type", "application/json;charset=UTF-8");
+                    if(allowOrigin.contains("127.0.0.1"))
+                        headers.set("Access-Control-Allow-Origin", "*");
+                    //0 = chunked, items go out as they finish
+                    exchange.sendResponseHeaders(200, 0);
+
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), "UTF-8"));
+                    MultiPointBatchRenderer.getInstance().RenderBatch(items, is2D, writer);
+                    writer.close();
+                } catch (IOException exc) {
+                    ErrorLogger.LogException("MultiPointServer", "MultiPointBatchHandler.handle", exc, Level.WARNING);
+                } catch (JSONException exc) {
+                    //bad batch JSON, headers haven't been sent yet.
+                    ErrorLogger.LogException("MultiPointServer", "MultiPointBatchHandler.handle", exc, Level.WARNING);
+                    try {
+                        Headers headers = exchange.getResponseHeaders();
+                        headers.set("Content-Type", "text/plain;charset=UTF-8");
+                        if(allowOrigin.contains("127.0.0.1"))
+                            headers.set("Access-Control-Allow-Origin", "*");
+                        exchange.sendResponseHeaders(400, -1);
+                    } catch (IOException ex) {
+                        ErrorLogger.LogException("MultiPointServer", "MultiPointBatchHandler.handle", ex, Level.WARNING);
+                    }
+                } catch (Exception exc) {
+                    ErrorLogger.LogException("MultiPointServer", "MultiPointBatchHandler.handle", exc, Level.WARNING);
+                } finally {
+                    exchange.close();
+                }
+            }
+        }
+
+        /**
+         * Serves MultiPointTileRenderer tiles.
+         * GET .../mptile/{z}/{x}/{y}.png returns a tile (304 if the
+         * If-None-Match ETag still matches),
+         * POST .../mptile/ with a JSON array of graphics loads them,
+         * DELETE .../mptile/{id} removes a graphic and DELETE .../mptile/
+         * removes them all.
+         */
+        class MultiPointTileHandler implements HttpHandler {
+
+            private static final String CONTEXT = "/mil-sym-service/renderer/mptile/";
+
+            private void send(HttpExchange exchange, int status, String contentType, byte[] body, String allowOrigin) throws IOException
+            {
+                Headers headers = exchange.getResponseHeaders();
+                if(contentType != null)
+                    headers.set("Content-Type", contentType);
+                if(allowOrigin.contains("127.0.0.1"))
+                    headers.set("Access-Control-Allow-Origin", "*");
+                if(body == null)
+                    exchange.sendResponseHeaders(status, -1);
+                else
+                {
+                    exchange.sendResponseHeaders(status, body.length);
+                    exchange.getResponseBody().write(body);
+                }
+            }
+
+            private void getTile(HttpExchange exchange, String path, String allowOrigin) throws IOException
+            {
+                if(path.endsWith(".png"))
+                    path = path.substring(0, path.length() - 4);
+                String[] zxy = path.split("/");
+                MultiPointTileRenderer.Tile tile = null;
+                try {
+                    if(zxy.length == 3)
+                        tile = MultiPointTileRenderer.getInstance().RenderTile(Integer.parseInt(zxy[0]),
+                                Integer.parseInt(zxy[1]), Integer.parseInt(zxy[2]));
+                } catch (IllegalArgumentException exc) {
+                    tile = null;
+                }
+
+                if(tile == null || tile.getPNG() == null)
+                {
+                    send(exchange, tile == null ? 400 : 500, null, null, allowOrigin);
+                    return;
+                }
+
+                exchange.getResponseHeaders().set("ETag", tile.getETag());
+                if(tile.getETag().equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+                    send(exchange, 304, null, null, allowOrigin);
+                else
+                    send(exchange, 200, "image/png", tile.getPNG(), allowOrigin);
+            }
+
+            public void handle(HttpExchange exchange) {
+
+                String allowOrigin = exchange.getRemoteAddress().toString();
+                try {
+                    String method = exchange.getRequestMethod();
+                    String path = exchange.getRequestURI().getPath();
+                    path = path.substring(path.indexOf(CONTEXT) + CONTEXT.length());
+
+                    if(method.equalsIgnoreCase("GET"))
+                    {
+                        getTile(exchange, path, allowOrigin);
+                    }
+                    else if(method.equalsIgnoreCase("POST"))
+                    {
+                        StringBuilder sb = new StringBuilder();
+                        InputStreamReader isr = new InputStreamReader(exchange.getRequestBody(), "UTF-8");
+                        char[] buffer = new char[8192];
+                        int read = 0;
+                        while((read = isr.read(buffer)) > 0)
+                        {
+                            sb.append(buffer, 0, read);
+                        }
+                        isr.close();
+
+                        String result = MultiPointTileRenderer.getInstance().LoadGraphics(new JSONArray(sb.toString()));
+                        send(exchange, 200, "application/json;charset=UTF-8", result.getBytes("UTF-8"), allowOrigin);
+                    }
+                    else if(method.equalsIgnoreCase("DELETE"))
+                    {
+                        if(path.equals(""))
+                        {
+                            MultiPointTileRenderer.getInstance().ClearGraphics();
+                            send(exchange, 204, null, null, allowOrigin);
+                        }
+                        else
+                        {
+                            boolean removed = MultiPointTileRenderer.getInstance().RemoveGraphic(URLDecoder.decode(path, "UTF-8"));
+                            send(exchange, removed ? 204 : 404, null, null, allowOrigin);
+                        }
+                    }
+                    else
+                    {
+                        send(exchange, 405, null, null, allowOrigin);
+                    }
+                } catch (JSONException exc) {
+                    ErrorLogger.LogException("MultiPointServer", "MultiPointTileHandler.handle", exc, Level.WARNING);
+                    try {
+                        send(exchange, 400, "text/plain;charset=UTF-8", null, allowOrigin);
+                    } catch (IOException ex) {
+                        ErrorLogger.LogException("MultiPointServer", "MultiPointTileHandler.handle", ex, Level.WARNING);
+                    }
+                } catch (Exception exc) {
+                    ErrorLogger.LogException("MultiPointServer", "MultiPointTileHandler.handle", exc, Level.WARNING);
+                } finally {
+                    exchange.close();
+                }
+            }
+        }
+
     /**
      * from:
      * whowish-programming.blogspot.com/2011/04/get-post-parameters-from-java-http.html
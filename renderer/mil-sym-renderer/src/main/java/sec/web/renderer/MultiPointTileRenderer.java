@@ -0,0 +1,670 @@
+package sec.web.renderer;
+
+import ArmyC2.C2SD.Rendering.JavaRenderer;
+import ArmyC2.C2SD.Rendering.MultiPointRenderer;
+import ArmyC2.C2SD.Rendering.SymbolIndex;
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.PNGEncoder;
+import ArmyC2.C2SD.Utilities.RendererException;
+import ArmyC2.C2SD.Utilities.RendererSettings;
+import ArmyC2.C2SD.Utilities.SettingsChangedEvent;
+import ArmyC2.C2SD.Utilities.SettingsChangedEventListener;
+import ArmyC2.C2SD.Utilities.ShapeInfo;
+import ArmyC2.C2SD.Utilities.TileConversion;
+import java.awt.Graphics2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import sec.web.json.utilities.JSONArray;
+import sec.web.json.utilities.JSONObject;
+import sec.web.renderer.utilities.CoordinateParser;
+
+/**
+ * Renders loaded multipoint graphics into Web Mercator PNG tiles (z/x/y,
+ * y from the top) for clients that can't render the vector output
+ * themselves.
+ * <p>
+ * Graphics are indexed by their rendered extent, so a tile only renders the
+ * graphics that touch it.  Each graphic is clipped to the tile plus a buffer
+ * (clsClipQuad) so lines and decorations carry across tile edges; labels
+ * further than the buffer from a graphic's outline can be cut off at tile
+ * edges.
+ * <p>
+ * Tiles are cached by z/x/y along with a hash of the graphics drawn in
+ * them, so loading or removing a graphic only re-renders the tiles it
+ * touches.  The hash, together with the cache generation, is also the
+ * tile's ETag.  The cache is cleared, and the generation bumped, when a
+ * RendererSettings value changes or invalidate is called.
+ */
+public class MultiPointTileRenderer implements SettingsChangedEventListener {
+
+    private static final String _className = "MultiPointTileRenderer";
+
+    private static MultiPointTileRenderer _instance = null;
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+    public static final int DEFAULT_BUFFER = 64;
+    public static final int DEFAULT_MAX_ENTRIES = 2048;
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+    public static final int MAX_ZOOM = 24;
+
+    //graphics are rendered about this big when working out their extent
+    private static final int EXTENT_PIXELS = 1024;
+    private static final int EXTENT_DEFAULT_ZOOM = 12;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final HashMap<String, Graphic> _graphics = new HashMap<String, Graphic>();
+    private final SymbolIndex<Graphic> _index = new SymbolIndex<Graphic>();
+
+    private final LinkedHashMap<String, Tile> _cache = new LinkedHashMap<String, Tile>(256, 0.75f, true);
+    private int _maxEntries = DEFAULT_MAX_ENTRIES;
+    private long _maxBytes = DEFAULT_MAX_BYTES;
+    private long _currentBytes = 0;
+    //bumped on every invalidate so tiles started before the invalidate
+    //don't get put back in the cache afterwards.  Also part of the ETag, so
+    //it starts at the load time to keep ETags from an earlier run stale.
+    private volatile long _generation = System.currentTimeMillis();
+
+    private volatile int _tileSize = DEFAULT_TILE_SIZE;
+    private volatile int _buffer = DEFAULT_BUFFER;
+    private byte[] _emptyTile = null;
+    private int _emptyTileSize = 0;
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+
+    private MultiPointTileRenderer()
+    {
+        RendererSettings.getInstance().addEventListener(this);
+    }
+
+    public static synchronized MultiPointTileRenderer getInstance()
+    {
+        if(_instance == null)
+            _instance = new MultiPointTileRenderer();
+
+        return _instance;
+    }
+
+    /**
+     * Adds a graphic or replaces the one with the same id.
+     * @param id
+     * @param symbolCode
+     * @param controlPoints like "lon,lat lon,lat"
+     * @param symbolModifiers same JSON as RenderSymbol2D
+     * @param symStd
+     * @return null if loaded, otherwise why it couldn't be.
+     */
+    public String LoadGraphic(String id, String symbolCode, String controlPoints, String symbolModifiers, int symStd)
+    {
+        if(id == null || symbolCode == null)
+            return "id and symbolCode are required";
+
+        try
+        {
+            double[] coords = CoordinateParser.parseCoordinates(controlPoints);
+            Graphic graphic = new Graphic(id, symbolCode, coords, symbolModifiers, symStd);
+
+            MilStdSymbol symbol = graphic.createSymbol();
+            String symbolIsValid = MultiPointHandler.canRenderMultiPoint(symbol);
+            if(symbolIsValid.equals("true") == false)
+                return symbolIsValid;
+
+            Rectangle2D bounds = getWorldBounds(symbol, coords);
+
+            synchronized(_graphics)
+            {
+                Graphic old = _graphics.put(id, graphic);
+                if(old != null)
+                    _index.remove(old);
+                _index.insert(graphic, bounds);
+            }
+            return null;
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "LoadGraphic",
+                    new RendererException("Failed inside LoadGraphic", exc));
+            return String.valueOf(exc.getMessage());
+        }
+    }
+
+    /**
+     * Loads a JSON array of graphics like
+     * [{"id":"1","symbolCode":"GFGPGLB----K---","controlPoints":"66.26,30.62 66.39,30.60",
+     * "modifiers":{"T":"T1"},"symStd":0}, ...]
+     * @param items
+     * @return like {"loaded":1,"errors":[{"index":1,"id":"2","error":"..."}]}
+     */
+    public String LoadGraphics(JSONArray items)
+    {
+        int loaded = 0;
+        StringBuilder errors = new StringBuilder();
+        for(int i = 0; i < items.length(); i++)
+        {
+            JSONObject item = items.optJSONObject(i);
+            String id = null;
+            String error = null;
+            if(item == null)
+                error = "Item is not a JSON object";
+            else
+            {
+                id = item.optString("id", null);
+
+                //modifiers can be a JSON object or the string form used by
+                //the single symbol calls.
+                String modifiers = "";
+                Object mods = item.opt("modifiers");
+                if(mods instanceof JSONObject)
+                    modifiers = mods.toString();
+                else if(mods != null && mods != JSONObject.NULL)
+                    modifiers = String.valueOf(mods);
+
+                error = LoadGraphic(id, item.optString("symbolCode", null),
+                        item.optString("controlPoints", ""), modifiers, item.optInt("symStd", 0));
+            }
+
+            if(error == null)
+                loaded++;
+            else
+            {
+                if(errors.length() > 0)
+                    errors.append(',');
+                errors.append("{\"index\":").append(i);
+                errors.append(",\"id\":").append(id != null ? JSONObject.quote(id) : "null");
+                errors.append(",\"error\":").append(JSONObject.quote(error)).append('}');
+            }
+        }
+        return "{\"loaded\":" + loaded + ",\"errors\":[" + errors + "]}";
+    }
+
+    /**
+     *
+     * @param id
+     * @return false if there was no graphic with that id.
+     */
+    public boolean RemoveGraphic(String id)
+    {
+        synchronized(_graphics)
+        {
+            Graphic graphic = _graphics.remove(id);
+            if(graphic == null)
+                return false;
+            _index.remove(graphic);
+            return true;
+        }
+    }
+
+    public void ClearGraphics()
+    {
+        synchronized(_graphics)
+        {
+            _graphics.clear();
+            _index.clear();
+        }
+    }
+
+    public int getGraphicCount()
+    {
+        synchronized(_graphics)
+        {
+            return _graphics.size();
+        }
+    }
+
+    /**
+     * Renders a tile, or returns it from the cache if the graphics in it
+     * haven't changed.
+     * @param zoom 0 to MAX_ZOOM
+     * @param x column, 0 at -180
+     * @param y row, 0 at the top
+     * @return
+     * @throws IllegalArgumentException if the tile isn't on the map
+     */
+    public Tile RenderTile(int zoom, int x, int y)
+    {
+        if(zoom < 0 || zoom > MAX_ZOOM)
+            throw new IllegalArgumentException("Bad zoom: " + zoom);
+        long tiles = 1L << zoom;
+        if(x < 0 || y < 0 || x >= tiles || y >= tiles)
+            throw new IllegalArgumentException("Bad tile: " + zoom + "/" + x + "/" + y);
+
+        int tileSize = _tileSize;
+        int buffer = _buffer;
+        double worldSize = (double)tileSize * tiles;
+        Rectangle2D area = new Rectangle2D.Double((x * (double)tileSize - buffer) / worldSize,
+                (y * (double)tileSize - buffer) / worldSize,
+                (tileSize + buffer * 2) / worldSize, (tileSize + buffer * 2) / worldSize);
+
+        ArrayList<Graphic> graphics;
+        synchronized(_graphics)
+        {
+            graphics = _index.intersect(area);
+        }
+
+        long generation = _generation;
+        long hash = FNV_OFFSET;
+        hash = hash(hash, generation);
+        hash = hash(hash, zoom);
+        hash = hash(hash, x);
+        hash = hash(hash, y);
+        hash = hash(hash, tileSize);
+        hash = hash(hash, buffer);
+        for(Graphic graphic : graphics)
+            hash = hash(hash, graphic.hash);
+
+        if(graphics.isEmpty())
+            return new Tile(zoom, x, y, getEmptyTile(tileSize), hash, 0);
+
+        String key = zoom + "/" + x + "/" + y;
+        synchronized(_cache)
+        {
+            Tile cached = _cache.get(key);
+            if(cached != null && cached.hash == hash)
+            {
+                _hits.incrementAndGet();
+                return cached;
+            }
+        }
+        _misses.incrementAndGet();
+
+        Tile tile = new Tile(zoom, x, y, render(graphics, zoom, x, y, tileSize, buffer), hash, graphics.size());
+        put(key, tile, generation);
+        return tile;
+    }
+
+    private byte[] render(ArrayList<Graphic> graphics, int zoom, int x, int y, int tileSize, int buffer)
+    {
+        TileConversion converter = new TileConversion(zoom, x, y, tileSize);
+        ArrayList<MilStdSymbol> symbols = new ArrayList<MilStdSymbol>(graphics.size());
+        for(Graphic graphic : graphics)
+        {
+            try
+            {
+                MilStdSymbol symbol = graphic.createSymbol();
+                MultiPointRenderer.getInstance().render(symbol, converter, getClipPoints(tileSize, buffer));
+                symbols.add(symbol);
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException(_className, "render",
+                        new RendererException("Failed to render " + graphic.id, exc));
+            }
+        }
+
+        BufferedImage image = new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        try
+        {
+            JavaRenderer.getInstance().Draw(symbols, g2d);
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "render",
+                    new RendererException("Failed to draw tile " + zoom + "/" + x + "/" + y, exc));
+        }
+        finally
+        {
+            g2d.dispose();
+        }
+        return toPNG(image);
+    }
+
+    /**
+     * The tile plus the buffer as a closed quad, which has the renderer clip
+     * with clsClipQuad.
+     */
+    private static ArrayList<Point2D> getClipPoints(int tileSize, int buffer)
+    {
+        double min = -buffer;
+        double max = tileSize + buffer;
+        ArrayList<Point2D> clipPoints = new ArrayList<Point2D>();
+        clipPoints.add(new Point2D.Double(min, min));
+        clipPoints.add(new Point2D.Double(max, min));
+        clipPoints.add(new Point2D.Double(max, max));
+        clipPoints.add(new Point2D.Double(min, max));
+        clipPoints.add(new Point2D.Double(min, min));
+        return clipPoints;
+    }
+
+    /**
+     * Extent of the graphic's shapes in world units (0-1 each way, see
+     * TileConversion), found by rendering it once at a zoom where its
+     * control points are about EXTENT_PIXELS across.  That picks up things
+     * like circles and range fans that reach past their control points.
+     * Modifiers aren't included since they stay the same size in pixels at
+     * every zoom, the tile buffer covers them.
+     */
+    private Rectangle2D getWorldBounds(MilStdSymbol symbol, double[] coords)
+    {
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        double firstLon = coords[0];
+        for(int i = 0; i < coords.length; i += 2)
+        {
+            //keep points across the antimeridian next to the first one
+            double lon = coords[i];
+            if(lon - firstLon > 180)
+                lon -= 360;
+            else if(lon - firstLon < -180)
+                lon += 360;
+            double wx = TileConversion.longitudeToWorldX(lon);
+            double wy = TileConversion.latitudeToWorldY(coords[i + 1]);
+            minX = Math.min(minX, wx);
+            maxX = Math.max(maxX, wx);
+            minY = Math.min(minY, wy);
+            maxY = Math.max(maxY, wy);
+        }
+
+        int tileSize = _tileSize;
+        double span = Math.max(maxX - minX, maxY - minY);
+        int zoom = EXTENT_DEFAULT_ZOOM;
+        if(span > 0)
+            zoom = (int)Math.floor(Math.log(EXTENT_PIXELS / (span * tileSize)) / Math.log(2));
+        zoom = Math.max(0, Math.min(MAX_ZOOM, zoom));
+
+        double worldSize = (double)tileSize * (1L << zoom);
+        int tileX = (int)Math.floor(minX * (1L << zoom));
+        int tileY = (int)Math.floor(minY * (1L << zoom));
+        try
+        {
+            MultiPointRenderer.getInstance().render(symbol, new TileConversion(zoom, tileX, tileY, tileSize), null);
+            ArrayList<ShapeInfo> shapes = symbol.getSymbolShapes();
+            if(shapes != null)
+            {
+                for(ShapeInfo shape : shapes)
+                {
+                    if(shape.getShape() == null)
+                        continue;
+                    Rectangle2D bounds = shape.getShape().getBounds2D();
+                    minX = Math.min(minX, (tileX * tileSize + bounds.getMinX()) / worldSize);
+                    maxX = Math.max(maxX, (tileX * tileSize + bounds.getMaxX()) / worldSize);
+                    minY = Math.min(minY, (tileY * tileSize + bounds.getMinY()) / worldSize);
+                    maxY = Math.max(maxY, (tileY * tileSize + bounds.getMaxY()) / worldSize);
+                }
+            }
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "getWorldBounds",
+                    new RendererException("Failed inside getWorldBounds", exc));
+        }
+
+        //the index doesn't wrap, so graphics across the antimeridian are
+        //looked for in every column.
+        if(minX < 0 || maxX > 1)
+        {
+            minX = 0;
+            maxX = 1;
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private synchronized byte[] getEmptyTile(int tileSize)
+    {
+        if(_emptyTile == null || _emptyTileSize != tileSize)
+        {
+            _emptyTile = toPNG(new BufferedImage(tileSize, tileSize, BufferedImage.TYPE_INT_ARGB));
+            _emptyTileSize = tileSize;
+        }
+        return _emptyTile;
+    }
+
+    private static byte[] toPNG(BufferedImage image)
+    {
+        try
+        {
+            return PNGEncoder.encode(image);
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "toPNG",
+                    new RendererException("Failed inside toPNG", exc));
+            return null;
+        }
+    }
+
+    private void put(String key, Tile tile, long generation)
+    {
+        if(tile.png == null)
+            return;
+
+        synchronized(_cache)
+        {
+            if(generation != _generation)
+                return;
+
+            Tile old = _cache.put(key, tile);
+            if(old != null)
+                _currentBytes -= old.png.length;
+            _currentBytes += tile.png.length;
+
+            Iterator<Map.Entry<String, Tile>> it = _cache.entrySet().iterator();
+            while((_cache.size() > _maxEntries || _currentBytes > _maxBytes) && it.hasNext())
+            {
+                Map.Entry<String, Tile> eldest = it.next();
+                if(eldest.getValue() == tile)
+                    break;
+                _currentBytes -= eldest.getValue().png.length;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Empties the tile cache.
+     */
+    public void invalidate()
+    {
+        synchronized(_cache)
+        {
+            _generation++;
+            _cache.clear();
+            _currentBytes = 0;
+        }
+    }
+
+    public void onSettingsChanged(SettingsChangedEvent sce)
+    {
+        ErrorLogger.LogMessage(_className, "onSettingsChanged",
+                "Clearing multipoint tile cache: " + sce.getEventType(), Level.FINE);
+        invalidate();
+    }
+
+    /**
+     * @param value tile width and height in pixels, 256 by default.
+     * Graphics already loaded keep the extent they were loaded with.
+     */
+    public void setTileSize(int value)
+    {
+        if(value > 0)
+            _tileSize = value;
+    }
+
+    public int getTileSize()
+    {
+        return _tileSize;
+    }
+
+    /**
+     * @param value pixels past each tile edge that graphics are clipped to
+     * and looked for in, 64 by default.
+     */
+    public void setBuffer(int value)
+    {
+        if(value >= 0)
+            _buffer = value;
+    }
+
+    public int getBuffer()
+    {
+        return _buffer;
+    }
+
+    public void setMaxEntries(int value)
+    {
+        synchronized(_cache)
+        {
+            _maxEntries = Math.max(0, value);
+        }
+    }
+
+    public void setMaxBytes(long value)
+    {
+        synchronized(_cache)
+        {
+            _maxBytes = Math.max(0, value);
+        }
+    }
+
+    public long getHits()
+    {
+        return _hits.get();
+    }
+
+    public long getMisses()
+    {
+        return _misses.get();
+    }
+
+    private static long hash(long hash, long value)
+    {
+        for(int i = 0; i < 8; i++)
+        {
+            hash ^= (value >>> (i * 8)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long hash(long hash, String value)
+    {
+        if(value == null)
+            return hash(hash, -1);
+        for(int i = 0; i < value.length(); i++)
+        {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash(hash, value.length());
+    }
+
+    /**
+     * What was loaded for a graphic.  A new MilStdSymbol is made for each
+     * render since rendering changes the symbol.
+     */
+    private static final class Graphic
+    {
+        final String id;
+        final String symbolCode;
+        //{lon0,lat0,lon1,lat1...}
+        final double[] coords;
+        final String modifiers;
+        final int symStd;
+        final long hash;
+
+        Graphic(String id, String symbolCode, double[] coords, String modifiers, int symStd)
+        {
+            this.id = id;
+            this.symbolCode = symbolCode;
+            this.coords = coords;
+            this.modifiers = modifiers;
+            this.symStd = symStd;
+
+            long h = hash(FNV_OFFSET, symbolCode);
+            for(double coord : coords)
+                h = hash(h, Double.doubleToLongBits(coord));
+            h = hash(h, modifiers);
+            h = hash(h, symStd);
+            hash = h;
+        }
+
+        MilStdSymbol createSymbol()
+        {
+            MilStdSymbol symbol = new MilStdSymbol(symbolCode, id, CoordinateParser.toPoints(coords), null);
+            //drawn with Java2D, which does the dashes
+            symbol.setUseDashArray(true);
+            symbol.setSymbologyStandard(symStd);
+            if(modifiers != null && modifiers.equals("") == false)
+                MultiPointHandler.populateModifiers(modifiers, symbol);
+            else
+                symbol.setFillColor(null);
+            return symbol;
+        }
+    }
+
+    /**
+     * A rendered tile.
+     */
+    public static final class Tile
+    {
+        private final int zoom;
+        private final int x;
+        private final int y;
+        private final byte[] png;
+        private final long hash;
+        private final int graphicCount;
+
+        Tile(int zoom, int x, int y, byte[] png, long hash, int graphicCount)
+        {
+            this.zoom = zoom;
+            this.x = x;
+            this.y = y;
+            this.png = png;
+            this.hash = hash;
+            this.graphicCount = graphicCount;
+        }
+
+        public int getZoom()
+        {
+            return zoom;
+        }
+
+        public int getX()
+        {
+            return x;
+        }
+
+        public int getY()
+        {
+            return y;
+        }
+
+        /**
+         * @return the PNG, don't modify it, it may be shared.
+         */
+        public byte[] getPNG()
+        {
+            return png;
+        }
+
+        /**
+         * @return quoted hash of the graphics in the tile and the cache
+         * generation they were rendered in, for an HTTP ETag
+         */
+        public String getETag()
+        {
+            return "\"" + Long.toHexString(hash) + "\"";
+        }
+
+        /**
+         * @return number of graphics drawn in the tile
+         */
+        public int getGraphicCount()
+        {
+            return graphicCount;
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.util.logging.Level;
 import javax.print.DocFlavor.BYTE_ARRAY;
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import sec.web.renderer.utilities.PNGInfo;
+import sec.web.renderer.utilities.SinglePointImageCache;
 import sec.web.renderer.utilities.SinglePointServerTester;
 
 /**
@@ -271,6 +272,7 @@ public class SECRenderer {
 	 */
 	public void setSinglePointUnitsFontSize(int size) {
 		jr.setUnitSymbolSize(size);
+		SinglePointImageCache.getInstance().invalidate();
 	}
 
 	/**
@@ -281,6 +283,19 @@ public class SECRenderer {
 	 */
 	public void setSinglePointTacticalGraphicFontSize(int size) {
 		jr.setSinglePointTGSymbolSize(size);
+		SinglePointImageCache.getInstance().invalidate();
+	}
+
+	/**
+	 * Pre-loads the single point tactical graphic glyphs so the first
+	 * renders don't have to go to the font.  Call at startup and after
+	 * setSinglePointTacticalGraphicFontSize.
+	 * 
+	 * @param pixelSizes
+	 *            symbol sizes to also pre-scale for, like {35, 50}, can be null
+	 */
+	public void warmSinglePointGlyphCache(int[] pixelSizes) {
+		jr.warmSinglePointGlyphCache(pixelSizes);
 	}
         
         // </editor-fold>
@@ -511,6 +526,7 @@ public class SECRenderer {
         public void refreshPlugins()
         {
             SinglePointRendererService.getInstance().LoadSPRendererServices();
+            SinglePointImageCache.getInstance().invalidate();
         }
 
 	/**
@@ -597,6 +613,40 @@ public class SECRenderer {
             return pi;
         }
         
+        /**
+         * Vector SVG for a single point symbol, drawn from the rendered
+         * shapes instead of wrapping a PNG.
+         * @param symbolId
+         * @param symbolInfoMap same parameters as getMilStdSymbolImage
+         * @param drawMode 0 - normal, 1 - center, 2 - square, like
+         * PNGInfo.toSVG
+         * @return null if the symbol can't be drawn as a single point, like
+         * a multipoint tactical graphic's icon.
+         */
+        public String getMilStdSymbolSVG(String symbolId, Map<String, String> symbolInfoMap, int drawMode)
+        {
+            String svg = null;
+            try
+            {
+                MilStdSymbol ms = JavaRendererUtilities.createMilstdSymbol(symbolId, symbolInfoMap);
+                if(SymbolUtilities.isTacticalGraphic(symbolId))
+                {
+                    SymbolDef sd = SymbolDefTable.getInstance().getSymbolDef(SymbolUtilities.getBasicSymbolID(symbolId), ms.getSymbologyStandard());
+                    if(sd == null || sd.getDrawCategory() != SymbolDef.DRAW_CATEGORY_POINT)
+                        return null;
+                }
+                if (jr.CanRender(ms)) {
+                    jr.Render(ms, new PointConversionDummy(), null);
+                    svg = ms.toSVG(drawMode);
+                }
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException("SECRenderer", "getMilStdSymbolSVG", exc);
+            }
+            return svg;
+        }
+        
         /**
          * Works the same as getMilStdSymbolImageFromURL but if you specify a
          * renderer, the function will tried to get the image from the 
@@ -626,6 +676,52 @@ public class SECRenderer {
             return getSymbolImage(symbolID, params);
         }
         
+        /**
+         * Returns the anchor point, symbol bounds and image size for a symbol
+         * without holding on to the image.  Results come from the
+         * SinglePointImageCache when available so repeated lookups don't
+         * re-render the symbol.
+         * @param url like "SFGP------*****?size=35&T=Hello"
+         * @return null if the symbol couldn't be rendered
+         */
+        public SinglePointImageCache.Entry getSymbolInfoFromURL(String url)
+        {
+            String symbolID = "";
+            Map<String, String> params = null;
+            SinglePointImageCache.Entry entry = null;
+            try
+            {
+                symbolID = (url.startsWith("/") ? url.substring(url.lastIndexOf("/") + 1) : url);
+                params = JavaRendererUtilities.createParameterMapFromURL(symbolID);
+                
+                int questionIndex = symbolID.lastIndexOf('?');
+                if(questionIndex != -1)
+                {
+                     symbolID = java.net.URLDecoder.decode(symbolID.substring(0, questionIndex), "UTF-8");
+                }
+                
+                SinglePointImageCache cache = SinglePointImageCache.getInstance();
+                String key = SinglePointImageCache.createKey(symbolID, params);
+                entry = cache.get(key);
+                if(entry == null)
+                {
+                    long generation = cache.getGeneration();
+                    PNGInfo pi = getSymbolImage(symbolID, params);
+                    entry = cache.put(key, generation, pi, null);
+                    if(entry == null && pi != null && pi.getImage() != null)
+                    {//cache disabled or settings changed mid render
+                        entry = new SinglePointImageCache.Entry(pi.getCenterPoint(), pi.getSymbolBounds(),
+                                pi.getImage().getWidth(), pi.getImage().getHeight(), null);
+                    }
+                }
+            }
+            catch(Exception exc)
+            {
+                ErrorLogger.LogException("SECRenderer", "getSymbolInfoFromURL", exc);
+            }
+            return entry;
+        }
+        
         /**
 	 * Works the same as getMilStdSymbolImage but if you specify a
          * renderer, the function will tried to get the image from the 
@@ -1125,6 +1221,34 @@ public class SECRenderer {
 		
 		
 	}
+
+	/**
+	 * Same as RenderMultiPointSymbol but writes the KML or JSON straight to
+	 * output, like a Writer on an HTTP response, instead of returning a
+	 * String.  3D symbols are still built as a String and then written.
+	 * 
+	 * @param output where the KML or JSON is written.
+	 * @throws IOException if output throws.
+	 */
+	public void RenderMultiPointSymbol(String id, String name, String description, String symbolCode,
+			String controlPoints, String altitudeMode, double scale, String bbox, String modifiers, int format, int symStd,
+			Appendable output) throws IOException {
+		try {
+			String altModifiers = JavaRendererUtilities.addAltModeToModifiersString(modifiers, altitudeMode);
+			if (JavaRendererUtilities.is3dSymbol(symbolCode, altModifiers)) {
+				output.append(RenderMultiPointSymbol(id, name, description, symbolCode, controlPoints, altitudeMode,
+						scale, bbox, modifiers, format, symStd));
+			} else {
+				MultiPointHandler.RenderSymbol(id, name, description, symbolCode, controlPoints,
+						scale, bbox, altModifiers, format, symStd, output);
+			}
+		} catch (IOException ioe) {
+			throw ioe;
+		} catch (Exception ea) {
+			output.append("{\"type\":'error',error:'There was an error creating the MilStdSymbol - " + ea.toString() + "'}");
+			ErrorLogger.LogException("SECWebRenderer", "RenderSymbol", ea, Level.WARNING);
+		}
+	}
         
         /**
 	 * Renders all multi-point symbols, creating KML that can be used to draw it
@@ -1259,6 +1383,28 @@ public class SECRenderer {
 		return output;
 	}
 
+	/**
+	 * Same as RenderMultiPointSymbol2D but writes the KML or JSON straight
+	 * to output, like a Writer on an HTTP response, instead of returning a
+	 * String.
+	 * 
+	 * @param output where the KML or JSON is written.
+	 * @throws IOException if output throws.
+	 */
+	public void RenderMultiPointSymbol2D(String id, String name, String description, String symbolCode,
+			String controlPoints, int pixelWidth, int pixelHeight, String bbox, String modifiers, int format, int symStd,
+			Appendable output) throws IOException {
+		try {
+			MultiPointHandler.RenderSymbol2D(id, name, description, symbolCode, controlPoints, pixelWidth,
+					pixelHeight, bbox, modifiers, format, symStd, output);
+		} catch (IOException ioe) {
+			throw ioe;
+		} catch (Exception exc) {
+			output.append("{\"type\":'error',error:'There was an error creating the MilStdSymbol: " + symbolCode + " - "
+					+ exc.toString() + "'}");
+		}
+	}
+
 	/**
 	 * 
 	 * @param symbolID
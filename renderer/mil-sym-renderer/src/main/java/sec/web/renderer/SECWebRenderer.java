@@ -36,6 +36,7 @@ import java.util.logging.Level;
 import sec.web.json.utilities.JSONArray;
 import sec.web.json.utilities.JSONException;
 import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import sec.web.renderer.utilities.SinglePointServerTester;
 
@@ -972,56 +973,71 @@ public class SECWebRenderer extends Applet {
             
             StringBuilder output = new StringBuilder();
             SymbolModifiers modifiers = new SymbolModifiers();
-            JSONObject attributesJSON;
-                        
+
             // Retrieve the attributes from the attributes object
             // Attributes should be a JSON array string of this format 
             // { "attributes":[{"radius1":50, "minalt":0, "maxalt:100"}]}
-            // There should only be one item in the JSON array, but if 
-            // there is more items this will ignore them.            
-            attributesJSON = new JSONObject(attributes);
-
-            // If no attributes passed in or attributes set to null
-            // default to an empty string.
-            if (attributesJSON == null || attributes.equals("")) {
-                attributesJSON = new JSONObject(DEFAULT_ATTRIBUTES);
-            }
-
-            JSONArray attributesArray = attributesJSON.getJSONArray(ATTRIBUTES);
-            int attributesArrayLength = attributesArray.length();
-            if (attributesArrayLength> 0) {
-                
-                for(int i = 0; i < attributesArrayLength; i++) {
-                
-                    // get the first item in the array and use those parameters.
-                    // if any of the parameters don't exist, it will use defaults.
-                    // Defaults are arbitrary, no reason not to change them.
-                    JSONObject currentAttributeSet = attributesArray.getJSONObject(i);
-
-                    if (currentAttributeSet.has(RADIUS1)) {
-                        modifiers.AM_DISTANCE.add(currentAttributeSet.getDouble(RADIUS1));
-                    }                                    
-
-                    if (currentAttributeSet.has(RADIUS2)) {
-                        modifiers.AM_DISTANCE.add(currentAttributeSet.getDouble(RADIUS2));
+            // Each item adds its values to the modifier lists.  Read with
+            // JSONReader, so nothing but the lists is built.
+            JSONReader reader = new JSONReader(attributes);
+            boolean hasAttributes = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!reader.nextName().equals(ATTRIBUTES)) {
+                    reader.skipValue();
+                    continue;
+                }
+                hasAttributes = true;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    // values are added in this order whatever order they're in
+                    Double radius1 = null, radius2 = null, minAlt = null,
+                            maxAlt = null, leftAzimuth = null, rightAzimuth = null;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        String attribute = reader.nextName();
+                        if (attribute.equals(RADIUS1)) {
+                            radius1 = reader.nextDouble();
+                        } else if (attribute.equals(RADIUS2)) {
+                            radius2 = reader.nextDouble();
+                        } else if (attribute.equals(MIN_ALT)) {
+                            minAlt = reader.nextDouble();
+                        } else if (attribute.equals(MAX_ALT)) {
+                            maxAlt = reader.nextDouble();
+                        } else if (attribute.equals(LEFT_AZIMUTH)) {
+                            leftAzimuth = reader.nextDouble();
+                        } else if (attribute.equals(RIGHT_AZIMUTH)) {
+                            rightAzimuth = reader.nextDouble();
+                        } else {
+                            reader.skipValue();
+                        }
                     }
+                    reader.endObject();
 
-                    if (currentAttributeSet.has(MIN_ALT)) {
-                        modifiers.X_ALTITUDE_DEPTH.add(currentAttributeSet.getDouble(MIN_ALT));
+                    if (radius1 != null) {
+                        modifiers.AM_DISTANCE.add(radius1);
                     }
-
-                    if (currentAttributeSet.has(MAX_ALT)) {
-                        modifiers.X_ALTITUDE_DEPTH.add(currentAttributeSet.getDouble(MAX_ALT));
+                    if (radius2 != null) {
+                        modifiers.AM_DISTANCE.add(radius2);
                     }
-
-                    if (currentAttributeSet.has(LEFT_AZIMUTH)) {
-                        modifiers.AN_AZIMUTH.add(currentAttributeSet.getDouble(LEFT_AZIMUTH));
+                    if (minAlt != null) {
+                        modifiers.X_ALTITUDE_DEPTH.add(minAlt);
                     }
-
-                    if (currentAttributeSet.has(RIGHT_AZIMUTH)) {
-                        modifiers.AN_AZIMUTH.add(currentAttributeSet.getDouble(RIGHT_AZIMUTH));
+                    if (maxAlt != null) {
+                        modifiers.X_ALTITUDE_DEPTH.add(maxAlt);
+                    }
+                    if (leftAzimuth != null) {
+                        modifiers.AN_AZIMUTH.add(leftAzimuth);
+                    }
+                    if (rightAzimuth != null) {
+                        modifiers.AN_AZIMUTH.add(rightAzimuth);
                     }
                 }
+                reader.endArray();
+            }
+            reader.endObject();
+            if (!hasAttributes) {
+                throw new JSONException("JSONObject[\"" + ATTRIBUTES + "\"] not found.");
             }
             
             // Send to the 3D renderer for generating the 3D point and creating
@@ -1331,39 +1347,41 @@ public class SECWebRenderer extends Applet {
         Point2D anchor = new Point2D.Double();
         Rectangle2D symbolBounds = new Rectangle2D.Double();
         Dimension2D iconSize = new Dimension();
-        JSONObject symbolInfo = null;
         StringBuilder sb = new StringBuilder();
         try
         {
-
-            //must escape '=' so that JSONObject can parse string
-            batch = batch.replaceAll("=", "%3D");
-            
-            String data = null;
-            JSONObject jsonSPString = new JSONObject(batch);
-            JSONArray jsa = jsonSPString.getJSONArray("iconURLs");
-            int len = jsa.length();
+            //JSONReader takes the '=' in the urls as is, no escaping needed
+            JSONReader reader = new JSONReader(batch);
             sb.append("{\"singlepoints\":[");
-            String item = null;
-            for(int i = 0; i < len; i++)
+            boolean first = true;
+            reader.beginObject();
+            while(reader.hasNext())
             {
-                if(i>0)
+                if(!reader.nextName().equals("iconURLs"))
                 {
-                    sb.append(",");
+                    reader.skipValue();
+                    continue;
                 }
-                
-                info = jsa.get(i).toString();
-                //System.out.println(info);
-                //info = java.net.URLDecoder.decode(info, "UTF-8");
-                info = info.replaceAll("%3D", "=");
-                //System.out.println(info);
-                anchor = new Point2D.Double();
-                symbolBounds = new Rectangle2D.Double();
-                iconSize = new Dimension();
-                sps.getSinglePointDimensions(info, anchor, symbolBounds, iconSize);
-                item = SymbolDimensionsToJSON(anchor, symbolBounds, iconSize);
-                sb.append(item);
+                reader.beginArray();
+                while(reader.hasNext())
+                {
+                    if(!first)
+                    {
+                        sb.append(",");
+                    }
+                    first = false;
+
+                    //an item that isn't a string is used as its JSON text
+                    info = reader.nextValue().toString();
+                    anchor = new Point2D.Double();
+                    symbolBounds = new Rectangle2D.Double();
+                    iconSize = new Dimension();
+                    sps.getSinglePointDimensions(info, anchor, symbolBounds, iconSize);
+                    sb.append(SymbolDimensionsToJSON(anchor, symbolBounds, iconSize));
+                }
+                reader.endArray();
             }
+            reader.endObject();
             sb.append("]}");
         }
         catch(Exception exc)
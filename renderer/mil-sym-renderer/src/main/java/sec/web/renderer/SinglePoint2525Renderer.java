@@ -16,6 +16,7 @@ import ArmyC2.C2SD.Utilities.ImageInfo;
 import ArmyC2.C2SD.Utilities.MilStdAttributes;
 import ArmyC2.C2SD.Utilities.MilStdSymbol;
 import ArmyC2.C2SD.Utilities.PointConversionDummy;
+import ArmyC2.C2SD.Utilities.RendererProfile;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.SymbolDef;
 import ArmyC2.C2SD.Utilities.SymbolDefTable;
@@ -65,7 +66,11 @@ public class SinglePoint2525Renderer implements ISinglePointRenderer {
         ISinglePointInfo spi = null;
         MilStdSymbol ms = null;
         
-        int symStd = RendererSettings.getInstance().getSymbologyStandard();
+        RendererProfile profile = RendererSettings.getInstance().getProfile(params.get(MilStdAttributes.Profile));
+        if(profile == null)
+            profile = RendererSettings.getInstance().getDefaultProfile();
+        
+        int symStd = profile.getSymbologyStandard();
         
         if(params.containsKey(MilStdAttributes.SymbologyStandard))
         {
@@ -90,13 +95,13 @@ public class SinglePoint2525Renderer implements ISinglePointRenderer {
                             symStd = 2;
                             break;
                         default:
-                            symStd = RendererSettings.getInstance().getSymbologyStandard();
+                            symStd = profile.getSymbologyStandard();
                             break;
                     }                    
                 }
                 else
                 {
-                    symStd = RendererSettings.getInstance().getSymbologyStandard();
+                    symStd = profile.getSymbologyStandard();
                 }   
             }
             else
@@ -109,7 +114,7 @@ public class SinglePoint2525Renderer implements ISinglePointRenderer {
                     case '2':
                         break;
                     default:
-                        symStd = RendererSettings.getInstance().getSymbologyStandard();
+                        symStd = profile.getSymbologyStandard();
                         break;
                 } 
             }
@@ -18,7 +18,6 @@ import java.util.Date;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 
-import javax.imageio.ImageIO;
 
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import ArmyC2.C2SD.RendererPluginInterface.ISinglePointInfo;
@@ -29,7 +28,10 @@ import ArmyC2.C2SD.Utilities.ErrorLogger;
 import ArmyC2.C2SD.Utilities.ImageInfo;
 import ArmyC2.C2SD.Utilities.MilStdAttributes;
 import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.PNGEncoder;
 import ArmyC2.C2SD.Utilities.RendererException;
+import ArmyC2.C2SD.Utilities.RendererProfile;
+import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.SinglePointFont;
 import ArmyC2.C2SD.Utilities.SinglePointLookup;
 import ArmyC2.C2SD.Utilities.SymbolDefTable;
@@ -45,6 +47,7 @@ import java.net.BindException;
 import java.util.Map;
 import static sec.web.renderer.utilities.JavaRendererUtilities.sanitizeSymbolID;
 import sec.web.renderer.utilities.PNGInfo;
+import sec.web.renderer.utilities.SinglePointImageCache;
 
 /**
  * 
@@ -205,10 +208,21 @@ public class SinglePointServer {
 
 	public void setTacticalGraphicPointSize(int size) {
 		jr.setSinglePointTGSymbolSize(size);
+		SinglePointImageCache.getInstance().invalidate();
 	}
 
 	public void setUnitPointSize(int size) {
 		jr.setUnitSymbolSize(size);
+		SinglePointImageCache.getInstance().invalidate();
+	}
+
+	/**
+	 * Makes a settings profile available to requests with a "profile" url
+	 * parameter, like "?profile=ge".
+	 * @param profile
+	 */
+	public void registerRendererProfile(RendererProfile profile) {
+		RendererSettings.getInstance().registerProfile(profile);
 	}
         
         private int RENDER_TYPE_IMAGE = 0;
@@ -306,10 +320,8 @@ public class SinglePointServer {
                                             isIcon = true;
                                         }
 
-                                        PNGInfo pi = sr.getMilStdSymbolImage(symbolID, params);
-
                                         if(isIcon)
-                                            pi = pi.squareImage();
+                                            svgDrawMode = 2;
                                         else
                                         {
                                             if(params.containsKey("CENTER") && 
@@ -324,7 +336,14 @@ public class SinglePointServer {
                                             }
                                         }
 
-                                        svgResponse = pi.toSVG(svgDrawMode).getBytes();   
+                                        String svg = sr.getMilStdSymbolSVG(symbolID, params, svgDrawMode);
+                                        if(svg == null)
+                                        {
+                                            //multipoint icons only come back as images
+                                            PNGInfo pi = sr.getMilStdSymbolImage(symbolID, params);
+                                            svg = pi.toSVG(svgDrawMode);
+                                        }
+                                        svgResponse = svg.getBytes();
                                     }
                                     else
                                     {
@@ -525,6 +544,22 @@ public class SinglePointServer {
                         // prepare implement IPointConversion or use our basic point
                         Map<String,String> params = JavaRendererUtilities.createParameterMapFromURL(SymbolInfo);
 
+                        //dimensions don't change unless the request does
+                        SinglePointImageCache cache = SinglePointImageCache.getInstance();
+                        int keyIndex = SymbolInfo.lastIndexOf('?');
+                        String cacheKey = SinglePointImageCache.createKey(java.net.URLDecoder.decode(
+                                (keyIndex == -1) ? SymbolInfo : SymbolInfo.substring(0, keyIndex), "UTF-8"), params);
+                        SinglePointImageCache.Entry cached = cache.get(cacheKey);
+                        if(cached != null)
+                        {
+                            center.setLocation(cached.getCenterPoint());
+                            bounds.setFrame(cached.getSymbolBounds());
+                            if (iconExtent != null)
+                                iconExtent.setSize(cached.getImageWidth(), cached.getImageHeight());
+                            return;
+                        }
+                        long generation = cache.getGeneration();
+
                         // check if plugin renderer was requested
                         String renderer = params.get(MilStdAttributes.Renderer);
                         if(renderer==null || renderer.equals(""))
@@ -565,6 +600,8 @@ public class SinglePointServer {
                             bounds.setFrame(iInfo.getSymbolBounds());
                             if (iconExtent != null)
                                 iconExtent.setSize(iInfo.getImage().getWidth(), iInfo.getImage().getHeight());
+
+                            cache.put(cacheKey, generation, new PNGInfo(iInfo), null);
                         } 
 
                     } catch (Exception exc) {
@@ -592,6 +629,18 @@ public class SinglePointServer {
 
 			try {
 
+                                //see if we've already rendered this exact request
+                                SinglePointImageCache cache = SinglePointImageCache.getInstance();
+                                int keyIndex = symbolCode.lastIndexOf('?');
+                                String cacheKey = SinglePointImageCache.createKey(java.net.URLDecoder.decode(
+                                        (keyIndex == -1) ? symbolCode : symbolCode.substring(0, keyIndex), "UTF-8"), params);
+                                SinglePointImageCache.Entry cached = cache.getWithImage(cacheKey);
+                                if(cached != null)
+                                {
+                                    return cached.getPngBytes();
+                                }
+                                long generation = cache.getGeneration();
+
 				// check if plugin renderer was requested
                                 String renderer = params.get(MilStdAttributes.Renderer);
                                 if(renderer==null || renderer.equals(""))
@@ -641,7 +690,7 @@ public class SinglePointServer {
                                     BufferedImage bit = null;
                                     pi = new PNGInfo(iInfo);
                                     bit = pi.squareImage().getImage();
-                                    ImageIO.write(bit, "png", baos);
+                                    byteArray = PNGEncoder.encode(bit);
                                 }
                                 else if (params.containsKey("BUFFER"))
                                 {
@@ -676,12 +725,12 @@ public class SinglePointServer {
                                     if(eWidth > 0 && eHeight > 0 && ecX > 0 && ecY > 0 && buffer > 0)
                                     {
                                         pi = pi.fitImage(eWidth, eHeight, ecX, ecY, buffer);
-                                        ImageIO.write(pi.getImage(), "png", baos);
+                                        byteArray = PNGEncoder.encode(pi.getImage());
                                     }
                                     else
                                     {
                                         BufferedImage image = iInfo.getImage();
-					ImageIO.write(image, "png", baos);
+					byteArray = PNGEncoder.encode(image);
                                     }
                                 }
                                 else 
@@ -723,6 +772,11 @@ public class SinglePointServer {
                                     byteArray = baos.toByteArray();
                                     baos.close();
                                 }
+                                
+                                if(byteArray != null && iInfo != null)
+                                {
+                                    cache.put(cacheKey, generation, new PNGInfo(iInfo), byteArray);
+                                }
 
 				/*
 				 * //cleanup symbol = null; pConverter = null; image = null;//
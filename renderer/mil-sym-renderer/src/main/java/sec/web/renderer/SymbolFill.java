@@ -0,0 +1,216 @@
+package sec.web.renderer;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.RendererSettings;
+import sec.web.renderer.utilities.FillStampCache;
+
+/**
+ * What AreaSymbolFill needs to draw a symbol fill or symbol line, without
+ * going through a url.  Points are in the fill image's pixel space with 0,0
+ * at the top left of the area's bounds.
+ */
+public class SymbolFill {
+
+    private final List<Point2D> _points;
+    private final String[] _fillIDs;
+    private final String[] _lineIDs;
+    private final int _iconSize;
+    private final int _symStd;
+    private final Rectangle2D _clip;
+    private final int _width;
+    private final int _height;
+
+    /**
+     *
+     * @param points outline of the area or the line, in image pixels
+     * @param fillIDs symbols to fill the area with, or null
+     * @param lineIDs symbols to draw along the line, or null.  Ignored if
+     * there are fillIDs.
+     * @param iconSize pixel size of the fill symbols, clamped to
+     * FillStampCache.MAX_ICON_SIZE
+     * @param symStd symbology standard of the fill symbols, 0 for
+     * 2525Bch2, 1 for 2525C
+     * @param clip visible map area, can be null
+     * @param width of the area
+     * @param height of the area
+     */
+    public SymbolFill(List<Point2D> points, String[] fillIDs, String[] lineIDs,
+            int iconSize, int symStd, Rectangle2D clip, int width, int height)
+    {
+        _points = points;
+        _fillIDs = fillIDs;
+        _lineIDs = lineIDs;
+        _iconSize = Math.min(iconSize, FillStampCache.MAX_ICON_SIZE);
+        _symStd = symStd;
+        _clip = clip;
+        _width = width;
+        _height = height;
+    }
+
+    /**
+     * Builds the fill for a multipoint's pixels the way
+     * SECWebRenderer.GenerateSymbolLineFillUrl builds the url, moving the
+     * points so the top left of their bounds is 0,0.
+     * @param modifiers the symbol's modifier map with symbolFillIds,
+     * symbolLineIds and symbolFillIconSize
+     * @param symStd the multipoint's symbology standard
+     * @param pixels
+     * @param clip
+     * @return null if there are no fill or line IDs
+     */
+    public static SymbolFill fromModifiers(Map<String, String> modifiers, int symStd, List<Point2D> pixels, Rectangle2D clip)
+    {
+        String[] fillIDs = split(modifiers.get(MultiPointHandler.SYMBOL_FILL_IDS));
+        String[] lineIDs = split(modifiers.get(MultiPointHandler.SYMBOL_LINE_IDS));
+        if(fillIDs == null && lineIDs == null)
+            return null;
+
+        int iconSize = AreaSymbolFill.DEFAULT_SYMBOL_SIZE;
+        if(modifiers.containsKey(MultiPointHandler.SYMBOL_FILL_ICON_SIZE))
+            iconSize = Integer.parseInt(modifiers.get(MultiPointHandler.SYMBOL_FILL_ICON_SIZE).trim());
+
+        Rectangle2D bounds = getBounds(pixels);
+        int left = (int)bounds.getX();
+        int top = (int)bounds.getY();
+        List<Point2D> points = new ArrayList<Point2D>(pixels.size());
+        for(Point2D pixel : pixels)
+        {
+            //url coords were whole pixels
+            points.add(new Point2D.Double((int)(pixel.getX() - left), (int)(pixel.getY() - top)));
+        }
+
+        return new SymbolFill(points, fillIDs, lineIDs, iconSize, symStd, clip,
+                (int)bounds.getWidth(), (int)bounds.getHeight());
+    }
+
+    /**
+     * Reads the url parameters from SinglePointRendererService.processParams
+     * for the AREASYMBOLFILL requests SinglePointServer gets.  SYMSTD
+     * defaults to RendererSettings' symbology standard.
+     * @param params
+     * @return
+     */
+    public static SymbolFill fromParams(Map<String, String> params)
+    {
+        String[] fillIDs = split(params.get(AreaSymbolFill.KEY_SYMBOL_FILL_IDS));
+        String[] lineIDs = split(params.get(AreaSymbolFill.KEY_SYMBOL_LINE_IDS));
+
+        String[] strCoords = String.valueOf(params.get(AreaSymbolFill.KEY_SYMBOL_COORDS)).split(",");
+        List<Point2D> points = new ArrayList<Point2D>(strCoords.length / 2);
+        for(int i = 0; i < strCoords.length - 1; i += 2)
+        {
+            points.add(new Point2D.Double(Integer.parseInt(strCoords[i]), Integer.parseInt(strCoords[i + 1])));
+        }
+
+        Rectangle2D clip = null;
+        if(params.containsKey(AreaSymbolFill.KEY_SYMBOL_CLIP))
+        {
+            String[] arrClip = params.get(AreaSymbolFill.KEY_SYMBOL_CLIP).split(",");
+            clip = new Rectangle2D.Double(Double.parseDouble(arrClip[0]), Double.parseDouble(arrClip[1]),
+                    Double.parseDouble(arrClip[2]), Double.parseDouble(arrClip[3]));
+        }
+
+        int iconSize = AreaSymbolFill.DEFAULT_SYMBOL_SIZE;
+        if(params.containsKey(AreaSymbolFill.KEY_SYMBOL_FILL_ICON_SIZE))
+            iconSize = Integer.parseInt(params.get(AreaSymbolFill.KEY_SYMBOL_FILL_ICON_SIZE));
+
+        int symStd = RendererSettings.getInstance().getSymbologyStandard();
+        String strSymStd = params.get(MilStdAttributes.SymbologyStandard);
+        if(strSymStd != null)
+        {
+            if(strSymStd.equalsIgnoreCase("2525B"))
+                symStd = RendererSettings.Symbology_2525B;
+            else if(strSymStd.equalsIgnoreCase("2525C"))
+                symStd = RendererSettings.Symbology_2525C;
+            else if(strSymStd.length() == 1 && Character.isDigit(strSymStd.charAt(0)))
+                symStd = Integer.parseInt(strSymStd);
+        }
+
+        return new SymbolFill(points, fillIDs, lineIDs, iconSize, symStd, clip,
+                Integer.parseInt(params.get(AreaSymbolFill.KEY_SYMBOL_WIDTH)),
+                Integer.parseInt(params.get(AreaSymbolFill.KEY_SYMBOL_HEIGHT)));
+    }
+
+    private static String[] split(String ids)
+    {
+        if(ids == null)
+            return null;
+        return ids.split(",");
+    }
+
+    private static Rectangle2D getBounds(List<Point2D> pixels)
+    {
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for(Point2D pixel : pixels)
+        {
+            minX = Math.min(minX, pixel.getX());
+            minY = Math.min(minY, pixel.getY());
+            maxX = Math.max(maxX, pixel.getX());
+            maxY = Math.max(maxY, pixel.getY());
+        }
+        //same as Path2D.getBounds(), whole pixels that cover the points
+        int x = (int)Math.floor(minX);
+        int y = (int)Math.floor(minY);
+        return new Rectangle2D.Double(x, y, (int)Math.ceil(maxX) - x, (int)Math.ceil(maxY) - y);
+    }
+
+    public List<Point2D> getPoints()
+    {
+        return _points;
+    }
+
+    public String[] getFillIDs()
+    {
+        return _fillIDs;
+    }
+
+    public String[] getLineIDs()
+    {
+        return _lineIDs;
+    }
+
+    /**
+     * @return true if the symbols go along the line rather than inside the
+     * area.
+     */
+    public boolean isLineFill()
+    {
+        return _fillIDs == null;
+    }
+
+    public int getIconSize()
+    {
+        return _iconSize;
+    }
+
+    /**
+     * @return 0 for 2525Bch2, 1 for 2525C
+     */
+    public int getSymbologyStandard()
+    {
+        return _symStd;
+    }
+
+    public Rectangle2D getClip()
+    {
+        return _clip;
+    }
+
+    public int getWidth()
+    {
+        return _width;
+    }
+
+    public int getHeight()
+    {
+        return _height;
+    }
+}
@@ -0,0 +1,265 @@
+package sec.web.renderer.utilities;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+
+/**
+ * Parses controlPoints and bbox strings in a single pass without splitting
+ * them into substrings or boxing the values.  Gives the same results as
+ * splitting on spaces and commas and calling Double.valueOf on each value:
+ * empty tokens and tokens without a comma are skipped, extra values after
+ * the second are ignored and a bad number throws NumberFormatException.
+ */
+public class CoordinateParser {
+
+    //powers of ten that are exact as doubles
+    private static final double[] POW10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    //mantissas with this many digits or less are exact as doubles
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private CoordinateParser()
+    {
+    }
+
+    /**
+     * @param coordinates like "lon,lat lon,lat ..."
+     * @return lon,lat values in order, {x0,y0,x1,y1...}
+     * @throws NumberFormatException
+     */
+    public static double[] parseCoordinates(String coordinates)
+    {
+        double[] buffer = new double[Math.max(2, countPairs(coordinates) * 2)];
+        int count = parseCoordinates(coordinates, buffer);
+        if(count * 2 == buffer.length)
+            return buffer;
+
+        double[] values = new double[count * 2];
+        System.arraycopy(buffer, 0, values, 0, values.length);
+        return values;
+    }
+
+    /**
+     * Fills a caller owned buffer so it can be reused between calls.
+     * @param coordinates like "lon,lat lon,lat ..."
+     * @param buffer gets {x0,y0,x1,y1...}, must hold 2 values per point
+     * @return number of points parsed
+     * @throws NumberFormatException
+     * @throws ArrayIndexOutOfBoundsException if buffer is too small
+     */
+    public static int parseCoordinates(String coordinates, double[] buffer)
+    {
+        int count = 0;
+        int len = coordinates.length();
+        int start = 0;
+        while(start <= len)
+        {
+            int end = coordinates.indexOf(' ', start);
+            if(end < 0)
+                end = len;
+
+            int comma = indexOf(coordinates, ',', start, end);
+            if(comma > -1)
+            {
+                int comma2 = indexOf(coordinates, ',', comma + 1, end);
+                if(comma2 < 0)
+                    comma2 = end;
+                //"x," splits to one value, skip it like split would
+                if(hasValueAfter(coordinates, comma + 1, end))
+                {
+                    buffer[count * 2] = parseDouble(coordinates, start, comma);
+                    buffer[count * 2 + 1] = parseDouble(coordinates, comma + 1, comma2);
+                    count++;
+                }
+            }
+            start = end + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Boxes parsed coordinates for MilStdSymbol, which keeps its coordinates
+     * as points.  Anything else should work from the values.
+     * @param coordinates {x0,y0,x1,y1...} from parseCoordinates
+     * @return the points as Point2D.Double(lon, lat)
+     */
+    public static ArrayList<Point2D.Double> toPoints(double[] coordinates)
+    {
+        int count = coordinates.length / 2;
+        ArrayList<Point2D.Double> points = new ArrayList<Point2D.Double>(count);
+        for(int i = 0; i < count; i++)
+        {
+            points.add(new Point2D.Double(coordinates[i * 2], coordinates[i * 2 + 1]));
+        }
+        return points;
+    }
+
+    /**
+     * @param values comma separated numbers like a bbox,
+     * "left,bottom,right,top"
+     * @return the numbers in order
+     * @throws NumberFormatException
+     */
+    public static double[] parseValues(String values)
+    {
+        int len = values.length();
+        //split drops trailing empty values
+        while(len > 0 && values.charAt(len - 1) == ',')
+            len--;
+
+        int count = 1;
+        for(int i = 0; i < len; i++)
+        {
+            if(values.charAt(i) == ',')
+                count++;
+        }
+
+        double[] returnVal = new double[count];
+        int start = 0;
+        for(int i = 0; i < count; i++)
+        {
+            int end = indexOf(values, ',', start, len);
+            if(end < 0)
+                end = len;
+            returnVal[i] = parseDouble(values, start, end);
+            start = end + 1;
+        }
+        return returnVal;
+    }
+
+    /**
+     * Same as Double.valueOf(s.substring(start, end).trim()).
+     * @param s
+     * @param start
+     * @param end
+     * @return
+     * @throws NumberFormatException
+     */
+    public static double parseDouble(String s, int start, int end)
+    {
+        while(start < end && s.charAt(start) <= ' ')
+            start++;
+        while(end > start && s.charAt(end - 1) <= ' ')
+            end--;
+
+        int i = start;
+        boolean negative = false;
+        if(i < end && (s.charAt(i) == '-' || s.charAt(i) == '+'))
+        {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for(; i < end; i++)
+        {
+            char c = s.charAt(i);
+            if(c >= '0' && c <= '9')
+            {
+                seenDigit = true;
+                if(seenPoint)
+                    fractionDigits++;
+                if(mantissa > 0 || c != '0')
+                {
+                    if(++digits > MAX_FAST_DIGITS)
+                        return parseSlow(s, start, end);
+                }
+                mantissa = mantissa * 10 + (c - '0');
+            }
+            else if(c == '.' && seenPoint == false)
+            {
+                seenPoint = true;
+            }
+            else if((c == 'e' || c == 'E') && seenDigit)
+            {
+                i++;
+                boolean negativeExp = false;
+                if(i < end && (s.charAt(i) == '-' || s.charAt(i) == '+'))
+                {
+                    negativeExp = s.charAt(i) == '-';
+                    i++;
+                }
+                if(i >= end || end - i > 3)
+                    return parseSlow(s, start, end);
+                for(; i < end; i++)
+                {
+                    c = s.charAt(i);
+                    if(c < '0' || c > '9')
+                        return parseSlow(s, start, end);
+                    exponent = exponent * 10 + (c - '0');
+                }
+                if(negativeExp)
+                    exponent = -exponent;
+            }
+            else//NaN, Infinity, hex, 'd' suffix or garbage
+            {
+                return parseSlow(s, start, end);
+            }
+        }
+
+        if(seenDigit == false)
+            return parseSlow(s, start, end);
+
+        double value = 0;
+        int exp10 = exponent - fractionDigits;
+        if(mantissa == 0)
+            value = 0;
+        else if(exp10 == 0)
+            value = mantissa;
+        else if(exp10 > 0 && exp10 < POW10.length)
+            value = mantissa * POW10[exp10];//one rounding, so exact
+        else if(exp10 < 0 && -exp10 < POW10.length)
+            value = mantissa / POW10[-exp10];
+        else
+            return parseSlow(s, start, end);
+
+        return negative ? -value : value;
+    }
+
+    private static double parseSlow(String s, int start, int end)
+    {
+        return Double.parseDouble(s.substring(start, end));
+    }
+
+    private static int countPairs(String coordinates)
+    {
+        int count = 1;
+        int len = coordinates.length();
+        for(int i = 0; i < len; i++)
+        {
+            if(coordinates.charAt(i) == ' ')
+                count++;
+        }
+        return count;
+    }
+
+    private static int indexOf(String s, char c, int start, int end)
+    {
+        for(int i = start; i < end; i++)
+        {
+            if(s.charAt(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    private static boolean hasValueAfter(String s, int start, int end)
+    {
+        //"x,,y" splits to {"x","","y"} so the empty second value is parsed
+        //(and fails) but "x,," splits to {"x"}.
+        for(int i = start; i < end; i++)
+        {
+            if(s.charAt(i) != ',')
+                return true;
+        }
+        return false;
+    }
+}
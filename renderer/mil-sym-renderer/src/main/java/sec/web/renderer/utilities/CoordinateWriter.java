@@ -0,0 +1,127 @@
+package sec.web.renderer.utilities;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes coordinate values straight to an Appendable.  Output is the same
+ * text StringBuilder.append(double) would produce, but values that have
+ * already been rounded to 8 decimal places (like the lat/lon values in
+ * MultiPointHandler) are formatted without creating any Strings.
+ */
+public class CoordinateWriter {
+
+    private static final long SCALE = 100000000L;
+    private static final double DSCALE = 100000000.0;
+
+    //enough for the sign, 7 integer digits, the point and 8 decimals
+    private static final ThreadLocal<char[]> _buffer = new ThreadLocal<char[]>()
+    {
+        @Override
+        protected char[] initialValue()
+        {
+            return new char[24];
+        }
+    };
+
+    private CoordinateWriter()
+    {
+    }
+
+    /**
+     * Rounds to 8 decimal places, the precision used for all multipoint output.
+     * @param value
+     * @return
+     */
+    public static double round(double value)
+    {
+        return Math.round(value * DSCALE) / DSCALE;
+    }
+
+    /**
+     * Same text as String.valueOf(value).
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    public static void append(Appendable out, double value) throws IOException
+    {
+        double abs = Math.abs(value);
+        //Double.toString switches to E notation outside this range
+        if(abs >= 0.001 && abs < 10000000)
+        {
+            long scaled = Math.round(value * DSCALE);
+            if(scaled / DSCALE == value)
+            {
+                appendScaled(out, scaled);
+                return;
+            }
+        }
+        else if(value == 0)
+        {
+            out.append(Double.doubleToRawLongBits(value) < 0 ? "-0.0" : "0.0");
+            return;
+        }
+        out.append(String.valueOf(value));
+    }
+
+    /**
+     * Writes "x,y" like the KML coordinates element.
+     * @param out
+     * @param x
+     * @param y
+     * @throws IOException
+     */
+    public static void appendPair(Appendable out, double x, double y) throws IOException
+    {
+        append(out, x);
+        out.append(',');
+        append(out, y);
+    }
+
+    private static void appendScaled(Appendable out, long scaled) throws IOException
+    {
+        char[] buffer = _buffer.get();
+        int pos = buffer.length;
+        boolean negative = scaled < 0;
+        if(negative)
+            scaled = -scaled;
+
+        long whole = scaled / SCALE;
+        long fraction = scaled % SCALE;
+
+        //fraction digits without trailing zeros, at least one digit
+        int digits = 8;
+        while(digits > 1 && fraction % 10 == 0)
+        {
+            fraction /= 10;
+            digits--;
+        }
+        for(int i = 0; i < digits; i++)
+        {
+            buffer[--pos] = (char)('0' + (fraction % 10));
+            fraction /= 10;
+        }
+        buffer[--pos] = '.';
+        do
+        {
+            buffer[--pos] = (char)('0' + (whole % 10));
+            whole /= 10;
+        }
+        while(whole > 0);
+        if(negative)
+            buffer[--pos] = '-';
+
+        if(out instanceof StringBuilder)
+            ((StringBuilder)out).append(buffer, pos, buffer.length - pos);
+        else if(out instanceof Writer)
+            ((Writer)out).write(buffer, pos, buffer.length - pos);
+        else
+        {
+            for(int i = pos; i < buffer.length; i++)
+            {
+                out.append(buffer[i]);
+            }
+        }
+    }
+}
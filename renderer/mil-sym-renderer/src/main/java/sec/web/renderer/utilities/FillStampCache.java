@@ -0,0 +1,461 @@
+package sec.web.renderer.utilities;
+
+import ArmyC2.C2SD.Rendering.JavaRenderer;
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.ImageInfo;
+import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.PointConversionDummy;
+import ArmyC2.C2SD.Utilities.RendererException;
+import ArmyC2.C2SD.Utilities.RendererSettings;
+import ArmyC2.C2SD.Utilities.SettingsChangedEvent;
+import ArmyC2.C2SD.Utilities.SettingsChangedEventListener;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+
+/**
+ * Rendered fill icons for AreaSymbolFill, keyed by symbol ID, symbology
+ * standard, pixel size and color, so the same few obstacle and minefield
+ * icons aren't re-rendered for every fill.  Line fills draw icons turned to match the line, so each small
+ * stamp also keeps rotated copies, made the first time an angle (to the
+ * nearest degree) is asked for, that can be drawn without a transform.
+ * Bounded by the bytes of its images, rotated copies included, least
+ * recently used stamps go first.
+ * Cleared whenever a RendererSettings value changes or invalidate() is
+ * called.
+ */
+public class FillStampCache implements SettingsChangedEventListener {
+
+    private static FillStampCache _instance = null;
+
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+
+    /**
+     * Largest icon size that gets rendered, bigger sizes are clamped.
+     */
+    public static final int MAX_ICON_SIZE = 100;
+
+    /**
+     * Icons with more pixels than this are drawn through a rotate transform
+     * instead of keeping rotated copies.
+     */
+    public static final int MAX_ROTATED_PIXELS = 64 * 64;
+
+    private static final String _className = "FillStampCache";
+
+    private final LinkedHashMap<String, Stamp> _stamps = new LinkedHashMap<String, Stamp>(64, 0.75f, true);
+    private long _maxBytes = DEFAULT_MAX_BYTES;
+    private long _currentBytes = 0;
+    private volatile boolean _enabled = true;
+    //bumped on every invalidate so renders started before the
+    //invalidate don't get put back in the cache afterwards.
+    private volatile long _generation = 0;
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+
+    private FillStampCache()
+    {
+        RendererSettings.getInstance().addEventListener(this);
+    }
+
+    public static synchronized FillStampCache getInstance()
+    {
+        if(_instance == null)
+            _instance = new FillStampCache();
+
+        return _instance;
+    }
+
+    /**
+     * Gets the rendered icon, rendering it if it isn't cached.
+     * @param symbolID single point symbol code
+     * @param symStd 0 for 2525Bch2, 1 for 2525C
+     * @param size pixel size, same as JavaRenderer.RenderSinglePointAsImageInfo,
+     * clamped to MAX_ICON_SIZE
+     * @param color line color for the icon, null for the symbol's normal
+     * colors
+     * @return null if the symbol couldn't be rendered
+     */
+    public Stamp getStamp(String symbolID, int symStd, int size, Color color)
+    {
+        size = Math.min(size, MAX_ICON_SIZE);
+        String key = createKey(symbolID, symStd, size, color);
+        Stamp stamp = null;
+        if(_enabled)
+        {
+            synchronized(_stamps)
+            {
+                stamp = _stamps.get(key);
+            }
+        }
+        if(stamp != null)
+        {
+            _hits.incrementAndGet();
+            return stamp;
+        }
+        _misses.incrementAndGet();
+
+        long generation = _generation;
+        ImageInfo ii = render(symbolID, symStd, size, color);
+        if(ii == null || ii.getImage() == null)
+            return null;
+
+        if(_enabled == false)
+            return new Stamp(ii, null, null);
+
+        stamp = new Stamp(ii, this, key);
+        synchronized(_stamps)
+        {
+            //rendered with settings that have since changed
+            if(generation != _generation)
+                return new Stamp(ii, null, null);
+
+            //another thread rendered it first
+            Stamp existing = _stamps.get(key);
+            if(existing != null)
+                return existing;
+
+            _stamps.put(key, stamp);
+            _currentBytes += stamp.getByteCount();
+            trim();
+        }
+        return stamp;
+    }
+
+    /**
+     * Gets a stamp for each ID.  Repeated IDs get the same stamp.
+     * @param symbolIDs
+     * @param symStd
+     * @param size
+     * @param color can be null
+     * @return stamps in the same order as symbolIDs, with null for any that
+     * couldn't be rendered.
+     */
+    public ArrayList<Stamp> getStamps(String[] symbolIDs, int symStd, int size, Color color)
+    {
+        ArrayList<Stamp> stamps = new ArrayList<Stamp>(symbolIDs.length);
+        Map<String, Stamp> found = new HashMap<String, Stamp>();
+        for(String id : symbolIDs)
+        {
+            Stamp stamp = found.get(id);
+            if(stamp == null)
+            {
+                stamp = getStamp(id, symStd, size, color);
+                found.put(id, stamp);
+            }
+            stamps.add(stamp);
+        }
+        return stamps;
+    }
+
+    private static String createKey(String symbolID, int symStd, int size, Color color)
+    {
+        StringBuilder sb = new StringBuilder(32);
+        sb.append(symbolID);
+        sb.append('|');
+        sb.append(symStd);
+        sb.append('|');
+        sb.append(size);
+        if(color != null)
+        {
+            sb.append('|');
+            sb.append(Integer.toHexString(color.getRGB()));
+        }
+        return sb.toString();
+    }
+
+    private static ImageInfo render(String symbolID, int symStd, int size, Color color)
+    {
+        try
+        {
+            Map<String, String> modifiers = new HashMap<String, String>();
+            if(size > 0)
+                modifiers.put(MilStdAttributes.PixelSize, String.valueOf(size));
+
+            ArrayList<Point2D.Double> points = new ArrayList<Point2D.Double>();
+            points.add(new Point2D.Double(0, 0));
+            MilStdSymbol symbol = new MilStdSymbol(symbolID, null, points, modifiers);
+            symbol.setUnitSize(size);
+            symbol.setKeepUnitRatio(true);
+            symbol.setSymbologyStandard(symStd);
+            if(color != null)
+                symbol.setLineColor(color);
+            return JavaRenderer.getInstance().RenderMilStdSymbolAsImageInfo(symbol, new PointConversionDummy(), null);
+        }
+        catch(Exception exc)
+        {
+            ErrorLogger.LogException(_className, "render",
+                    new RendererException("Failed inside render", exc));
+        }
+        return null;
+    }
+
+    /**
+     * Evicts least recently used stamps until we're within the byte limit.
+     * Must be called while holding the _stamps lock.
+     */
+    private void trim()
+    {
+        Iterator<Stamp> itr = _stamps.values().iterator();
+        while(_currentBytes > _maxBytes && itr.hasNext())
+        {
+            _currentBytes -= itr.next().getByteCount();
+            itr.remove();
+        }
+    }
+
+    /**
+     * Counts a rotated copy against the limit if its stamp is still cached.
+     * Stamp bytes only change in here so the running total stays right.
+     */
+    private void addRotatedBytes(Stamp stamp, long bytes)
+    {
+        synchronized(_stamps)
+        {
+            stamp._bytes += bytes;
+            if(_stamps.get(stamp._key) == stamp)
+            {
+                _currentBytes += bytes;
+                trim();
+            }
+        }
+    }
+
+    /**
+     * Empties the cache.  RendererSettings changes are handled
+     * automatically.
+     */
+    public void invalidate()
+    {
+        synchronized(_stamps)
+        {
+            _generation++;
+            _stamps.clear();
+            _currentBytes = 0;
+        }
+    }
+
+    @Override
+    public void onSettingsChanged(SettingsChangedEvent sce)
+    {
+        ErrorLogger.LogMessage(_className, "onSettingsChanged",
+                "Clearing fill stamp cache: " + sce.getEventType(), Level.FINE);
+        invalidate();
+    }
+
+    /**
+     * @param value false to turn off caching and empty the cache.
+     */
+    public void setEnabled(boolean value)
+    {
+        _enabled = value;
+        if(value == false)
+            invalidate();
+    }
+
+    public boolean getEnabled()
+    {
+        return _enabled;
+    }
+
+    /**
+     * @param maxBytes max bytes of icons and rotated copies to hold,
+     * default 32MB
+     */
+    public void setMaxBytes(long maxBytes)
+    {
+        synchronized(_stamps)
+        {
+            _maxBytes = Math.max(0, maxBytes);
+            trim();
+        }
+    }
+
+    public long getMaxBytes()
+    {
+        return _maxBytes;
+    }
+
+    /**
+     * @return bytes held by the cached icons and their rotated copies
+     */
+    public long getByteCount()
+    {
+        synchronized(_stamps)
+        {
+            return _currentBytes;
+        }
+    }
+
+    public int getSize()
+    {
+        synchronized(_stamps)
+        {
+            return _stamps.size();
+        }
+    }
+
+    public long getHitCount()
+    {
+        return _hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return _misses.get();
+    }
+
+    /**
+     * A rendered fill icon.  Images are shared and must not be drawn on.
+     */
+    public static class Stamp
+    {
+        private final ImageInfo _imageInfo;
+        //cache holding this stamp and its key there, null if it isn't cached
+        private final FillStampCache _cache;
+        private final String _key;
+        //rotated copies, one per whole degree, made when first needed.
+        //null if the icon is too big or isn't cached.
+        private final AtomicReferenceArray<Rotated> _rotated;
+        //only changed while holding the cache's lock
+        private long _bytes;
+
+        Stamp(ImageInfo imageInfo, FillStampCache cache, String key)
+        {
+            _imageInfo = imageInfo;
+            _cache = cache;
+            _key = key;
+            BufferedImage image = imageInfo.getImage();
+            if(cache != null && image.getWidth() * image.getHeight() <= MAX_ROTATED_PIXELS)
+                _rotated = new AtomicReferenceArray<Rotated>(360);
+            else
+                _rotated = null;
+            _bytes = byteCount(image);
+        }
+
+        public ImageInfo getImageInfo()
+        {
+            return _imageInfo;
+        }
+
+        public BufferedImage getImage()
+        {
+            return _imageInfo.getImage();
+        }
+
+        public int getSymbolCenterX()
+        {
+            return _imageInfo.getSymbolCenterX();
+        }
+
+        public int getSymbolCenterY()
+        {
+            return _imageInfo.getSymbolCenterY();
+        }
+
+        /**
+         * @return bytes held by the icon and its rotated copies
+         */
+        public long getByteCount()
+        {
+            if(_cache == null)
+                return _bytes;
+            synchronized(_cache._stamps)
+            {
+                return _bytes;
+            }
+        }
+
+        /**
+         * Draws the icon with its symbol center at x,y turned by degrees
+         * (clockwise on screen), rounded to the nearest degree unless the
+         * icon is drawn through a transform.
+         * @param g
+         * @param x
+         * @param y
+         * @param degrees
+         */
+        public void draw(Graphics2D g, double x, double y, double degrees)
+        {
+            int index = (int)Math.round(degrees) % 360;
+            if(index < 0)
+                index += 360;
+
+            if(index == 0)
+            {
+                g.drawImage(getImage(), (int)x - getSymbolCenterX(), (int)y - getSymbolCenterY(), null);
+                return;
+            }
+
+            if(_rotated == null)
+            {
+                AffineTransform transform = g.getTransform();
+                g.rotate(Math.toRadians(degrees), x, y);
+                g.drawImage(getImage(), (int)x - getSymbolCenterX(), (int)y - getSymbolCenterY(), null);
+                g.setTransform(transform);
+                return;
+            }
+
+            Rotated rotated = _rotated.get(index);
+            if(rotated == null)
+            {
+                //two threads may both make it, the first one set is kept
+                rotated = new Rotated(_imageInfo, index);
+                if(_rotated.compareAndSet(index, null, rotated))
+                    _cache.addRotatedBytes(this, byteCount(rotated.image));
+                else
+                    rotated = _rotated.get(index);
+            }
+            g.drawImage(rotated.image, (int)x - rotated.centerX, (int)y - rotated.centerY, null);
+        }
+    }
+
+    private static long byteCount(BufferedImage image)
+    {
+        //TYPE_INT_ARGB
+        return 4L * image.getWidth() * image.getHeight();
+    }
+
+    /**
+     * Icon turned about its symbol center, with the center's new position.
+     */
+    private static final class Rotated
+    {
+        final BufferedImage image;
+        final int centerX;
+        final int centerY;
+
+        Rotated(ImageInfo ii, int degrees)
+        {
+            BufferedImage source = ii.getImage();
+            AffineTransform rotate = AffineTransform.getRotateInstance(Math.toRadians(degrees),
+                    ii.getSymbolCenterX(), ii.getSymbolCenterY());
+            Rectangle bounds = rotate.createTransformedShape(
+                    new Rectangle(0, 0, source.getWidth(), source.getHeight())).getBounds();
+
+            image = new BufferedImage(Math.max(1, bounds.width), Math.max(1, bounds.height), BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.translate(-bounds.x, -bounds.y);
+            g.drawImage(source, rotate, null);
+            g.dispose();
+
+            centerX = ii.getSymbolCenterX() - bounds.x;
+            centerY = ii.getSymbolCenterY() - bounds.y;
+        }
+    }
+}
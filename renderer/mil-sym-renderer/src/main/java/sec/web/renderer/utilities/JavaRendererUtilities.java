@@ -7,6 +7,7 @@ import ArmyC2.C2SD.Utilities.MilStdAttributes;
 import ArmyC2.C2SD.Utilities.MilStdSymbol;
 import ArmyC2.C2SD.Utilities.ModifiersUnits;
 //import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.RendererProfile;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.SymbolDef;
 import ArmyC2.C2SD.Utilities.SymbolDefTable;
@@ -302,6 +303,7 @@ public class JavaRendererUtilities {
             String symbolOutlineWidth = null;
             String symbolOutlineColor = null;
             String symbologyStandard = null;
+            String profileName = null;
             String temp = null;
 
             //ArrayList<String> tgModifier = ModifiersTG.GetModifierList();
@@ -374,6 +376,10 @@ public class JavaRendererUtilities {
                         {
                             symbologyStandard = value;
                         }
+                        else if((key.equalsIgnoreCase(MilStdAttributes.Profile)))
+                        {
+                            profileName = value;
+                        }
 
                         //temp = value.toString();
 
@@ -396,6 +402,14 @@ public class JavaRendererUtilities {
                 
                 symbol = new MilStdSymbol(symbolID, null, coordinates, modifiers);
                 
+                //Set Renderer Profile//////////////////////////////////////////
+                RendererProfile profile = RendererSettings.getInstance().getProfile(profileName);
+                if(profile != null)
+                {
+                    symbol.setRendererProfile(profile);
+                    symbol.setSymbologyStandard(profile.getSymbologyStandard());
+                }
+                
                 //Set Symbology Standard////////////////////////////////////////
                 if(symbologyStandard != null)
                 {
@@ -0,0 +1,129 @@
+package sec.web.renderer.utilities;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Douglas-Peucker line simplification.  Works in whatever units the points
+ * are in, which for MultiPointHandler is pixels at the requested scale, so
+ * the tolerance is how far (in pixels) the simplified line may stray from
+ * the original.  The first and last points are always kept.
+ */
+public class LineSimplifier {
+
+    private LineSimplifier()
+    {
+    }
+
+    /**
+     *
+     * @param points
+     * @param tolerance max distance a dropped point can be from the
+     * simplified line
+     * @return for each point, whether it's kept.  Null if every point is kept
+     * (fewer than 3 points or tolerance isn't positive).
+     */
+    public static boolean[] mark(List<? extends Point2D> points, double tolerance)
+    {
+        int count = points.size();
+        if(count < 3 || !(tolerance > 0))
+            return null;
+
+        double[] xs = new double[count];
+        double[] ys = new double[count];
+        for(int i = 0; i < count; i++)
+        {
+            Point2D pt = points.get(i);
+            xs[i] = pt.getX();
+            ys[i] = pt.getY();
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double toleranceSq = tolerance * tolerance;
+
+        //explicit stack of [first, last] ranges, boundaries can have
+        //thousands of points and recursion could run out of stack
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while(top > 0)
+        {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            int farthest = -1;
+            double farthestSq = toleranceSq;
+            for(int i = first + 1; i < last; i++)
+            {
+                double distSq = segmentDistanceSq(xs[i], ys[i], xs[first], ys[first], xs[last], ys[last]);
+                if(distSq > farthestSq)
+                {
+                    farthestSq = distSq;
+                    farthest = i;
+                }
+            }
+
+            if(farthest > 0)
+            {
+                keep[farthest] = true;
+                if(top + 4 > stack.length)
+                {
+                    int[] bigger = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, bigger, 0, top);
+                    stack = bigger;
+                }
+                stack[top++] = first;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = last;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     *
+     * @param points
+     * @param tolerance
+     * @return the kept points, or points itself if none were dropped
+     */
+    public static <T extends Point2D> ArrayList<T> simplify(ArrayList<T> points, double tolerance)
+    {
+        boolean[] keep = mark(points, tolerance);
+        if(keep == null)
+            return points;
+
+        ArrayList<T> simplified = new ArrayList<T>();
+        for(int i = 0; i < keep.length; i++)
+        {
+            if(keep[i])
+                simplified.add(points.get(i));
+        }
+        if(simplified.size() == points.size())
+            return points;
+        return simplified;
+    }
+
+    private static double segmentDistanceSq(double x, double y, double x1, double y1, double x2, double y2)
+    {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSq = dx * dx + dy * dy;
+        double t = 0;
+        if(lengthSq > 0)
+        {
+            t = ((x - x1) * dx + (y - y1) * dy) / lengthSq;
+            if(t < 0)
+                t = 0;
+            else if(t > 1)
+                t = 1;
+        }
+        double px = x1 + t * dx - x;
+        double py = y1 + t * dy - y;
+        return px * px + py * py;
+    }
+}
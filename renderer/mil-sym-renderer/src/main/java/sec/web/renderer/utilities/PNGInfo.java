@@ -8,27 +8,16 @@ import java.awt.Graphics2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.awt.image.RenderedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.StringReader;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageTypeSpecifier;
-import javax.imageio.ImageWriter;
-import javax.imageio.metadata.IIOMetadata;
-import javax.imageio.stream.ImageOutputStream;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMResult;
-import javax.xml.transform.stream.StreamSource;
-
-import org.w3c.dom.Node;
 
 import ArmyC2.C2SD.RendererPluginInterface.ISinglePointInfo;
 import ArmyC2.C2SD.Utilities.ErrorLogger;
 import ArmyC2.C2SD.Utilities.ImageInfo;
+import ArmyC2.C2SD.Utilities.PNGEncoder;
 import com.sun.org.apache.xerces.internal.impl.dv.util.Base64;
 
 /**
@@ -97,13 +86,7 @@ public class PNGInfo
         byte[] byteArray = null;
         try
         {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            BufferedImage image = _image;
-            ImageIO.write(image, "png", baos);
-            //Send to Byte Array
-            baos.flush();
-            byteArray = baos.toByteArray();
-            baos.close();
+            byteArray = PNGEncoder.encode(_image);
         }
         catch(Exception exc)
         {
@@ -149,88 +132,19 @@ public class PNGInfo
      */
     public byte[] getImageAsByteArrayWithMetaInfo()
     {
-        byte[] metaImage  = null;
         try
         {
-            
-            RenderedImage image = (RenderedImage)this._image;
-            Iterator<ImageWriter> itr = ImageIO.getImageWritersBySuffix("png");
-            String metaDataFormatName = "";
-
-            if(itr.hasNext())
-            {
-                ImageWriter iw = itr.next();
-                IIOMetadata meta = iw.getDefaultImageMetadata(new ImageTypeSpecifier(image), null);
-
-                //create & populate metadata
-                metaDataFormatName = meta.getMetadataFormatNames()[0];
-                StringBuilder XML = new StringBuilder("");
-                XML.append("<"+metaDataFormatName+">");//"</javax_imageio_png_1.0>"
-                XML.append("<tEXt>");
-                //XML.append("<tEXtEntry keyword=\"symbolCenterX\" value=\"" + String.valueOf(_symbolCenterX)+"\"/>");
-                XML.append("<tEXtEntry keyword=\"centerPoint\" value=\"" + "x="+String.valueOf(this._centerPoint.getX())+
-                        ",y="+String.valueOf(this._centerPoint.getY())+"\"/>");
-
-                XML.append("<tEXtEntry keyword=\"bounds\" value=\"" + "x="+String.valueOf(_symbolBounds.getX())+
-                        ",y="+String.valueOf(_symbolBounds.getY())+
-                        ",width="+String.valueOf(_symbolBounds.getWidth())+
-                        ",height="+String.valueOf(_symbolBounds.getHeight())+"\"/>");
-
-                XML.append("<tEXtEntry keyword=\"imageExtent\" value=\"" +
-                        "width="+String.valueOf(image.getWidth())+
-                        ",height="+String.valueOf(image.getHeight())+"\"/>");
-
-                XML.append("</tEXt>");
-                XML.append( "</"+metaDataFormatName+">");//"</javax_imageio_png_1.0>"
-
-                //ErrorLogger.LogMessage(XML.toString());
-                DOMResult domresult = new DOMResult();
-                TransformerFactory.newInstance().newTransformer().transform(new StreamSource(new StringReader(XML.toString())), domresult);
-                Node document = domresult.getNode();
-
-                //test
-//                Node foo = document.getFirstChild();
-//                for(int i=0; i<foo.getChildNodes().getLength(); i++)
-//                            ErrorLogger.LogMessage(foo.getChildNodes().item(i).getNodeName());
-
-                
-                //apply metadata
-                meta.mergeTree(metaDataFormatName, document.getFirstChild());
-
-                //test
-//                foo = meta.getAsTree(meta.getMetadataFormatNames()[0]);
-//                //foo = foo.getFirstChild();
-//                for(int i=0; i<foo.getChildNodes().getLength(); i++)
-//                            ErrorLogger.LogMessage(foo.getChildNodes().item(i).getNodeName());
-
-                //Render PNG to Memory
-                IIOImage iioImage = new IIOImage(image, null, null);
-                iioImage.setMetadata(meta);
-
-                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-                ImageOutputStream ios = ImageIO.createImageOutputStream(bytes);
-
-                iw.setOutput(ios);
-                iw.write(null, iioImage, null); //iw.write(metadata, iioImage, null);
-                ios.close();
-
-                iw.dispose();
-                iw = null;
-                itr = null;
-                iioImage = null;
-                
-                bytes.flush();
-                metaImage = bytes.toByteArray();
-                bytes.close();
-
-                return metaImage;
-            }
-            else
-            {
-                ErrorLogger.LogMessage("ImageInfo", "getImageAsByteArrayWithMetaInfo", "no PNG imageWriter available");
-                return null;
-            }
-
+            Map<String, String> text = new LinkedHashMap<String, String>();
+            text.put("centerPoint", "x="+String.valueOf(this._centerPoint.getX())+
+                    ",y="+String.valueOf(this._centerPoint.getY()));
+            text.put("bounds", "x="+String.valueOf(_symbolBounds.getX())+
+                    ",y="+String.valueOf(_symbolBounds.getY())+
+                    ",width="+String.valueOf(_symbolBounds.getWidth())+
+                    ",height="+String.valueOf(_symbolBounds.getHeight()));
+            text.put("imageExtent", "width="+String.valueOf(_image.getWidth())+
+                    ",height="+String.valueOf(_image.getHeight()));
+
+            return PNGEncoder.encode(_image, text);
         }
         catch(Exception exc)
         {
@@ -0,0 +1,416 @@
+package sec.web.renderer.utilities;
+
+import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.RendererSettings;
+import ArmyC2.C2SD.Utilities.SettingsChangedEvent;
+import ArmyC2.C2SD.Utilities.SettingsChangedEventListener;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Least recently used cache of rendered single point symbols.  Keyed on the
+ * symbol ID plus the normalized parameter map (as produced by
+ * JavaRendererUtilities.createParameterMapFromURL) and holds the encoded PNG
+ * along with the anchor point, symbol bounds and image size so both image
+ * requests and single point info requests can be answered without rendering.
+ * Bounded by entry count and by total PNG bytes.  Cleared whenever a
+ * RendererSettings value changes or invalidate() is called.
+ */
+public class SinglePointImageCache implements SettingsChangedEventListener {
+
+    private static SinglePointImageCache _instance = null;
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+    public static final long DEFAULT_MAX_BYTES = 32L * 1024L * 1024L;
+
+    //rough cost of the key, bounds and map entry so entries without a PNG
+    //still count against the byte limit.
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final LinkedHashMap<String, Entry> _cache = new LinkedHashMap<String, Entry>(256, 0.75f, true);
+    private int _maxEntries = DEFAULT_MAX_ENTRIES;
+    private long _maxBytes = DEFAULT_MAX_BYTES;
+    private long _currentBytes = 0;
+    private volatile boolean _enabled = true;
+    //bumped on every invalidate so renders started before the
+    //invalidate don't get put back in the cache afterwards.
+    private volatile long _generation = 0;
+
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final AtomicLong _evictions = new AtomicLong();
+    private final AtomicLong _invalidations = new AtomicLong();
+
+    private SinglePointImageCache()
+    {
+        RendererSettings.getInstance().addEventListener(this);
+    }
+
+    public static synchronized SinglePointImageCache getInstance()
+    {
+        if(_instance == null)
+            _instance = new SinglePointImageCache();
+
+        return _instance;
+    }
+
+    /**
+     * Builds the cache key for a symbol.
+     * @param symbolID like "SFGPUCI----D---", anything after a '?' is ignored.
+     * @param params like the map from
+     * JavaRendererUtilities.createParameterMapFromURL.  Keys are compared
+     * case insensitively and empty values are ignored.
+     * @return
+     */
+    public static String createKey(String symbolID, Map<String, String> params)
+    {
+        StringBuilder sb = new StringBuilder(64);
+        String id = symbolID;
+        if(id == null)
+            id = "";
+        int questionIndex = id.indexOf('?');
+        if(questionIndex > -1)
+            id = id.substring(0, questionIndex);
+        id = id.trim().toUpperCase();
+        sb.append(id);
+        //match the padding done by JavaRendererUtilities.createMilstdSymbol
+        for(int i = id.length(); i < 15; i++)
+        {
+            sb.append('-');
+        }
+
+        if(params != null && params.isEmpty() == false)
+        {
+            TreeMap<String, String> sorted = new TreeMap<String, String>();
+            for(Map.Entry<String, String> entry : params.entrySet())
+            {
+                if(entry.getKey() != null && entry.getValue() != null && entry.getValue().equals("") == false)
+                {
+                    sorted.put(entry.getKey().toUpperCase(), entry.getValue());
+                }
+            }
+            //length prefix the values so '&' or '=' in a value can't
+            //make two different maps produce the same key.
+            for(Map.Entry<String, String> entry : sorted.entrySet())
+            {
+                sb.append('|');
+                sb.append(entry.getKey());
+                sb.append('=');
+                sb.append(entry.getValue().length());
+                sb.append(':');
+                sb.append(entry.getValue());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param key from createKey()
+     * @return cached entry or null.  Counts as a hit or a miss.
+     */
+    public Entry get(String key)
+    {
+        if(_enabled == false || key == null)
+            return null;
+
+        Entry entry = null;
+        synchronized(_cache)
+        {
+            entry = _cache.get(key);
+        }
+        if(entry != null)
+            _hits.incrementAndGet();
+        else
+            _misses.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Like get() but only returns an entry that has PNG bytes.
+     * @param key from createKey()
+     * @return
+     */
+    public Entry getWithImage(String key)
+    {
+        if(_enabled == false || key == null)
+            return null;
+
+        Entry entry = null;
+        synchronized(_cache)
+        {
+            entry = _cache.get(key);
+        }
+        if(entry != null && entry.getPngBytes() != null)
+        {
+            _hits.incrementAndGet();
+            return entry;
+        }
+        _misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Get before rendering and pass to put() so results rendered with
+     * settings that have since changed are dropped.
+     * @return
+     */
+    public long getGeneration()
+    {
+        return _generation;
+    }
+
+    /**
+     * Adds a rendered symbol to the cache.
+     * @param key from createKey()
+     * @param generation value of getGeneration() from before the render
+     * @param pi rendered symbol, anchor, bounds and image size are kept.
+     * @param png encoded image to return for this key, can be null if
+     * only the symbol info is needed.
+     * @return the entry that was added, or null if nothing was added.
+     */
+    public Entry put(String key, long generation, PNGInfo pi, byte[] png)
+    {
+        if(_enabled == false || key == null || pi == null || pi.getImage() == null)
+            return null;
+
+        Entry entry = new Entry(pi.getCenterPoint(), pi.getSymbolBounds(),
+                pi.getImage().getWidth(), pi.getImage().getHeight(), png);
+
+        synchronized(_cache)
+        {
+            if(generation != _generation)
+                return null;
+
+            Entry old = _cache.put(key, entry);
+            if(old != null)
+                _currentBytes -= old.getByteSize();
+            _currentBytes += entry.getByteSize();
+            trim();
+        }
+        return entry;
+    }
+
+    /**
+     * Evicts least recently used entries until we're within limits.
+     * Must be called while holding the _cache lock.
+     */
+    private void trim()
+    {
+        Iterator<Map.Entry<String, Entry>> itr = _cache.entrySet().iterator();
+        while(itr.hasNext() && (_cache.size() > _maxEntries || _currentBytes > _maxBytes))
+        {
+            Map.Entry<String, Entry> eldest = itr.next();
+            _currentBytes -= eldest.getValue().getByteSize();
+            itr.remove();
+            _evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Empties the cache.  Call when anything that affects how symbols are
+     * drawn changes (symbol sizes, plugins, etc...).  RendererSettings
+     * changes are handled automatically.
+     */
+    public void invalidate()
+    {
+        synchronized(_cache)
+        {
+            _generation++;
+            _cache.clear();
+            _currentBytes = 0;
+        }
+        _invalidations.incrementAndGet();
+    }
+
+    @Override
+    public void onSettingsChanged(SettingsChangedEvent sce)
+    {
+        ErrorLogger.LogMessage("SinglePointImageCache", "onSettingsChanged",
+                "Clearing single point image cache: " + sce.getEventType(), Level.FINE);
+        invalidate();
+    }
+
+    /**
+     * @param value false to turn off caching and empty the cache.
+     */
+    public void setEnabled(boolean value)
+    {
+        _enabled = value;
+        if(value == false)
+            invalidate();
+    }
+
+    public boolean getEnabled()
+    {
+        return _enabled;
+    }
+
+    /**
+     * @param maxEntries max number of symbols to hold, default 4096
+     */
+    public void setMaxEntries(int maxEntries)
+    {
+        synchronized(_cache)
+        {
+            _maxEntries = Math.max(0, maxEntries);
+            trim();
+        }
+    }
+
+    public int getMaxEntries()
+    {
+        return _maxEntries;
+    }
+
+    /**
+     * @param maxBytes max total size of the cached PNGs, default 32MB
+     */
+    public void setMaxBytes(long maxBytes)
+    {
+        synchronized(_cache)
+        {
+            _maxBytes = Math.max(0, maxBytes);
+            trim();
+        }
+    }
+
+    public long getMaxBytes()
+    {
+        return _maxBytes;
+    }
+
+    public int getSize()
+    {
+        synchronized(_cache)
+        {
+            return _cache.size();
+        }
+    }
+
+    public long getByteSize()
+    {
+        synchronized(_cache)
+        {
+            return _currentBytes;
+        }
+    }
+
+    public long getHitCount()
+    {
+        return _hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return _misses.get();
+    }
+
+    public long getEvictionCount()
+    {
+        return _evictions.get();
+    }
+
+    public long getInvalidationCount()
+    {
+        return _invalidations.get();
+    }
+
+    /**
+     * @return like "entries=10,bytes=20480,hits=5,misses=10,evictions=0,invalidations=1"
+     */
+    public String getStatistics()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("entries=");
+        sb.append(getSize());
+        sb.append(",bytes=");
+        sb.append(getByteSize());
+        sb.append(",hits=");
+        sb.append(getHitCount());
+        sb.append(",misses=");
+        sb.append(getMissCount());
+        sb.append(",evictions=");
+        sb.append(getEvictionCount());
+        sb.append(",invalidations=");
+        sb.append(getInvalidationCount());
+        return sb.toString();
+    }
+
+    /**
+     * Immutable cached result.  Getters hand back copies of the point and
+     * bounds so callers can't change what's in the cache.  The PNG byte
+     * array is shared and should not be modified.
+     */
+    public static class Entry
+    {
+        private final double _centerX;
+        private final double _centerY;
+        private final double _boundsX;
+        private final double _boundsY;
+        private final double _boundsWidth;
+        private final double _boundsHeight;
+        private final int _imageWidth;
+        private final int _imageHeight;
+        private final byte[] _png;
+
+        public Entry(Point2D centerPoint, Rectangle2D symbolBounds, int imageWidth, int imageHeight, byte[] png)
+        {
+            _centerX = centerPoint.getX();
+            _centerY = centerPoint.getY();
+            _boundsX = symbolBounds.getX();
+            _boundsY = symbolBounds.getY();
+            _boundsWidth = symbolBounds.getWidth();
+            _boundsHeight = symbolBounds.getHeight();
+            _imageWidth = imageWidth;
+            _imageHeight = imageHeight;
+            _png = png;
+        }
+
+        /**
+         * Center point of the symbol within the image.
+         * @return
+         */
+        public Point2D getCenterPoint()
+        {
+            return new Point2D.Double(_centerX, _centerY);
+        }
+
+        /**
+         * minimum bounding rectangle for the core symbol.
+         * @return
+         */
+        public Rectangle2D getSymbolBounds()
+        {
+            return new Rectangle2D.Double(_boundsX, _boundsY, _boundsWidth, _boundsHeight);
+        }
+
+        public int getImageWidth()
+        {
+            return _imageWidth;
+        }
+
+        public int getImageHeight()
+        {
+            return _imageHeight;
+        }
+
+        /**
+         * @return encoded PNG or null if only the symbol info was cached.
+         */
+        public byte[] getPngBytes()
+        {
+            return _png;
+        }
+
+        int getByteSize()
+        {
+            return ENTRY_OVERHEAD + (_png != null ? _png.length : 0);
+        }
+    }
+}
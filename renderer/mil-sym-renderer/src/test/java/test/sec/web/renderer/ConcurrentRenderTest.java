@@ -0,0 +1,125 @@
+package test.sec.web.renderer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import sec.web.renderer.SECRenderer;
+
+/**
+ * Renders a mix of 2D, Google Earth and 3D multipoint graphics from many
+ * threads at once and checks every result against the same render done on
+ * one thread, to catch state shared between renders.
+ */
+public class ConcurrentRenderTest {
+
+	private static final String BBOX = "65.5,29.5,67.0,31.0";
+
+	private static final String CONTROL_POINTS = "66.26,30.631 66.36,30.598 66.46,30.547 66.56,30.664";
+
+	/**
+	 * boundary, general area, axis of advance main attack and rotary wing,
+	 * cold front, seize, penetrate, follow and assume, direction of main
+	 * attack and a sector range fan.  The 3D graphic is a ROZ.
+	 */
+	private static final String[] SYMBOL_CODES = {
+		"GFGPGLB----K---", "GFGPGAG-------X", "GFGPOLAGM-----X", "GFGPOLAR------X",
+		"WA-DPFC----L---", "GFTPZ---------X", "GFTPP---------X", "GFTPA---------X",
+		"GFGPOLKGM-----X", "GFFPAXS-------X"
+	};
+
+	private static final int MODES = 4;
+
+	private static final int THREADS = 8;
+
+	private static final int RENDERS_PER_THREAD = 120;
+
+	private static SECRenderer renderer = null;
+
+	private static String[] expected = null;
+
+	@BeforeClass
+	public static void init() {
+		renderer = SECRenderer.getInstance();
+		expected = new String[SYMBOL_CODES.length * MODES];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = render(i);
+			assertNotNull(expected[i]);
+		}
+	}
+
+	@Test
+	public void concurrentRendersMatchSingleThreaded() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> results = new ArrayList<Future<String>>();
+			for (int t = 0; t < THREADS; t++) {
+				final int start = t * 7;
+				results.add(executor.submit(new Callable<String>() {
+					public String call() {
+						for (int i = 0; i < RENDERS_PER_THREAD; i++) {
+							int index = (start + i) % expected.length;
+							String output = render(index);
+							if (expected[index].equals(output) == false) {
+								return describe(index) + " differed from the single threaded render";
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<String> result : results) {
+				String mismatch = result.get();
+				assertNull(mismatch, mismatch);
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static String describe(int index) {
+		return SYMBOL_CODES[index % SYMBOL_CODES.length] + " in mode " + (index / SYMBOL_CODES.length);
+	}
+
+	private static String render(int index) {
+		String symbolCode = SYMBOL_CODES[index % SYMBOL_CODES.length];
+		int symStd = index % 2;
+		switch (index / SYMBOL_CODES.length) {
+			case 0:
+				return renderer.RenderMultiPointSymbol2D("id", "name", "description", symbolCode,
+						CONTROL_POINTS, 1280, 1024, BBOX,
+						"{\"modifiers\":{\"T\":\"T1\",\"USEDASHARRAY\":true}}", 1, symStd);
+			case 1:
+				return renderer.RenderMultiPointSymbol("id", "name", "description", symbolCode,
+						CONTROL_POINTS, "absolute", 50000.0, BBOX,
+						"{\"modifiers\":{\"T\":\"T1\",\"USEDASHARRAY\":false}}", 0, symStd);
+			case 2:
+				return renderer.RenderMultiPointSymbol("id", "name", "description", symbolCode,
+						CONTROL_POINTS, "", 50000.0, BBOX,
+						"{\"modifiers\":{\"T\":\"T1\",\"HIDEOPTIONALLABELS\":true}}", 2, symStd);
+			default:
+				return sortPolygons(renderer.RenderMultiPointSymbol("id", "name", "description",
+						"GFGPAAR-------X", CONTROL_POINTS, "relativeToGround", 50000.0, BBOX,
+						"{\"modifiers\":{\"T\":\"T1\",\"X\":\"100,200\",\"altitudeDepth\":[100,200]}}", 0, 1));
+		}
+	}
+
+	/**
+	 * The 3D renderer doesn't write its polygons in the same order every
+	 * time, even on one thread.
+	 */
+	private static String sortPolygons(String kml) {
+		String[] parts = kml.split("(?=<Polygon)|(?<=</Polygon>)");
+		Arrays.sort(parts);
+		return Arrays.toString(parts);
+	}
+}
@@ -0,0 +1,638 @@
+package test.sec.web.renderer;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import sec.web.json.utilities.JSONArray;
+import sec.web.json.utilities.JSONException;
+import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
+import sec.web.json.utilities.JSONTokener;
+import sec.web.renderer.MultiPointHandler;
+import sec.web.renderer.SECRenderer;
+import ArmyC2.C2SD.Utilities.MilStdSymbol;
+import ArmyC2.C2SD.Utilities.ModifiersTG;
+import ArmyC2.C2SD.Utilities.SymbolUtilities;
+
+/**
+ * Checks JSONReader, and the modifier parsing built on it, against
+ * JSONObject on lenient syntax, nulls, escapes and values of the wrong type.
+ * Duplicate keys are left out, JSONReader keeps the last value where
+ * JSONObject fails.
+ */
+public class JSONReaderTest {
+
+	private static final String BBOX = "65.5,29.5,67.0,31.0";
+
+	private static final String CONTROL_POINTS = "66.26,30.631 66.36,30.598 66.46,30.547 66.56,30.664";
+
+	private static final String SYMBOL_CODE = "GFGPGLP----K---";
+
+	/**
+	 * What each modifier is read as, and its names, the one that wins first.
+	 */
+	private static final String[][] MODIFIER_FIELDS = {
+		{ "string", "C", "quantity", "C" },
+		{ "string", "H", "additionalInfo1", "H" },
+		{ "string", "H1", "additionalInfo2", "H1" },
+		{ "string", "H2", "additionalInfo3", "H2" },
+		{ "string", "N", "hostile", "N" },
+		{ "direction", "Q", "directionOfMovement", "Q" },
+		{ "string", "T", "uniqueDesignation1", "T" },
+		{ "string", "T1", "uniqueDesignation2", "T1" },
+		{ "string", "V", "equipmentType", "V" },
+		{ "string", "W", "dateTimeGroup1", "W" },
+		{ "string", "W1", "dateTimeGroup2", "W1" },
+		{ "string", "symbolFillIconSize", "symbolFillIconSize" },
+		{ "doubles", "X", "altitudeDepth", "X" },
+		{ "doubles", "AM", "distance", "AM" },
+		{ "doubles", "AN", "azimuth", "AN" },
+		{ "color", "fillColor", "fillColor" },
+		{ "color", "lineColor", "lineColor" },
+		{ "color", "textColor", "textColor" },
+		{ "int", "lineThickness", "lineThickness" },
+		{ "boolean", "useDashArray", "useDashArray", "USEDASHARRAY" },
+		{ "boolean", "usePatternFill", "usePatternFill", "USEPATTERNFILL" },
+		{ "string!", "ALTMODE", "ALTMODE" },
+		{ "boolean!", "HIDEOPTIONALLABELS", "HIDEOPTIONALLABELS" },
+		{ "double", "SIMPLIFY", "SIMPLIFY" }
+	};
+
+	private static final String[] COLORS = { "ff0000ff", "FF00FF00", "#80ff0000", "00ff00" };
+
+	private static Map<String, Object> unmodified = null;
+
+	@BeforeClass
+	public static void init() {
+		SECRenderer.getInstance();
+		unmodified = snapshot(render("{not json"));
+	}
+
+	@Test
+	public void testLenientSyntax() throws JSONException {
+		String[] documents = {
+			"{\"a\":1,\"b\":[1,2,3],\"c\":{\"d\":\"e\"}}",
+			"{a:1, 'b':'two', c = 3; d => [4,,5,], e:{}, f:[]}",
+			"{ \"a\" : -1.50 , \"b\" : 1e3, \"c\" : +7, \"d\" : 0x1F, \"e\" : 99999999999, \"f\" : 1.2.3 }",
+			"{a:true, b:FALSE, c:null, d:Null, e:\"true\", f:'null', g:tRuE}",
+			"{a:[,], b:[,,1], c:[1;2;3], d:[null, true, \"x\", y z]}",
+			"{a:\"\\\"\\\\\\/\\b\\f\\n\\r\\t\", b:'\\u0041\\u00e9\\'', c:\"it's\", d:'say \"hi\"'}",
+			"{a: spaced out words , b:\t'tabbed'\n, c:\r\n[ 1 , 2 ]\n}",
+			"{a:http://host/path?x=1&y=2, b:\"=\"}",
+			"{\"\":\"empty name\", a:\"\"}",
+			"{a:{b:{c:{d:[[[]]]}}}}",
+			"{a:1}trailing text",
+			"{}",
+			"[]",
+			"[1,'two',three,{four:4}]",
+			"\"just a string\"",
+			"  42  "
+		};
+		for (String document : documents) {
+			checkDocument(document);
+		}
+
+		String[] errors = {
+			"", "{", "[", "{a}", "{a:}", "{a:1,,b:2}", "{a:1 b:2}", "{a:[1 2]}", "{a:'unterminated}",
+			"{a:\"bad \\x escape\"}", "{a:\"\\u12\"}", "{a:\"line\nbreak\"}", "{:1}", "{a:1]", "[1}", "}"
+		};
+		for (String document : errors) {
+			checkDocument(document);
+		}
+	}
+
+	@Test
+	public void testRandomDocuments() {
+		Random random = new Random(11);
+		for (int i = 0; i < 3000; i++) {
+			String document = randomObject(random, 0, true);
+			checkDocument(document);
+
+			//broken documents have to fail the same way
+			checkDocument(mutate(random, randomObject(random, 0, false)));
+		}
+	}
+
+	@Test
+	public void testTypedValues() throws JSONException {
+		Random random = new Random(5);
+		for (int i = 0; i < 3000; i++) {
+			String name = "v";
+			String document = "{" + name + ":" + randomScalar(random, true) + "}";
+			JSONObject object = new JSONObject(document);
+
+			assertEquals(document, attempt(object, name, 's'), attemptReader(document, 's'));
+			assertEquals(document, attempt(object, name, 'd'), attemptReader(document, 'd'));
+			assertEquals(document, attempt(object, name, 'i'), attemptReader(document, 'i'));
+			assertEquals(document, attempt(object, name, 'b'), attemptReader(document, 'b'));
+		}
+	}
+
+	@Test
+	public void testSkipValue() throws JSONException {
+		Random random = new Random(3);
+		for (int i = 0; i < 1000; i++) {
+			String skipped = randomValue(random, 1, true);
+			JSONReader reader = new JSONReader("[" + skipped + ", last]");
+			reader.beginArray();
+			reader.skipValue();
+			assertEquals(skipped, "last", reader.nextString());
+			reader.endArray();
+			assertEquals(JSONReader.END_DOCUMENT, reader.peek());
+		}
+	}
+
+	@Test
+	public void testNextValueText() throws JSONException {
+		Random random = new Random(13);
+		for (int i = 0; i < 1000; i++) {
+			String value = randomValue(random, 1, true);
+			JSONReader reader = new JSONReader("[" + value + ", last]");
+			reader.beginArray();
+			String text = reader.nextValueText();
+			assertEquals(value, "last", reader.nextString());
+			reader.endArray();
+
+			//the text reads back as the same value
+			assertEquals(value, normalize(new JSONReader(value).nextValue()), normalize(new JSONReader(text).nextValue()));
+		}
+
+		JSONReader reader = new JSONReader("[,NULL]");
+		reader.beginArray();
+		assertEquals("null", reader.nextValueText());
+		assertEquals("null", reader.nextValueText());
+		reader.endArray();
+	}
+
+	@Test
+	public void testModifiers() {
+		Random random = new Random(17);
+		for (int i = 0; i < 400; i++) {
+			String modifiers = randomModifiers(random);
+			assertEquals(modifiers, expectedSnapshot(modifiers), snapshot(render(modifiers)));
+		}
+	}
+
+	@Test
+	public void testModifiersWrapper() {
+		String[] documents = {
+			"{\"modifiers\":{\"T\":\"inner\"},\"T\":\"outer\"}",
+			"{\"T\":\"outer\",\"modifiers\":{\"uniqueDesignation1\":\"inner\",\"T\":\"code\"}}",
+			"{\"modifiers\":{},\"T\":\"outer\",\"lineColor\":\"ff00ff00\"}",
+			"{\"modifiers\":\"not an object\",\"T\":\"outer\"}",
+			"{\"modifiers\":null,\"T\":\"outer\"}",
+			"{\"modifiers\":{\"X\":[1,2,3]},\"X\":[\"bad\"]}",
+			"{\"modifiers\":{\"X\":[\"bad\"]},\"X\":[1,2,3]}",
+			"{modifiers={quantity=5;C=six};T=outer}"
+		};
+		for (String modifiers : documents) {
+			assertEquals(modifiers, expectedSnapshot(modifiers), snapshot(render(modifiers)));
+		}
+	}
+
+	/**
+	 * Reads the first value of the document both ways, comparing values or
+	 * whether they failed.
+	 */
+	private static void checkDocument(String document) {
+		Object expected;
+		try {
+			expected = normalize(new JSONTokener(document).nextValue());
+		} catch (Exception exc) {
+			expected = "error";
+		}
+
+		Object actual;
+		try {
+			actual = normalize(new JSONReader(document).nextValue());
+		} catch (JSONException je) {
+			actual = "error";
+		}
+		assertEquals(document, expected, actual);
+	}
+
+	/**
+	 * JSONObject and JSONArray keep their own maps and lists, compare them
+	 * as plain ones.
+	 */
+	private static Object normalize(Object value) throws JSONException {
+		if (value instanceof JSONObject) {
+			JSONObject object = (JSONObject) value;
+			TreeMap<String, Object> map = new TreeMap<String, Object>();
+			Iterator<?> keys = object.keys();
+			while (keys.hasNext()) {
+				String key = (String) keys.next();
+				map.put(key, normalize(object.get(key)));
+			}
+			return map;
+		}
+		if (value instanceof JSONArray) {
+			JSONArray array = (JSONArray) value;
+			ArrayList<Object> list = new ArrayList<Object>();
+			for (int i = 0; i < array.length(); i++) {
+				list.add(normalize(array.get(i)));
+			}
+			return list;
+		}
+		if (value == JSONObject.NULL) {
+			return "NULL";
+		}
+		return value.getClass().getSimpleName() + " " + value;
+	}
+
+	private static String attempt(JSONObject object, String name, char type) {
+		try {
+			switch (type) {
+				case 's':
+					return object.getString(name);
+				case 'd':
+					return String.valueOf(object.getDouble(name));
+				case 'i':
+					return String.valueOf(object.getInt(name));
+				default:
+					return String.valueOf(object.getBoolean(name));
+			}
+		} catch (Exception exc) {
+			return "error";
+		}
+	}
+
+	private static String attemptReader(String document, char type) {
+		try {
+			JSONReader reader = new JSONReader(document);
+			reader.beginObject();
+			reader.nextName();
+			switch (type) {
+				case 's':
+					return reader.nextString();
+				case 'd':
+					return String.valueOf(reader.nextDouble());
+				case 'i':
+					return String.valueOf(reader.nextInt());
+				default:
+					return String.valueOf(reader.nextBoolean());
+			}
+		} catch (JSONException je) {
+			return "error";
+		}
+	}
+
+	/**
+	 * The modifiers a symbol ends up with, reading them the way
+	 * MultiPointHandler did with JSONObject.
+	 */
+	private static Map<String, Object> expectedSnapshot(String json) {
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+		try {
+			JSONObject root = new JSONObject(json);
+			JSONObject modifiers = root.has("modifiers") ? root.getJSONObject("modifiers") : root;
+			for (String[] field : MODIFIER_FIELDS) {
+				readField(modifiers, field, values);
+			}
+		} catch (Exception exc) {
+			return unmodified;
+		}
+
+		Map<String, Object> expected = new LinkedHashMap<String, Object>(unmodified);
+		TreeMap<String, String> labels = new TreeMap<String, String>();
+		for (String[] field : MODIFIER_FIELDS) {
+			String type = field[0];
+			if ((type.equals("string") || type.equals("direction")) && values.containsKey(field[1])) {
+				labels.put(field[1], (String) values.get(field[1]));
+			}
+		}
+		expected.put("labels", labels);
+		expected.put("X", values.get("X"));
+		expected.put("AM", values.get("AM"));
+		expected.put("AN", values.get("AN"));
+
+		expected.put("fill", values.containsKey("fillColor")
+				? SymbolUtilities.getColorFromHexString((String) values.get("fillColor")) : null);
+		if (values.containsKey("lineColor")) {
+			expected.put("line", SymbolUtilities.getColorFromHexString((String) values.get("lineColor")));
+		}
+		expected.put("text", values.containsKey("textColor")
+				? SymbolUtilities.getColorFromHexString((String) values.get("textColor")) : expected.get("line"));
+		if (values.containsKey("lineThickness") && (Integer) values.get("lineThickness") > 0) {
+			expected.put("width", values.get("lineThickness"));
+		}
+		if (values.containsKey("useDashArray")) {
+			expected.put("dash", values.get("useDashArray"));
+		}
+		if (values.containsKey("usePatternFill")) {
+			expected.put("patternFill", values.get("usePatternFill"));
+		}
+		if (values.containsKey("ALTMODE")) {
+			expected.put("altMode", values.get("ALTMODE"));
+		}
+		expected.put("hide", values.containsKey("HIDEOPTIONALLABELS") ? values.get("HIDEOPTIONALLABELS") : false);
+		expected.put("simplify", values.containsKey("SIMPLIFY") ? values.get("SIMPLIFY") : 0.0);
+		return expected;
+	}
+
+	/**
+	 * Takes the first name that is there and not null, except ALTMODE and
+	 * HIDEOPTIONALLABELS which were read even when null.
+	 */
+	private static void readField(JSONObject modifiers, String[] field, Map<String, Object> values) throws JSONException {
+		String type = field[0];
+		for (int i = 2; i < field.length; i++) {
+			String name = field[i];
+			if (!modifiers.has(name)) {
+				continue;
+			}
+			if (modifiers.isNull(name) && !type.endsWith("!")) {
+				continue;
+			}
+
+			Object value;
+			if (type.equals("direction")) {
+				value = Double.toString(modifiers.getDouble(name));
+			} else if (type.equals("doubles")) {
+				JSONArray array = modifiers.getJSONArray(name);
+				ArrayList<Double> doubles = new ArrayList<Double>();
+				for (int j = 0; j < array.length(); j++) {
+					doubles.add(array.getDouble(j));
+				}
+				value = doubles;
+			} else if (type.equals("int")) {
+				value = modifiers.getInt(name);
+			} else if (type.startsWith("boolean")) {
+				value = modifiers.getBoolean(name);
+			} else if (type.equals("double")) {
+				value = modifiers.getDouble(name);
+			} else {
+				value = modifiers.getString(name);
+			}
+			values.put(field[1], value);
+			return;
+		}
+	}
+
+	private static MilStdSymbol render(String modifiers) {
+		MilStdSymbol symbol = MultiPointHandler.RenderSymbolAsMilStdSymbol("id", "name", "description",
+				SYMBOL_CODE, CONTROL_POINTS, 50000.0, BBOX, modifiers, 1);
+		assertNotNull(modifiers, symbol);
+		return symbol;
+	}
+
+	private static Map<String, Object> snapshot(MilStdSymbol symbol) {
+		Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+		snapshot.put("labels", new TreeMap<String, String>(symbol.getModifierMap()));
+		snapshot.put("X", symbol.getModifiers_AM_AN_X(ModifiersTG.X_ALTITUDE_DEPTH));
+		snapshot.put("AM", symbol.getModifiers_AM_AN_X(ModifiersTG.AM_DISTANCE));
+		snapshot.put("AN", symbol.getModifiers_AM_AN_X(ModifiersTG.AN_AZIMUTH));
+		snapshot.put("fill", symbol.getFillColor());
+		snapshot.put("line", symbol.getLineColor());
+		snapshot.put("text", symbol.getTextColor());
+		snapshot.put("width", symbol.getLineWidth());
+		snapshot.put("dash", symbol.getUseDashArray());
+		snapshot.put("patternFill", symbol.getUsePatternFill());
+		snapshot.put("altMode", symbol.getAltitudeMode());
+		snapshot.put("hide", symbol.getHideOptionalLabels());
+		snapshot.put("simplify", symbol.getSimplifyTolerance());
+		return snapshot;
+	}
+
+	/**
+	 * A modifiers object with a few random fields, each given a value of
+	 * the right type most of the time, sometimes inside a "modifiers"
+	 * object.
+	 */
+	private static String randomModifiers(Random random) {
+		List<String> members = new ArrayList<String>();
+		Set<String> names = new HashSet<String>();
+		int count = random.nextInt(8);
+		for (int i = 0; i < count; i++) {
+			String[] field = MODIFIER_FIELDS[random.nextInt(MODIFIER_FIELDS.length)];
+			String name = field[2 + random.nextInt(field.length - 2)];
+			if (names.add(name)) {
+				members.add(quoteName(random, name) + separator(random, true) + randomModifierValue(random, field[0]));
+			}
+		}
+		if (random.nextInt(4) == 0) {
+			members.add(quoteName(random, "unused") + ":" + randomValue(random, 1, true));
+		}
+
+		String object = "{" + join(random, members) + "}";
+		int wrap = random.nextInt(6);
+		if (wrap == 0) {
+			return "{\"modifiers\":" + object + "}";
+		}
+		if (wrap == 1) {
+			return "{\"T\":\"outside\",modifiers=" + object + ";\"lineColor\":\"ff00ff00\"}";
+		}
+		return object;
+	}
+
+	private static String randomModifierValue(Random random, String type) {
+		int kind = random.nextInt(10);
+		if (kind == 0) {
+			return "null";
+		}
+		if (kind == 1) {
+			return randomValue(random, 1, true);
+		}
+		if (type.equals("doubles")) {
+			StringBuilder sb = new StringBuilder("[");
+			int count = random.nextInt(4);
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					sb.append(",");
+				}
+				int item = random.nextInt(12);
+				if (item == 0) {
+					sb.append("'2.5'");
+				} else if (item == 1) {
+					sb.append("x");
+				} else {
+					sb.append(random.nextInt(2000) - 1000).append(".").append(random.nextInt(10));
+				}
+			}
+			return sb.append("]").toString();
+		}
+		if (type.equals("color")) {
+			return "'" + COLORS[random.nextInt(COLORS.length)] + "'";
+		}
+		if (type.equals("int") || type.equals("direction") || type.equals("double")) {
+			String[] numbers = { "3", "-2", "4.75", "'12'", "\"7.5\"", "0x10", "1e2" };
+			return numbers[random.nextInt(numbers.length)];
+		}
+		if (type.startsWith("boolean")) {
+			String[] booleans = { "true", "false", "TRUE", "'false'", "\"True\"" };
+			return booleans[random.nextInt(booleans.length)];
+		}
+		return randomString(random);
+	}
+
+	private static String randomObject(Random random, int depth, boolean equals) {
+		List<String> members = new ArrayList<String>();
+		Set<String> names = new HashSet<String>();
+		int count = random.nextInt(depth == 0 ? 6 : 4);
+		for (int i = 0; i < count; i++) {
+			String name = randomName(random);
+			if (names.add(name)) {
+				members.add(quoteName(random, name) + separator(random, equals) + randomValue(random, depth + 1, equals));
+			}
+		}
+		return "{" + join(random, members) + "}";
+	}
+
+	private static String randomValue(Random random, int depth, boolean equals) {
+		int kind = random.nextInt(depth > 2 ? 6 : 8);
+		if (kind == 6) {
+			return randomObject(random, depth, equals);
+		}
+		if (kind == 7) {
+			StringBuilder sb = new StringBuilder("[");
+			int count = random.nextInt(4);
+			boolean empty = false;
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					//only a ',' can follow an empty element
+					sb.append(!empty && random.nextInt(5) == 0 ? ";" : ",");
+				}
+				//an empty element is null
+				empty = random.nextInt(8) == 0;
+				if (!empty) {
+					sb.append(space(random)).append(randomValue(random, depth + 1, equals)).append(space(random));
+				}
+			}
+			if (count > 0 && random.nextInt(5) == 0) {
+				sb.append(",");
+			}
+			return sb.append("]").toString();
+		}
+		return randomScalar(random, equals);
+	}
+
+	private static String randomScalar(Random random, boolean equals) {
+		switch (random.nextInt(6)) {
+			case 0: {
+				String[] numbers = { "0", "12", "-3", "4.50", "1e3", "-0.5E-2", "0x1F", "+7", "99999999999",
+						"1.2.3", "-", ".5", "2147483648" };
+				return numbers[random.nextInt(numbers.length)];
+			}
+			case 1: {
+				String[] literals = { "true", "false", "null", "TRUE", "Null", "'true'", "\"false\"", "'null'" };
+				return literals[random.nextInt(literals.length)];
+			}
+			case 2:
+				return "'" + random.nextInt(100) + "'";
+			case 3:
+				//unquoted text
+				return random.nextBoolean() ? "abc" : "two words";
+			default: {
+				String value = randomString(random);
+				if (!equals) {
+					value = value.replace('=', '-');
+				}
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * A quoted string with escapes.
+	 */
+	private static String randomString(Random random) {
+		String[] parts = { "a", "B c", "\\\"", "\\\\", "\\/", "\\n", "\\t", "\\b", "\\f", "\\r", "\\u0041",
+				"\\u00e9", "'", "=", "x=1&y=2", "{", "]", ",", ":", "#" };
+		boolean single = random.nextBoolean();
+		StringBuilder sb = new StringBuilder(single ? "'" : "\"");
+		int count = random.nextInt(5);
+		for (int i = 0; i < count; i++) {
+			String part = parts[random.nextInt(parts.length)];
+			if (single && part.equals("'")) {
+				part = "\\'";
+			}
+			sb.append(part);
+		}
+		if (!single && random.nextInt(4) == 0) {
+			sb.append("'");
+		}
+		return sb.append(single ? "'" : "\"").toString();
+	}
+
+	private static String randomName(Random random) {
+		String[] names = { "aa", "bb", "cc", "dd", "ee", "name", "value", "modifiers", "T", "X" };
+		return names[random.nextInt(names.length)];
+	}
+
+	private static String quoteName(Random random, String name) {
+		switch (random.nextInt(3)) {
+			case 0:
+				return name;
+			case 1:
+				return "'" + name + "'";
+			default:
+				return "\"" + name + "\"";
+		}
+	}
+
+	private static String separator(Random random, boolean equals) {
+		int kind = random.nextInt(equals ? 6 : 4);
+		if (kind == 4) {
+			return "=";
+		}
+		if (kind == 5) {
+			return "=>";
+		}
+		return space(random) + ":" + space(random);
+	}
+
+	private static String space(Random random) {
+		String[] spaces = { "", "", "", " ", "\t", "\n", "  \r\n " };
+		return spaces[random.nextInt(spaces.length)];
+	}
+
+	private static String join(Random random, List<String> members) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < members.size(); i++) {
+			if (i > 0) {
+				sb.append(random.nextInt(5) == 0 ? ";" : ",");
+			}
+			sb.append(space(random)).append(members.get(i)).append(space(random));
+		}
+		if (!members.isEmpty() && random.nextInt(5) == 0) {
+			sb.append(",");
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Deletes, inserts or swaps a character.  '=' is left out, unquoted
+	 * values may contain it in JSONReader but not in JSONObject.
+	 */
+	private static String mutate(Random random, String document) {
+		String inserted = "{}[],:;\"'\\ 0aen.-";
+		int pos = random.nextInt(document.length() + 1);
+		char c = inserted.charAt(random.nextInt(inserted.length()));
+		switch (random.nextInt(3)) {
+			case 0:
+				if (pos < document.length()) {
+					return document.substring(0, pos) + document.substring(pos + 1);
+				}
+				return document;
+			case 1:
+				return document.substring(0, pos) + c + document.substring(pos);
+			default:
+				if (pos < document.length()) {
+					return document.substring(0, pos) + c + document.substring(pos + 1);
+				}
+				return document + c;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package test.sec.web.renderer;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import sec.web.renderer.MultiPointEditSession;
+import sec.web.renderer.MultiPointHandler;
+import sec.web.renderer.SECRenderer;
+
+/**
+ * Moves control points through a MultiPointEditSession and checks every
+ * result against a full RenderSymbol2D of the same points, for graphics
+ * that take the patched path and ones that are re-rendered.
+ */
+public class MultiPointEditSessionTest {
+
+	private static final String BBOX = "65.5,29.5,67.0,31.0";
+
+	private static final int WIDTH = 1024;
+
+	private static final int HEIGHT = 768;
+
+	private static final String CONTROL_POINTS = "66.0,30.0 66.1,30.2 66.2,30.1 66.3,30.3 66.4,30.2 66.5,30.4 66.6,30.3";
+
+	private static final String MODIFIERS = "{\"modifiers\":{\"T\":\"PL BLUE\",\"lineColor\":\"ff0000ff\"}}";
+
+	/**
+	 * phase line and LOA are patched, boundary and axis of advance are
+	 * always re-rendered.
+	 */
+	private static final String[] SYMBOL_CODES = {
+		"GFGPGLP----K---", "GFGPOLL-------X", "GFGPGLB----K---", "GFGPOLAGM-----X"
+	};
+
+	private static final int[] FORMATS = { 0, 1, 2 };
+
+	@BeforeClass
+	public static void init() {
+		SECRenderer.getInstance();
+	}
+
+	@Test
+	public void testMovesMatchFullRender() {
+		for (String symbolCode : SYMBOL_CODES) {
+			for (int format : FORMATS) {
+				Random random = new Random(symbolCode.hashCode() + format);
+				MultiPointEditSession session = createSession(symbolCode, CONTROL_POINTS, format);
+				assertEquals(render(symbolCode, CONTROL_POINTS, format), session.render());
+
+				for (int move = 0; move < 30; move++) {
+					int index = random.nextInt(7);
+					//mostly inside the bbox, some outside so the patch is skipped
+					double longitude = 65.3 + random.nextDouble() * 1.9;
+					double latitude = 29.3 + random.nextDouble() * 1.9;
+
+					String edited = session.moveControlPoint(index, longitude, latitude);
+					String controlPoints = session.getControlPoints();
+					assertEquals(symbolCode + " format " + format + " move " + move,
+							render(symbolCode, controlPoints, format), edited);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBadIndex() {
+		MultiPointEditSession session = createSession(SYMBOL_CODES[0], CONTROL_POINTS, 1);
+		String rendered = session.render();
+
+		int[] indexes = { -1, 7, 100 };
+		for (int index : indexes) {
+			try {
+				session.moveControlPoint(index, 66.0, 30.0);
+				fail("index " + index + " was accepted");
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+
+		//the failed moves leave the session as it was
+		assertEquals(CONTROL_POINTS, session.getControlPoints());
+		String moved = session.moveControlPoint(3, 66.35, 30.25);
+		assertEquals(render(SYMBOL_CODES[0], session.getControlPoints(), 1), moved);
+		assertFalse(rendered.equals(moved));
+	}
+
+	private static MultiPointEditSession createSession(String symbolCode, String controlPoints, int format) {
+		return new MultiPointEditSession("id", "name", "description", symbolCode, controlPoints,
+				WIDTH, HEIGHT, BBOX, MODIFIERS, format, 1);
+	}
+
+	private static String render(String symbolCode, String controlPoints, int format) {
+		return MultiPointHandler.RenderSymbol2D("id", "name", "description", symbolCode, controlPoints,
+				WIDTH, HEIGHT, BBOX, MODIFIERS, format, 1);
+	}
+}
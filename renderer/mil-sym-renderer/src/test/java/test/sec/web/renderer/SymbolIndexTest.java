@@ -0,0 +1,196 @@
+package test.sec.web.renderer;
+
+import static org.junit.Assert.*;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ArmyC2.C2SD.Rendering.SymbolIndex;
+
+/**
+ * Runs random inserts, removes, updates and queries against a SymbolIndex
+ * and checks every answer against a linear scan of the same items.
+ */
+public class SymbolIndexTest {
+
+	private static final int OPERATIONS = 20000;
+
+	private static final double EXTENT = 1000;
+
+	@Test
+	public void testRandomEdits() {
+		for (long seed = 1; seed <= 4; seed++) {
+			Random random = new Random(seed);
+			SymbolIndex<Item> index = new SymbolIndex<Item>();
+			ArrayList<Item> items = new ArrayList<Item>();
+			int added = 0;
+
+			for (int op = 0; op < OPERATIONS; op++) {
+				int choice = random.nextInt(10);
+				if (choice < 4 || items.isEmpty()) {
+					Item item = new Item(added++, randomBounds(random));
+					assertTrue(index.insert(item, item.bounds));
+					assertFalse(index.insert(item, item.bounds));
+					items.add(item);
+				} else if (choice < 6) {
+					Item item = items.remove(random.nextInt(items.size()));
+					assertTrue(index.remove(item));
+					assertFalse(index.remove(item));
+					assertFalse(index.contains(item));
+				} else if (choice < 7) {
+					Item item = items.get(random.nextInt(items.size()));
+					item.bounds = randomBounds(random);
+					assertTrue(index.update(item, item.bounds));
+				} else if (choice < 9) {
+					checkIntersect(index, items, randomBounds(random));
+				} else {
+					checkNearest(index, items, randomPoint(random));
+				}
+				assertEquals(items.size(), index.size());
+			}
+
+			for (int i = 0; i < 50; i++) {
+				checkIntersect(index, items, randomBounds(random));
+				checkNearest(index, items, randomPoint(random));
+			}
+		}
+	}
+
+	@Test
+	public void testPacked() {
+		Random random = new Random(7);
+		ArrayList<Item> items = new ArrayList<Item>();
+		ArrayList<Rectangle2D> bounds = new ArrayList<Rectangle2D>();
+		for (int i = 0; i < 5000; i++) {
+			Item item = new Item(i, randomBounds(random));
+			items.add(item);
+			bounds.add(item.bounds);
+		}
+		SymbolIndex<Item> index = new SymbolIndex<Item>(items, bounds);
+		assertEquals(items.size(), index.size());
+
+		for (int i = 0; i < 500; i++) {
+			checkIntersect(index, items, randomBounds(random));
+			checkNearest(index, items, randomPoint(random));
+		}
+
+		//the packed tree has to keep working once it's edited
+		for (int i = 0; i < 2000; i++) {
+			Item item = items.remove(random.nextInt(items.size()));
+			assertTrue(index.remove(item));
+		}
+		for (int i = 0; i < 500; i++) {
+			checkIntersect(index, items, randomBounds(random));
+			checkNearest(index, items, randomPoint(random));
+		}
+	}
+
+	@Test
+	public void testEmpty() {
+		SymbolIndex<Item> index = new SymbolIndex<Item>();
+		assertTrue(index.intersect(new Rectangle2D.Double(0, 0, EXTENT, EXTENT)).isEmpty());
+		assertNull(index.nearest(new Point2D.Double(0, 0)));
+		assertFalse(index.insert(new Item(0, null), null));
+
+		Item item = new Item(0, new Rectangle2D.Double(0, 0, 1, 1));
+		assertTrue(index.insert(item, item.bounds));
+		assertFalse(index.update(item, null));
+		assertEquals(0, index.size());
+		assertNull(index.nearest(new Point2D.Double(0, 0)));
+	}
+
+	/**
+	 * The index returns the items in the order they were added, so the
+	 * linear scan over the list in insert order has to match exactly.
+	 */
+	private static void checkIntersect(SymbolIndex<Item> index, List<Item> items, Rectangle2D area) {
+		ArrayList<Item> expected = new ArrayList<Item>();
+		for (Item item : items) {
+			if (touches(item.bounds, area))
+				expected.add(item);
+		}
+		List<Item> found = index.intersect(area);
+		assertEquals(expected.size(), found.size());
+		for (int i = 0; i < expected.size(); i++)
+			assertSame(expected.get(i), found.get(i));
+	}
+
+	/**
+	 * Ties are common when the point is inside several boxes, so compare
+	 * distances rather than which item came back.
+	 */
+	private static void checkNearest(SymbolIndex<Item> index, List<Item> items, Point2D point) {
+		Item nearest = index.nearest(point);
+		if (items.isEmpty()) {
+			assertNull(nearest);
+			return;
+		}
+		assertNotNull(nearest);
+		assertTrue(items.contains(nearest));
+
+		double best = Double.MAX_VALUE;
+		for (Item item : items)
+			best = Math.min(best, distanceSq(item.bounds, point));
+		assertEquals(best, distanceSq(nearest.bounds, point), 1e-9);
+	}
+
+	private static boolean touches(Rectangle2D a, Rectangle2D b) {
+		return a.getMinX() <= b.getMaxX() && a.getMaxX() >= b.getMinX()
+				&& a.getMinY() <= b.getMaxY() && a.getMaxY() >= b.getMinY();
+	}
+
+	private static double distanceSq(Rectangle2D bounds, Point2D point) {
+		double dx = Math.max(Math.max(bounds.getMinX() - point.getX(), 0), point.getX() - bounds.getMaxX());
+		double dy = Math.max(Math.max(bounds.getMinY() - point.getY(), 0), point.getY() - bounds.getMaxY());
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Mostly small boxes like point symbols with some long ones like lines,
+	 * and a few zero size ones.
+	 */
+	private static Rectangle2D randomBounds(Random random) {
+		double x = random.nextDouble() * EXTENT;
+		double y = random.nextDouble() * EXTENT;
+		int kind = random.nextInt(10);
+		double w, h;
+		if (kind == 0) {
+			w = 0;
+			h = 0;
+		} else if (kind < 3) {
+			w = random.nextDouble() * EXTENT / 2;
+			h = random.nextDouble() * EXTENT / 2;
+		} else {
+			w = random.nextDouble() * 40;
+			h = random.nextDouble() * 40;
+		}
+		return new Rectangle2D.Double(x, y, w, h);
+	}
+
+	private static Point2D randomPoint(Random random) {
+		return new Point2D.Double(random.nextDouble() * EXTENT * 1.2 - EXTENT * 0.1,
+				random.nextDouble() * EXTENT * 1.2 - EXTENT * 0.1);
+	}
+
+	private static class Item {
+
+		private final int id;
+
+		private Rectangle2D bounds;
+
+		private Item(int id, Rectangle2D bounds) {
+			this.id = id;
+			this.bounds = bounds;
+		}
+
+		@Override
+		public String toString() {
+			return "item " + id;
+		}
+	}
+}
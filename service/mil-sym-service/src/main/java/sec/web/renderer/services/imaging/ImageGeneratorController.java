@@ -1,6 +1,7 @@
 package sec.web.renderer.services.imaging;
 
 import ArmyC2.C2SD.Utilities.MilStdAttributes;
+import ArmyC2.C2SD.Utilities.RendererProfile;
 import ArmyC2.C2SD.Utilities.RendererSettings;
 import ArmyC2.C2SD.Utilities.SymbolUtilities;
 import java.awt.Color;
@@ -9,12 +10,16 @@ import java.awt.geom.Dimension2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.zip.GZIPInputStream;
@@ -33,12 +38,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
 import sec.web.json.utilities.JSONArray;
-import sec.web.json.utilities.JSONObject;
+import sec.web.json.utilities.JSONReader;
+import sec.web.renderer.MultiPointBatchRenderer;
+import sec.web.renderer.MultiPointTileRenderer;
 import sec.web.renderer.SECRenderer;
 import sec.web.renderer.SECWebRenderer;
 import sec.web.renderer.model.RenderingDataEnums;
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import sec.web.renderer.utilities.PNGInfo;
+import sec.web.renderer.utilities.SinglePointImageCache;
 import sec.web.renderer.utils.ImagingUtils;
 import sec.web.renderer.utils.MultiPointUtils;
 import sec.web.renderer.utils.ResourceUtils;
@@ -79,6 +87,68 @@ public class ImageGeneratorController {
                     System.out.println("operationalConditionModifierType:  " + operationalConditionModifierType);
                     RendererSettings.getInstance().setOperationalConditionModifierType(Integer.parseInt(operationalConditionModifierType));
                     
+                    //renderer settings profiles////////////////////////////////
+                    String profileNames = props.getProperty("rendererProfiles");
+                    System.out.println("rendererProfiles:  " + profileNames);
+                    if(profileNames != null && profileNames.trim().equals("") == false)
+                    {
+                        for(String profileName : profileNames.split(","))
+                        {
+                            if(profileName.trim().equals("") == false)
+                                RendererSettings.getInstance().registerProfile(loadRendererProfile(props, profileName.trim()));
+                        }
+                    }
+                    
+                    //png compression///////////////////////////////////////////
+                    String pngCompressionLevel = props.getProperty("pngCompressionLevel");
+                    System.out.println("pngCompressionLevel:  " + pngCompressionLevel);
+                    if(pngCompressionLevel != null && SymbolUtilities.isNumber(pngCompressionLevel))
+                    {
+                        RendererSettings.getInstance().setPNGCompressionLevel(Integer.parseInt(pngCompressionLevel));
+                    }
+                    
+                    //single point image cache//////////////////////////////////
+                    String cacheEntries = props.getProperty("singlePointCacheEntries");
+                    System.out.println("singlePointCacheEntries:  " + cacheEntries);
+                    if(cacheEntries != null && SymbolUtilities.isNumber(cacheEntries))
+                    {
+                        SinglePointImageCache.getInstance().setMaxEntries(Integer.parseInt(cacheEntries));
+                    }
+                    String cacheBytes = props.getProperty("singlePointCacheBytes");
+                    System.out.println("singlePointCacheBytes:  " + cacheBytes);
+                    if(cacheBytes != null && SymbolUtilities.isNumber(cacheBytes))
+                    {
+                        SinglePointImageCache.getInstance().setMaxBytes(Long.parseLong(cacheBytes));
+                    }
+                    String cacheEnabled = props.getProperty("singlePointCacheEnabled");
+                    if(cacheEnabled != null)
+                    {
+                        SinglePointImageCache.getInstance().setEnabled(Boolean.parseBoolean(cacheEnabled));
+                    }
+                    
+                    //tactical graphic glyph warm up////////////////////////////
+                    String glyphWarmSizes = props.getProperty("singlePointGlyphWarmSizes");
+                    System.out.println("singlePointGlyphWarmSizes:  " + glyphWarmSizes);
+                    if(glyphWarmSizes != null && glyphWarmSizes.trim().equals("") == false)
+                    {
+                        String[] sizes = glyphWarmSizes.split(",");
+                        int[] pixelSizes = new int[sizes.length];
+                        for(int i = 0; i < sizes.length; i++)
+                        {
+                            if(SymbolUtilities.isNumber(sizes[i].trim()))
+                                pixelSizes[i] = Integer.parseInt(sizes[i].trim());
+                        }
+                        SECRenderer.getInstance().warmSinglePointGlyphCache(pixelSizes);
+                    }
+                    
+                    //multipoint batch threads//////////////////////////////////
+                    String batchParallelism = props.getProperty("multiPointBatchParallelism");
+                    System.out.println("multiPointBatchParallelism:  " + batchParallelism);
+                    if(batchParallelism != null && SymbolUtilities.isNumber(batchParallelism) && Integer.parseInt(batchParallelism) > 0)
+                    {
+                        MultiPointBatchRenderer.getInstance().setParallelism(Integer.parseInt(batchParallelism));
+                    }
+                    
                     SECRenderer.getInstance().printManifestInfo();
                     
 		} catch (Exception exc1) {
@@ -93,16 +163,59 @@ public class ImageGeneratorController {
 		}
 	}
 
+        /**
+         * Builds a profile from the "profile.[name].*" properties, starting
+         * from the settings already set from this file.
+         */
+        private RendererProfile loadRendererProfile(Properties props, String name)
+        {
+            RendererProfile.Builder builder = new RendererProfile.Builder(name, RendererSettings.getInstance().getDefaultProfile());
+            String prefix = "profile." + name + ".";
+            String value = null;
+
+            value = props.getProperty(prefix + "symStd");
+            if(value != null && SymbolUtilities.isNumber(value))
+                builder.setSymbologyStandard(Integer.parseInt(value));
+            value = props.getProperty(prefix + "textBackgroundMethod");
+            if(value != null && SymbolUtilities.isNumber(value))
+                builder.setTextBackgroundMethod(Integer.parseInt(value));
+            value = props.getProperty(prefix + "textOutlineWidth");
+            if(value != null && SymbolUtilities.isNumber(value))
+                builder.setTextOutlineWidth(Integer.parseInt(value));
+            value = props.getProperty(prefix + "autoCollapseModifiers");
+            if(value != null)
+                builder.setAutoCollapseModifiers(Boolean.parseBoolean(value));
+            value = props.getProperty(prefix + "operationalConditionModifierType");
+            if(value != null && SymbolUtilities.isNumber(value))
+                builder.setOperationalConditionModifierType(Integer.parseInt(value));
+            value = props.getProperty(prefix + "deviceDPI");
+            if(value != null && SymbolUtilities.isNumber(value))
+                builder.setDeviceDPI(Integer.parseInt(value));
+            //fonts are "name,style,size" like "arial,1,12"
+            value = props.getProperty(prefix + "labelFont");
+            if(value != null && value.split(",").length == 3)
+            {
+                String[] font = value.split(",");
+                builder.setLabelFont(font[0].trim(), Integer.parseInt(font[1].trim()), Integer.parseInt(font[2].trim()));
+            }
+            value = props.getProperty(prefix + "mpLabelFont");
+            if(value != null && value.split(",").length == 3)
+            {
+                String[] font = value.split(",");
+                builder.setMPLabelFont(font[0].trim(), Integer.parseInt(font[1].trim()), Integer.parseInt(font[2].trim()), 1.0f);
+            }
+
+            return builder.build();
+        }
+
 	@RequestMapping(value = "/{type}/{symbolId}", method = RequestMethod.GET, produces = "image/png", headers = "Accept=text/html,image/png")
 	@ResponseBody
 	public void getContent(@Context HttpServletRequest request, @Context HttpServletResponse response, @PathVariable("type") String type, @PathVariable("symbolId") String symbolId) throws Exception {
 		byte[] png = null;
-                PNGInfo pi = null;
 		String kml = null;
                 String svg = null;
                 String svgz = null;
                 int svgDrawMode = 0;
-                Boolean isIcon = false;
                 Map<String, String> params = null;
 		switch (RenderingDataEnums.fromString(type)) {
 		case IMAGE:
@@ -119,67 +232,26 @@ public class ImageGeneratorController {
 			break;
                     
                 case SVG:
-                        response.setContentType("image/svg+xml");
-			// response.setHeader("Content-Type", "image/png");
-                        params = ImagingUtils.getURLParameters(request);
-                        
-                        if(params.containsKey("ICON") && 
-                                (Boolean.parseBoolean(params.get("ICON")) == true))
-                        {
-                            //svgDrawMode = 0;
-                            params = JavaRendererUtilities.parseIconParameters(symbolId, params);
-                            symbolId = JavaRendererUtilities.sanitizeSymbolID(symbolId);
-                            isIcon = true;
-                        }
-                        
-                        pi = ImagingUtils.getMilStd2525Png(symbolId, params);
-                        
-                        if(isIcon)
-                            pi = pi.squareImage();
-                        else
-                        {
-                            if(params.containsKey("CENTER") && 
-                                    (Boolean.parseBoolean(params.get("CENTER")) == true))
-                            {
-                                svgDrawMode = 1;
-                            }
-                            else if(params.containsKey("SQUARE") && 
-                                    (Boolean.parseBoolean(params.get("SQUARE")) == true))
-                            {
-                                svgDrawMode = 2;
-                            }
-                        }
-                        
-                        svg = pi.toSVG(svgDrawMode);
-			break;
                 case SVGZ:
                         response.setContentType("image/svg+xml");
-			// response.setHeader("Content-Type", "image/png");
                         params = ImagingUtils.getURLParameters(request);
                         
-                         
-			pi = ImagingUtils.getMilStd2525Png(symbolId, params);
-                        
-                        if(params.containsKey("ICON") && 
-                                (Boolean.parseBoolean(params.get("ICON")) == true))
-                        {
-                            //svgDrawMode = 0;
-                            params = JavaRendererUtilities.parseIconParameters(symbolId, params);
-                            pi = pi.squareImage();
-                        }
-                        
                         if(params.containsKey("CENTER") && 
                                 (Boolean.parseBoolean(params.get("CENTER")) == true))
                         {
                             svgDrawMode = 1;
                         }
-                        else if(params.containsKey("SQAURE") && 
-                                (Boolean.parseBoolean(params.get("SQAURE")) == true))
+                        else if(params.containsKey("SQUARE") && 
+                                (Boolean.parseBoolean(params.get("SQUARE")) == true))
                         {
                             svgDrawMode = 2;
                         }
                         
-                        svgz = pi.toSVG(svgDrawMode);//*/
+                        //ICON is handled in getMilStd2525SVG
+                        if (RenderingDataEnums.fromString(type) == RenderingDataEnums.SVG)
+                            svg = ImagingUtils.getMilStd2525SVG(symbolId, params, svgDrawMode);
+                        else
+                            svgz = ImagingUtils.getMilStd2525SVG(symbolId, params, svgDrawMode);
 			break;
 
 		default:
@@ -243,21 +315,20 @@ public class ImageGeneratorController {
 	@RequestMapping(value = "/{type}/{symbolId}", method = RequestMethod.POST, headers = "Accept=text/html,text/plain,application/xml,application/json")
 	@ResponseBody
 	public void getMultiPointGraphic(@Context HttpServletRequest request, @Context HttpServletResponse response, @PathVariable("type") String type, @PathVariable("symbolId") String symbolId) throws Exception {
-		String kml = null;
-
 		try {
-			switch (RenderingDataEnums.fromString(type)) {
+			RenderingDataEnums renderType = RenderingDataEnums.fromString(type);
+			if (renderType != RenderingDataEnums.MP3D && renderType != RenderingDataEnums.MP2D)
+				return;
 
-			case MP3D:
-				kml = MultiPointUtils.RenderSymbol(symbolId,
-						ImagingUtils.getURLParameters(request));
-				break;
-			case MP2D:
-				kml = MultiPointUtils.RenderSymbol2D(symbolId,
-						ImagingUtils.getURLParameters(request));
-				break;
-			default:
-				break;
+			Map<String, String> params = ImagingUtils.getURLParameters(request);
+
+			//the content type has to be set before anything is written, so
+			//it comes from the format rather than the first character
+			String format = params.get("FORMAT");
+			if (format == null || format.equals("0")) {
+				response.setContentType("application/xml; charset=utf-8");
+			} else {
+				response.setContentType("application/json; charset=utf-8");
 			}
 
 			boolean gzip = false;
@@ -265,72 +336,22 @@ public class ImageGeneratorController {
 
 			if (acceptEncoding != null && acceptEncoding.contains("gzip"))
 				gzip = true;
-                        
-                        //gzip = false;
-			if (gzip == true) 
-                        {
-                            int gzipMethod = 1;//0 string, 1 byte array
-                            //0 method doesn't work with special characters
-                            if(gzipMethod == 0)//gzip string
-                            {
-                                if (kml.startsWith("<")) {
-                                        response.setContentType("application/xml");
-                                } else if (kml.startsWith("{")) {
-                                        response.setContentType("application/json");
-                                }
-                                kml = compress(kml);
-                                response.setHeader("Content-Length",Integer.toString(kml.length()));
-                                response.setHeader("Content-Encoding", "gzip");
-                                PrintWriter out = response.getWriter();
-                                out.print(kml);
-                                out.close();//*/
-                            }
-                            else//gzip byte array
-                            {
-                                if (kml.startsWith("<")) 
-                                {
-                                    //response.setContentType("application/xml");
-                                    response.setContentType("application/xml; charset=utf-8");
-                                } 
-                                else if (kml.startsWith("{")) 
-                                {
-                                    //response.setContentType("application/json");
-                                    response.setContentType("application/json; charset=utf-8");
-                                }
-                                //response.setHeader("Content-Length",Integer.toString(kml.length()));
-                                response.setHeader("Content-Encoding", "gzip");//*/
-
-                                ServletOutputStream sos = response.getOutputStream();
-                                compressBinary(kml, sos);
-                            }
+
+			//the KML or JSON is written straight to the response rather than
+			//built as one String first
+			OutputStream os = response.getOutputStream();
+			if (gzip == true) {
+				response.setHeader("Content-Encoding", "gzip");
+				os = new GZIPOutputStream(os);
 			}
-                        else 
-                        {
-                            //plain string//////////////////////////////////////
-                            /*if (kml.startsWith("<")) 
-                            {
-				response.setContentType("application/xml; charset=utf-8");
-                            } else if (kml.startsWith("{")) 
-                            {
-                                response.setContentType("application/json; charset=utf-8");
-                            }
-                            PrintWriter out = response.getWriter();
-                            out.print(kml);
-                            out.close();//*/
-                            
-                            //byte array////////////////////////////////////////
-                            if (kml.startsWith("<")) 
-                            {
-				response.setContentType("application/xml; charset=utf-8");
-                            } else if (kml.startsWith("{")) 
-                            {
-                                response.setContentType("application/json; charset=utf-8");
-                            }
-                            ServletOutputStream sos = response.getOutputStream();
-                            sos.write(kml.getBytes("UTF-8"));
-                            sos.flush();
-                            sos.close();
-                        }
+
+			Writer writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+			if (renderType == RenderingDataEnums.MP3D) {
+				MultiPointUtils.RenderSymbol(symbolId, params, writer);
+			} else {
+				MultiPointUtils.RenderSymbol2D(symbolId, params, writer);
+			}
+			writer.close();
 
 		} catch (Exception exc) {
 			System.err.println(exc.getMessage());
@@ -347,6 +368,12 @@ public class ImageGeneratorController {
 		try {
 			switch (RenderingDataEnums.fromString(type)) {
 
+			case MP3DBATCH:
+				getMultiPointBatch(request, response, false);
+				return;
+			case MP2DBATCH:
+				getMultiPointBatch(request, response, true);
+				return;
 			case SPBI:
 				params = ImagingUtils.getURLParameters(request);
 				if (params != null && params.containsKey("ICONURLS")) {
@@ -385,6 +412,133 @@ public class ImageGeneratorController {
 		}
 	}
 
+        /**
+         * Renders a JSON array of multipoint symbols and streams back a JSON
+         * array of results, see MultiPointBatchRenderer for the formats.
+         * The batch is the request body or the "batch" parameter.
+         * @param request
+         * @param response
+         * @param for2D
+         * @throws Exception 
+         */
+        private void getMultiPointBatch(HttpServletRequest request, HttpServletResponse response, boolean for2D) throws Exception {
+            String batch = null;
+            Map<String, String> params = ImagingUtils.getURLParameters(request);
+            if (params != null && params.containsKey("BATCH")) {
+                batch = params.get("BATCH");
+            } else {
+                StringBuilder sb = new StringBuilder();
+                BufferedReader br = request.getReader();
+                char[] buffer = new char[8192];
+                int read = 0;
+                while ((read = br.read(buffer)) > 0) {
+                    sb.append(buffer, 0, read);
+                }
+                batch = sb.toString();
+            }
+
+            List<MultiPointBatchRenderer.BatchItem> items = null;
+            try {
+                items = MultiPointBatchRenderer.getInstance().ReadBatch(batch);
+            } catch (Exception exc) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "batch must be a JSON array");
+                return;
+            }
+
+            response.setContentType("application/json; charset=utf-8");
+
+            boolean gzip = false;
+            String acceptEncoding = request.getHeader("Accept-Encoding");
+            if (acceptEncoding != null && acceptEncoding.contains("gzip"))
+                gzip = true;
+
+            OutputStream os = response.getOutputStream();
+            if (gzip == true) {
+                response.setHeader("Content-Encoding", "gzip");
+                os = new GZIPOutputStream(os);
+            }
+
+            Writer writer = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+            MultiPointBatchRenderer.getInstance().RenderBatch(items, for2D, writer);
+            writer.close();
+        }
+
+        /**
+         * Multipoint tile, see MultiPointTileRenderer.  Sends 304 when the
+         * If-None-Match ETag still matches.
+         */
+	@RequestMapping(value = "/mptile/{z}/{x}/{y:.+}", method = RequestMethod.GET)
+	public void getMultiPointTile(@Context HttpServletRequest request, @Context HttpServletResponse response,
+                @PathVariable("z") int z, @PathVariable("x") int x, @PathVariable("y") String y) throws Exception {
+            if (y.endsWith(".png"))
+                y = y.substring(0, y.length() - 4);
+
+            MultiPointTileRenderer.Tile tile = null;
+            try {
+                tile = MultiPointTileRenderer.getInstance().RenderTile(z, x, Integer.parseInt(y));
+            } catch (IllegalArgumentException exc) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, exc.getMessage());
+                return;
+            }
+            if (tile.getPNG() == null) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+
+            response.setHeader("ETag", tile.getETag());
+            if (tile.getETag().equals(request.getHeader("If-None-Match"))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            response.setContentType("image/png");
+            response.setContentLength(tile.getPNG().length);
+            OutputStream os = response.getOutputStream();
+            os.write(tile.getPNG());
+            os.close();
+        }
+
+        /**
+         * Loads a JSON array of graphics for the tiles, the body is the
+         * array, returns how many loaded and why the others didn't.
+         */
+	@RequestMapping(value = "/mptile", method = RequestMethod.POST)
+	public void loadMultiPointTileGraphics(@Context HttpServletRequest request, @Context HttpServletResponse response) throws Exception {
+            StringBuilder sb = new StringBuilder();
+            BufferedReader br = request.getReader();
+            char[] buffer = new char[8192];
+            int read = 0;
+            while ((read = br.read(buffer)) > 0) {
+                sb.append(buffer, 0, read);
+            }
+
+            JSONArray items = null;
+            try {
+                items = new JSONArray(sb.toString());
+            } catch (Exception exc) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "body must be a JSON array");
+                return;
+            }
+
+            response.setContentType("application/json; charset=utf-8");
+            PrintWriter out = response.getWriter();
+            out.print(MultiPointTileRenderer.getInstance().LoadGraphics(items));
+            out.close();
+        }
+
+	@RequestMapping(value = "/mptile/{id}", method = RequestMethod.DELETE)
+	public void removeMultiPointTileGraphic(@Context HttpServletResponse response, @PathVariable("id") String id) throws Exception {
+            if (MultiPointTileRenderer.getInstance().RemoveGraphic(id))
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            else
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+
+	@RequestMapping(value = "/mptile", method = RequestMethod.DELETE)
+	public void clearMultiPointTileGraphics(@Context HttpServletResponse response) throws Exception {
+            MultiPointTileRenderer.getInstance().ClearGraphics();
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        }
+
         /**
          * Compress a regular string into a GZIP compressed string.
          * @param str
@@ -409,32 +563,6 @@ public class ImageGeneratorController {
             return outStr;
 	}
         
-        /**
-         * Compress a string into a byte array
-         * @param str
-         * @param os 
-         */
-        private void compressBinary(String str, OutputStream os) {
-            
-            try 
-            {
-                if (str == null || str.length() == 0) 
-                {
-                    os.close();
-                    return;
-                }
-                GZIPOutputStream gzip = new GZIPOutputStream(os);//out
-                gzip.write(str.getBytes("UTF-8"));//UTF-8
-                gzip.flush();
-                gzip.close();
-            } 
-            catch (Exception exc) 
-            {
-
-            }
-            //return outStr;
-	}
-        
         /**
          * Decompress a gzip copmressed string into a regular string.
          * @param str
@@ -488,37 +616,40 @@ public class ImageGeneratorController {
 		Point2D anchor = new Point2D.Double();
 		Rectangle2D symbolBounds = new Rectangle2D.Double();
 		Dimension2D iconSize = new Dimension();
-		JSONObject symbolInfo = null;
 		StringBuilder sb = new StringBuilder();
 		try {
-
-			// must escape '=' so that JSONObject can parse string
-			batch = batch.replaceAll("=", "%3D");
-
-			String data = null;
-			JSONObject jsonSPString = new JSONObject(batch);
-			JSONArray jsa = jsonSPString.getJSONArray("iconURLs");
-			int len = jsa.length();
+			// JSONReader takes the '=' in the urls as is, no escaping needed
+			JSONReader reader = new JSONReader(batch);
 			sb.append("{\"singlepoints\":[");
-			String item = null;
-			
-			for (int i = 0; i < len; i++) {
-				if (i > 0) {
-					sb.append(",");
-				}
-
-				info = jsa.get(i).toString();
-				info = info.replaceAll("%3D", "=");
+			boolean first = true;
 
-				anchor = new Point2D.Double();
-				symbolBounds = new Rectangle2D.Double();
-				// System.out.println("url: " + info);
-				PNGInfo pngInfo = SECRenderer.getInstance().getSymbolImageFromURL(info);
-
-				iconSize = new Dimension(pngInfo.getImage().getWidth(), pngInfo.getImage().getHeight());
-				item = SECWebRenderer.SymbolDimensionsToJSON(pngInfo.getCenterPoint(), pngInfo.getSymbolBounds(), iconSize);
-				sb.append(item);
+			reader.beginObject();
+			while (reader.hasNext()) {
+				if (!reader.nextName().equals("iconURLs")) {
+					reader.skipValue();
+					continue;
+				}
+				reader.beginArray();
+				while (reader.hasNext()) {
+					if (!first) {
+						sb.append(",");
+					}
+					first = false;
+
+					//an item that isn't a string is used as its JSON text
+					info = reader.nextValue().toString();
+
+					anchor = new Point2D.Double();
+					symbolBounds = new Rectangle2D.Double();
+					// System.out.println("url: " + info);
+					SinglePointImageCache.Entry spInfo = SECRenderer.getInstance().getSymbolInfoFromURL(info);
+
+					iconSize = new Dimension(spInfo.getImageWidth(), spInfo.getImageHeight());
+					sb.append(SECWebRenderer.SymbolDimensionsToJSON(spInfo.getCenterPoint(), spInfo.getSymbolBounds(), iconSize));
+				}
+				reader.endArray();
 			}
+			reader.endObject();
 
 		} catch (Exception exc) {
 			System.out.println(exc.getMessage());
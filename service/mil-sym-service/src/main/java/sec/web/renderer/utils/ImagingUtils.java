@@ -17,6 +17,7 @@ import javax.servlet.http.HttpServletRequest;
 import sec.web.renderer.SECRenderer;
 import sec.web.renderer.utilities.JavaRendererUtilities;
 import sec.web.renderer.utilities.PNGInfo;
+import sec.web.renderer.utilities.SinglePointImageCache;
 
 @SuppressWarnings("unused")
 public class ImagingUtils {
@@ -69,6 +70,16 @@ public class ImagingUtils {
 
 	public static byte[] getMilStd2525PngBytes(String symbolId, Map<String, String> symbolInfoMap) {		
 
+            //same symbol and parameters always produce the same png
+            SinglePointImageCache cache = SinglePointImageCache.getInstance();
+            String cacheKey = SinglePointImageCache.createKey(symbolId, symbolInfoMap);
+            SinglePointImageCache.Entry cached = cache.getWithImage(cacheKey);
+            if(cached != null)
+            {
+                return cached.getPngBytes();
+            }
+            long generation = cache.getGeneration();
+            
             Boolean icon = false;
             if(symbolInfoMap.containsKey("ICON"))
             {
@@ -102,6 +113,7 @@ public class ImagingUtils {
             }
             
             PNGInfo pngInfo = getMilStd2525Png(symbolId, symbolInfoMap);
+            PNGInfo renderedInfo = pngInfo;
 
             if(icon)
                 pngInfo = pngInfo.squareImage();
@@ -129,6 +141,11 @@ public class ImagingUtils {
             } else {
                     pngResponse = (pngInfo == null) ? null : pngInfo.getImageAsByteArray();
             }
+            
+            if(pngResponse != null)
+            {
+                cache.put(cacheKey, generation, renderedInfo, pngResponse);
+            }
             return pngResponse;
 	}
         
@@ -162,6 +179,38 @@ public class ImagingUtils {
 	}
     
 
+        /**
+         * Vector SVG for the symbol.  Symbols only the plugin renderers can
+         * draw, like multipoint icons or a requested "renderer", come back as
+         * the old PNG wrapped in SVG.
+         * @param symbolId
+         * @param symbolInfoMap
+         * @param drawMode 0 - normal, 1 - center, 2 - square
+         * @return null if the symbol couldn't be rendered
+         */
+        public static String getMilStd2525SVG(String symbolId, Map<String, String> symbolInfoMap, int drawMode) {
+
+            if(symbolInfoMap.containsKey("ICON") && Boolean.parseBoolean(symbolInfoMap.get("ICON"))==true)
+            {
+                //strip unwanted modifiers
+                symbolInfoMap = JavaRendererUtilities.parseIconParameters(symbolId, symbolInfoMap);
+                symbolId = JavaRendererUtilities.sanitizeSymbolID(symbolId);
+                drawMode = 2;
+            }
+
+            String svg = null;
+            if(symbolInfoMap.containsKey("RENDERER") == false && symbolInfoMap.containsKey("renderer") == false)
+                svg = sr.getMilStdSymbolSVG(symbolId, symbolInfoMap, drawMode);
+
+            if(svg == null)
+            {
+                PNGInfo pngInfo = sr.getSymbolImage(symbolId, symbolInfoMap);
+                if(pngInfo != null)
+                    svg = pngInfo.toSVG(drawMode);
+            }
+            return svg;
+	}
+    
 	/**
 	 * @param symbolInfoMap
 	 * @param pngInfo
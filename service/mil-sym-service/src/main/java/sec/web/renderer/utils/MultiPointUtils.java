@@ -5,9 +5,13 @@
 package sec.web.renderer.utils;
 
 import ArmyC2.C2SD.Utilities.ErrorLogger;
+import ArmyC2.C2SD.Utilities.MilStdAttributes;
 
+import java.io.IOException;
 import java.util.Map;
 
+import sec.web.json.utilities.JSONException;
+import sec.web.json.utilities.JSONObject;
 import sec.web.renderer.SECRenderer;
 
 /**
@@ -17,7 +21,23 @@ import sec.web.renderer.SECRenderer;
 public class MultiPointUtils {
     
 	public static String RenderSymbol(String symbolID, Map<String, String> params) {
-		String returnVal = "";
+		StringBuilder output = new StringBuilder();
+		try {
+			RenderSymbol(symbolID, params, output);
+		} catch (IOException ioe) {
+			// can't happen writing to a StringBuilder
+			ErrorLogger.LogException("MultiPointUtils", "RenderSymbol", ioe);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * Same as RenderSymbol(symbolID, params) but the KML or JSON is written
+	 * straight to output, like a Writer on the response.
+	 * 
+	 * @throws IOException if output throws
+	 */
+	public static void RenderSymbol(String symbolID, Map<String, String> params, Appendable output) throws IOException {
 		String id = "ID";
 		String name = "NAME";
 		String description = "DESCRIPTION";
@@ -47,6 +67,8 @@ public class MultiPointUtils {
 				bbox = params.get("BBOX");
 			if (params.containsKey("MODIFIERS"))
 				modifiers = params.get("MODIFIERS");
+			if (params.containsKey(MilStdAttributes.Profile))
+				modifiers = addProfile(modifiers, params.get(MilStdAttributes.Profile));
 			if (params.containsKey("FORMAT"))
 				format = Integer.parseInt(params.get("FORMAT"));
 			if (params.containsKey("SYMSTD"))
@@ -58,22 +80,39 @@ public class MultiPointUtils {
 				System.out.println(ErrorLogger.PrintStringMap(params));
 			}
 
-			returnVal = SECRenderer.getInstance().RenderMultiPointSymbol(id, name, description, symbolID, controlPoints,
-					altitudeMode, scale, bbox, modifiers, format, symStd);
+			SECRenderer.getInstance().RenderMultiPointSymbol(id, name, description, symbolID, controlPoints,
+					altitudeMode, scale, bbox, modifiers, format, symStd, output);
+		} catch (IOException ioe) {
+			throw ioe;
 		} catch (Exception exc) {
 			System.err.println(exc.getMessage());
 			exc.printStackTrace();
 		}
 		if (debug) {
 			// System.out.println("MultiPointUtils.RenderSymbol() return: ");
-			// System.out.println(returnVal);
+			// System.out.println(output);
 		}
-		return returnVal;
 	}
 
-	@SuppressWarnings("unused")
 	public static String RenderSymbol2D(String symbolID, Map<String, String> params) {
-		String returnVal = "";
+		StringBuilder output = new StringBuilder();
+		try {
+			RenderSymbol2D(symbolID, params, output);
+		} catch (IOException ioe) {
+			// can't happen writing to a StringBuilder
+			ErrorLogger.LogException("MultiPointUtils", "RenderSymbol2D", ioe);
+		}
+		return output.toString();
+	}
+
+	/**
+	 * Same as RenderSymbol2D(symbolID, params) but the KML or JSON is
+	 * written straight to output, like a Writer on the response.
+	 * 
+	 * @throws IOException if output throws
+	 */
+	@SuppressWarnings("unused")
+	public static void RenderSymbol2D(String symbolID, Map<String, String> params, Appendable output) throws IOException {
 		String id = "ID";
 		String name = "NAME";
 		String description = "DESCRIPTION";
@@ -105,6 +144,8 @@ public class MultiPointUtils {
 				bbox = params.get("BBOX");
 			if (params.containsKey("MODIFIERS"))
 				modifiers = params.get("MODIFIERS");
+			if (params.containsKey(MilStdAttributes.Profile))
+				modifiers = addProfile(modifiers, params.get(MilStdAttributes.Profile));
 			if (params.containsKey("FORMAT"))
 				format = Integer.parseInt(params.get("FORMAT"));
 			if (params.containsKey("SYMSTD"))
@@ -116,16 +157,35 @@ public class MultiPointUtils {
 				System.out.println(ErrorLogger.PrintStringMap(params));
 			}
 
-			returnVal = SECRenderer.getInstance().RenderMultiPointSymbol2D(id, name, description, symbolID, controlPoints,
-					pixelWidth, pixelHeight, bbox, modifiers, format, symStd);
+			SECRenderer.getInstance().RenderMultiPointSymbol2D(id, name, description, symbolID, controlPoints,
+					pixelWidth, pixelHeight, bbox, modifiers, format, symStd, output);
+		} catch (IOException ioe) {
+			throw ioe;
 		} catch (Exception exc) {
 			System.err.println(exc.getMessage());
 			exc.printStackTrace();
 		}
 		if (debug) {
 			// System.out.println("MultiPointUtils.RenderSymbol() return: ");
-			// System.out.println(returnVal);
+			// System.out.println(output);
 		}
-		return returnVal;
+	}
+
+	/**
+	 * Copies the profile url parameter into the modifiers json, where the
+	 * multipoint renderer looks for it.  A profile already in the json wins.
+	 */
+	private static String addProfile(String modifiers, String profile) throws JSONException {
+		JSONObject json = null;
+		if (modifiers == null || modifiers.trim().equals(""))
+			json = new JSONObject();
+		else
+			json = new JSONObject(modifiers);
+		JSONObject target = json;
+		if (json.has("modifiers"))
+			target = json.getJSONObject("modifiers");
+		if (target.has(MilStdAttributes.Profile) == false)
+			target.put(MilStdAttributes.Profile, profile);
+		return json.toString();
 	}
 }